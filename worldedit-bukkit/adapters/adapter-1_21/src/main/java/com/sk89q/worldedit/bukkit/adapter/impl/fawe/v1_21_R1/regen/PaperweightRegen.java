@@ -6,6 +6,7 @@
 import com.fastasyncworldedit.core.queue.IChunkGet;
 import com.fastasyncworldedit.core.queue.implementation.chunk.ChunkCache;
 import com.google.common.collect.ImmutableList;
+import com.mojang.serialization.JsonOps;
 import com.mojang.serialization.Lifecycle;
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
 import com.sk89q.worldedit.bukkit.WorldEditPlugin;
@@ -25,6 +26,7 @@
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LevelSettings;
 import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.chunk.ChunkGenerator;
 import net.minecraft.world.level.dimension.LevelStem;
 import net.minecraft.world.level.levelgen.NoiseBasedChunkGenerator;
 import net.minecraft.world.level.levelgen.WorldOptions;
@@ -108,6 +110,20 @@ protected boolean prepare() {
         return true;
     }
 
+    @Override
+    protected String getGeneratorSettings() {
+        // The full settings of the native generator, e.g. noise settings, flat world layers or biome sources
+        try {
+            return ChunkGenerator.CODEC.encodeStart(
+                    originalServerWorld.registryAccess().createSerializationContext(JsonOps.INSTANCE),
+                    originalServerWorld.getChunkSource().getGenerator()
+            ).result().map(Object::toString).orElseGet(super::getGeneratorSettings);
+        } catch (RuntimeException e) {
+            // Generators of plugins might not be serializable
+            return super.getGeneratorSettings();
+        }
+    }
+
     @Override
     protected boolean initNewWorld() throws Exception {
         //world folder
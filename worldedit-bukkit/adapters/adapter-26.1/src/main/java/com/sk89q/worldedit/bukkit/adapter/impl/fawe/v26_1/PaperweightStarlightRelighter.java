@@ -40,6 +40,13 @@ protected long asLong(final int chunkX, final int chunkZ) {
         return ChunkPos.pack(chunkX, chunkZ);
     }
 
+    //FAWE-Folia start
+    @Override
+    protected org.bukkit.World getBukkitWorld() {
+        return serverLevel.getWorld();
+    }
+    //FAWE-Folia end
+
     @Override
     protected CompletableFuture<?> chunkLoadFuture(final ChunkPos chunkPos) {
         return serverLevel.getWorld().getChunkAtAsync(chunkPos.x(), chunkPos.z())
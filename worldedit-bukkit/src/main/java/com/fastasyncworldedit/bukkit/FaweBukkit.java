@@ -3,6 +3,7 @@
 import com.fastasyncworldedit.bukkit.adapter.BukkitQueueHandler;
 import com.fastasyncworldedit.bukkit.adapter.NMSAdapter;
 import com.fastasyncworldedit.bukkit.listener.BrushListener;
+import com.fastasyncworldedit.bukkit.listener.ChunkListener;
 import com.fastasyncworldedit.bukkit.listener.ChunkListener9;
 import com.fastasyncworldedit.bukkit.listener.RenderListener;
 import com.fastasyncworldedit.bukkit.regions.GriefDefenderFeature;
@@ -43,6 +44,7 @@
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.PluginManager;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -61,6 +63,7 @@ public class FaweBukkit implements IFawe, Listener {
     private ItemUtil itemUtil;
     private Preloader preloader;
     private volatile boolean keepUnloaded;
+    private volatile ChunkListener tickLimiter;
 
     public FaweBukkit(Plugin plugin) {
         this.plugin = plugin;
@@ -95,7 +98,7 @@ public FaweBukkit(Plugin plugin) {
             Bukkit.getPluginManager().registerEvents(FaweBukkit.this, FaweBukkit.this.plugin);
 
             // The tick limiter
-            new ChunkListener9();
+            tickLimiter = new ChunkListener9();
         });
 
         // Warn if small-edits are enabled with extended world heights
@@ -104,6 +107,17 @@ public FaweBukkit(Plugin plugin) {
         }
     }
 
+    /**
+     * Get the tick limiter, e.g. to inspect the chunks it throttles.
+     *
+     * @return the tick limiter, or null if not yet created
+     * @since TODO
+     */
+    @Nullable
+    public ChunkListener getTickLimiter() {
+        return tickLimiter;
+    }
+
     @Override
     public QueueHandler getQueueHandler() {
         return new BukkitQueueHandler();
@@ -214,7 +228,9 @@ public Collection<FaweMaskManager> getMaskManagers() {
                 Bukkit.getServer().getPluginManager().getPlugin("GriefPrevention");
         if (griefpreventionPlugin != null && griefpreventionPlugin.isEnabled()) {
             try {
-                managers.add(new GriefPreventionFeature(griefpreventionPlugin));
+                GriefPreventionFeature feature = new GriefPreventionFeature(griefpreventionPlugin);
+                managers.add(feature);
+                Bukkit.getPluginManager().registerEvents(feature, plugin);
                 LOGGER.info("Attempting to use plugin 'GriefPrevention'");
             } catch (Throwable ignored) {
             }
@@ -254,6 +270,7 @@ public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
         BukkitPlayer wePlayer = BukkitAdapter.adapt(player);
         wePlayer.unregister();
+        WEManager.weManager().invalidateMasks(player.getUniqueId());
     }
 
     @Override
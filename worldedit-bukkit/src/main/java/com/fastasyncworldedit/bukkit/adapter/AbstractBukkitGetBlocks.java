@@ -4,6 +4,7 @@
 import com.fastasyncworldedit.core.configuration.Settings;
 import com.fastasyncworldedit.core.internal.exception.FaweException;
 import com.fastasyncworldedit.core.math.IntPair;
+import com.fastasyncworldedit.core.nbt.FaweCompoundTag;
 import com.fastasyncworldedit.core.queue.IChunk;
 import com.fastasyncworldedit.core.queue.IChunkGet;
 import com.fastasyncworldedit.core.queue.IChunkSet;
@@ -13,13 +14,18 @@
 import com.fastasyncworldedit.core.util.MemUtil;
 import com.fastasyncworldedit.core.util.task.FaweThreadUtil;
 import com.github.ssquadteam.fawe.scheduler.FaweScheduler;
+import com.github.ssquadteam.fawe.scheduler.RegionSync;
 import com.sk89q.worldedit.extent.Extent;
 import com.sk89q.worldedit.internal.util.LogManagerCompat;
 import com.sk89q.worldedit.util.formatting.text.TextComponent;
 import org.apache.logging.log4j.Logger;
 import org.bukkit.Location;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -66,6 +72,27 @@ protected AbstractBukkitGetBlocks(
 
     protected abstract void send();
 
+    //FAWE-Folia start - read all entities of the chunk in one hop to the chunk's owner instead of one hop per entity
+    @Override
+    public Collection<FaweCompoundTag> captureEntities() {
+        // Entities are saved on the owning thread, but only converted to tags once read, off that thread
+        return RegionSync.supply(getBukkitWorld(), chunkX << 4, 0, chunkZ << 4, () -> {
+            Collection<FaweCompoundTag> entities = entities();
+            return entities.isEmpty() ? Collections.emptyList() : List.copyOf(entities);
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<UUID, com.sk89q.worldedit.entity.Entity> getFullEntitiesByUuid() {
+        // Read the uuids from the native entities, instead of saving every entity to read its uuid
+        if (getFullEntities() instanceof NativeEntityFunctionSet<?, ?> entities) {
+            return (Map<UUID, com.sk89q.worldedit.entity.Entity>) entities.byUuid();
+        }
+        return super.getFullEntitiesByUuid();
+    }
+    //FAWE-Folia end
+
     protected abstract CompletableFuture<LevelChunk> ensureLoaded(ServerLevel serverLevel);
 
     protected abstract <T extends Future<T>> T internalCall(
@@ -2,8 +2,10 @@
 
 import javax.annotation.Nonnull;
 import java.util.AbstractSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.function.Function;
 
@@ -48,6 +50,20 @@ public boolean contains(Object get) {
         return false;
     }
 
+    /**
+     * Get the entities by their uuid.
+     *
+     * @return the entities by uuid
+     * @since TODO
+     */
+    public Map<UUID, Result> byUuid() {
+        Map<UUID, Result> entities = new HashMap<>(nativeEntities.size());
+        for (NativeEntity entity : nativeEntities) {
+            entities.put(uuidGetter.apply(entity), resultFunction.apply(entity));
+        }
+        return entities;
+    }
+
     @Nonnull
     @Override
     public Iterator<Result> iterator() {
@@ -4,6 +4,8 @@
 import com.fastasyncworldedit.core.queue.IChunkCache;
 import com.fastasyncworldedit.core.queue.IChunkGet;
 import com.fastasyncworldedit.core.queue.implementation.SingleThreadQueueExtent;
+import com.fastasyncworldedit.core.util.MathMan;
+import com.fastasyncworldedit.core.world.RegenChunkCache;
 import com.github.ssquadteam.fawe.scheduler.FaweScheduler;
 import com.github.ssquadteam.fawe.scheduler.SchedulerTask;
 import com.fastasyncworldedit.core.util.TaskManager;
@@ -12,19 +14,25 @@
 import com.sk89q.worldedit.bukkit.BukkitWorld;
 import com.sk89q.worldedit.extent.Extent;
 import com.sk89q.worldedit.function.pattern.Pattern;
+import com.sk89q.worldedit.math.BlockVector2;
 import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.regions.Region;
 import com.sk89q.worldedit.world.RegenOptions;
 import com.sk89q.worldedit.world.biome.BiomeType;
 import com.sk89q.worldedit.world.block.BaseBlock;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import org.bukkit.Location;
 import org.bukkit.generator.BiomeProvider;
 import org.bukkit.generator.WorldInfo;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.BooleanSupplier;
@@ -42,6 +50,16 @@ public abstract class Regenerator {
     //runtime
     protected long seed;
     protected SingleThreadQueueExtent source;
+    //FAWE start - regen chunk cache
+    @Nullable
+    private RegenChunkCache cache;
+    private RegenChunkCache.Key cacheKey;
+    // Compressed chunks of the selection, read before pasting if every chunk is cached
+    @Nullable
+    private Long2ObjectMap<byte[]> cachedChunks;
+    private volatile boolean worldInitialized;
+    private boolean cleanupRequired;
+    //FAWE end
 
     /**
      * Initializes an abstract regeneration handler.
@@ -69,15 +87,24 @@ public boolean regenerate() throws Exception {
             return false;
         }
 
-        try {
-            if (!initNewWorld()) {
+        //FAWE start - the new world is only required if a chunk is not cached
+        cache = RegenChunkCache.getInstance();
+        if (cache != null) {
+            cacheKey = createCacheKey();
+        }
+        // The world is initialized before pasting, so pattern workers never have to
+        if (cache == null || !readCachedChunks()) {
+            try {
+                if (!initWorld()) {
+                    cleanup0();
+                    return false;
+                }
+            } catch (Exception e) {
                 cleanup0();
-                return false;
+                throw e;
             }
-        } catch (Exception e) {
-            cleanup0();
-            throw e;
         }
+        //FAWE end
 
         try {
             copyToWorld();
@@ -95,6 +122,80 @@ public boolean regenerate() throws Exception {
      */
     protected abstract void runTasks(BooleanSupplier shouldKeepTicking);
 
+    //FAWE start - regen chunk cache
+    /**
+     * Create the key identifying the chunks generated by this regenerator in the {@link RegenChunkCache}. Called after
+     * {@link #prepare()}.
+     *
+     * @return the cache key
+     */
+    protected RegenChunkCache.Key createCacheKey() {
+        org.bukkit.generator.ChunkGenerator generator = originalBukkitWorld.getGenerator();
+        String generatorId = generator != null
+                ? generator.getClass().getName()
+                : "minecraft:" + originalBukkitWorld.getEnvironment().name().toLowerCase(Locale.ROOT);
+        return RegenChunkCache.Key.of(
+                originalBukkitWorld.getName(),
+                seed,
+                generatorId,
+                getGeneratorSettings(),
+                options.hasBiomeType() ? options.getBiomeType() : null,
+                BukkitWorld.HAS_MIN_Y ? originalBukkitWorld.getMinHeight() : 0,
+                (BukkitWorld.HAS_MIN_Y ? originalBukkitWorld.getMaxHeight() : 256) - 1
+        );
+    }
+
+    /**
+     * Get the settings of the chunk generator of the world, as part of the {@link #createCacheKey() cache key}. Chunks
+     * generated with different settings (e.g. the noise settings or the layers of a flat world) must not share cached
+     * chunks. Implementations should include the settings of the world's native generator.
+     *
+     * @return the generator settings
+     */
+    protected String getGeneratorSettings() {
+        BiomeProvider biomeProvider = originalBukkitWorld.getBiomeProvider();
+        return String.join(
+                ",",
+                originalBukkitWorld.getEnvironment().name(),
+                Boolean.toString(originalBukkitWorld.canGenerateStructures()),
+                biomeProvider != null ? biomeProvider.getClass().getName() : ""
+        );
+    }
+
+    /**
+     * Read every cached chunk of the selection, so the paste does not depend on the cache anymore.
+     *
+     * @return true if every chunk was read, false if a chunk is not cached or unreadable
+     */
+    private boolean readCachedChunks() {
+        Long2ObjectMap<byte[]> chunks = new Long2ObjectOpenHashMap<>();
+        for (BlockVector2 chunk : region.getChunks()) {
+            if (!cache.contains(cacheKey, chunk.x(), chunk.z())) {
+                return false;
+            }
+        }
+        for (BlockVector2 chunk : region.getChunks()) {
+            byte[] data = cache.read(cacheKey, chunk.x(), chunk.z());
+            if (data == null) {
+                return false;
+            }
+            chunks.put(MathMan.pairInt(chunk.x(), chunk.z()), data);
+        }
+        cachedChunks = chunks;
+        return true;
+    }
+
+    private boolean initWorld() throws Exception {
+        cleanupRequired = true;
+        if (!initNewWorld()) {
+            return false;
+        }
+        createSource();
+        worldInitialized = true;
+        return true;
+    }
+    //FAWE end
+
     private void createSource() {
 
         source = new SingleThreadQueueExtent(
@@ -105,9 +206,13 @@ private void createSource() {
     }
 
     private void copyToWorld() {
-        createSource();
         final long timeoutPerTick = TimeUnit.MILLISECONDS.toNanos(10);
         Runnable drainTasks = () -> {
+            //FAWE start - the new world is not initialized if every chunk is cached
+            if (!worldInitialized) {
+                return;
+            }
+            //FAWE end
             final long startTime = System.nanoTime();
             runTasks(() -> System.nanoTime() - startTime < timeoutPerTick);
         };
@@ -132,12 +237,7 @@ private void copyToWorld() {
         } else if (hasBiome) {
             pattern = new WithBiomePlacementPattern((ignored1, ignored2) -> biome);
         } else {
-            pattern = new WithBiomePlacementPattern((vec, chunk) -> {
-                if (chunk != null) {
-                    return chunk.getBiomeType(vec.x() & 15, vec.y(), vec.z() & 15);
-                }
-                return source.getBiome(vec);
-            });
+            pattern = new WithBiomePlacementPattern((vec, chunkPattern) -> chunkPattern.getBiome(vec));
         }
         target.setBlocks(region, pattern);
         //FAWE-Folia start
@@ -153,18 +253,71 @@ private abstract class ChunkwisePattern implements Pattern {
         // the chunk we're currently operating on, if any.
         // allows faster access to chunk data than source.getFullBlock(...)
         protected @Nullable IChunk chunk;
+        //FAWE start - regen chunk cache
+        // the cached chunk we're currently operating on, if any. Takes precedence over chunk
+        protected RegenChunkCache.@Nullable CachedChunk cached;
+        //FAWE end
 
         @Override
         public @NotNull <T extends IChunk> T applyChunk(final T chunk, @Nullable final Region region) {
+            //FAWE start - regen chunk cache
+            if (cachedChunks != null) {
+                byte[] data = cachedChunks.get(MathMan.pairInt(chunk.getX(), chunk.getZ()));
+                if (data == null) {
+                    throw new IllegalStateException("Chunk " + chunk.getX() + ", " + chunk.getZ() + " was not read before pasting");
+                }
+                try {
+                    this.cached = cache.decode(cacheKey, data);
+                } catch (IOException e) {
+                    // Checked when read
+                    throw new UncheckedIOException(e);
+                }
+                return chunk;
+            }
+            if (cache != null) {
+                this.cached = cache.load(cacheKey, chunk.getX(), chunk.getZ());
+                if (this.cached != null) {
+                    return chunk;
+                }
+            }
             this.chunk = source.getOrCreateChunk(chunk.getX(), chunk.getZ());
+            if (cache != null) {
+                cache.store(cacheKey, this.chunk);
+            }
+            //FAWE end
             return chunk;
         }
 
         @Override
         public void finishChunk(final IChunk chunk) {
             this.chunk = null;
+            //FAWE start
+            this.cached = null;
+            //FAWE end
         }
 
+        //FAWE start - regen chunk cache
+        protected BaseBlock getFullBlock(BlockVector3 get) {
+            if (cached != null) {
+                return cached.getFullBlock(get.x() & 15, get.y(), get.z() & 15);
+            }
+            if (chunk != null) {
+                return chunk.getFullBlock(get.x() & 15, get.y(), get.z() & 15);
+            }
+            return source.getFullBlock(get);
+        }
+
+        protected BiomeType getBiome(BlockVector3 get) {
+            if (cached != null) {
+                return cached.getBiomeType(get.x() & 15, get.y(), get.z() & 15);
+            }
+            if (chunk != null) {
+                return chunk.getBiomeType(get.x() & 15, get.y(), get.z() & 15);
+            }
+            return source.getBiome(get);
+        }
+        //FAWE end
+
         @Override
         public abstract Pattern fork();
 
@@ -174,18 +327,12 @@ private class PlacementPattern extends ChunkwisePattern {
 
         @Override
         public BaseBlock applyBlock(final BlockVector3 position) {
-            return source.getFullBlock(position);
+            return getFullBlock(position);
         }
 
         @Override
         public boolean apply(final Extent extent, final BlockVector3 get, final BlockVector3 set) throws WorldEditException {
-            BaseBlock fullBlock;
-            if (chunk != null) {
-                fullBlock = chunk.getFullBlock(get.x() & 15, get.y(), get.z() & 15);
-            } else {
-                fullBlock = source.getFullBlock(get.x(), get.y(), get.z());
-            }
-            return set.setFullBlock(extent, fullBlock);
+            return set.setFullBlock(extent, getFullBlock(get));
         }
 
         @Override
@@ -196,27 +343,21 @@ public Pattern fork() {
 
     private class WithBiomePlacementPattern extends ChunkwisePattern {
 
-        private final BiFunction<BlockVector3, @Nullable IChunk, BiomeType> biomeGetter;
+        private final BiFunction<BlockVector3, ChunkwisePattern, BiomeType> biomeGetter;
 
-        private WithBiomePlacementPattern(final BiFunction<BlockVector3, @Nullable IChunk, BiomeType> biomeGetter) {
+        private WithBiomePlacementPattern(final BiFunction<BlockVector3, ChunkwisePattern, BiomeType> biomeGetter) {
             this.biomeGetter = biomeGetter;
         }
 
         @Override
         public BaseBlock applyBlock(final BlockVector3 position) {
-            return source.getFullBlock(position);
+            return getFullBlock(position);
         }
 
         @Override
         public boolean apply(final Extent extent, final BlockVector3 get, final BlockVector3 set) throws WorldEditException {
-            final BaseBlock fullBlock;
-            if (chunk != null) {
-                fullBlock = chunk.getFullBlock(get.x() & 15, get.y(), get.z() & 15);
-            } else {
-                fullBlock = source.getFullBlock(get.x(), get.y(), get.z());
-            }
-            return extent.setBlock(set.x(), set.y(), set.z(), fullBlock)
-                    && extent.setBiome(set.x(), set.y(), set.z(), biomeGetter.apply(get, chunk));
+            return extent.setBlock(set.x(), set.y(), set.z(), getFullBlock(get))
+                    && extent.setBiome(set.x(), set.y(), set.z(), biomeGetter.apply(get, this));
         }
 
         @Override
@@ -227,7 +368,11 @@ public Pattern fork() {
 
     //functions to be implemented by sub class
     private void cleanup0() {
-        cleanup();
+        //FAWE start - nothing to clean up if all chunks were cached
+        if (cleanupRequired) {
+            cleanup();
+        }
+        //FAWE end
     }
 
     /**
@@ -245,6 +390,8 @@ private void cleanup0() {
      * Implement the creation of the seperate world in here.
      * <p>
      * Fields required to be initialized: generateConcurrent
+     * <p>
+     * Not called if all chunks to regenerate are read from the {@link RegenChunkCache}. Otherwise, called before pasting.
      *
      * @return true if everything went fine, otherwise false. When false is returned the Regenerator halts the regeneration process and calls the cleanup function.
      * @throws java.lang.Exception When the implementation of this method throws and exception the Regenerator halts the regeneration process and calls the cleanup function.
@@ -0,0 +1,172 @@
+package com.fastasyncworldedit.bukkit.adapter;
+
+import com.fastasyncworldedit.core.util.MathMan;
+import com.github.ssquadteam.fawe.scheduler.FaweScheduler;
+import com.sk89q.worldedit.internal.util.LogManagerCompat;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.apache.logging.log4j.Logger;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Schedules relighting on a regionised server. Chunks are grouped by the region section owning them, and each group is
+ * relit in batches by tasks on the thread of its owning region, so independent regions relight in parallel instead of one
+ * after another.
+ * <p>
+ * The size of a region's batches is tuned by the time its previous batches took, so a batch keeps its region busy for
+ * about {@link #TARGET_BATCH_NANOS}.
+ *
+ * @since TODO
+ */
+final class RegionRelightScheduler {
+
+    private static final Logger LOGGER = LogManagerCompat.getLogger();
+
+    /**
+     * Time a single batch should take, in nanoseconds.
+     */
+    static final long TARGET_BATCH_NANOS = 50_000_000L;
+    static final int MIN_BATCH_SIZE = 16;
+    static final int MAX_BATCH_SIZE = 1024;
+    private static final int INITIAL_BATCH_SIZE = 64;
+
+    private final World world;
+    private final BatchRelight relight;
+    private final Map<Long, RegionQueue> queues = new ConcurrentHashMap<>();
+    // Average cost of a chunk over all regions, the starting point of regions without batches yet
+    private volatile double nanosPerChunk = -1;
+
+    /**
+     * New instance.
+     *
+     * @param world   the world relit
+     * @param relight relights a batch of chunks
+     */
+    RegionRelightScheduler(World world, BatchRelight relight) {
+        this.world = world;
+        this.relight = relight;
+    }
+
+    /**
+     * Relight chunks of a region section once the region finished its previous batches.
+     *
+     * @param section the region section, {@link MathMan#pairInt(int, int)} of the section coordinates
+     * @param chunks  the chunk keys, as understood by the {@link BatchRelight}
+     */
+    void submit(long section, LongSet chunks) {
+        RegionQueue queue = queues.computeIfAbsent(section, RegionQueue::new);
+        if (queue.add(chunks)) {
+            queue.schedule();
+        }
+    }
+
+    /**
+     * Relights a batch of chunks on the thread owning them.
+     */
+    @FunctionalInterface
+    interface BatchRelight {
+
+        /**
+         * Relight chunks. Called on the thread owning the chunks.
+         *
+         * @param chunks the chunk keys
+         * @param finish to be called once the chunks are relit, with a task to run on the thread owning the chunks
+         */
+        void relight(LongSet chunks, Consumer<Runnable> finish);
+
+    }
+
+    private final class RegionQueue {
+
+        private final Location anchor;
+        private final LongLinkedOpenHashSet pending = new LongLinkedOpenHashSet();
+        private boolean running;
+        private double nanosPerChunk = -1;
+
+        private RegionQueue(long section) {
+            int shift = FaweScheduler.regionShift();
+            int x = MathMan.unpairIntX(section) << shift << 4;
+            int z = MathMan.unpairIntY(section) << shift << 4;
+            this.anchor = new Location(world, x, 0, z);
+        }
+
+        /**
+         * @return if the queue was idle and has to be scheduled
+         */
+        private synchronized boolean add(LongSet chunks) {
+            pending.addAll(chunks);
+            if (running || pending.isEmpty()) {
+                return false;
+            }
+            running = true;
+            return true;
+        }
+
+        private synchronized LongSet poll() {
+            int size = Math.min(pending.size(), batchSize());
+            if (size == 0) {
+                running = false;
+                return null;
+            }
+            LongSet batch = new LongOpenHashSet(size);
+            LongIterator iterator = pending.iterator();
+            while (batch.size() < size) {
+                batch.add(iterator.nextLong());
+                iterator.remove();
+            }
+            return batch;
+        }
+
+        private int batchSize() {
+            double cost = nanosPerChunk > 0 ? nanosPerChunk : RegionRelightScheduler.this.nanosPerChunk;
+            if (cost <= 0) {
+                return INITIAL_BATCH_SIZE;
+            }
+            return (int) Math.max(MIN_BATCH_SIZE, Math.min(MAX_BATCH_SIZE, TARGET_BATCH_NANOS / cost));
+        }
+
+        private synchronized void record(int chunks, long nanos) {
+            double cost = nanos / (double) chunks;
+            // Moving average, so the batch size follows the region without jumping on a single slow batch
+            nanosPerChunk = nanosPerChunk > 0 ? nanosPerChunk * 0.75 + cost * 0.25 : cost;
+            double average = RegionRelightScheduler.this.nanosPerChunk;
+            RegionRelightScheduler.this.nanosPerChunk = average > 0 ? average * 0.75 + cost * 0.25 : cost;
+        }
+
+        private void schedule() {
+            FaweScheduler.scheduler().runAtLocation(anchor, this::run);
+        }
+
+        private void run() {
+            LongSet batch = poll();
+            if (batch == null) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                relight.relight(batch, task -> {
+                    record(batch.size(), System.nanoTime() - start);
+                    FaweScheduler.scheduler().runAtLocation(anchor, () -> {
+                        try {
+                            task.run();
+                        } finally {
+                            run();
+                        }
+                    });
+                });
+            } catch (Throwable e) {
+                LOGGER.error("Error relighting chunks at {}", anchor, e);
+                run();
+            }
+        }
+
+    }
+
+}
@@ -5,6 +5,7 @@
 import com.fastasyncworldedit.core.queue.IQueueExtent;
 import com.fastasyncworldedit.core.util.MathMan;
 import com.fastasyncworldedit.core.util.TaskManager;
+import com.github.ssquadteam.fawe.scheduler.FaweScheduler;
 import com.sk89q.worldedit.internal.util.LogManagerCompat;
 import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongArraySet;
@@ -41,10 +42,17 @@
     private final ReentrantLock areaLock = new ReentrantLock();
     private final NMSRelighter delegate;
     protected final SERVER_LEVEL serverLevel;
+    //FAWE-Folia start - chunks are grouped by the region section owning them, and each group is relit by its region
+    private final int groupShift;
+    private volatile RegionRelightScheduler regionScheduler;
+    //FAWE-Folia end
 
     protected StarlightRelighter(SERVER_LEVEL serverLevel, IQueueExtent<?> queue) {
         this.serverLevel = serverLevel;
         this.delegate = new NMSRelighter(queue);
+        //FAWE-Folia start
+        this.groupShift = FaweScheduler.isFolia() ? FaweScheduler.regionShift() : CHUNKS_PER_BATCH_SQRT_LOG2;
+        //FAWE-Folia end
     }
 
     protected Set<CHUNK_POS> convertChunkKeysToChunkPos(LongSet chunks) {
@@ -92,6 +100,38 @@ protected abstract void invokeRelight(
 
     protected abstract void postProcessChunks(Set<CHUNK_POS> coords);
 
+    //FAWE-Folia start
+    /**
+     * Get the Bukkit world relit, so relighting can be scheduled against the regions owning the chunks.
+     *
+     * @return the Bukkit world backing {@link #serverLevel}
+     * @since TODO
+     */
+    protected abstract org.bukkit.World getBukkitWorld();
+
+    /*
+     * Relights a batch of chunks of a single region section, called on the thread of the owning region.
+     * The chunks are post processed on that thread again once relit.
+     */
+    private void fixLightingOnRegion(LongSet chunks, Consumer<Runnable> finish) {
+        Set<CHUNK_POS> coords = convertChunkKeysToChunkPos(chunks);
+        List<CompletableFuture<?>> futures = chunkLoadFutures(coords);
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenAccept(v ->
+                invokeRelight(
+                        coords,
+                        c -> {
+                        },
+                        i -> {
+                            if (i != coords.size()) {
+                                LOGGER.warn("Processed {} chunks instead of {}", i, coords.size());
+                            }
+                            finish.accept(() -> postProcessChunks(coords));
+                        }
+                )
+        );
+    }
+    //FAWE-Folia end
+
     /*
      * Processes a set of chunks and runs an action afterwards.
      * The action is run async, the chunks are partly processed on the main thread
@@ -121,7 +161,9 @@ public boolean addChunk(int cx, int cz, byte[] skipReason, int bitmask) {
             // light can go into neighboring chunks, make sure they are relighted too.
             for (int x = cx - 1; x <= cx + 1; x++) {
                 for (int z = cz - 1; z <= cz + 1; z++) {
-                    long key = MathMan.pairInt(x >> CHUNKS_PER_BATCH_SQRT_LOG2, z >> CHUNKS_PER_BATCH_SQRT_LOG2);
+                    //FAWE-Folia start
+                    long key = MathMan.pairInt(x >> groupShift, z >> groupShift);
+                    //FAWE-Folia end
                     LongSet chunks = this.regions.computeIfAbsent(key, k -> new LongArraySet(CHUNKS_PER_BATCH >> 2));
                     chunks.add(asLong(x, z));
                 }
@@ -145,6 +187,19 @@ public void fixLightingSafe(boolean sky) {
             if (regions.isEmpty()) {
                 return;
             }
+            //FAWE-Folia start - hand every group to its region at once, regions relight in parallel
+            if (FaweScheduler.isFolia()) {
+                RegionRelightScheduler scheduler = regionScheduler;
+                if (scheduler == null) {
+                    scheduler = regionScheduler = new RegionRelightScheduler(getBukkitWorld(), this::fixLightingOnRegion);
+                }
+                while (!regions.isEmpty()) {
+                    long section = regions.firstLongKey();
+                    scheduler.submit(section, regions.removeFirst());
+                }
+                return;
+            }
+            //FAWE-Folia end
             LongSet first = regions.removeFirst();
             fixLighting(first, () -> fixLightingSafe(true));
         } finally {
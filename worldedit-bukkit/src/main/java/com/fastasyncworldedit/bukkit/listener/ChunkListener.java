@@ -3,13 +3,15 @@
 import com.fastasyncworldedit.bukkit.FaweBukkit;
 import com.fastasyncworldedit.core.Fawe;
 import com.fastasyncworldedit.core.configuration.Settings;
-import com.fastasyncworldedit.core.util.FaweTimer;
 import com.fastasyncworldedit.core.util.MathMan;
 import com.fastasyncworldedit.core.util.TaskManager;
 import com.github.ssquadteam.fawe.scheduler.FaweScheduler;
 import com.sk89q.worldedit.internal.util.LogManagerCompat;
-import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import org.apache.logging.log4j.Logger;
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
@@ -46,6 +48,12 @@
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.util.Vector;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * @deprecated FAWE is not necessarily the tool you want to use to limit certain tick actions, e.g. fireworks or elytra flying.
  * The code is untouched since the 1.12 era and there is no guarantee that it will work or will be maintained in the future.
@@ -54,51 +62,44 @@
 public abstract class ChunkListener implements Listener {
 
     private static final Logger LOGGER = LogManagerCompat.getLogger();
-    protected int rateLimit = 0;
-    protected Location lastCancelPos;
+    // Partitions not used for this long are forgotten
+    private static final long IDLE_PARTITION_MILLIS = 60_000;
+
     private final int[] badLimit = new int[]{Settings.settings().TICK_LIMITER.PHYSICS_MS,
             Settings.settings().TICK_LIMITER.FALLING, Settings.settings().TICK_LIMITER.ITEMS};
+    //FAWE-Folia start - counters are partitioned into squares of chunks, each locked on its own
+    // On a regionised server each partition is (almost always) ticked by a single region thread, so locking a partition
+    // is uncontended, and a physics storm in one region is throttled without touching any other region's state.
+    private final int partitionShift = Math.max(0, Math.min(10, Settings.settings().TICK_LIMITER.PARTITION_SHIFT));
+    private final long intervalMillis = Math.max(1, Settings.settings().TICK_LIMITER.INTERVAL) * 50L;
+    private final ConcurrentHashMap<UUID, ConcurrentHashMap<Long, TickPartition>> partitions = new ConcurrentHashMap<>();
+    private final ThreadLocal<TickPartition> lastPartition = new ThreadLocal<>();
+    //FAWE-Folia end
 
     public ChunkListener() {
-        //FAWE-Folia start - the tick limiter is not safe on a regionised server
-        // Its counters are plain hash maps mutated straight from BlockPhysicsEvent, EntityChangeBlockEvent and
-        // ItemSpawnEvent. On a regionised server those fire on many region threads at once, so the maps would be
-        // corrupted by concurrent writes. The class is deprecated and untouched since 1.12, so it is switched off
-        // rather than made thread-safe.
-        if (FaweScheduler.isFolia() && Settings.settings().TICK_LIMITER.ENABLED) {
-            LOGGER.warn("The FAWE tick limiter is disabled on regionised servers: its counters are not thread-safe "
-                    + "and every region thread would write to them at once. Set tick-limiter.enabled to false to "
-                    + "silence this warning.");
-            return;
-        }
-        //FAWE-Folia end
         if (Settings.settings().TICK_LIMITER.ENABLED) {
             PluginManager plm = Bukkit.getPluginManager();
             Plugin plugin = Fawe.<FaweBukkit>platform().getPlugin();
             plm.registerEvents(this, plugin);
-            TaskManager.taskManager().repeat(() -> {
-                Location tmpLoc = lastCancelPos;
-                if (tmpLoc != null) {
-                    LOGGER.info("[FAWE Tick Limiter] Detected and cancelled physics lag source at {}", tmpLoc);
-                }
-                rateLimit--;
+            //FAWE-Folia start - partitions reset themselves when used, this only resets the global flags and evicts
+            TaskManager.taskManager().repeatAsync(() -> {
                 physicsFreeze = false;
                 itemFreeze = false;
-                lastZ = Integer.MIN_VALUE;
-                physSkip = 0;
-                physCancelPair = Long.MIN_VALUE;
-                physCancel = false;
-                lastCancelPos = null;
-
-                counter.clear();
-                for (Long2ObjectMap.Entry<Boolean> entry : badChunks.long2ObjectEntrySet()) {
-                    long key = entry.getLongKey();
-                    int x = MathMan.unpairIntX(key);
-                    int z = MathMan.unpairIntY(key);
-                    counter.put(key, badLimit);
+                long now = System.currentTimeMillis();
+                for (ConcurrentHashMap<Long, TickPartition> world : partitions.values()) {
+                    // Evicted under the partition's lock, so a partition handed out by getPartition is never evicted
+                    world.values().removeIf(partition -> {
+                        synchronized (partition) {
+                            if (now - partition.lastAccess > Math.max(IDLE_PARTITION_MILLIS, intervalMillis * 2)) {
+                                partition.evicted = true;
+                                return true;
+                            }
+                            return false;
+                        }
+                    });
                 }
-                badChunks.clear();
             }, Settings.settings().TICK_LIMITER.INTERVAL);
+            //FAWE-Folia end
         }
     }
 
@@ -110,36 +111,102 @@ public ChunkListener() {
      * @deprecated see {@link com.fastasyncworldedit.bukkit.listener.ChunkListener} for an explanation of the deprecation
      */
     @Deprecated(since = "2.0.0")
-    public static boolean physicsFreeze = false;
+    public static volatile boolean physicsFreeze = false;
     /**
      * @deprecated see {@link com.fastasyncworldedit.bukkit.listener.ChunkListener} for an explanation of the deprecation
      */
     @Deprecated(since = "2.0.0")
-    public static boolean itemFreeze = false;
+    public static volatile boolean itemFreeze = false;
 
-    protected final Long2ObjectOpenHashMap<Boolean> badChunks = new Long2ObjectOpenHashMap<>();
-    private final Long2ObjectOpenHashMap<int[]> counter = new Long2ObjectOpenHashMap<>();
-    private int lastX = Integer.MIN_VALUE;
-    private int lastZ = Integer.MIN_VALUE;
-    private int[] lastCount;
+    /**
+     * Get the limiter state of the partition containing the given chunk, resetting it if its interval has passed. Callers
+     * must synchronize on the returned partition whilst using it.
+     *
+     * @param world world of the chunk
+     * @param cx    chunk x coordinate
+     * @param cz    chunk z coordinate
+     * @return partition containing the chunk
+     * @since TODO
+     */
+    protected TickPartition getPartition(World world, int cx, int cz) {
+        int px = cx >> partitionShift;
+        int pz = cz >> partitionShift;
+        UUID worldId = world.getUID();
+        TickPartition partition = lastPartition.get();
+        while (true) {
+            if (partition == null || partition.evicted || partition.x != px || partition.z != pz
+                    || !partition.world.equals(worldId)) {
+                partition = partitions
+                        .computeIfAbsent(worldId, k -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(MathMan.pairInt(px, pz), k -> new TickPartition(worldId, px, pz));
+                lastPartition.set(partition);
+            }
+            long now = System.currentTimeMillis();
+            synchronized (partition) {
+                // The cached or looked up partition may have been evicted since, its state would be lost
+                if (partition.evicted) {
+                    continue;
+                }
+                partition.lastAccess = now;
+                if (now - partition.lastReset >= intervalMillis) {
+                    partition.reset(now, badLimit);
+                }
+            }
+            return partition;
+        }
+    }
 
     /**
-     * @deprecated see {@link com.fastasyncworldedit.bukkit.listener.ChunkListener} for an explanation of the deprecation
+     * Get the chunks of each partition that had events cancelled by the limiter, during the current and the previous
+     * interval of the partition.
+     *
+     * @return statistics of each partition with cancelled events
+     * @since TODO
+     */
+    public List<PartitionStatistics> getPartitionStatistics() {
+        List<PartitionStatistics> result = new ArrayList<>();
+        for (ConcurrentHashMap<Long, TickPartition> world : partitions.values()) {
+            for (TickPartition partition : world.values()) {
+                PartitionStatistics statistics;
+                synchronized (partition) {
+                    statistics = partition.statistics();
+                }
+                if (!statistics.hotChunks().isEmpty()) {
+                    result.add(statistics);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @deprecated see {@link com.fastasyncworldedit.bukkit.listener.ChunkListener} for an explanation of the deprecation.
+     *         Counters are kept per world, this returns a copy of the counters of the chunk coordinates summed over all
+     *         worlds, as they were counted before.
      */
     @Deprecated(since = "2.0.0")
     public int[] getCount(int cx, int cz) {
-        if (lastX == cx && lastZ == cz) {
-            return lastCount;
+        long key = MathMan.pairInt(cx >> partitionShift, cz >> partitionShift);
+        long[] sum = new long[3];
+        for (ConcurrentHashMap<Long, TickPartition> world : partitions.values()) {
+            TickPartition partition = world.get(key);
+            if (partition == null) {
+                continue;
+            }
+            synchronized (partition) {
+                int[] count = partition.counter.get(MathMan.pairInt(cx, cz));
+                if (count != null) {
+                    for (int i = 0; i < sum.length; i++) {
+                        sum[i] += count[i];
+                    }
+                }
+            }
         }
-        lastX = cx;
-        lastZ = cz;
-        long pair = MathMan.pairInt(cx, cz);
-        int[] tmp = lastCount = counter.get(pair);
-        if (tmp == null) {
-            lastCount = tmp = new int[3];
-            counter.put(pair, tmp);
+        int[] count = new int[sum.length];
+        for (int i = 0; i < sum.length; i++) {
+            count[i] = (int) Math.min(Integer.MAX_VALUE, sum[i]);
         }
-        return tmp;
+        return count;
     }
 
     /**
@@ -155,106 +222,105 @@ public void cleanup(Chunk chunk) {
 
     }
 
-    protected int physSkip;
-    protected boolean physCancel;
-    protected long physCancelPair;
-
-    protected long physStart;
-    protected long physTick;
-
     /**
-     * @deprecated see {@link com.fastasyncworldedit.bukkit.listener.ChunkListener} for an explanation of the deprecation
+     * @deprecated see {@link com.fastasyncworldedit.bukkit.listener.ChunkListener} for an explanation of the deprecation.
+     *         Physics timing is tracked per partition, this resets the timing of every partition.
      */
     @Deprecated(since = "2.0.0")
     public final void reset() {
-        physSkip = 0;
-        physStart = System.currentTimeMillis();
-        physCancel = false;
+        long now = System.currentTimeMillis();
+        for (ConcurrentHashMap<Long, TickPartition> world : partitions.values()) {
+            for (TickPartition partition : world.values()) {
+                synchronized (partition) {
+                    partition.resetPhysics(now);
+                }
+            }
+        }
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(BlockExplodeEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(BlockBurnEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(BlockCanBuildEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(BlockDamageEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(BlockDispenseEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(BlockExpEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(BlockFadeEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(BlockFromToEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(BlockGrowEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(BlockIgniteEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(BlockPlaceEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(FurnaceBurnEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(FurnaceSmeltEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(LeavesDecayEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(NotePlayEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(SignChangeEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void event(BlockRedstoneEvent event) {
-        reset();
+        reset(event.getBlock());
     }
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
@@ -263,52 +329,75 @@ public void onPhysics(BlockPhysicsEvent event) {
             event.setCancelled(true);
             return;
         }
-        if (physCancel) {
-            Block block = event.getBlock();
-            long pair = MathMan.pairInt(block.getX() >> 4, block.getZ() >> 4);
-            if (physCancelPair == pair) {
-                event.setCancelled(true);
-                return;
-            }
-            if (badChunks.containsKey(pair)) {
-                physCancelPair = pair;
-                event.setCancelled(true);
-                return;
-            }
-        } else {
-            if ((++physSkip & 1023) != 0) {
-                return;
-            }
-            FaweTimer timer = Fawe.instance().getTimer();
-            if (timer.getTick() != physTick) {
-                physTick = timer.getTick();
-                physStart = System.currentTimeMillis();
-                return;
-            } else if (System.currentTimeMillis() - physStart
-                    < Settings.settings().TICK_LIMITER.PHYSICS_MS) {
-                return;
+        Block block = event.getBlock();
+        int cx = block.getX() >> 4;
+        int cz = block.getZ() >> 4;
+        TickPartition partition = getPartition(block.getWorld(), cx, cz);
+        synchronized (partition) {
+            if (partition.physCancel) {
+                long pair = MathMan.pairInt(cx, cz);
+                if (partition.physCancelPair == pair || partition.badChunks.contains(pair)) {
+                    partition.physCancelPair = pair;
+                    partition.hot(pair);
+                    event.setCancelled(true);
+                    return;
+                }
+            } else {
+                if ((++partition.physSkip & 1023) != 0) {
+                    return;
+                }
+                long tick = currentTick();
+                if (tick != partition.physTick) {
+                    partition.physTick = tick;
+                    partition.physStart = System.currentTimeMillis();
+                    return;
+                } else if (System.currentTimeMillis() - partition.physStart
+                        < Settings.settings().TICK_LIMITER.PHYSICS_MS) {
+                    return;
+                }
             }
         }
         Exception e = new Exception();
         int depth = getDepth(e);
         if (depth >= 256) {
             if (containsSetAir(e, event)) {
-                Block block = event.getBlock();
-                int cx = block.getX() >> 4;
-                int cz = block.getZ() >> 4;
-                physCancelPair = MathMan.pairInt(cx, cz);
-                if (rateLimit <= 0) {
-                    rateLimit = 20;
-                    lastCancelPos = block.getLocation();
+                synchronized (partition) {
+                    partition.physCancelPair = MathMan.pairInt(cx, cz);
+                    partition.physCancel = true;
+                    partition.logCancel(block.getLocation(), "physics");
                 }
-                cancelNearby(cx, cz);
+                cancelNearby(block.getWorld(), cx, cz);
                 event.setCancelled(true);
-                physCancel = true;
                 return;
             }
         }
-        physSkip = 1;
-        physCancel = false;
+        synchronized (partition) {
+            partition.physSkip = 1;
+            partition.physCancel = false;
+        }
+    }
+
+    /**
+     * Get the current tick, used to measure the physics time spent per tick. Regions of a regionised server tick
+     * independently of the global timer, so time is split into windows of one tick instead.
+     *
+     * @return current tick
+     * @since TODO
+     */
+    protected long currentTick() {
+        //FAWE-Folia start
+        if (FaweScheduler.isFolia()) {
+            return System.currentTimeMillis() / 50;
+        }
+        //FAWE-Folia end
+        return Fawe.instance().getTimer().getTick();
+    }
+
+    private void reset(Block block) {
+        TickPartition partition = getPartition(block.getWorld(), block.getX() >> 4, block.getZ() >> 4);
+        synchronized (partition) {
+            partition.resetPhysics(System.currentTimeMillis());
+        }
     }
 
     protected boolean containsSetAir(Exception e, BlockPhysicsEvent event) {
@@ -326,27 +415,24 @@ protected boolean containsSetAir(Exception e, BlockPhysicsEvent event) {
         return false;
     }
 
-    protected void cancelNearby(int cx, int cz) {
-        cancel(cx, cz);
-        cancel(cx + 1, cz);
-        cancel(cx - 1, cz);
-        cancel(cx, cz + 1);
-        cancel(cx, cz - 1);
-        cancel(cx - 1, cz - 1);
-        cancel(cx - 1, cz + 1);
-        cancel(cx + 1, cz - 1);
-        cancel(cx + 1, cz + 1);
-    }
-
-    private void cancel(int cx, int cz) {
-        long key = MathMan.pairInt(cx, cz);
-        badChunks.put(key, (Boolean) true);
-        counter.put(key, badLimit);
-        int[] count = getCount(cx, cz);
-        count[0] = Integer.MAX_VALUE;
-        count[1] = Integer.MAX_VALUE;
-        count[2] = Integer.MAX_VALUE;
-
+    /**
+     * Mark the given chunk and its 8 neighbours as lag sources until the end of their partition's next interval. Must not
+     * be called whilst holding the lock of a partition, as the neighbours may be in other partitions.
+     *
+     * @param world world of the chunk
+     * @param cx    chunk x coordinate
+     * @param cz    chunk z coordinate
+     * @since TODO
+     */
+    protected void cancelNearby(World world, int cx, int cz) {
+        for (int x = cx - 1; x <= cx + 1; x++) {
+            for (int z = cz - 1; z <= cz + 1; z++) {
+                TickPartition partition = getPartition(world, x, z);
+                synchronized (partition) {
+                    partition.cancel(x, z);
+                }
+            }
+        }
     }
 
     // Falling
@@ -357,31 +443,29 @@ public void onBlockChange(EntityChangeBlockEvent event) {
             return;
         }
         Block block = event.getBlock();
-        int x = block.getX();
-        int z = block.getZ();
-        int cx = x >> 4;
-        int cz = z >> 4;
-        int[] count = getCount(cx, cz);
-        if (count[1] >= Settings.settings().TICK_LIMITER.FALLING) {
-            event.setCancelled(true);
-            return;
-        }
-        if (event.getEntityType() == EntityType.FALLING_BLOCK) {
-            if (++count[1] >= Settings.settings().TICK_LIMITER.FALLING) {
-
-                // Only cancel falling blocks when it's lagging
-                if (Fawe.instance().getTimer().getTPS() < 18) {
-                    cancelNearby(cx, cz);
-                    if (rateLimit <= 0) {
-                        rateLimit = 20;
-                        lastCancelPos = block.getLocation();
-                    }
-                    event.setCancelled(true);
-                } else {
-                    count[1] = 0;
-                }
+        int cx = block.getX() >> 4;
+        int cz = block.getZ() >> 4;
+        TickPartition partition = getPartition(block.getWorld(), cx, cz);
+        synchronized (partition) {
+            int[] count = partition.getCount(cx, cz);
+            if (count[1] >= Settings.settings().TICK_LIMITER.FALLING) {
+                partition.hot(MathMan.pairInt(cx, cz));
+                event.setCancelled(true);
+                return;
+            }
+            if (event.getEntityType() != EntityType.FALLING_BLOCK
+                    || ++count[1] < Settings.settings().TICK_LIMITER.FALLING) {
+                return;
             }
+            // Only cancel falling blocks when it's lagging
+            if (Fawe.instance().getTimer().getTPS() >= 18) {
+                count[1] = 0;
+                return;
+            }
+            partition.logCancel(block.getLocation(), "falling block");
         }
+        cancelNearby(block.getWorld(), cx, cz);
+        event.setCancelled(true);
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
@@ -393,21 +477,173 @@ public void onItemSpawn(ItemSpawnEvent event) {
         Location loc = event.getLocation();
         int cx = loc.getBlockX() >> 4;
         int cz = loc.getBlockZ() >> 4;
-        int[] count = getCount(cx, cz);
-        if (count[2] >= Settings.settings().TICK_LIMITER.ITEMS) {
-            event.setCancelled(true);
-            return;
+        TickPartition partition = getPartition(loc.getWorld(), cx, cz);
+        synchronized (partition) {
+            int[] count = partition.getCount(cx, cz);
+            if (count[2] >= Settings.settings().TICK_LIMITER.ITEMS) {
+                partition.hot(MathMan.pairInt(cx, cz));
+                event.setCancelled(true);
+                return;
+            }
+            if (++count[2] < Settings.settings().TICK_LIMITER.ITEMS) {
+                return;
+            }
+            partition.logCancel(loc, "item");
+        }
+        // Item spawns fire on the thread owning the location, so the chunk's entities may be accessed here
+        cleanup(loc.getChunk());
+        cancelNearby(loc.getWorld(), cx, cz);
+        event.setCancelled(true);
+    }
+
+    /**
+     * Limiter state of a square of chunks of a world. All access must be synchronized on the partition.
+     *
+     * @since TODO
+     */
+    protected static final class TickPartition {
+
+        private final UUID world;
+        private final int x;
+        private final int z;
+        // Count of falling blocks and item spawns (indices 1 and 2) per chunk during the current interval
+        private final Long2ObjectOpenHashMap<int[]> counter = new Long2ObjectOpenHashMap<>();
+        // Chunks detected as lag sources during the current interval
+        final LongOpenHashSet badChunks = new LongOpenHashSet();
+        // Cancelled events per chunk, during the current and the previous interval
+        private Long2IntOpenHashMap hot = new Long2IntOpenHashMap();
+        private Long2IntOpenHashMap previousHot = new Long2IntOpenHashMap();
+
+        // Guarded by the partition's lock, evicted is volatile to skip evicted partitions cached by a thread without locking
+        private long lastAccess;
+        private long lastReset;
+        private volatile boolean evicted;
+
+        private long lastCountPair = Long.MIN_VALUE;
+        private int[] lastCount;
+        private int rateLimit;
+        private Location lastCancelPos;
+        private String lastCancelType;
+
+        int physSkip;
+        boolean physCancel;
+        long physCancelPair = Long.MIN_VALUE;
+        long physStart;
+        long physTick;
+
+        private TickPartition(UUID world, int x, int z) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+        }
+
+        private int[] getCount(int cx, int cz) {
+            long pair = MathMan.pairInt(cx, cz);
+            if (pair == lastCountPair) {
+                return lastCount;
+            }
+            int[] count = counter.get(pair);
+            if (count == null) {
+                count = new int[3];
+                counter.put(pair, count);
+            }
+            lastCountPair = pair;
+            lastCount = count;
+            return count;
+        }
+
+        private void cancel(int cx, int cz) {
+            long pair = MathMan.pairInt(cx, cz);
+            badChunks.add(pair);
+            int[] count = getCount(cx, cz);
+            count[0] = Integer.MAX_VALUE;
+            count[1] = Integer.MAX_VALUE;
+            count[2] = Integer.MAX_VALUE;
+        }
+
+        private void resetPhysics(long now) {
+            physSkip = 0;
+            physStart = now;
+            physCancel = false;
+        }
+
+        void hot(long pair) {
+            hot.addTo(pair, 1);
         }
-        if (++count[2] >= Settings.settings().TICK_LIMITER.ITEMS) {
-            cleanup(loc.getChunk());
-            cancelNearby(cx, cz);
+
+        void logCancel(Location location, String type) {
+            hot(MathMan.pairInt(location.getBlockX() >> 4, location.getBlockZ() >> 4));
             if (rateLimit <= 0) {
                 rateLimit = 20;
-                LOGGER.warn(
-                        "[FAWE `tick-limiter`] Detected and cancelled item lag source at {}", loc);
+                lastCancelPos = location;
+                lastCancelType = type;
             }
-            event.setCancelled(true);
         }
+
+        private void reset(long now, int[] badLimit) {
+            if (lastCancelPos != null) {
+                LOGGER.info("[FAWE Tick Limiter] Detected and cancelled {} lag source at {}", lastCancelType, lastCancelPos);
+                lastCancelPos = null;
+            }
+            lastReset = now;
+            rateLimit--;
+            physSkip = 0;
+            physCancelPair = Long.MIN_VALUE;
+            physCancel = false;
+            lastCountPair = Long.MIN_VALUE;
+            lastCount = null;
+            counter.clear();
+            // Lag sources stay limited for one more interval
+            LongIterator iterator = badChunks.iterator();
+            while (iterator.hasNext()) {
+                counter.put(iterator.nextLong(), badLimit.clone());
+            }
+            badChunks.clear();
+            Long2IntOpenHashMap tmp = previousHot;
+            previousHot = hot;
+            hot = tmp;
+            hot.clear();
+        }
+
+        private PartitionStatistics statistics() {
+            Long2IntOpenHashMap merged = new Long2IntOpenHashMap(previousHot);
+            for (Long2IntMap.Entry entry : hot.long2IntEntrySet()) {
+                merged.addTo(entry.getLongKey(), entry.getIntValue());
+            }
+            List<HotChunk> chunks = new ArrayList<>(merged.size());
+            for (Long2IntMap.Entry entry : merged.long2IntEntrySet()) {
+                long pair = entry.getLongKey();
+                chunks.add(new HotChunk(MathMan.unpairIntX(pair), MathMan.unpairIntY(pair), entry.getIntValue()));
+            }
+            chunks.sort(Comparator.comparingInt(HotChunk::cancelled).reversed());
+            return new PartitionStatistics(world, x, z, chunks);
+        }
+
+    }
+
+    /**
+     * Chunks of a partition that had events cancelled by the limiter.
+     *
+     * @param world     world of the partition
+     * @param x         partition x coordinate, the chunk x coordinate shifted by {@code tick-limiter.partition-shift}
+     * @param z         partition z coordinate, the chunk z coordinate shifted by {@code tick-limiter.partition-shift}
+     * @param hotChunks chunks with cancelled events, most cancelled first
+     * @since TODO
+     */
+    public record PartitionStatistics(UUID world, int x, int z, List<HotChunk> hotChunks) {
+
+    }
+
+    /**
+     * A chunk that had events cancelled by the limiter.
+     *
+     * @param chunkX    chunk x coordinate
+     * @param chunkZ    chunk z coordinate
+     * @param cancelled number of cancelled events
+     * @since TODO
+     */
+    public record HotChunk(int chunkX, int chunkZ, int cancelled) {
+
     }
 
 }
@@ -1,8 +1,6 @@
 package com.fastasyncworldedit.bukkit.listener;
 
-import com.fastasyncworldedit.core.Fawe;
 import com.fastasyncworldedit.core.configuration.Settings;
-import com.fastasyncworldedit.core.util.FaweTimer;
 import com.fastasyncworldedit.core.util.MathMan;
 import org.bukkit.block.Block;
 import org.bukkit.event.EventHandler;
@@ -34,47 +32,39 @@ public void onPhysics(BlockPhysicsEvent event) {
             event.setCancelled(true);
             return;
         }
-        if (physCancel) {
-            Block block = event.getBlock();
-            long pair = MathMan.pairInt(block.getX() >> 4, block.getZ() >> 4);
-            if (physCancelPair == pair) {
-                event.setCancelled(true);
-                return;
+        Block block = event.getBlock();
+        int cx = block.getX() >> 4;
+        int cz = block.getZ() >> 4;
+        long pair = MathMan.pairInt(cx, cz);
+        TickPartition partition = getPartition(block.getWorld(), cx, cz);
+        synchronized (partition) {
+            if (partition.physCancel) {
+                if (partition.physCancelPair == pair || partition.badChunks.contains(pair)
+                        || System.currentTimeMillis() - partition.physStart > Settings.settings().TICK_LIMITER.PHYSICS_MS) {
+                    partition.physCancelPair = pair;
+                    partition.hot(pair);
+                    event.setCancelled(true);
+                    return;
+                }
             }
-            if (badChunks.containsKey(pair)) {
-                physCancelPair = pair;
-                event.setCancelled(true);
+            long tick = currentTick();
+            if (tick != partition.physTick) {
+                partition.physTick = tick;
+                partition.physStart = System.currentTimeMillis();
+                partition.physSkip = 0;
+                partition.physCancel = false;
                 return;
             }
-            if (System.currentTimeMillis() - physStart > Settings.settings().TICK_LIMITER.PHYSICS_MS) {
-                physCancelPair = pair;
-                event.setCancelled(true);
+            if ((++partition.physSkip & 1023) != 0
+                    || System.currentTimeMillis() - partition.physStart <= Settings.settings().TICK_LIMITER.PHYSICS_MS) {
                 return;
             }
+            partition.physCancelPair = pair;
+            partition.physCancel = true;
+            partition.logCancel(block.getLocation(), "physics");
         }
-        FaweTimer timer = Fawe.instance().getTimer();
-        if (timer.getTick() != physTick) {
-            physTick = timer.getTick();
-            physStart = System.currentTimeMillis();
-            physSkip = 0;
-            physCancel = false;
-            return;
-        }
-        if ((++physSkip & 1023) == 0) {
-            if (System.currentTimeMillis() - physStart > Settings.settings().TICK_LIMITER.PHYSICS_MS) {
-                Block block = event.getBlock();
-                int cx = block.getX() >> 4;
-                int cz = block.getZ() >> 4;
-                physCancelPair = MathMan.pairInt(cx, cz);
-                if (rateLimit <= 0) {
-                    rateLimit = 20;
-                    lastCancelPos = block.getLocation();
-                }
-                cancelNearby(cx, cz);
-                event.setCancelled(true);
-                physCancel = true;
-            }
-        }
+        cancelNearby(block.getWorld(), cx, cz);
+        event.setCancelled(true);
     }
 
     private StackTraceElement[] getElements(Exception ex) {
@@ -2,15 +2,22 @@
 
 import com.fastasyncworldedit.core.regions.FaweMask;
 import com.fastasyncworldedit.core.util.TaskManager;
+import com.fastasyncworldedit.core.util.WEManager;
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
 import com.sk89q.worldedit.internal.util.LogManagerCompat;
 import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.regions.CuboidRegion;
 import me.ryanhamshire.GriefPrevention.Claim;
 import me.ryanhamshire.GriefPrevention.GriefPrevention;
+import me.ryanhamshire.GriefPrevention.events.ClaimChangeEvent;
+import me.ryanhamshire.GriefPrevention.events.ClaimCreatedEvent;
+import me.ryanhamshire.GriefPrevention.events.ClaimDeletedEvent;
+import me.ryanhamshire.GriefPrevention.events.TrustChangedEvent;
 import org.apache.logging.log4j.Logger;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
 
@@ -30,6 +37,34 @@ public boolean isAllowed(Player player, Claim claim, MaskType type) {
                 claim.allowBuild(player, Material.AIR) == null));
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onClaimCreated(ClaimCreatedEvent event) {
+        invalidate(event.getClaim());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onClaimChanged(ClaimChangeEvent event) {
+        invalidate(event.getFrom());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onClaimDeleted(ClaimDeletedEvent event) {
+        invalidate(event.getClaim());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTrustChanged(TrustChangedEvent event) {
+        WEManager.weManager().invalidateMasks();
+    }
+
+    private static void invalidate(Claim claim) {
+        if (claim.getLesserBoundaryCorner().getWorld() == null) {
+            WEManager.weManager().invalidateMasks();
+        } else {
+            WEManager.weManager().invalidateMasks(claim.getLesserBoundaryCorner().getWorld().getName());
+        }
+    }
+
     @Override
     public FaweMask getMask(final com.sk89q.worldedit.entity.Player wePlayer, MaskType type, boolean isWhitelist) {
         final Player player = BukkitAdapter.adapt(wePlayer);
@@ -29,6 +29,13 @@ public final class FaweScheduler {
      */
     private static final boolean FOLIA = detectFolia();
 
+    /**
+     * Region shift of Folia's default grid exponent, used when the configured one cannot be read.
+     */
+    private static final int DEFAULT_REGION_SHIFT = 4;
+
+    private static volatile int regionShift = -1;
+
     private static volatile PlatformScheduler scheduler;
 
     private FaweScheduler() {
@@ -76,6 +83,24 @@ public static boolean isFolia() {
         return FOLIA;
     }
 
+    /**
+     * Get the shift from chunk coordinates to the coordinates of the region section owning the chunk. All chunks of a
+     * section are always owned by the same region, so work on chunks of one section can share a task.
+     *
+     * <p>
+     * Off a regionised server there are no regions, and the default section size is returned.
+     * </p>
+     *
+     * @return the region shift, in chunks
+     */
+    public static int regionShift() {
+        int shift = regionShift;
+        if (shift < 0) {
+            shift = regionShift = detectRegionShift();
+        }
+        return shift;
+    }
+
     /**
      * Cancel every task still tracked and drop the scheduler. Called on disable.
      */
@@ -101,6 +126,18 @@ public static void shutdown() {
             "io.papermc.paper.threadedregions.RegionizedWorldData"
     };
 
+    private static int detectRegionShift() {
+        if (!FOLIA) {
+            return DEFAULT_REGION_SHIFT;
+        }
+        try {
+            Class<?> tickRegions = Class.forName("io.papermc.paper.threadedregions.TickRegions");
+            return (int) tickRegions.getMethod("getRegionChunkShift").invoke(null);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            return DEFAULT_REGION_SHIFT;
+        }
+    }
+
     private static boolean detectFolia() {
         for (String marker : REGIONISED_MARKERS) {
             try {
@@ -0,0 +1,111 @@
+package com.github.ssquadteam.fawe.scheduler;
+
+import com.fastasyncworldedit.core.util.MathMan;
+import com.fastasyncworldedit.core.util.TaskManager;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.ToIntFunction;
+
+/**
+ * Work on many positions of a world, collected per owning region and run with one hop per region instead of one per
+ * position - the batched counterpart of {@link RegionSync}.
+ *
+ * <p>On a regionised server the values are grouped by the region section of their chunk, and each group is handed to its
+ * owning region in a single task. The regions run their groups in parallel. Everywhere else all values are handed to the
+ * main thread in a single task through {@link TaskManager}. Either way the caller blocks until every group is done.</p>
+ *
+ * <p>Like {@link RegionSync}, do not run a batch from a region thread - waiting for other regions there can stall both.</p>
+ *
+ * @param <T> the type of the values worked on
+ */
+public final class RegionBatch<T> {
+
+    private final World world;
+    private final Map<Long, List<T>> sections = new LinkedHashMap<>();
+    private int size;
+
+    /**
+     * New, empty, batch.
+     *
+     * @param world the world the values are in
+     */
+    public RegionBatch(World world) {
+        this.world = world;
+    }
+
+    /**
+     * Add a value to the batch of the region owning the given chunk.
+     *
+     * @param chunkX chunk X
+     * @param chunkZ chunk Z
+     * @param value  the value
+     */
+    public void add(int chunkX, int chunkZ, T value) {
+        // Off a regionised server everything goes to the main thread, so there is a single group
+        long section = 0;
+        if (FaweScheduler.isFolia()) {
+            int shift = FaweScheduler.regionShift();
+            section = MathMan.pairInt(chunkX >> shift, chunkZ >> shift);
+        }
+        sections.computeIfAbsent(section, k -> new ArrayList<>()).add(value);
+        size++;
+    }
+
+    /**
+     * Get the number of values added.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Run a task for the values of each region, on the thread allowed to touch them, and wait for all of them.
+     *
+     * @param task the task, given the values of one region and returning the number of values it changed
+     * @return the sum of the values returned by the tasks
+     */
+    public int run(ToIntFunction<List<T>> task) {
+        if (sections.isEmpty()) {
+            return 0;
+        }
+        if (!FaweScheduler.isFolia()) {
+            List<T> values = sections.values().iterator().next();
+            return TaskManager.taskManager().sync(() -> task.applyAsInt(values));
+        }
+        int shift = FaweScheduler.regionShift();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>(sections.size());
+        for (Map.Entry<Long, List<T>> entry : sections.entrySet()) {
+            long section = entry.getKey();
+            int x = MathMan.unpairIntX(section) << shift << 4;
+            int z = MathMan.unpairIntY(section) << shift << 4;
+            List<T> values = entry.getValue();
+            futures.add(FaweScheduler.scheduler().supplyAtLocation(new Location(world, x, 0, z), () -> task.applyAsInt(values)));
+        }
+        int sum = 0;
+        for (CompletableFuture<Integer> future : futures) {
+            try {
+                sum += future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+        return sum;
+    }
+
+}
@@ -166,4 +166,17 @@ public <T> T getFacet(Class<? extends T> cls) {
         }
     }
 
+    //FAWE start
+
+    /**
+     * Get the Bukkit entity, if it was not garbage collected.
+     *
+     * @return the Bukkit entity, or null
+     */
+    @Nullable
+    org.bukkit.entity.Entity getBukkitEntity() {
+        return entityRef.get();
+    }
+    //FAWE end
+
 }
@@ -28,6 +28,7 @@
 import com.fastasyncworldedit.core.queue.IChunkGet;
 import com.fastasyncworldedit.core.queue.implementation.packet.ChunkPacket;
 import com.github.ssquadteam.fawe.scheduler.FaweScheduler;
+import com.github.ssquadteam.fawe.scheduler.RegionBatch;
 import com.github.ssquadteam.fawe.scheduler.RegionSync;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
@@ -40,6 +41,7 @@
 import com.sk89q.worldedit.bukkit.adapter.UnsupportedVersionEditException;
 import com.sk89q.worldedit.entity.Player;
 import com.sk89q.worldedit.extent.Extent;
+import com.sk89q.worldedit.function.EntityFunction;
 import com.sk89q.worldedit.internal.util.LogManagerCompat;
 import com.sk89q.worldedit.internal.wna.WorldNativeAccess;
 import com.sk89q.worldedit.math.BlockVector2;
@@ -73,16 +75,19 @@
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 
+import javax.annotation.Nullable;
 import java.lang.ref.WeakReference;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -180,14 +185,78 @@ public List<com.sk89q.worldedit.entity.Entity> getEntities() {
     @Override
     public int removeEntities(final Region region) {
         List<com.sk89q.worldedit.entity.Entity> entities = getEntities(region);
-        //FAWE-Folia start - removal belongs to the region owning the area the entities were found in
-        BlockVector3 min = region.getMinimumPoint();
-        return RegionSync.supply(getWorld(), min.x(), min.y(), min.z(), () -> entities.stream()
-                .mapToInt(entity -> entity.remove() ? 1 : 0).sum()
-        );
+        //FAWE-Folia start - removal belongs to the regions owning the entities, each removes its entities in one task
+        return applyEntities(entities, com.sk89q.worldedit.entity.Entity::remove);
         //FAWE-Folia end
     }
 
+    //FAWE-Folia start - entities are touched by one task per owning region, not by one hop per entity
+    @Override
+    public int applyEntities(Collection<? extends com.sk89q.worldedit.entity.Entity> entities, EntityFunction function) throws
+            WorldEditException {
+        RegionBatch<com.sk89q.worldedit.entity.Entity> batch = new RegionBatch<>(getWorld());
+        List<com.sk89q.worldedit.entity.Entity> remaining = new ArrayList<>();
+        for (com.sk89q.worldedit.entity.Entity entity : entities) {
+            Entity bukkitEntity = getBukkitEntity(entity);
+            if (bukkitEntity == null) {
+                remaining.add(entity);
+                continue;
+            }
+            // Read off the owning thread, the entity may move before its region runs the batch
+            org.bukkit.Location location = bukkitEntity.getLocation();
+            // Entities tracked for history are grouped by the entity they wrap, but the function is applied to the wrapper
+            batch.add(location.getBlockX() >> 4, location.getBlockZ() >> 4, entity);
+        }
+        List<com.sk89q.worldedit.entity.Entity> moved = Collections.synchronizedList(new ArrayList<>());
+        int affected;
+        try {
+            affected = batch.run(values -> {
+                int count = 0;
+                for (com.sk89q.worldedit.entity.Entity entity : values) {
+                    Entity bukkitEntity = getBukkitEntity(entity);
+                    // Entities that left the region are handed to their new owner one by one afterwards
+                    if (FaweScheduler.isFolia() && bukkitEntity != null
+                            && !FaweScheduler.scheduler().isOwnedByCurrentRegion(bukkitEntity)) {
+                        moved.add(entity);
+                        continue;
+                    }
+                    try {
+                        if (function.apply(entity)) {
+                            count++;
+                        }
+                    } catch (WorldEditException e) {
+                        throw new WrappedWorldEditException(e);
+                    }
+                }
+                return count;
+            });
+        } catch (WrappedWorldEditException e) {
+            throw e.getCause();
+        }
+        remaining.addAll(moved);
+        return affected + super.applyEntities(remaining, function);
+    }
+
+    @Nullable
+    private static Entity getBukkitEntity(com.sk89q.worldedit.entity.Entity entity) {
+        return entity.unwrap() instanceof BukkitEntity e ? e.getBukkitEntity() : null;
+    }
+
+    // Carries an exception of an entity function out of the tasks of a region batch
+    private static final class WrappedWorldEditException extends RuntimeException {
+
+        private WrappedWorldEditException(WorldEditException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized WorldEditException getCause() {
+            return (WorldEditException) super.getCause();
+        }
+
+    }
+    //FAWE-Folia end
+
     //FAWE: createEntity was moved to IChunkExtent to prevent issues with Async Entity Add.
 
     /**
@@ -422,6 +491,21 @@ public void checkLoadedChunk(BlockVector3 pt) {
         //FAWE end
     }
 
+    //FAWE start
+    @Override
+    public CompletableFuture<Void> loadChunkAsync(int chunkX, int chunkZ) {
+        testCoords(BlockVector3.at(chunkX << 4, 0, chunkZ << 4));
+        World world = getWorld();
+        if (FaweScheduler.isFolia() || (!Fawe.isMainThread() && PaperLib.isPaper())) {
+            return PaperLib.getChunkAtAsync(world, chunkX, chunkZ, true).thenAccept(chunk -> {
+            });
+        } else if (Fawe.isMainThread()) {
+            world.getChunkAt(chunkX, chunkZ);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+    //FAWE end
+
     @Override
     public boolean equals(Object other) {
         final World ref = worldRef.get();
@@ -22,7 +22,9 @@
 import com.fastasyncworldedit.bukkit.BukkitPermissionAttachmentManager;
 import com.fastasyncworldedit.bukkit.FaweBukkit;
 import com.fastasyncworldedit.core.Fawe;
+import com.fastasyncworldedit.core.FaweCache;
 import com.github.ssquadteam.fawe.scheduler.FaweScheduler;
+import com.fastasyncworldedit.core.queue.implementation.BoundedPool;
 import com.fastasyncworldedit.core.util.UpdateNotification;
 import com.fastasyncworldedit.core.util.WEManager;
 import com.google.common.base.Joiner;
@@ -288,12 +290,27 @@ public void onEnable() {
         // First introduced in build 349, release 2.5.2
         m.addCustomChart(new SimplePie("residence", ()
                 -> WEManager.weManager().getManagers().toString().contains("residence") ? "Yes" : "No"));
+        m.addCustomChart(new SimplePie("chunk_pool_hit_rate", WorldEditPlugin::chunkPoolHitRate));
         // Check if we are in a safe environment
         ServerLib.checkUnsafeForks();
         // Check if a new build is available
         UpdateNotification.doUpdateCheck();
     }
 
+    private static String chunkPoolHitRate() {
+        long hits = 0;
+        long total = 0;
+        for (BoundedPool.Statistics statistics : FaweCache.INSTANCE.getPoolStatistics()) {
+            hits += statistics.hits();
+            total += statistics.hits() + statistics.misses();
+        }
+        if (total == 0) {
+            return "Disabled";
+        }
+        // Bucketed to 10% steps
+        return (hits * 10 / total) * 10 + "%";
+    }
+
     private void setupPreWorldData() {
         loadAdapter();
         initializeRegistries(); // this creates the objects matching Bukkit's enums - but doesn't fill them with data yet
@@ -19,6 +19,8 @@
 
 package com.sk89q.worldedit.cli;
 
+import com.fastasyncworldedit.core.command.AnvilCommands;
+import com.fastasyncworldedit.core.command.AnvilCommandsRegistration;
 import com.fastasyncworldedit.core.configuration.Caption;
 import com.google.common.collect.ImmutableList;
 import com.sk89q.worldedit.WorldEdit;
@@ -51,8 +53,13 @@
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.Options;
 import org.apache.logging.log4j.Logger;
+import org.enginehub.linbus.stream.LinBinaryIO;
+import org.enginehub.linbus.tree.LinCompoundTag;
+import org.enginehub.linbus.tree.LinRootEntry;
+import org.enginehub.linbus.tree.LinTagType;
 
 import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -66,6 +73,7 @@
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.zip.GZIPInputStream;
 
 /**
  * The CLI implementation of WorldEdit.
@@ -113,6 +121,15 @@ private void registerCommands() {
                 CLIExtraCommandsRegistration.builder(),
                 new CLIExtraCommands()
         );
+        //FAWE start - anvil commands on world folders
+        pcm.registerSubCommands(
+                "anvil",
+                ImmutableList.of(),
+                "Edit the region files of world folders which are not loaded",
+                AnvilCommandsRegistration.builder(),
+                new AnvilCommands(WorldEdit.getInstance())
+        );
+        //FAWE end
     }
 
     public void setupRegistries() {
@@ -319,7 +336,16 @@ public static void main(String[] args) {
             }
             LOGGER.info(() -> "Loading '" + file + "'...");
             if (file.getName().endsWith("level.dat")) {
-                throw new IllegalArgumentException("level.dat file support is unfinished.");
+                //FAWE start - world folders are edited by the anvil commands
+                LinCompoundTag data;
+                try (DataInputStream in = new DataInputStream(new GZIPInputStream(Files.newInputStream(file.toPath())))) {
+                    data = LinRootEntry.readFrom(LinBinaryIO.read(in)).value().getTag("Data", LinTagType.compoundTag());
+                }
+                app.platform.setDataVersion(data.getTag("DataVersion", LinTagType.intTag()).valueAsInt());
+                app.onStarted();
+                String folder = file.getAbsoluteFile().getParent();
+                LOGGER.info(() -> "Run anvil commands on the world with e.g. `/anvil replaceall " + folder + " stone dirt`");
+                //FAWE end
             } else {
                 ClipboardFormat format = ClipboardFormats.findByFile(file);
                 if (format != null) {
@@ -12,7 +12,7 @@
 import com.fastasyncworldedit.core.queue.IChunkSet;
 import com.fastasyncworldedit.core.queue.Pool;
 import com.fastasyncworldedit.core.queue.Trimable;
-import com.fastasyncworldedit.core.queue.implementation.QueuePool;
+import com.fastasyncworldedit.core.queue.implementation.BoundedPool;
 import com.fastasyncworldedit.core.util.MathMan;
 import com.fastasyncworldedit.core.util.collection.CleanableThreadLocal;
 import com.fastasyncworldedit.core.util.task.FaweBasicThreadFactory;
@@ -45,7 +45,6 @@
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -77,7 +76,7 @@ public enum FaweCache implements Trimable {
 
     public final char[] EMPTY_CHAR_4096 = new char[4096];
 
-    private final IdentityHashMap<Class<? extends IChunkSet>, Pool<? extends IChunkSet>> REGISTERED_POOLS = new IdentityHashMap<>();
+    private final IdentityHashMap<Class<?>, Pool<?>> REGISTERED_POOLS = new IdentityHashMap<>();
 
     /*
     Palette buffers / cache
@@ -98,8 +97,7 @@ public synchronized boolean trim(boolean aggressive) {
         MUTABLE_VECTOR3.clean();
         MUTABLE_BLOCKVECTOR3.clean();
         SECTION_BITS_TO_CHAR.clean();
-        for (Entry<Class<? extends IChunkSet>, Pool<? extends IChunkSet>> entry : REGISTERED_POOLS.entrySet()) {
-            Pool<? extends IChunkSet> pool = entry.getValue();
+        for (Pool<?> pool : REGISTERED_POOLS.values()) {
             pool.clear();
         }
 
@@ -107,20 +105,50 @@ public synchronized boolean trim(boolean aggressive) {
     }
 
     public synchronized <T extends IChunkSet> Pool<T> registerPool(Class<T> clazz, Supplier<T> cache, boolean buffer) {
+        return registerPool(clazz, cache, buffer ? Settings.settings().QUEUE.POOL_CAPACITY : 0);
+    }
+
+    /**
+     * Register a pool of objects of the given type, keeping at most the given number of idle objects. The pool is cleared
+     * when the cache is trimmed.
+     *
+     * @param clazz    pooled type, each type may only be registered once
+     * @param cache    creates new objects when the pool is empty
+     * @param capacity maximum number of idle objects kept, or 0 to disable pooling
+     * @return the registered pool
+     * @since TODO
+     */
+    public synchronized <T> Pool<T> registerPool(Class<T> clazz, Supplier<T> cache, int capacity) {
         checkNotNull(cache);
         Pool<T> pool;
-        if (buffer) {
-            pool = new QueuePool<>(cache);
+        if (capacity > 0) {
+            pool = new BoundedPool<>(clazz.getSimpleName(), cache, capacity);
         } else {
             pool = cache::get;
         }
-        Pool<? extends IChunkSet> previous = REGISTERED_POOLS.putIfAbsent(clazz, pool);
+        Pool<?> previous = REGISTERED_POOLS.putIfAbsent(clazz, pool);
         if (previous != null) {
             throw new IllegalStateException("Previous key");
         }
         return pool;
     }
 
+    /**
+     * Get the usage counters of all registered pools that keep idle objects.
+     *
+     * @return statistics of each bounded pool
+     * @since TODO
+     */
+    public synchronized List<BoundedPool.Statistics> getPoolStatistics() {
+        List<BoundedPool.Statistics> statistics = new ArrayList<>();
+        for (Pool<?> pool : REGISTERED_POOLS.values()) {
+            if (pool instanceof BoundedPool<?> bounded) {
+                statistics.add(bounded.getStatistics());
+            }
+        }
+        return statistics;
+    }
+
     public <T, V> LoadingCache<T, V> createCache(Supplier<V> withInitial) {
         return CacheBuilder.newBuilder().build(new CacheLoader<>() {
             @Override
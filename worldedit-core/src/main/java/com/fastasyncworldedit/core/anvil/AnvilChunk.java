@@ -0,0 +1,459 @@
+package com.fastasyncworldedit.core.anvil;
+
+import com.fastasyncworldedit.core.extent.processor.heightmap.HeightMapType;
+import com.fastasyncworldedit.core.nbt.FaweCompoundTag;
+import com.fastasyncworldedit.core.queue.IChunk;
+import com.fastasyncworldedit.core.queue.IChunkSet;
+import com.fastasyncworldedit.core.queue.IQueueExtent;
+import com.fastasyncworldedit.core.queue.implementation.blocks.CharGetBlocks;
+import com.sk89q.worldedit.entity.Entity;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.world.biome.BiomeType;
+import com.sk89q.worldedit.world.biome.BiomeTypes;
+import com.sk89q.worldedit.world.block.BlockTypesCache;
+import com.sk89q.worldedit.world.storage.InvalidFormatException;
+import org.enginehub.linbus.tree.LinByteTag;
+import org.enginehub.linbus.tree.LinCompoundTag;
+import org.enginehub.linbus.tree.LinListTag;
+import org.enginehub.linbus.tree.LinNumberTag;
+import org.enginehub.linbus.tree.LinStringTag;
+import org.enginehub.linbus.tree.LinTag;
+import org.enginehub.linbus.tree.LinTagType;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Future;
+
+/**
+ * A chunk of a Minecraft 1.18+ world read from a region file, without a running server. Blocks are decoded into ordinals
+ * once, so the chunk can be filtered with a {@link com.fastasyncworldedit.core.extent.filter.block.CharFilterBlock} like a
+ * chunk of a loaded world. Changes collected in an {@link IChunkSet} are written back with {@link #apply(IChunkSet)}, or
+ * {@link #call(IQueueExtent, IChunkSet, Runnable)} when submitted through a queue, and the result taken from
+ * {@link #getUpdatedRoot()}.
+ * <p>
+ * Light and entities are not read. Lighting of changed sections is removed, so the server recalculates it when the chunk
+ * is loaded next.
+ *
+ * @since TODO
+ */
+public class AnvilChunk extends CharGetBlocks {
+
+    private final LinCompoundTag root;
+    private final LinCompoundTag[] sections;
+    private final BiomeType[][] biomes;
+    private Map<BlockVector3, FaweCompoundTag> tiles;
+    @Nullable
+    private LinCompoundTag updatedRoot;
+    private int changedBlocks;
+
+    /**
+     * Decode a chunk.
+     *
+     * @param root       root tag of the chunk
+     * @param chunkX     chunk x coordinate
+     * @param chunkZ     chunk z coordinate
+     * @param minSection minimum section y coordinate of the world
+     * @param maxSection maximum section y coordinate of the world
+     * @throws InvalidFormatException if the chunk data is invalid
+     */
+    public AnvilChunk(LinCompoundTag root, int chunkX, int chunkZ, int minSection, int maxSection) throws
+            InvalidFormatException {
+        super(minSection, maxSection);
+        init(chunkX, chunkZ);
+        this.root = root;
+        this.sections = ChunkSectionDecoder.getSections(root, minSection, maxSection);
+        this.biomes = new BiomeType[sectionCount][];
+        for (int i = 0; i < sectionCount; i++) {
+            if (sections[i] != null) {
+                blocks[i] = ChunkSectionDecoder.decodeBlocks(sections[i]);
+            }
+        }
+    }
+
+    /**
+     * Decode a chunk, using the section range stored in the chunk.
+     *
+     * @param root   root tag of the chunk
+     * @param chunkX chunk x coordinate
+     * @param chunkZ chunk z coordinate
+     * @return the chunk
+     * @throws InvalidFormatException if the chunk data is invalid
+     */
+    public static AnvilChunk of(LinCompoundTag root, int chunkX, int chunkZ) throws InvalidFormatException {
+        int minSection = root.value().get("yPos") instanceof LinNumberTag<?> yPos ? yPos.value().intValue() : -4;
+        int maxSection = minSection;
+        LinListTag<LinCompoundTag> sections = root.findListTag("sections", LinTagType.compoundTag());
+        if (sections != null) {
+            for (LinCompoundTag section : sections.value()) {
+                // Sections above and below the world only store light
+                if (section.value().get("Y") instanceof LinNumberTag<?> y && section.value().containsKey("block_states")) {
+                    maxSection = Math.max(maxSection, y.value().intValue());
+                }
+            }
+        }
+        return new AnvilChunk(root, chunkX, chunkZ, minSection, maxSection);
+    }
+
+    /**
+     * Get the root tag the chunk was decoded from.
+     *
+     * @return the root tag
+     */
+    public LinCompoundTag getRoot() {
+        return root;
+    }
+
+    /**
+     * Get the root tag including all changes applied so far, to be written to the region file.
+     *
+     * @return the updated root tag, or null if no applied set changed the chunk
+     */
+    @Nullable
+    public LinCompoundTag getUpdatedRoot() {
+        return updatedRoot;
+    }
+
+    /**
+     * Get the status of the chunk, e.g. {@code minecraft:full} for chunks finished generating.
+     *
+     * @return the status, or null if not present
+     */
+    @Nullable
+    public String getStatus() {
+        LinStringTag status = root.findTag("Status", LinTagType.stringTag());
+        return status == null ? null : status.value();
+    }
+
+    /**
+     * Get the time players have spent in a chunk. The chunk does not need to be decoded for this.
+     *
+     * @param root root tag of the chunk
+     * @return the time in ticks
+     */
+    public static long getInhabitedTime(LinCompoundTag root) {
+        return root.value().get("InhabitedTime") instanceof LinNumberTag<?> time ? time.value().longValue() : 0;
+    }
+
+    /**
+     * If the chunk contains only air.
+     *
+     * @return if all blocks are air
+     */
+    public boolean isAir() {
+        for (char[] section : blocks) {
+            if (section == null) {
+                continue;
+            }
+            for (char ordinal : section) {
+                switch (ordinal) {
+                    case BlockTypesCache.ReservedIDs.__RESERVED__, BlockTypesCache.ReservedIDs.AIR,
+                            BlockTypesCache.ReservedIDs.CAVE_AIR, BlockTypesCache.ReservedIDs.VOID_AIR -> {
+                    }
+                    default -> {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the biomes of the chunk.
+     *
+     * @return the distinct biomes of all sections
+     * @throws InvalidFormatException if the chunk data is invalid
+     */
+    public Set<BiomeType> getBiomes() throws InvalidFormatException {
+        Set<BiomeType> result = new HashSet<>();
+        for (int index = 0; index < sectionCount; index++) {
+            if (sections[index] != null) {
+                for (BiomeType biome : getBiomes(index)) {
+                    if (biome != null) {
+                        result.add(biome);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of blocks changed by {@link #apply(IChunkSet)}.
+     *
+     * @return the number of blocks
+     */
+    public int getChangedBlocks() {
+        return changedBlocks;
+    }
+
+    /**
+     * Write the changes of the given set into a copy of the root tag. Positions the set does not change, or changes to the
+     * block or biome already present, are ignored. Changes of earlier calls are kept, so several sets may be applied in turn.
+     *
+     * @param set the changes
+     * @return the updated root tag, or null if the set does not change the chunk
+     * @throws InvalidFormatException if the chunk data is invalid
+     */
+    @Nullable
+    public LinCompoundTag apply(IChunkSet set) throws InvalidFormatException {
+        BitSet[] changedBlocks = new BitSet[sectionCount];
+        boolean[] changedSections = new boolean[sectionCount];
+        boolean changed = false;
+        for (int layer = minSectionPosition; layer <= maxSectionPosition; layer++) {
+            int index = layer - minSectionPosition;
+            char[] setArr = set.loadIfPresent(layer);
+            if (setArr != null) {
+                char[] getArr = load(layer);
+                for (int i = 0; i < 4096; i++) {
+                    char value = setArr[i];
+                    if (value != BlockTypesCache.ReservedIDs.__RESERVED__ && value != getArr[i]) {
+                        getArr[i] = value;
+                        if (changedBlocks[index] == null) {
+                            changedBlocks[index] = new BitSet(4096);
+                        }
+                        changedBlocks[index].set(i);
+                        this.changedBlocks++;
+                    }
+                }
+                changedSections[index] = changedBlocks[index] != null;
+            }
+            if (set.hasBiomes(layer)) {
+                BiomeType[] setBiomes = set.getBiomes()[layer - set.getMinSectionPosition()];
+                BiomeType[] layerBiomes = getBiomes(index);
+                for (int i = 0; i < 64; i++) {
+                    BiomeType biome = setBiomes[i];
+                    if (biome != null && biome != layerBiomes[i]) {
+                        layerBiomes[i] = biome;
+                        changedSections[index] = true;
+                    }
+                }
+            }
+            changed |= changedSections[index];
+        }
+        if (!changed && set.tiles().isEmpty()) {
+            return null;
+        }
+        LinCompoundTag root = updatedRoot != null ? updatedRoot : this.root;
+
+        LinListTag.Builder<LinCompoundTag> newSections = LinListTag.builder(LinTagType.compoundTag());
+        boolean[] written = new boolean[sectionCount];
+        LinListTag<LinCompoundTag> oldSections = root.findListTag("sections", LinTagType.compoundTag());
+        if (oldSections != null) {
+            for (LinCompoundTag section : oldSections.value()) {
+                int index = ((LinNumberTag<?>) section.value().get("Y")).value().intValue() - minSectionPosition;
+                if (index < 0 || index >= sectionCount || !changedSections[index]) {
+                    newSections.add(section);
+                } else {
+                    newSections.add(encodeSection(section.toBuilder(), index));
+                    written[index] = true;
+                }
+            }
+        }
+        for (int index = 0; index < sectionCount; index++) {
+            if (changedSections[index] && !written[index]) {
+                LinCompoundTag.Builder section = LinCompoundTag.builder()
+                        .put("Y", LinByteTag.of((byte) (index + minSectionPosition)));
+                newSections.add(encodeSection(section, index));
+            }
+        }
+
+        LinListTag.Builder<LinCompoundTag> newTiles = LinListTag.builder(LinTagType.compoundTag());
+        LinListTag<LinCompoundTag> oldTiles = root.findListTag("block_entities", LinTagType.compoundTag());
+        if (oldTiles != null) {
+            for (LinCompoundTag tile : oldTiles.value()) {
+                int y = getInt(tile, "y");
+                int index = (y >> 4) - minSectionPosition;
+                int blockIndex = (y & 15) << 8 | (getInt(tile, "z") & 15) << 4 | getInt(tile, "x") & 15;
+                // block entities of replaced blocks are removed
+                if (index < 0 || index >= sectionCount || changedBlocks[index] == null || !changedBlocks[index].get(blockIndex)) {
+                    if (set.tile(getInt(tile, "x") & 15, y, getInt(tile, "z") & 15) == null) {
+                        newTiles.add(tile);
+                    }
+                }
+            }
+        }
+        for (Map.Entry<BlockVector3, FaweCompoundTag> entry : set.tiles().entrySet()) {
+            BlockVector3 pos = entry.getKey();
+            int x = (getX() << 4) + (pos.x() & 15);
+            int z = (getZ() << 4) + (pos.z() & 15);
+            LinCompoundTag.Builder tile = entry.getValue().linTag().toBuilder()
+                    .putInt("x", x)
+                    .putInt("y", pos.y())
+                    .putInt("z", z);
+            if (!entry.getValue().linTag().value().containsKey("id")) {
+                tile.putString("id", getBlock(pos.x() & 15, pos.y(), pos.z() & 15).getBlockType().id());
+            }
+            newTiles.add(tile.build());
+        }
+
+        updatedRoot = root.toBuilder()
+                .put("sections", newSections.build())
+                .put("block_entities", newTiles.build())
+                // The server recalculates light and heightmaps of the chunk when loading it
+                .put("isLightOn", LinByteTag.of((byte) 0))
+                .remove("Heightmaps")
+                .build();
+        tiles = null;
+        return updatedRoot;
+    }
+
+    private LinCompoundTag encodeSection(LinCompoundTag.Builder section, int index) {
+        char[] blocks = this.blocks[index];
+        if (blocks != null) {
+            section.put("block_states", ChunkSectionEncoder.encodeBlocks(blocks));
+        }
+        BiomeType[] biomes = this.biomes[index];
+        if (biomes != null) {
+            section.put("biomes", ChunkSectionEncoder.encodeBiomes(biomes));
+        } else if (sections[index] == null || !sections[index].value().containsKey("biomes")) {
+            BiomeType[] plains = new BiomeType[64];
+            Arrays.fill(plains, BiomeTypes.PLAINS);
+            section.put("biomes", ChunkSectionEncoder.encodeBiomes(plains));
+        }
+        return section.remove("BlockLight").remove("SkyLight").build();
+    }
+
+    private static int getInt(LinCompoundTag tag, String key) {
+        LinTag<?> value = tag.value().get(key);
+        return value instanceof LinNumberTag<?> number ? number.value().intValue() : 0;
+    }
+
+    private BiomeType[] getBiomes(int index) throws InvalidFormatException {
+        BiomeType[] result = biomes[index];
+        if (result == null) {
+            result = sections[index] == null ? null : ChunkSectionDecoder.decodeBiomes(sections[index]);
+            if (result == null) {
+                result = new BiomeType[64];
+            }
+            biomes[index] = result;
+        }
+        return result;
+    }
+
+    @Override
+    public BiomeType getBiomeType(int x, int y, int z) {
+        int index = (y >> 4) - minSectionPosition;
+        if (index < 0 || index >= sectionCount) {
+            return null;
+        }
+        try {
+            return getBiomes(index)[(y & 15) >> 2 << 4 | (z & 15) >> 2 << 2 | (x & 15) >> 2];
+        } catch (InvalidFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Map<BlockVector3, FaweCompoundTag> tiles() {
+        if (tiles == null) {
+            Map<BlockVector3, FaweCompoundTag> result = new HashMap<>();
+            LinCompoundTag root = updatedRoot != null ? updatedRoot : this.root;
+            LinListTag<LinCompoundTag> list = root.findListTag("block_entities", LinTagType.compoundTag());
+            if (list != null) {
+                for (LinCompoundTag tile : list.value()) {
+                    result.put(
+                            BlockVector3.at(getInt(tile, "x") & 15, getInt(tile, "y"), getInt(tile, "z") & 15),
+                            FaweCompoundTag.of(tile)
+                    );
+                }
+            }
+            tiles = result;
+        }
+        return tiles;
+    }
+
+    @Nullable
+    @Override
+    public FaweCompoundTag tile(int x, int y, int z) {
+        return tiles().get(BlockVector3.at(x & 15, y, z & 15));
+    }
+
+    @Override
+    public Collection<FaweCompoundTag> entities() {
+        return Collections.emptyList();
+    }
+
+    @Nullable
+    @Override
+    public FaweCompoundTag entity(UUID uuid) {
+        return null;
+    }
+
+    @Override
+    public Set<Entity> getFullEntities() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public int getSkyLight(int x, int y, int z) {
+        return 15;
+    }
+
+    @Override
+    public int getEmittedLight(int x, int y, int z) {
+        return 0;
+    }
+
+    @Override
+    public int[] getHeightMap(HeightMapType type) {
+        return new int[256];
+    }
+
+    @Override
+    public void removeSectionLighting(int layer, boolean sky) {
+    }
+
+    @Override
+    public void setLightingToGet(char[][] lighting, int startSectionIndex, int endSectionIndex) {
+    }
+
+    @Override
+    public void setSkyLightingToGet(char[][] lighting, int startSectionIndex, int endSectionIndex) {
+    }
+
+    @Override
+    public void setHeightmapToGet(HeightMapType type, int[] data) {
+    }
+
+    @Override
+    public <T extends Future<T>> T call(IQueueExtent<? extends IChunk> owner, IChunkSet set, Runnable finalize) {
+        try {
+            apply(set);
+        } catch (InvalidFormatException e) {
+            throw new IllegalStateException("Invalid data in chunk " + getX() + "," + getZ(), e);
+        }
+        // Applied synchronously, the updated root is written to the region file by the caller
+        finalize.run();
+        return null;
+    }
+
+    @Override
+    public boolean isCreateCopy() {
+        return false;
+    }
+
+    @Override
+    public int setCreateCopy(boolean createCopy) {
+        return -1;
+    }
+
+    @Override
+    public int getMaxY() {
+        return (maxSectionPosition << 4) + 15;
+    }
+
+    @Override
+    public int getMinY() {
+        return minSectionPosition << 4;
+    }
+
+}
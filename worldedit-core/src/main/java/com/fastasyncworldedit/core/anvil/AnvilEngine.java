@@ -0,0 +1,416 @@
+package com.fastasyncworldedit.core.anvil;
+
+import com.fastasyncworldedit.core.configuration.Settings;
+import com.fastasyncworldedit.core.extent.filter.block.CharFilterBlock;
+import com.fastasyncworldedit.core.queue.Filter;
+import com.fastasyncworldedit.core.queue.implementation.blocks.CharSetBlocks;
+import com.sk89q.worldedit.extent.NullExtent;
+import com.sk89q.worldedit.internal.util.LogManagerCompat;
+import com.sk89q.worldedit.world.DataException;
+import com.sk89q.worldedit.world.storage.InvalidFormatException;
+import org.apache.logging.log4j.Logger;
+import org.enginehub.linbus.tree.LinCompoundTag;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Edits the region files of a world that is not loaded by a server. Region files are processed in parallel, each by a
+ * single thread. Chunks are decoded into ordinals (see {@link AnvilChunk}) and only chunks that actually change are
+ * re-encoded; all other chunks are copied into the rewritten region file as they are.
+ * <p>
+ * Only chunks of Minecraft 1.18+ that finished generating are edited. Older chunks are skipped, as they are upgraded by the
+ * server when loaded.
+ *
+ * @since TODO
+ */
+public class AnvilEngine {
+
+    /**
+     * Name of the folder containing the region files of block data.
+     */
+    public static final String REGION_FOLDER = "region";
+    // Folders with region files of the same chunks, which are removed alongside the block data
+    private static final String[] CHUNK_DATA_FOLDERS = {"entities", "poi"};
+
+    private static final Logger LOGGER = LogManagerCompat.getLogger();
+    private static final Pattern REGION_FILE = Pattern.compile("r\\.(-?\\d+)\\.(-?\\d+)\\.mca");
+
+    private final Path worldFolder;
+    private final Path regionFolder;
+    @Nullable
+    private AnvilHistory history;
+    private int threads = Settings.settings().QUEUE.PARALLEL_THREADS;
+
+    private final AtomicLong chunkCount = new AtomicLong();
+    private final AtomicLong changedChunks = new AtomicLong();
+    private final AtomicLong changedBlocks = new AtomicLong();
+    private final AtomicLong skippedChunks = new AtomicLong();
+    private final AtomicInteger errors = new AtomicInteger();
+
+    /**
+     * Create an engine for a world.
+     *
+     * @param worldFolder folder of the world or dimension, containing the {@code region} folder
+     */
+    public AnvilEngine(Path worldFolder) {
+        this.worldFolder = worldFolder;
+        this.regionFolder = worldFolder.resolve(REGION_FOLDER);
+    }
+
+    /**
+     * If the given folder is a world or dimension folder with a {@code region} folder.
+     *
+     * @param folder the folder
+     * @return if the folder contains region files
+     */
+    public static boolean isWorldFolder(Path folder) {
+        return Files.isDirectory(folder.resolve(REGION_FOLDER));
+    }
+
+    /**
+     * Get the region coordinates of a region file.
+     *
+     * @param file path of the region file
+     * @return the x and z coordinate, or null if the file name is not the one of a region file
+     */
+    @Nullable
+    public static int[] getRegionCoordinates(Path file) {
+        Matcher matcher = REGION_FILE.matcher(file.getFileName().toString());
+        if (!matcher.matches()) {
+            return null;
+        }
+        return new int[]{Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))};
+    }
+
+    /**
+     * Get the folder of the world or dimension.
+     *
+     * @return the folder
+     */
+    public Path getWorldFolder() {
+        return worldFolder;
+    }
+
+    /**
+     * Get the region files of the world.
+     *
+     * @return the region files
+     * @throws IOException if the region folder could not be listed
+     */
+    public List<Path> getRegionFiles() throws IOException {
+        try (Stream<Path> files = Files.list(regionFolder)) {
+            return files.filter(path -> getRegionCoordinates(path) != null).toList();
+        }
+    }
+
+    /**
+     * Set the history the original data of changed chunks is stored in.
+     *
+     * @param history the history, or null to not record history
+     * @return this
+     */
+    public AnvilEngine setHistory(@Nullable AnvilHistory history) {
+        this.history = history;
+        return this;
+    }
+
+    /**
+     * Get the history the original data of changed chunks is stored in.
+     *
+     * @return the history, or null if history is not recorded
+     */
+    @Nullable
+    public AnvilHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Set the number of region files processed in parallel.
+     *
+     * @param threads number of threads
+     * @return this
+     */
+    public AnvilEngine setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * Apply a filter to every block of the world. The filter is forked for each thread and joined afterwards, like filters
+     * applied by a {@link com.fastasyncworldedit.core.queue.implementation.ParallelQueueExtent}. As there is no chunk
+     * object backed by the world, only {@link Filter#applyBlock} is called.
+     *
+     * @param filter the filter, which may be a {@link com.sk89q.worldedit.function.pattern.Pattern} or a filter masked with
+     *               {@link com.sk89q.worldedit.function.mask.Mask#toFilter(Filter)}
+     * @param <T>    filter type
+     * @return the filter
+     * @throws IOException if the region folder could not be listed
+     */
+    public <T extends Filter> T apply(T filter) throws IOException {
+        forEachRegion((file, regionX, regionZ) -> {
+            RegionFile region = RegionFile.read(file);
+            Filter local = filter.fork();
+            CharFilterBlock block = new CharFilterBlock(NullExtent.INSTANCE);
+            boolean[] changed = new boolean[1024];
+            RegionFileWriter writer = null;
+            for (int index = 0; index < 1024; index++) {
+                int chunkX = (regionX << 5) + (index & 31);
+                int chunkZ = (regionZ << 5) + (index >> 5);
+                if (!region.hasChunk(chunkX, chunkZ)) {
+                    continue;
+                }
+                chunkCount.incrementAndGet();
+                LinCompoundTag root = readChunk(region, chunkX, chunkZ);
+                if (root == null || !ChunkSectionDecoder.isSupported(ChunkSectionDecoder.getDataVersion(root))) {
+                    skippedChunks.incrementAndGet();
+                    continue;
+                }
+                CharSetBlocks set = CharSetBlocks.newInstance(chunkX, chunkZ);
+                try {
+                    AnvilChunk chunk = AnvilChunk.of(root, chunkX, chunkZ);
+                    if (!isGenerated(chunk)) {
+                        skippedChunks.incrementAndGet();
+                        continue;
+                    }
+                    block.initChunk(chunkX, chunkZ);
+                    for (int layer = chunk.getMinSectionPosition(); layer <= chunk.getMaxSectionPosition(); layer++) {
+                        if (chunk.hasSection(layer)) {
+                            block.initLayer(chunk, set, layer);
+                            block.filter(local);
+                        }
+                    }
+                    LinCompoundTag updated = chunk.apply(set);
+                    if (updated != null) {
+                        if (writer == null) {
+                            writer = RegionFileWriter.of(region, regionX, regionZ);
+                        }
+                        writer.setChunk(chunkX, chunkZ, updated);
+                        changed[index] = true;
+                        changedChunks.incrementAndGet();
+                        changedBlocks.addAndGet(chunk.getChangedBlocks());
+                    }
+                } catch (InvalidFormatException e) {
+                    errors.incrementAndGet();
+                    LOGGER.warn("Skipping invalid chunk {},{} of {}: {}", chunkX, chunkZ, file, e.getMessage());
+                } finally {
+                    set.recycle();
+                }
+            }
+            if (writer != null) {
+                if (history != null) {
+                    history.record(region, regionX, regionZ, changed);
+                }
+                writer.write();
+            }
+        });
+        filter.join();
+        return filter;
+    }
+
+    /**
+     * Delete all chunks matching the given predicate. Entity and point of interest data of the chunks is deleted as well.
+     *
+     * @param predicate the predicate
+     * @return the number of deleted chunks
+     * @throws IOException if the region folder could not be listed
+     */
+    public long deleteChunks(ChunkPredicate predicate) throws IOException {
+        long before = changedChunks.get();
+        forEachRegion((file, regionX, regionZ) -> {
+            RegionFile region = RegionFile.read(file);
+            boolean[] deleted = new boolean[1024];
+            boolean any = false;
+            for (int index = 0; index < 1024; index++) {
+                int chunkX = (regionX << 5) + (index & 31);
+                int chunkZ = (regionZ << 5) + (index >> 5);
+                if (!region.hasChunk(chunkX, chunkZ)) {
+                    continue;
+                }
+                chunkCount.incrementAndGet();
+                try {
+                    if (predicate.test(region, chunkX, chunkZ)) {
+                        deleted[index] = true;
+                        any = true;
+                    }
+                } catch (DataException e) {
+                    errors.incrementAndGet();
+                    LOGGER.warn("Skipping invalid chunk {},{} of {}: {}", chunkX, chunkZ, file, e.getMessage());
+                }
+            }
+            if (!any) {
+                return;
+            }
+            removeChunks(region, regionX, regionZ, deleted);
+            for (String folder : CHUNK_DATA_FOLDERS) {
+                Path data = worldFolder.resolve(folder).resolve(file.getFileName().toString());
+                if (Files.exists(data)) {
+                    removeChunks(RegionFile.read(data), regionX, regionZ, deleted);
+                }
+            }
+        });
+        return changedChunks.get() - before;
+    }
+
+    private void removeChunks(RegionFile region, int regionX, int regionZ, boolean[] chunks) throws IOException,
+            DataException {
+        boolean[] present = new boolean[1024];
+        boolean any = false;
+        RegionFileWriter writer = RegionFileWriter.of(region, regionX, regionZ);
+        for (int index = 0; index < 1024; index++) {
+            if (chunks[index] && region.hasChunk(index & 31, index >> 5)) {
+                present[index] = true;
+                any = true;
+                writer.removeChunk(index & 31, index >> 5);
+            }
+        }
+        if (!any) {
+            return;
+        }
+        if (history != null) {
+            history.record(region, regionX, regionZ, present);
+        }
+        writer.write();
+        if (region.getPath().getParent().equals(regionFolder)) {
+            for (boolean removed : present) {
+                if (removed) {
+                    changedChunks.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private LinCompoundTag readChunk(RegionFile region, int chunkX, int chunkZ) throws IOException {
+        try {
+            return region.readChunk(chunkX, chunkZ);
+        } catch (DataException e) {
+            errors.incrementAndGet();
+            LOGGER.warn("Skipping invalid chunk {},{} of {}: {}", chunkX, chunkZ, region.getPath(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isGenerated(AnvilChunk chunk) {
+        String status = chunk.getStatus();
+        return "minecraft:full".equals(status) || "full".equals(status);
+    }
+
+    private void forEachRegion(RegionTask task) throws IOException {
+        List<Path> files = getRegionFiles();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, files.size())));
+        try {
+            List<Future<?>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                int[] coordinates = getRegionCoordinates(file);
+                futures.add(executor.submit(() -> {
+                    try {
+                        task.run(file, coordinates[0], coordinates[1]);
+                    } catch (IOException | DataException e) {
+                        errors.incrementAndGet();
+                        LOGGER.error("Failed to process region file {}", file, e);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    errors.incrementAndGet();
+                    LOGGER.error("Failed to process region file", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while processing " + regionFolder, e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the number of chunks visited by the operations of this engine.
+     *
+     * @return the number of chunks
+     */
+    public long getChunkCount() {
+        return chunkCount.get();
+    }
+
+    /**
+     * Get the number of chunks changed or deleted by the operations of this engine.
+     *
+     * @return the number of chunks
+     */
+    public long getChangedChunks() {
+        return changedChunks.get();
+    }
+
+    /**
+     * Get the number of blocks changed by filters applied with {@link #apply(Filter)}.
+     *
+     * @return the number of blocks
+     */
+    public long getChangedBlocks() {
+        return changedBlocks.get();
+    }
+
+    /**
+     * Get the number of chunks skipped as they were not fully generated or stored by an older version of Minecraft.
+     *
+     * @return the number of chunks
+     */
+    public long getSkippedChunks() {
+        return skippedChunks.get();
+    }
+
+    /**
+     * Get the number of invalid chunks and region files that could not be processed.
+     *
+     * @return the number of errors
+     */
+    public int getErrorCount() {
+        return errors.get();
+    }
+
+    /**
+     * A predicate on a chunk of a region file.
+     */
+    @FunctionalInterface
+    public interface ChunkPredicate {
+
+        /**
+         * Test a chunk. The chunk data can be read with {@link RegionFile#readChunk(int, int)} if needed.
+         *
+         * @param region the region file
+         * @param chunkX absolute chunk x coordinate
+         * @param chunkZ absolute chunk z coordinate
+         * @return if the chunk matches
+         * @throws IOException   if the chunk could not be read
+         * @throws DataException if the chunk data is invalid
+         */
+        boolean test(RegionFile region, int chunkX, int chunkZ) throws IOException, DataException;
+
+    }
+
+    @FunctionalInterface
+    private interface RegionTask {
+
+        void run(Path file, int regionX, int regionZ) throws IOException, DataException;
+
+    }
+
+}
@@ -0,0 +1,185 @@
+package com.fastasyncworldedit.core.anvil;
+
+import com.sk89q.worldedit.world.DataException;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * History of an operation of an {@link AnvilEngine}. Before a region file is rewritten, the original data of the changed
+ * chunks is stored in a region file of the same name in the history directory, in a sub directory named like the folder
+ * of the region file ({@code region}, {@code entities} or {@code poi}). Undoing the operation writes these chunks back into
+ * the world.
+ *
+ * @since TODO
+ */
+public class AnvilHistory {
+
+    private final Path directory;
+    private final AtomicInteger chunks = new AtomicInteger();
+
+    /**
+     * Create a new history.
+     *
+     * @param directory directory the history is stored in
+     */
+    public AnvilHistory(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Create a history for a new operation. Histories of a world are stored in sub directories of the given root, named
+     * by the time they were created.
+     *
+     * @param root root directory of the histories of a world
+     * @return the history
+     */
+    public static AnvilHistory create(Path root) {
+        return new AnvilHistory(root.resolve(Long.toString(System.currentTimeMillis())));
+    }
+
+    /**
+     * Get the most recent history of a world.
+     *
+     * @param root root directory of the histories of a world
+     * @return the history, or null if there is none
+     * @throws IOException if the directory could not be listed
+     */
+    @Nullable
+    public static AnvilHistory getLatest(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(root)) {
+            return files.filter(Files::isDirectory)
+                    .filter(path -> path.getFileName().toString().chars().allMatch(Character::isDigit))
+                    .max(Comparator.comparingLong(path -> Long.parseLong(path.getFileName().toString())))
+                    .map(AnvilHistory::new)
+                    .orElse(null);
+        }
+    }
+
+    /**
+     * Get the directory the history is stored in.
+     *
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the number of chunks recorded by this instance, not counting entity and point of interest data.
+     *
+     * @return the number of chunks
+     */
+    public int getChunkCount() {
+        return chunks.get();
+    }
+
+    /**
+     * Store the original data of chunks of a region file. Must be called at most once per region file.
+     *
+     * @param region  the region file, before any changes
+     * @param regionX region x coordinate
+     * @param regionZ region z coordinate
+     * @param changed if the chunk at index {@code x + z * 32} of the region is changed
+     * @throws IOException   if the history could not be written
+     * @throws DataException if the region file is invalid
+     */
+    public void record(RegionFile region, int regionX, int regionZ, boolean[] changed) throws IOException, DataException {
+        Path folder = directory.resolve(region.getPath().getParent().getFileName().toString());
+        Files.createDirectories(folder);
+        Path path = folder.resolve(region.getPath().getFileName().toString());
+        RegionFileWriter writer = new RegionFileWriter(path, regionX, regionZ);
+        int count = 0;
+        for (int index = 0; index < 1024; index++) {
+            if (changed[index]) {
+                int chunkX = (regionX << 5) + (index & 31);
+                int chunkZ = (regionZ << 5) + (index >> 5);
+                writer.setRawChunk(chunkX, chunkZ, region.getRawChunk(chunkX, chunkZ), region.getTimestamp(chunkX, chunkZ));
+                count++;
+            }
+        }
+        writer.write();
+        if (folder.getFileName().toString().equals(AnvilEngine.REGION_FOLDER)) {
+            chunks.addAndGet(count);
+        }
+    }
+
+    /**
+     * Write the recorded chunks back into a world and delete the history.
+     *
+     * @param worldFolder folder of the world or dimension, containing the {@code region} folder
+     * @return the number of restored chunks, not counting entity and point of interest data
+     * @throws IOException   if a region file could not be read or written
+     * @throws DataException if a region file is invalid
+     */
+    public int undo(Path worldFolder) throws IOException, DataException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        List<Path> folders;
+        try (Stream<Path> stream = Files.list(directory)) {
+            folders = stream.filter(Files::isDirectory).toList();
+        }
+        int count = 0;
+        for (Path folder : folders) {
+            int restored = undo(folder, worldFolder.resolve(folder.getFileName().toString()));
+            if (folder.getFileName().toString().equals(AnvilEngine.REGION_FOLDER)) {
+                count += restored;
+            }
+            Files.delete(folder);
+        }
+        Files.delete(directory);
+        return count;
+    }
+
+    private static int undo(Path folder, Path target) throws IOException, DataException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(folder)) {
+            files = new ArrayList<>(stream.toList());
+        }
+        Files.createDirectories(target);
+        int count = 0;
+        // Other files, e.g. the external chunks of oversized chunks, are read through the region files referencing them, so
+        // they are deleted once all region files are restored
+        List<Path> others = new ArrayList<>();
+        for (Path file : files) {
+            int[] coordinates = AnvilEngine.getRegionCoordinates(file);
+            if (coordinates == null) {
+                others.add(file);
+                continue;
+            }
+            RegionFile stored = RegionFile.read(file);
+            Path path = target.resolve(file.getFileName().toString());
+            RegionFileWriter writer = Files.exists(path)
+                    ? RegionFileWriter.of(RegionFile.read(path), coordinates[0], coordinates[1])
+                    : new RegionFileWriter(path, coordinates[0], coordinates[1]);
+            for (int z = 0; z < 32; z++) {
+                for (int x = 0; x < 32; x++) {
+                    if (stored.hasChunk(x, z)) {
+                        int chunkX = (coordinates[0] << 5) + x;
+                        int chunkZ = (coordinates[1] << 5) + z;
+                        writer.setRawChunk(chunkX, chunkZ, stored.getRawChunk(chunkX, chunkZ), stored.getTimestamp(x, z));
+                        count++;
+                    }
+                }
+            }
+            writer.write();
+            Files.delete(file);
+        }
+        for (Path file : others) {
+            Files.delete(file);
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,242 @@
+package com.fastasyncworldedit.core.anvil;
+
+import com.sk89q.worldedit.internal.Constants;
+import com.sk89q.worldedit.registry.state.Property;
+import com.sk89q.worldedit.world.biome.BiomeType;
+import com.sk89q.worldedit.world.biome.BiomeTypes;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockType;
+import com.sk89q.worldedit.world.block.BlockTypes;
+import com.sk89q.worldedit.world.storage.InvalidFormatException;
+import org.enginehub.linbus.tree.LinCompoundTag;
+import org.enginehub.linbus.tree.LinListTag;
+import org.enginehub.linbus.tree.LinLongArrayTag;
+import org.enginehub.linbus.tree.LinNumberTag;
+import org.enginehub.linbus.tree.LinStringTag;
+import org.enginehub.linbus.tree.LinTag;
+import org.enginehub.linbus.tree.LinTagType;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decodes the sections of chunks in the Minecraft 1.18+ format directly into block ordinals, without converting the chunk
+ * into {@link com.sk89q.jnbt.CompoundTag}s or {@link BlockState} arrays first. Palette entries are cached, so each distinct
+ * block state of a world is only resolved once.
+ *
+ * @since TODO
+ */
+public final class ChunkSectionDecoder {
+
+    private static final Map<LinCompoundTag, Character> STATES = new ConcurrentHashMap<>();
+
+    private ChunkSectionDecoder() {
+    }
+
+    /**
+     * If chunks with the given data version can be decoded.
+     *
+     * @param dataVersion data version of the chunk
+     * @return if supported
+     */
+    public static boolean isSupported(int dataVersion) {
+        return dataVersion >= Constants.DATA_VERSION_MC_1_18;
+    }
+
+    /**
+     * Get the data version of a chunk.
+     *
+     * @param chunk root tag of the chunk
+     * @return the data version, or -1 if not present
+     */
+    public static int getDataVersion(LinCompoundTag chunk) {
+        LinTag<?> tag = chunk.value().get("DataVersion");
+        return tag instanceof LinNumberTag<?> number ? number.value().intValue() : -1;
+    }
+
+    /**
+     * Get the sections of a chunk, indexed by their y coordinate relative to the given minimum section.
+     *
+     * @param chunk      root tag of the chunk
+     * @param minSection minimum section y coordinate to include
+     * @param maxSection maximum section y coordinate to include
+     * @return the sections; null entries are not present in the chunk
+     * @throws InvalidFormatException if the chunk data is invalid
+     */
+    public static LinCompoundTag[] getSections(LinCompoundTag chunk, int minSection, int maxSection) throws
+            InvalidFormatException {
+        LinCompoundTag[] result = new LinCompoundTag[maxSection - minSection + 1];
+        LinListTag<LinCompoundTag> sections = chunk.findListTag("sections", LinTagType.compoundTag());
+        if (sections == null) {
+            return result;
+        }
+        for (LinCompoundTag section : sections.value()) {
+            // sometimes a byte, sometimes an int
+            if (!(section.value().get("Y") instanceof LinNumberTag<?> y)) {
+                throw new InvalidFormatException("Y is not numeric");
+            }
+            int layer = y.value().intValue();
+            if (layer >= minSection && layer <= maxSection) {
+                result[layer - minSection] = section;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decode the blocks of a section.
+     *
+     * @param section section tag
+     * @return 4096 ordinals indexed by {@code y << 8 | z << 4 | x}, or null if the section has no blocks
+     * @throws InvalidFormatException if the section data is invalid
+     */
+    @Nullable
+    public static char[] decodeBlocks(LinCompoundTag section) throws InvalidFormatException {
+        LinCompoundTag blockStates = section.findTag("block_states", LinTagType.compoundTag());
+        if (blockStates == null) {
+            return null;
+        }
+        LinListTag<LinCompoundTag> paletteTag = blockStates.findListTag("palette", LinTagType.compoundTag());
+        if (paletteTag == null || paletteTag.value().isEmpty()) {
+            return null;
+        }
+        char[] palette = new char[paletteTag.value().size()];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = getOrdinal(paletteTag.value().get(i));
+        }
+        char[] blocks = new char[4096];
+        if (palette.length == 1) {
+            Arrays.fill(blocks, palette[0]);
+            return blocks;
+        }
+        LinLongArrayTag data = blockStates.findTag("data", LinTagType.longArrayTag());
+        if (data == null) {
+            throw new InvalidFormatException("Section with a palette of " + palette.length + " states has no data");
+        }
+        int bits = Math.max(4, bitsFor(palette.length));
+        unpack(data.value(), bits, blocks.length, (index, value) -> {
+            if (value >= palette.length) {
+                throw new InvalidFormatException("Invalid block state table entry: " + value);
+            }
+            blocks[index] = palette[value];
+        });
+        return blocks;
+    }
+
+    /**
+     * Decode the biomes of a section.
+     *
+     * @param section section tag
+     * @return 64 biomes indexed by {@code y << 4 | z << 2 | x} in 4x4x4 cells, or null if the section has no biomes. Entries
+     *         are null for biomes unknown to the platform.
+     * @throws InvalidFormatException if the section data is invalid
+     */
+    @Nullable
+    public static BiomeType[] decodeBiomes(LinCompoundTag section) throws InvalidFormatException {
+        LinCompoundTag biomesTag = section.findTag("biomes", LinTagType.compoundTag());
+        if (biomesTag == null) {
+            return null;
+        }
+        LinListTag<LinStringTag> paletteTag = biomesTag.findListTag("palette", LinTagType.stringTag());
+        if (paletteTag == null || paletteTag.value().isEmpty()) {
+            return null;
+        }
+        BiomeType[] palette = new BiomeType[paletteTag.value().size()];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = BiomeTypes.get(paletteTag.value().get(i).value());
+        }
+        BiomeType[] biomes = new BiomeType[64];
+        if (palette.length == 1) {
+            Arrays.fill(biomes, palette[0]);
+            return biomes;
+        }
+        LinLongArrayTag data = biomesTag.findTag("data", LinTagType.longArrayTag());
+        if (data == null) {
+            throw new InvalidFormatException("Section with a palette of " + palette.length + " biomes has no data");
+        }
+        unpack(data.value(), bitsFor(palette.length), biomes.length, (index, value) -> {
+            if (value >= palette.length) {
+                throw new InvalidFormatException("Invalid biome table entry: " + value);
+            }
+            biomes[index] = palette[value];
+        });
+        return biomes;
+    }
+
+    /**
+     * Get the ordinal of a palette entry.
+     *
+     * @param entry palette entry with a name and optional properties
+     * @return the ordinal
+     * @throws InvalidFormatException if the block type or a property is unknown
+     */
+    public static char getOrdinal(LinCompoundTag entry) throws InvalidFormatException {
+        Character ordinal = STATES.get(entry);
+        if (ordinal == null) {
+            ordinal = parseState(entry).getOrdinalChar();
+            STATES.put(entry, ordinal);
+        }
+        return ordinal;
+    }
+
+    private static BlockState parseState(LinCompoundTag entry) throws InvalidFormatException {
+        LinStringTag name = entry.findTag("Name", LinTagType.stringTag());
+        BlockType type = name == null ? null : BlockTypes.get(name.value());
+        if (type == null) {
+            throw new InvalidFormatException("Invalid block type: " + (name == null ? null : name.value()));
+        }
+        BlockState state = type.getDefaultState();
+        LinCompoundTag properties = entry.findTag("Properties", LinTagType.compoundTag());
+        if (properties == null) {
+            return state;
+        }
+        for (Map.Entry<String, ? extends LinTag<?>> property : properties.value().entrySet()) {
+            if (!(property.getValue() instanceof LinStringTag value)) {
+                continue;
+            }
+            Property<Object> key = type.getProperty(property.getKey());
+            if (key == null) {
+                continue;
+            }
+            try {
+                state = state.with(key, key.getValueFor(value.value()));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidFormatException("Invalid block state for " + type.id() + ", " + property.getKey() + ": "
+                        + value.value());
+            }
+        }
+        return state;
+    }
+
+    private static int bitsFor(int paletteSize) {
+        return 32 - Integer.numberOfLeadingZeros(paletteSize - 1);
+    }
+
+    /**
+     * Unpack values stored in longs without spanning longs, as used since Minecraft 1.16.
+     */
+    private static void unpack(long[] data, int bits, int count, ValueConsumer consumer) throws InvalidFormatException {
+        int perLong = 64 / bits;
+        if (data.length != (count + perLong - 1) / perLong) {
+            throw new InvalidFormatException("Expected " + (count + perLong - 1) / perLong + " longs, got " + data.length);
+        }
+        long mask = (1L << bits) - 1;
+        int index = 0;
+        for (long word : data) {
+            for (int i = 0; i < perLong && index < count; i++) {
+                consumer.accept(index++, (int) (word & mask));
+                word >>>= bits;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ValueConsumer {
+
+        void accept(int index, int value) throws InvalidFormatException;
+
+    }
+
+}
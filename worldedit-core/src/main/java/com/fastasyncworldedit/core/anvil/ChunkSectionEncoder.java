@@ -0,0 +1,139 @@
+package com.fastasyncworldedit.core.anvil;
+
+import com.sk89q.worldedit.world.biome.BiomeType;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockTypesCache;
+import it.unimi.dsi.fastutil.chars.Char2IntOpenHashMap;
+import org.enginehub.linbus.tree.LinCompoundTag;
+import org.enginehub.linbus.tree.LinListTag;
+import org.enginehub.linbus.tree.LinLongArrayTag;
+import org.enginehub.linbus.tree.LinStringTag;
+import org.enginehub.linbus.tree.LinTagType;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes block ordinals and biomes into the section format of Minecraft 1.18+ chunks, the counterpart of
+ * {@link ChunkSectionDecoder}.
+ *
+ * @since TODO
+ */
+public final class ChunkSectionEncoder {
+
+    private static final Map<Character, LinCompoundTag> ENTRIES = new ConcurrentHashMap<>();
+
+    private ChunkSectionEncoder() {
+    }
+
+    /**
+     * Encode the blocks of a section.
+     *
+     * @param blocks 4096 ordinals indexed by {@code y << 8 | z << 4 | x}
+     * @return the {@code block_states} tag of the section
+     */
+    public static LinCompoundTag encodeBlocks(char[] blocks) {
+        Char2IntOpenHashMap indices = new Char2IntOpenHashMap();
+        indices.defaultReturnValue(-1);
+        char[] palette = new char[16];
+        int paletteSize = 0;
+        int[] values = new int[blocks.length];
+        for (int i = 0; i < blocks.length; i++) {
+            char ordinal = blocks[i];
+            if (ordinal == BlockTypesCache.ReservedIDs.__RESERVED__) {
+                ordinal = BlockTypesCache.ReservedIDs.AIR;
+            }
+            int index = indices.get(ordinal);
+            if (index < 0) {
+                if (paletteSize == palette.length) {
+                    palette = Arrays.copyOf(palette, paletteSize << 1);
+                }
+                index = paletteSize;
+                palette[paletteSize++] = ordinal;
+                indices.put(ordinal, index);
+            }
+            values[i] = index;
+        }
+        LinListTag.Builder<LinCompoundTag> paletteTag = LinListTag.builder(LinTagType.compoundTag());
+        for (int i = 0; i < paletteSize; i++) {
+            paletteTag.add(getPaletteEntry(palette[i]));
+        }
+        LinCompoundTag.Builder result = LinCompoundTag.builder().put("palette", paletteTag.build());
+        if (paletteSize > 1) {
+            result.put("data", LinLongArrayTag.of(pack(values, Math.max(4, bitsFor(paletteSize)))));
+        }
+        return result.build();
+    }
+
+    /**
+     * Encode the biomes of a section.
+     *
+     * @param biomes 64 biomes indexed by {@code y << 4 | z << 2 | x} in 4x4x4 cells
+     * @return the {@code biomes} tag of the section
+     */
+    public static LinCompoundTag encodeBiomes(BiomeType[] biomes) {
+        BiomeType[] palette = new BiomeType[biomes.length];
+        int paletteSize = 0;
+        int[] values = new int[biomes.length];
+        for (int i = 0; i < biomes.length; i++) {
+            int index = 0;
+            while (index < paletteSize && palette[index] != biomes[i]) {
+                index++;
+            }
+            if (index == paletteSize) {
+                palette[paletteSize++] = biomes[i];
+            }
+            values[i] = index;
+        }
+        LinListTag.Builder<LinStringTag> paletteTag = LinListTag.builder(LinTagType.stringTag());
+        for (int i = 0; i < paletteSize; i++) {
+            paletteTag.add(LinStringTag.of(palette[i].id()));
+        }
+        LinCompoundTag.Builder result = LinCompoundTag.builder().put("palette", paletteTag.build());
+        if (paletteSize > 1) {
+            result.put("data", LinLongArrayTag.of(pack(values, bitsFor(paletteSize))));
+        }
+        return result.build();
+    }
+
+    /**
+     * Get the palette entry of a block state, with its name and properties.
+     *
+     * @param ordinal ordinal of the block state
+     * @return the palette entry
+     */
+    public static LinCompoundTag getPaletteEntry(char ordinal) {
+        return ENTRIES.computeIfAbsent(ordinal, key -> {
+            BlockState state = BlockTypesCache.states[key];
+            LinCompoundTag.Builder builder = LinCompoundTag.builder().putString("Name", state.getBlockType().id());
+            if (!state.getStates().isEmpty()) {
+                LinCompoundTag.Builder properties = LinCompoundTag.builder();
+                state.getStates().forEach((property, value) -> properties.putString(
+                        property.getName(),
+                        value.toString().toLowerCase(Locale.ROOT)
+                ));
+                builder.put("Properties", properties.build());
+            }
+            return builder.build();
+        });
+    }
+
+    private static int bitsFor(int paletteSize) {
+        return 32 - Integer.numberOfLeadingZeros(paletteSize - 1);
+    }
+
+    /**
+     * Pack values into longs without spanning longs, as used since Minecraft 1.16.
+     */
+    private static long[] pack(int[] values, int bits) {
+        int perLong = 64 / bits;
+        long[] data = new long[(values.length + perLong - 1) / perLong];
+        for (int i = 0; i < values.length; i++) {
+            data[i / perLong] |= (long) values[i] << (i % perLong) * bits;
+        }
+        return data;
+    }
+
+}
@@ -0,0 +1,304 @@
+package com.fastasyncworldedit.core.anvil;
+
+import com.sk89q.worldedit.world.DataException;
+import net.jpountz.lz4.LZ4BlockInputStream;
+import org.enginehub.linbus.stream.LinBinaryIO;
+import org.enginehub.linbus.tree.LinCompoundTag;
+import org.enginehub.linbus.tree.LinRootEntry;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Random access reader for an Anvil region file ({@code r.x.z.mca}). Unlike
+ * {@link com.sk89q.worldedit.world.storage.McRegionReader}, which reads a stream up to the requested chunk, the file is
+ * memory-mapped where the file system allows it, and chunks may be read concurrently from any thread.
+ *
+ * @since TODO
+ */
+public final class RegionFile {
+
+    /**
+     * Size of a sector of a region file, in bytes.
+     */
+    public static final int SECTOR_BYTES = 4096;
+    /**
+     * Size of the chunk header, the length and the compression type, in bytes.
+     */
+    public static final int CHUNK_HEADER_SIZE = 5;
+
+    static final int COMPRESSION_GZIP = 1;
+    static final int COMPRESSION_DEFLATE = 2;
+    static final int COMPRESSION_NONE = 3;
+    static final int COMPRESSION_LZ4 = 4;
+    // Set on the compression type if the chunk is stored in a separate c.x.z.mcc file
+    static final int EXTERNAL_FLAG = 0x80;
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final int[] offsets;
+    private final int[] timestamps;
+
+    private RegionFile(Path path, ByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        this.offsets = new int[1024];
+        this.timestamps = new int[1024];
+        if (buffer.capacity() >= 2 * SECTOR_BYTES) {
+            for (int i = 0; i < 1024; i++) {
+                offsets[i] = buffer.getInt(i << 2);
+                timestamps[i] = buffer.getInt(SECTOR_BYTES + (i << 2));
+            }
+        }
+    }
+
+    /**
+     * Open a region file. The file is memory-mapped if supported by its file system, otherwise it is read into memory.
+     *
+     * @param path path to the region file
+     * @return the region file
+     * @throws IOException if the file could not be read
+     */
+    public static RegionFile open(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (UnsupportedOperationException e) {
+            // e.g. files inside of archives
+            buffer = ByteBuffer.wrap(Files.readAllBytes(path)).asReadOnlyBuffer();
+        }
+        return new RegionFile(path, buffer);
+    }
+
+    /**
+     * Read a region file into memory. Unlike {@link #open(Path)}, the file is not held open afterwards, so it may be replaced
+     * while this instance is in use.
+     *
+     * @param path path to the region file
+     * @return the region file
+     * @throws IOException if the file could not be read
+     */
+    public static RegionFile read(Path path) throws IOException {
+        return new RegionFile(path, ByteBuffer.wrap(Files.readAllBytes(path)).asReadOnlyBuffer());
+    }
+
+    /**
+     * Create a region file from the given buffer. The buffer must not be modified afterwards.
+     *
+     * @param path   path of the region file, used to resolve chunks stored in separate files
+     * @param buffer content of the region file
+     * @return the region file
+     */
+    public static RegionFile of(Path path, ByteBuffer buffer) {
+        return new RegionFile(path, buffer.asReadOnlyBuffer());
+    }
+
+    /**
+     * Get the path of this region file.
+     *
+     * @return path
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * If the content of the region file is memory-mapped rather than held on the heap.
+     *
+     * @return if memory-mapped
+     * @since TODO
+     */
+    public boolean isMapped() {
+        return buffer.isDirect();
+    }
+
+    /**
+     * Get the size of the region file in bytes.
+     *
+     * @return the size
+     * @since TODO
+     */
+    public int getSize() {
+        return buffer.capacity();
+    }
+
+    static int index(int chunkX, int chunkZ) {
+        return (chunkX & 31) + ((chunkZ & 31) << 5);
+    }
+
+    /**
+     * If the region file contains the given chunk.
+     *
+     * @param chunkX chunk x coordinate, either absolute or relative to the region
+     * @param chunkZ chunk z coordinate, either absolute or relative to the region
+     * @return if the chunk is present
+     */
+    public boolean hasChunk(int chunkX, int chunkZ) {
+        return offsets[index(chunkX, chunkZ)] != 0;
+    }
+
+    /**
+     * Get the raw sector offset entry of a chunk: the first sector in the upper three bytes and the sector count in the
+     * lowest byte, or 0 if the chunk is not present.
+     *
+     * @param chunkX chunk x coordinate, either absolute or relative to the region
+     * @param chunkZ chunk z coordinate, either absolute or relative to the region
+     * @return the offset entry
+     */
+    public int getOffset(int chunkX, int chunkZ) {
+        return offsets[index(chunkX, chunkZ)];
+    }
+
+    /**
+     * Get the last modification time of a chunk.
+     *
+     * @param chunkX chunk x coordinate, either absolute or relative to the region
+     * @param chunkZ chunk z coordinate, either absolute or relative to the region
+     * @return the modification time in seconds since the epoch, or 0 if the chunk is not present
+     */
+    public int getTimestamp(int chunkX, int chunkZ) {
+        return timestamps[index(chunkX, chunkZ)];
+    }
+
+    /**
+     * Get the stored data of a chunk as it appears in the region file: the length, the compression type and the compressed
+     * data. Chunks stored in separate files are only referenced.
+     *
+     * @param chunkX chunk x coordinate, either absolute or relative to the region
+     * @param chunkZ chunk z coordinate, either absolute or relative to the region
+     * @return the stored data, or null if the chunk is not present
+     * @throws DataException if the chunk header is invalid
+     */
+    @Nullable
+    byte[] getStoredChunk(int chunkX, int chunkZ) throws DataException {
+        int offset = getOffset(chunkX, chunkZ);
+        if (offset == 0) {
+            return null;
+        }
+        int start = getChunkStart(chunkX, chunkZ, offset);
+        byte[] data = new byte[4 + buffer.getInt(start)];
+        buffer.get(start, data);
+        return data;
+    }
+
+    /**
+     * Get the compressed data of a chunk in the format stored in region files: the length, the compression type and the
+     * compressed data. Chunks stored in separate files are read into the result.
+     *
+     * @param chunkX absolute chunk x coordinate
+     * @param chunkZ absolute chunk z coordinate
+     * @return the compressed data, or null if the chunk is not present
+     * @throws IOException   if the chunk could not be read
+     * @throws DataException if the chunk header is invalid
+     */
+    @Nullable
+    public byte[] getRawChunk(int chunkX, int chunkZ) throws IOException, DataException {
+        byte[] stored = getStoredChunk(chunkX, chunkZ);
+        if (stored == null || (stored[4] & EXTERNAL_FLAG) == 0) {
+            return stored;
+        }
+        byte[] external = Files.readAllBytes(getExternalPath(chunkX, chunkZ));
+        ByteBuffer result = ByteBuffer.allocate(CHUNK_HEADER_SIZE + external.length);
+        result.putInt(external.length + 1).put((byte) (stored[4] & ~EXTERNAL_FLAG)).put(external);
+        return result.array();
+    }
+
+    /**
+     * Get the path of the file a chunk is stored in if it is too large for the region file.
+     *
+     * @param chunkX absolute chunk x coordinate
+     * @param chunkZ absolute chunk z coordinate
+     * @return the path, which exists only if the chunk is stored externally
+     */
+    public Path getExternalPath(int chunkX, int chunkZ) {
+        return path.resolveSibling("c." + chunkX + "." + chunkZ + ".mcc");
+    }
+
+    private int getChunkStart(int chunkX, int chunkZ, int offset) throws DataException {
+        long start = (long) (offset >>> 8) * SECTOR_BYTES;
+        int sectors = offset & 0xFF;
+        if (start + CHUNK_HEADER_SIZE > buffer.capacity()) {
+            throw new DataException("Chunk " + chunkX + "," + chunkZ + " is outside of " + path.getFileName());
+        }
+        int length = buffer.getInt((int) start);
+        if (length <= 0 || length > sectors * SECTOR_BYTES || start + 4 + length > buffer.capacity()) {
+            throw new DataException("Chunk " + chunkX + "," + chunkZ + " has an invalid length of " + length);
+        }
+        return (int) start;
+    }
+
+    /**
+     * Get the uncompressed data of a chunk.
+     *
+     * @param chunkX absolute chunk x coordinate
+     * @param chunkZ absolute chunk z coordinate
+     * @return the chunk data, or null if the chunk is not present
+     * @throws IOException   if the chunk could not be read
+     * @throws DataException if the chunk data is invalid
+     */
+    @Nullable
+    public InputStream getChunkInputStream(int chunkX, int chunkZ) throws IOException, DataException {
+        int offset = getOffset(chunkX, chunkZ);
+        if (offset == 0) {
+            return null;
+        }
+        int start = getChunkStart(chunkX, chunkZ, offset);
+        int length = buffer.getInt(start);
+        int compression = buffer.get(start + 4) & 0xFF;
+        InputStream raw;
+        if ((compression & EXTERNAL_FLAG) != 0) {
+            Path external = getExternalPath(chunkX, chunkZ);
+            if (!Files.exists(external)) {
+                throw new DataException("Chunk " + chunkX + "," + chunkZ + " is stored in missing file " + external.getFileName());
+            }
+            raw = new BufferedInputStream(Files.newInputStream(external));
+            compression &= ~EXTERNAL_FLAG;
+        } else {
+            byte[] data = new byte[length - 1];
+            buffer.get(start + CHUNK_HEADER_SIZE, data);
+            raw = new ByteArrayInputStream(data);
+        }
+        return switch (compression) {
+            case COMPRESSION_GZIP -> new GZIPInputStream(raw);
+            case COMPRESSION_DEFLATE -> new InflaterInputStream(raw);
+            case COMPRESSION_NONE -> raw;
+            case COMPRESSION_LZ4 -> new LZ4BlockInputStream(raw);
+            default -> {
+                raw.close();
+                throw new DataException("Chunk " + chunkX + "," + chunkZ + " has an unsupported compression type " + compression);
+            }
+        };
+    }
+
+    /**
+     * Read the NBT data of a chunk.
+     *
+     * @param chunkX absolute chunk x coordinate
+     * @param chunkZ absolute chunk z coordinate
+     * @return the chunk data, or null if the chunk is not present
+     * @throws IOException   if the chunk could not be read
+     * @throws DataException if the chunk data is invalid
+     */
+    @Nullable
+    public LinCompoundTag readChunk(int chunkX, int chunkZ) throws IOException, DataException {
+        InputStream stream = getChunkInputStream(chunkX, chunkZ);
+        if (stream == null) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            return LinRootEntry.readFrom(LinBinaryIO.read(in)).value();
+        }
+    }
+
+}
@@ -0,0 +1,245 @@
+package com.fastasyncworldedit.core.anvil;
+
+import com.sk89q.worldedit.world.DataException;
+import org.enginehub.linbus.stream.LinBinaryIO;
+import org.enginehub.linbus.tree.LinCompoundTag;
+import org.enginehub.linbus.tree.LinRootEntry;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+
+import static com.fastasyncworldedit.core.anvil.RegionFile.CHUNK_HEADER_SIZE;
+import static com.fastasyncworldedit.core.anvil.RegionFile.SECTOR_BYTES;
+
+/**
+ * Writes an Anvil region file ({@code r.x.z.mca}). Chunks are packed into consecutive sectors, so a rewritten file never
+ * contains unused space. Chunks taking more than 255 sectors are stored in separate {@code c.x.z.mcc} files, as done by
+ * Minecraft.
+ * <p>
+ * The file is written to a temporary file next to it first and then moved into place, so a failed write never leaves a
+ * corrupted region file behind.
+ *
+ * @since TODO
+ */
+public final class RegionFileWriter {
+
+    private static final int MAX_SECTORS = 255;
+
+    private final Path path;
+    private final byte[][] chunks = new byte[1024][];
+    private final int[] timestamps = new int[1024];
+    // Chunks changed since the writer was created, whose separate files need to be written or removed
+    private final boolean[] changed = new boolean[1024];
+    private final int regionX;
+    private final int regionZ;
+
+    /**
+     * Create a writer for an empty region file.
+     *
+     * @param path    path of the region file
+     * @param regionX region x coordinate
+     * @param regionZ region z coordinate
+     */
+    public RegionFileWriter(Path path, int regionX, int regionZ) {
+        this.path = path;
+        this.regionX = regionX;
+        this.regionZ = regionZ;
+    }
+
+    /**
+     * Create a writer containing all chunks of the given region file, to be written back to the same path.
+     *
+     * @param source  the region file
+     * @param regionX region x coordinate
+     * @param regionZ region z coordinate
+     * @return the writer
+     * @throws DataException if a chunk header of the region file is invalid
+     */
+    public static RegionFileWriter of(RegionFile source, int regionX, int regionZ) throws DataException {
+        RegionFileWriter writer = new RegionFileWriter(source.getPath(), regionX, regionZ);
+        for (int z = 0; z < 32; z++) {
+            for (int x = 0; x < 32; x++) {
+                int index = RegionFile.index(x, z);
+                writer.chunks[index] = source.getStoredChunk(x, z);
+                writer.timestamps[index] = source.getTimestamp(x, z);
+            }
+        }
+        return writer;
+    }
+
+    /**
+     * Set the compressed data of a chunk, as returned by {@link RegionFile#getRawChunk(int, int)}.
+     *
+     * @param chunkX    chunk x coordinate, either absolute or relative to the region
+     * @param chunkZ    chunk z coordinate, either absolute or relative to the region
+     * @param data      the length, compression type and compressed data of the chunk, or null to remove the chunk
+     * @param timestamp the modification time in seconds since the epoch
+     */
+    public void setRawChunk(int chunkX, int chunkZ, @Nullable byte[] data, int timestamp) {
+        int index = RegionFile.index(chunkX, chunkZ);
+        if (data != null && (data.length < CHUNK_HEADER_SIZE || ByteBuffer.wrap(data).getInt() != data.length - 4)) {
+            throw new IllegalArgumentException("Invalid chunk data for " + chunkX + "," + chunkZ);
+        }
+        chunks[index] = data;
+        timestamps[index] = data == null ? 0 : timestamp;
+        changed[index] = true;
+    }
+
+    /**
+     * Set the data of a chunk. The chunk is compressed with zlib and its timestamp is set to the current time.
+     *
+     * @param chunkX chunk x coordinate, either absolute or relative to the region
+     * @param chunkZ chunk z coordinate, either absolute or relative to the region
+     * @param chunk  root tag of the chunk
+     * @throws IOException if the chunk could not be serialized
+     */
+    public void setChunk(int chunkX, int chunkZ, LinCompoundTag chunk) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(SECTOR_BYTES * 4);
+        bytes.write(new byte[CHUNK_HEADER_SIZE]);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            LinBinaryIO.write(out, new LinRootEntry("", chunk));
+        }
+        byte[] data = bytes.toByteArray();
+        ByteBuffer.wrap(data).putInt(data.length - 4).put((byte) RegionFile.COMPRESSION_DEFLATE);
+        setRawChunk(chunkX, chunkZ, data, (int) (System.currentTimeMillis() / 1000L));
+    }
+
+    /**
+     * Remove a chunk, which is regenerated by the server the next time it is loaded.
+     *
+     * @param chunkX chunk x coordinate, either absolute or relative to the region
+     * @param chunkZ chunk z coordinate, either absolute or relative to the region
+     */
+    public void removeChunk(int chunkX, int chunkZ) {
+        setRawChunk(chunkX, chunkZ, null, 0);
+    }
+
+    /**
+     * If the given chunk is present.
+     *
+     * @param chunkX chunk x coordinate, either absolute or relative to the region
+     * @param chunkZ chunk z coordinate, either absolute or relative to the region
+     * @return if present
+     */
+    public boolean hasChunk(int chunkX, int chunkZ) {
+        return chunks[RegionFile.index(chunkX, chunkZ)] != null;
+    }
+
+    /**
+     * If no chunks are present.
+     *
+     * @return if empty
+     */
+    public boolean isEmpty() {
+        for (byte[] chunk : chunks) {
+            if (chunk != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write the region file. If no chunks are present, the region file is deleted instead.
+     *
+     * @throws IOException if the file could not be written
+     */
+    public void write() throws IOException {
+        // External chunk files are only replaced or deleted once the region file referencing them is, until then new ones
+        // are written to temporary files
+        List<Path> written = new ArrayList<>();
+        List<Path> deleted = new ArrayList<>();
+        for (int index = 0; index < 1024; index++) {
+            if (!changed[index]) {
+                continue;
+            }
+            Path external = path.resolveSibling("c." + ((regionX << 5) + (index & 31)) + "." + ((regionZ << 5) + (index >> 5))
+                    + ".mcc");
+            byte[] data = chunks[index];
+            if (data != null && sectors(data.length) > MAX_SECTORS) {
+                Files.write(temporary(external), Arrays.copyOfRange(data, CHUNK_HEADER_SIZE, data.length));
+                written.add(external);
+                chunks[index] = ByteBuffer.allocate(CHUNK_HEADER_SIZE).putInt(1)
+                        .put((byte) (data[4] | RegionFile.EXTERNAL_FLAG)).array();
+            } else {
+                deleted.add(external);
+            }
+            changed[index] = false;
+        }
+        if (isEmpty()) {
+            Files.deleteIfExists(path);
+        } else {
+            writeRegion();
+        }
+        for (Path external : written) {
+            move(temporary(external), external);
+        }
+        for (Path external : deleted) {
+            Files.deleteIfExists(external);
+        }
+    }
+
+    private void writeRegion() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(2 * SECTOR_BYTES);
+        int sector = 2;
+        for (int index = 0; index < 1024; index++) {
+            byte[] data = chunks[index];
+            if (data != null) {
+                int count = sectors(data.length);
+                header.putInt(index << 2, sector << 8 | count);
+                header.putInt(SECTOR_BYTES + (index << 2), timestamps[index]);
+                sector += count;
+            }
+        }
+        Path temp = temporary(path);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            writeFully(channel, header);
+            for (byte[] data : chunks) {
+                if (data != null) {
+                    writeFully(channel, ByteBuffer.wrap(data));
+                    int padding = sectors(data.length) * SECTOR_BYTES - data.length;
+                    writeFully(channel, ByteBuffer.allocate(padding));
+                }
+            }
+        }
+        move(temp, path);
+    }
+
+    private static Path temporary(Path path) {
+        return path.resolveSibling(path.getFileName() + ".tmp");
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static int sectors(int length) {
+        return (length + SECTOR_BYTES - 1) / SECTOR_BYTES;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+}
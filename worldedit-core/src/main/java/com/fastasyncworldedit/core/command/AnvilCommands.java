@@ -1,5 +1,14 @@
 package com.fastasyncworldedit.core.command;
 
+import com.fastasyncworldedit.core.anvil.AnvilChunk;
+import com.fastasyncworldedit.core.anvil.AnvilEngine;
+import com.fastasyncworldedit.core.anvil.AnvilHistory;
+import com.fastasyncworldedit.core.anvil.ChunkSectionDecoder;
+import com.fastasyncworldedit.core.configuration.Caption;
+import com.fastasyncworldedit.core.configuration.Settings;
+import com.fastasyncworldedit.core.extent.filter.MaskFilter;
+import com.fastasyncworldedit.core.extent.filter.CountFilter;
+import com.fastasyncworldedit.core.util.MainUtil;
 import com.sk89q.worldedit.EditSession;
 import com.sk89q.worldedit.LocalSession;
 import com.sk89q.worldedit.WorldEdit;
@@ -7,26 +16,42 @@
 import com.sk89q.worldedit.command.util.CommandPermissions;
 import com.sk89q.worldedit.command.util.CommandPermissionsConditionGenerator;
 import com.sk89q.worldedit.entity.Player;
+import com.sk89q.worldedit.extension.platform.Actor;
+import com.sk89q.worldedit.extension.platform.Capability;
+import com.sk89q.worldedit.extension.platform.Platform;
+import com.sk89q.worldedit.extent.NullExtent;
+import com.sk89q.worldedit.function.mask.ExistingBlockMask;
+import com.sk89q.worldedit.function.mask.Mask;
 import com.sk89q.worldedit.function.pattern.Pattern;
 import com.sk89q.worldedit.internal.annotation.Selection;
 import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.world.DataException;
+import com.sk89q.worldedit.world.World;
 import com.sk89q.worldedit.world.biome.BiomeType;
+import org.enginehub.linbus.tree.LinCompoundTag;
 import org.enginehub.piston.annotation.Command;
 import org.enginehub.piston.annotation.CommandContainer;
 import org.enginehub.piston.annotation.param.Arg;
 import org.enginehub.piston.annotation.param.Switch;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * @deprecated Anvil classes were used on versions prior to 1.13 to trim chunks.
- *         The way how it's been done was unsafe and led to issues back the years, hence it
- *         hasn't been implemented in any modern version. Therefore the current
- *         implementation is deprecated for removal without replacement.
+ * Commands operating on the region files of worlds which are not loaded, see {@link AnvilEngine}. They are meant to be
+ * run on a copy of a world folder, e.g. from the command line interface, and process whole worlds in parallel across
+ * region files. Changed chunks are recorded in a history below the history directory, unless fast mode is enabled.
+ * Folders are given relative to the folder containing the worlds, and may be neither a loaded world nor one of its dimensions.
+ * <p>
+ * Commands operating on a selection of a loaded world are not implemented.
  */
-@Deprecated
 @CommandContainer(superTypes = CommandPermissionsConditionGenerator.Registration.class)
 public class AnvilCommands {
 
@@ -39,109 +64,147 @@ public AnvilCommands(WorldEdit worldEdit) {
         checkNotNull(worldEdit);
     }
 
-    //    /**
-    //     * Run safely on an unloaded world (no selection)
-    //     *
-    //     * @param player
-    //     * @param folder
-    //     * @param filter
-    //     * @param <G>
-    //     * @param <T>
-    //     * @return
-    //     */
-    //    @Deprecated
-    //    public static <G, T extends MCAFilter<G>> T runWithWorld(Player player, String folder, T filter, boolean force) {
-    //        return runWithWorld(player, folder, filter, force, false);
-    //    }
-    //
-    //
-    //    @Deprecated
-    //    public static <G, T extends MCAFilter<G>> T runWithWorld(Player player, String folder, T filter, boolean force, boolean unsafe) {
-    //        boolean copy = false;
-    //        if (FaweAPI.getWorld(folder) != null) {
-    //            if (!force) {
-    //                player.print(Caption.of("fawe.worldedit.anvil.world.is.loaded"))
-    //                return null;
-    //            }
-    //            copy = true;
-    //        }
-    //        IQueueExtent defaultQueue = SetQueue.IMP.getNewQueue(folder, true, false);
-    //        MCAQueue queue = new MCAQueue(defaultQueue);
-    //        if (copy && !unsafe) {
-    //            return queue.filterCopy(filter, RegionWrapper.GLOBAL());
-    //        } else {
-    //            return queue.filterWorld(filter);
-    //        }
-    //    }
-    //
-    //    /**
-    //     * Run safely on an existing world within a selection
-    //     *
-    //     * @param player
-    //     * @param editSession
-    //     * @param selection
-    //     * @param filter
-    //     * @param <G>
-    //     * @param <T>
-    //     * @return
-    //     */
-    //    @Deprecated
-    //    public static <G, T extends MCAFilter<G>> T runWithSelection(Player player, EditSession editSession, Region selection, T filter) {
-    //        if (!(selection instanceof CuboidRegion)) {
-    //            player.print(Caption.of("fawe.error.no.region"))
-    //            return null;
-    //        }
-    //        CuboidRegion cuboid = (CuboidRegion) selection;
-    //        RegionWrapper wrappedRegion = new RegionWrapper(cuboid.getMinimumPoint(), cuboid.getMaximumPoint());
-    //        String worldName = editSession.getWorld().getName();
-    //        IQueueExtent tmp = SetQueue.IMP.getNewQueue(worldName, true, false);
-    //        MCAQueue queue = new MCAQueue(tmp);
-    //        FawePlayer<Object> fp = FawePlayer.wrap(player);
-    //        fp.checkAllowedRegion(selection);
-    //        recordHistory(fp, editSession.getWorld(), iAnvilHistory -> {
-    //            queue.filterCopy(filter, wrappedRegion, iAnvilHistory);
-    //        });
-    //        return filter;
-    //    }
-    //
-    //    public static void recordHistory(FawePlayer fp, World world, Consumer<IAnvilHistory> run) {
-    //        LocalSession session = fp.getSession();
-    //        if (session == null || session.hasFastMode()) {
-    //            run.accept(new NullAnvilHistory());
-    //        } else {
-    //            AnvilHistory history = new AnvilHistory(world.getName(), fp.getUUID());
-    //            run.accept(history);
-    //            session.remember(fp.getActor(), world, history, fp.getLimit());
-    //        }
-    //    }
+    /**
+     * Create an engine for a world folder, if the world is not loaded.
+     *
+     * @param actor  the actor to notify
+     * @param folder path of the world folder, relative to the folder containing the worlds
+     * @return the engine, or null if the world is loaded, not found or outside the folder containing the worlds
+     */
+    @Nullable
+    private static AnvilEngine createEngine(Actor actor, String folder) {
+        List<Path> loaded = getLoadedWorldFolders();
+        Path container = getWorldContainer(loaded);
+        Path path;
+        try {
+            path = container.resolve(folder).normalize();
+        } catch (InvalidPathException e) {
+            actor.print(Caption.of("fawe.worldedit.anvil.world.not.found", folder));
+            return null;
+        }
+        if (Path.of(folder).isAbsolute() || !path.startsWith(container) || path.equals(container)) {
+            actor.print(Caption.of("fawe.worldedit.anvil.world.outside.container", folder));
+            return null;
+        }
+        path = toRealPath(path);
+        if (!path.startsWith(container)) {
+            actor.print(Caption.of("fawe.worldedit.anvil.world.outside.container", folder));
+            return null;
+        }
+        for (Path world : loaded) {
+            // The folder of a loaded world, one of its dimensions, or a folder containing a loaded world
+            if (path.startsWith(world) || world.startsWith(path)) {
+                actor.print(Caption.of("fawe.worldedit.anvil.world.is.loaded"));
+                return null;
+            }
+        }
+        if (!AnvilEngine.isWorldFolder(path)) {
+            actor.print(Caption.of("fawe.worldedit.anvil.world.not.found", folder));
+            return null;
+        }
+        AnvilEngine engine = new AnvilEngine(path);
+        LocalSession session = WorldEdit.getInstance().getSessionManager().get(actor);
+        if (!session.hasFastMode()) {
+            engine.setHistory(AnvilHistory.create(getHistoryRoot(actor, path)));
+        }
+        return engine;
+    }
+
+    /**
+     * Get the folders of the loaded worlds, or the folder of the world containing it if a world is a dimension.
+     */
+    private static List<Path> getLoadedWorldFolders() {
+        List<Path> folders = new ArrayList<>();
+        Platform platform = WorldEdit.getInstance().getPlatformManager().queryCapability(Capability.WORLD_EDITING);
+        for (World world : platform.getWorlds()) {
+            Path storage = world.getStoragePath();
+            if (storage == null) {
+                continue;
+            }
+            storage = toRealPath(storage.toAbsolutePath().normalize());
+            // The nether, the end and custom dimensions are stored in a folder of their world
+            for (Path folder = storage; folder != null && folder.getParent() != null; folder = folder.getParent()) {
+                String name = folder.getFileName().toString();
+                if (name.equals("dimensions") || name.matches("DIM-?\\d+")) {
+                    storage = folder.getParent();
+                }
+            }
+            folders.add(storage);
+        }
+        return folders;
+    }
+
+    /**
+     * Get the folder containing the worlds: the parent folder of the loaded worlds, or the working directory if no world
+     * folder is known.
+     */
+    private static Path getWorldContainer(List<Path> loaded) {
+        for (Path world : loaded) {
+            if (world.getParent() != null) {
+                return world.getParent();
+            }
+        }
+        return toRealPath(Path.of("").toAbsolutePath().normalize());
+    }
+
+    private static Path toRealPath(Path path) {
+        try {
+            return path.toRealPath();
+        } catch (IOException e) {
+            return path;
+        }
+    }
+
+    private static Path getHistoryRoot(Actor actor, Path folder) {
+        return WorldEdit.getInstance().getWorkingDirectoryPath(Settings.settings().PATHS.HISTORY)
+                .resolve("anvil")
+                .resolve(actor.getUniqueId().toString())
+                .resolve(folder.toAbsolutePath().normalize().getFileName().toString());
+    }
+
+    private static void printSummary(Actor actor, AnvilEngine engine) {
+        AnvilHistory history = engine.getHistory();
+        if (engine.getSkippedChunks() > 0) {
+            actor.print(Caption.of("fawe.worldedit.anvil.skipped", engine.getSkippedChunks()));
+        }
+        if (engine.getErrorCount() > 0) {
+            actor.print(Caption.of("fawe.worldedit.anvil.errors", engine.getErrorCount()));
+        }
+        if (history != null && history.getChunkCount() > 0) {
+            actor.print(Caption.of("fawe.worldedit.anvil.history", history.getChunkCount()));
+        }
+    }
+
+    private static void deleteChunks(Actor actor, AnvilEngine engine, AnvilEngine.ChunkPredicate predicate) throws
+            IOException {
+        long deleted = engine.deleteChunks(predicate);
+        actor.print(Caption.of("fawe.worldedit.anvil.chunks.deleted", deleted));
+        printSummary(actor, engine);
+    }
 
     @Command(
             name = "replaceall",
             aliases = {"rea", "repall"},
-            desc = "Replace all blocks in the selection with another"
+            desc = "Replace all blocks in a world folder with another"
     )
     @CommandPermissions("worldedit.anvil.replaceall")
     public void replaceAll(
-            Player player, String folder,
-            @Arg(name = "from", desc = "String", def = "")
-                    String fromPattern,
-            String toPatternStr,
-            @Switch(name = 'd', desc = "Disable wildcard data matching")
-                    boolean useData
-    ) throws WorldEditException {
-        //        final FaweBlockMatcher matchFrom;  TODO NOT IMPLEMENTED
-        //        if (from == null) {
-        //            matchFrom = FaweBlockMatcher.NOT_AIR;
-        //        } else {
-        //            if (from.contains(":")) {
-        //                useData = true; //override d flag, if they specified data they want it
-        //            }
-        //            matchFrom = FaweBlockMatcher.fromBlocks(worldEdit.getBlocks(player, from, true), useData);
-        //        }
-        //        final FaweBlockMatcher matchTo = FaweBlockMatcher.setBlocks(worldEdit.getBlocks(player, to, true));
-        //        ReplaceSimpleFilter filter = new ReplaceSimpleFilter(matchFrom, matchTo);
-        //        ReplaceSimpleFilter result = runWithWorld(player, folder, filter, true);
-        //        if (result != null) player.print(Caption.of("fawe.worldedit.visitor.visitor.block", (result.getTotal())));
+            Actor actor, String folder,
+            @Arg(desc = "The mask representing blocks to replace", def = "")
+                    Mask from,
+            @Arg(desc = "The pattern of blocks to replace with")
+                    Pattern to
+    ) throws IOException {
+        AnvilEngine engine = createEngine(actor, folder);
+        if (engine == null) {
+            return;
+        }
+        if (from == null) {
+            from = new ExistingBlockMask(NullExtent.INSTANCE);
+        }
+        engine.apply(from.toFilter(to));
+        actor.print(Caption.of("fawe.worldedit.visitor.visitor.block", engine.getChangedBlocks()));
+        printSummary(actor, engine);
     }
 
     @Command(
@@ -168,21 +231,27 @@ public void remapall(Player player, String folder) throws WorldEditException {
             aliases = {"delunvisited"},
             desc = "Delete all chunks which haven't been occupied",
             descFooter = "occupied for `age-ticks` (20t = 1s) and \n"
-                    + "Have not been accessed since `file-duration` (ms) after creation and\n"
-                    + "Have not been used in the past `chunk-inactivity` (ms)"
-                    + "The auto-save interval is the recommended value for `file-duration` and `chunk-inactivity`"
+                    + "Have not been modified in the past `file-duration` (ms)\n"
+                    + "The auto-save interval is the recommended value for `file-duration`"
     )
     @CommandPermissions("worldedit.anvil.deleteallunvisited")
     public void deleteAllUnvisited(
-            Player player, String folder, int inhabitedTicks,
+            Actor actor, String folder, int inhabitedTicks,
             @Arg(desc = "int", def = "60000")
                     int fileDurationMillis
-    ) throws WorldEditException {
-        //        DeleteUninhabitedFilter filter = new DeleteUninhabitedFilter(fileDurationMillis, inhabitedTicks, fileDurationMillis);  TODO NOT IMPLEMENTED
-        //        DeleteUninhabitedFilter result = runWithWorld(player, folder, filter, true);
-        //        if (result != null) {
-        //            player.print(Caption.of("fawe.worldedit.visitor.visitor.block", (result.getTotal())));
-        //        }
+    ) throws IOException {
+        AnvilEngine engine = createEngine(actor, folder);
+        if (engine == null) {
+            return;
+        }
+        long modifiedBefore = System.currentTimeMillis() - fileDurationMillis;
+        deleteChunks(actor, engine, (region, chunkX, chunkZ) -> {
+            if (region.getTimestamp(chunkX, chunkZ) * 1000L > modifiedBefore) {
+                return false;
+            }
+            LinCompoundTag root = region.readChunk(chunkX, chunkZ);
+            return root != null && AnvilChunk.getInhabitedTime(root) <= inhabitedTicks;
+        });
     }
 
     @Command(
@@ -250,13 +319,13 @@ public void deleteUnclaimed(
                     + "(months are not a unit of time) e.g., 8h5m12s\n"
     )
     @CommandPermissions("worldedit.anvil.deletealloldregions")
-    public void deleteAllOldRegions(Player player, String folder, String time) throws WorldEditException {
-        //        long duration = MainUtil.timeToSec(time) * 1000L;  TODO NOT IMPLEMENTED
-        //        DeleteOldFilter filter = new DeleteOldFilter(duration);
-        //        DeleteOldFilter result = runWithWorld(player, folder, filter, true);
-        //        if (result != null) {
-        //            player.print(Caption.of("fawe.worldedit.visitor.visitor.block", (result.getTotal())));
-        //        }
+    public void deleteAllOldRegions(Actor actor, String folder, String time) throws IOException {
+        AnvilEngine engine = createEngine(actor, folder);
+        if (engine == null) {
+            return;
+        }
+        long modifiedBefore = System.currentTimeMillis() - MainUtil.timeToSec(time) * 1000L;
+        deleteChunks(actor, engine, (region, chunkX, chunkZ) -> region.getTimestamp(chunkX, chunkZ) * 1000L < modifiedBefore);
     }
 
     @Command(
@@ -284,36 +353,43 @@ public void trimAllPlots(
 
     @Command(
             name = "deletebiomechunks",
-            desc = "Delete chunks matching a specific biome"
+            desc = "Delete chunks matching a specific biome",
+            descFooter = "Only chunks consisting entirely of the biome are deleted"
     )
     @CommandPermissions("worldedit.anvil.trimallair")
-    public void deleteBiome(
-            Player player, String folder, BiomeType biome,
-            @Switch(name = 'u', desc = "The flag will run the task unsafe")
-                    boolean unsafe
-    ) {
-        //        DeleteBiomeFilterSimple filter = new DeleteBiomeFilterSimple(biome);  TODO NOT IMPLEMENTED
-        //        DeleteBiomeFilterSimple result = runWithWorld(player, folder, filter, true, unsafe);
-        //        if (result != null) {
-        //            player.print(Caption.of("fawe.worldedit.visitor.visitor.block", (result.getTotal())));
-        //        }
+    public void deleteBiome(Actor actor, String folder, BiomeType biome) throws IOException {
+        AnvilEngine engine = createEngine(actor, folder);
+        if (engine == null) {
+            return;
+        }
+        deleteChunks(actor, engine, (region, chunkX, chunkZ) -> {
+            LinCompoundTag root = region.readChunk(chunkX, chunkZ);
+            if (root == null || !ChunkSectionDecoder.isSupported(ChunkSectionDecoder.getDataVersion(root))) {
+                return false;
+            }
+            Set<BiomeType> biomes = AnvilChunk.of(root, chunkX, chunkZ).getBiomes();
+            return biomes.size() == 1 && biomes.contains(biome);
+        });
     }
 
     @Command(
             name = "trimallair",
-            desc = "Trim all air in the world"
+            desc = "Trim all air in the world",
+            descFooter = "Deletes all chunks containing only air"
     )
     @CommandPermissions("worldedit.anvil.trimallair")
-    public void trimAllAir(
-            Player player, String folder,
-            @Switch(name = 'u', desc = "The flag will run the task unsafe")
-                    boolean unsafe
-    ) throws WorldEditException {
-        //        TrimAirFilter filter = new TrimAirFilter();  TODO NOT IMPLEMENTED
-        //        TrimAirFilter result = runWithWorld(player, folder, filter, true, unsafe);
-        //        if (result != null) {
-        //            player.print(Caption.of("fawe.worldedit.visitor.visitor.block", (result.getTotal())));
-        //        }
+    public void trimAllAir(Actor actor, String folder) throws IOException {
+        AnvilEngine engine = createEngine(actor, folder);
+        if (engine == null) {
+            return;
+        }
+        deleteChunks(actor, engine, (region, chunkX, chunkZ) -> {
+            LinCompoundTag root = region.readChunk(chunkX, chunkZ);
+            if (root == null || !ChunkSectionDecoder.isSupported(ChunkSectionDecoder.getDataVersion(root))) {
+                return false;
+            }
+            return AnvilChunk.of(root, chunkX, chunkZ).isAir();
+        });
     }
 
     @Command(
@@ -332,64 +408,60 @@ public void debugfixroads(Player player, String folder) throws WorldEditExceptio
     @Command(
             name = "replaceallpattern",
             aliases = {"reap", "repallpat"},
-            desc = "Replace all blocks in the selection with another"
+            desc = "Replace all blocks in a world folder with a pattern"
     )
     @CommandPermissions("worldedit.anvil.replaceall")
     public void replaceAllPattern(
-            Player player, String folder,
-            @Arg(desc = "String", def = "")
-                    String from, Pattern toPattern,
-            @Switch(name = 'd', desc = "The flag specifies the data to use")
-                    boolean useData,
-            @Switch(name = 'm', desc = "The flag specifies the map to use")
-                    boolean useMap
-    ) throws WorldEditException {
-        //        MCAFilterCounter filter;  TODO NOT IMPLEMENTED
-        //        if (useMap) {
-        //            if (to instanceof RandomPattern) {
-        //                List<String> split = StringMan.split(from, ',');
-        //                filter = new MappedReplacePatternFilter(from, (RandomPattern) to, useData);
-        //            } else {
-        //                player.print("Must be a pattern list!");
-        //                return;
-        //            }
-        //        } else {
-        //            final FaweBlockMatcher matchFrom;
-        //            if (from == null) {
-        //                matchFrom = FaweBlockMatcher.NOT_AIR;
-        //            } else {
-        //                matchFrom = FaweBlockMatcher.fromBlocks(worldEdit.getBlocks(player, from, true), useData || from.contains(":"));
-        //            }
-        //            filter = new ReplacePatternFilter(matchFrom, to);
-        //        }
-        //        MCAFilterCounter result = runWithWorld(player, folder, filter, true);
-        //        if (result != null) player.print(Caption.of("fawe.worldedit.visitor.visitor.block", (result.getTotal())));
+            Actor actor, String folder,
+            @Arg(desc = "The mask representing blocks to replace", def = "")
+                    Mask from,
+            @Arg(desc = "The pattern of blocks to replace with")
+                    Pattern toPattern
+    ) throws IOException {
+        replaceAll(actor, folder, from, toPattern);
     }
 
-    //
     @Command(
             name = "countall",
             desc = "Count all blocks in a world"
     )
     @CommandPermissions("worldedit.anvil.countall")
     public void countAll(
-            Player player, EditSession editSession, String folder, String argStr,
-            @Switch(name = 'd', desc = "The flag specifies the data to use")
-                    boolean useData
-    ) throws WorldEditException {
-        //        Set<BaseBlock> searchBlocks = worldEdit.getBlocks(player, arg, true);
-        //        MCAFilterCounter filter;
-        //        if (useData || arg.contains(":")) { // Optimize for both cases
-        //            CountFilter counter = new CountFilter();
-        //            searchBlocks.forEach(counter::addBlock);
-        //            filter = counter;
-        //        } else {
-        //            CountIdFilter counter = new CountIdFilter();
-        //            searchBlocks.forEach(counter::addBlock);
-        //            filter = counter;
-        //        }
-        //        MCAFilterCounter result = runWithWorld(player, folder, filter, true);
-        //        if (result != null) player.print(Caption.of("fawe.worldedit.selection.selection.count", (result.getTotal())));
+            Actor actor, String folder,
+            @Arg(desc = "The mask of blocks to count")
+                    Mask mask
+    ) throws IOException {
+        AnvilEngine engine = createEngine(actor, folder);
+        if (engine == null) {
+            return;
+        }
+        // Counting does not change any chunk
+        engine.setHistory(null);
+        MaskFilter<CountFilter> filter = engine.apply(mask.toFilter(new CountFilter()));
+        actor.print(Caption.of("fawe.worldedit.selection.selection.count", filter.getBlocksApplied()));
+        printSummary(actor, engine);
+    }
+
+    @Command(
+            name = "undo",
+            desc = "Undo the last anvil operation on a world folder"
+    )
+    @CommandPermissions("worldedit.anvil.undo")
+    public void undo(Actor actor, String folder) throws IOException {
+        AnvilEngine engine = createEngine(actor, folder);
+        if (engine == null) {
+            return;
+        }
+        AnvilHistory history = AnvilHistory.getLatest(getHistoryRoot(actor, engine.getWorldFolder()));
+        if (history == null) {
+            actor.print(Caption.of("fawe.worldedit.anvil.undo.none"));
+            return;
+        }
+        try {
+            actor.print(Caption.of("fawe.worldedit.anvil.undo", history.undo(engine.getWorldFolder())));
+        } catch (DataException e) {
+            throw new IOException(e);
+        }
     }
 
     @Command(
@@ -1,21 +1,22 @@
 package com.fastasyncworldedit.core.command.tool.brush;
 
-import com.fastasyncworldedit.core.extent.filter.block.FilterBlock;
 import com.fastasyncworldedit.core.function.mask.CachedMask;
+import com.fastasyncworldedit.core.function.stencil.BlendKernel;
+import com.fastasyncworldedit.core.function.stencil.StencilEngine;
+import com.fastasyncworldedit.core.function.stencil.StencilGrid;
 import com.fastasyncworldedit.core.math.MutableBlockVector3;
-import com.fastasyncworldedit.core.queue.Filter;
 import com.sk89q.worldedit.EditSession;
 import com.sk89q.worldedit.MaxChangedBlocksException;
+import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.command.tool.brush.Brush;
 import com.sk89q.worldedit.extent.Extent;
 import com.sk89q.worldedit.function.pattern.Pattern;
 import com.sk89q.worldedit.math.BlockVector3;
-import com.sk89q.worldedit.regions.CuboidRegion;
 import com.sk89q.worldedit.world.block.BlockState;
 import com.sk89q.worldedit.world.block.BlockTypes;
+import com.sk89q.worldedit.world.block.BlockTypesCache;
 
 import javax.annotation.Nullable;
-import java.util.Arrays;
 
 public class BlendBall implements Brush {
 
@@ -52,112 +53,46 @@ public BlendBall(int minFreqDiff, boolean onlyAir, @Nullable CachedMask mask) {
     public void build(EditSession editSession, BlockVector3 position, Pattern pattern, double size) throws
             MaxChangedBlocksException {
         final int outsetSize = (int) (size + 1);
-        double brushSizeSquared = size * size;
-
-        int tx = position.x();
-        int ty = position.y();
-        int tz = position.z();
-
-        final CuboidRegion region = new CuboidRegion(
-                BlockVector3.at(tx - outsetSize, ty - outsetSize, tz - outsetSize),
-                BlockVector3.at(tx + outsetSize, ty + outsetSize, tz + outsetSize)
+        StencilGrid grid = StencilGrid.read(
+                editSession,
+                position.subtract(outsetSize, outsetSize, outsetSize),
+                position.add(outsetSize, outsetSize, outsetSize)
         );
-
-        editSession.apply(region, new BlendBallFilter((int) brushSizeSquared, tx, ty, tz), true);
-    }
-
-    private boolean maskFails(Extent extent, BlockVector3 pos) {
-        return mask != null && !mask.test(extent, pos);
-    }
-
-    private class BlendBallFilter implements Filter {
-        private final int[] frequency = new int[BlockTypes.size()];
-        private final MutableBlockVector3 mutable = new MutableBlockVector3();
-        private final int brushSizeSquared;
-        private final int centerX;
-        private final int centerY;
-        private final int centerZ;
-
-        private BlendBallFilter(final int brushSizeSquared, final int centerX, final int centerY, final int centerZ) {
-            this.brushSizeSquared = brushSizeSquared;
-            this.centerX = centerX;
-            this.centerY = centerY;
-            this.centerZ = centerZ;
+        grid.activateSphere(position, (int) (size * size));
+        if (mask != null) {
+            applyMask(editSession, grid);
         }
+        StencilEngine.run(grid, new BlendKernel(grid, minFreqDiff, onlyAir), 1);
+        try {
+            grid.write(editSession);
+        } catch (MaxChangedBlocksException e) {
+            throw e;
+        } catch (WorldEditException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-        @Override
-        public void applyBlock(final FilterBlock block) {
-            final Extent extent = block.getExtent();
-            final int gx = block.x();
-            final int gy = block.y();
-            final int gz = block.z();
-            int dx = gx - this.centerX;
-            int dy = gy - this.centerY;
-            int dz = gz - this.centerZ;
-            if (dx * dx + dy * dy + dz * dz >= brushSizeSquared || maskFails(extent, block)) {
-                return;
-            }
-            int maxY = extent.getMaxY();
-            int minY = extent.getMinY();
-            int highest = 1, currentBlockFrequency = 1;
-            BlockState currentState = block.getBlock();
-            BlockState highestState = currentState;
-            int currentStateID = currentState.getInternalBlockTypeId();
-            Arrays.fill(frequency, 0);
-            int air = 0;
-            int total = 26;
-            boolean tie = false;
-            for (int ox = -1; ox <= 1; ox++) {
-                for (int oz = -1; oz <= 1; oz++) {
-                    for (int oy = -1; oy <= 1; oy++) {
-                        if (ox == 0 && oy == 0 && oz == 0) {
-                            continue;
-                        } else if (oy + gy < minY || oy + gy > maxY) {
-                            total--;
-                            continue;
-                        }
-                        boolean masked = maskFails(extent, mutable.setComponents(gx + ox, gy + oy, gz + oz));
-                        BlockState state = masked ? AIR : block.getBlock(gx + ox, gy + oy, gz + oz);
-                        if (state.getBlockType().getMaterial().isAir()) {
-                            air++;
-                        }
-                        int internalID = state.getInternalBlockTypeId();
-                        int count = frequency[internalID];
-                        if (internalID == currentStateID) {
-                            currentBlockFrequency++;
-                        }
-                        count++;
-                        if (count - highest >= minFreqDiff) {
-                            highest = count;
-                            highestState = state;
-                            tie = false;
-                        } else if (count == highest) {
-                            tie = true;
-                        }
-                        frequency[internalID] = count;
+    /**
+     * Blocks not meeting the mask are not altered, and are considered as air by their neighbours.
+     */
+    private void applyMask(Extent extent, StencilGrid grid) {
+        BlockVector3 min = grid.getMinimumPoint();
+        MutableBlockVector3 mutable = new MutableBlockVector3();
+        char air = AIR.getOrdinalChar();
+        int index = 0;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int z = 0; z < grid.getLength(); z++) {
+                for (int x = 0; x < grid.getWidth(); x++, index++) {
+                    if (grid.get(index) == BlockTypesCache.ReservedIDs.__RESERVED__) {
+                        continue;
                     }
-                }
-            }
-            if (onlyAir) {
-                if (air * 2 - total >= minFreqDiff) {
-                    if (!currentState.isAir()) {
-                        block.setBlock(AIR);
+                    if (!mask.test(extent, mutable.setComponents(min.x() + x, min.y() + y, min.z() + z))) {
+                        grid.setActive(index, false);
+                        grid.set(index, air);
                     }
-                } else if (currentState.isAir() && total - 2 * air >= minFreqDiff) {
-                    block.setBlock(highestState);
                 }
-                return;
             }
-            if (highest - currentBlockFrequency >= minFreqDiff && !tie && currentState != highestState) {
-                block.setBlock(highestState);
-            }
-        }
-
-        @Override
-        public Filter fork() {
-            return new BlendBallFilter(brushSizeSquared, centerX, centerY, centerZ);
         }
-
     }
 
 }
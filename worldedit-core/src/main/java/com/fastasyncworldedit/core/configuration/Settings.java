@@ -319,6 +319,8 @@ public static final class PATHS {
                 " - Use a shared directory or NFS/Samba"
         })
         public String CLIPBOARD = "clipboard";
+        @Comment("Cached chunks generated by //regen, see general.regen-cache-size-mb")
+        public String REGEN_CACHE = "regen-cache";
         @Comment("Each player has his or her own sub directory for schematics")
         public boolean PER_PLAYER_SCHEMATICS = false;
 
@@ -363,6 +365,14 @@ public static final class REGION_RESTRICTIONS_OPTIONS {
                 " - Forcefully prevents any edit outside this range"
         })
         public boolean RESTRICT_TO_SAFE_RANGE = true;
+        @Comment({
+                "How long (in seconds) the regions a player may edit are cached before being queried again.",
+                " - Regions are checked to still be valid every time they are used",
+                " - Regions expired by less than two seconds are refreshed asynchronously, older ones before the edit",
+                " - Regions are queried again immediately if the player leaves them",
+                " - Region changes announced by a plugin (currently GriefPrevention) clear the cache"
+        })
+        public int MASK_CACHE_SECONDS = 10;
 
     }
 
@@ -622,6 +632,25 @@ public static class QUEUE {
         })
         public boolean POOL = true;
 
+        @Comment({
+                "If chunk holders are pooled too (requires pool to be enabled)",
+                " - Experimental: a holder used after being returned to the pool writes to another chunk",
+        })
+        public boolean POOL_CHUNK_HOLDERS = false;
+
+        @Comment({
+                "The maximum number of idle chunk objects (chunk holders, chunk block sets) kept per pool",
+                " - Objects released when a pool is full are left to the garbage collector",
+        })
+        public int POOL_CAPACITY = 1024;
+
+        @Comment({
+                "Track pooled chunk objects and log those that are garbage collected without being released, with the",
+                "stack trace of where they were obtained",
+                " - Debugging only, this is slow",
+        })
+        public boolean POOL_LEAK_DETECTION = false;
+
         @Comment({
                 "If chunk loading for writing edits to the world should be performed asynchronously to FAWE",
                 " - Enable to improve performance at the expense of memory",
@@ -629,6 +658,13 @@ public static class QUEUE {
         })
         public boolean ASYNC_CHUNK_LOAD_WRITE = true;
 
+        @Comment({
+                "If blocks and biomes set to the value they already have should be removed before writing a chunk",
+                " - Unchanged sections are not written, relit or sent to players, and unchanged blocks are not stored in history",
+                " - Requires reading the sections being edited, which history does anyway",
+        })
+        public boolean SKIP_UNCHANGED_BLOCKS = true;
+
         @Comment({
                 "Percentage of queue.target-size to use per thread in multi-threaded operations",
                 " - Minimum of 100 / queue.parallel-threads (queue.target-size split across threads)",
@@ -794,6 +830,12 @@ public static class TICK_LIMITER {
         public int PHYSICS_MS = 10;
         @Comment("Max item spawns per interval (per chunk)")
         public int ITEMS = 256;
+        @Comment({
+                "Size of the areas counted and reset independently, as a power of two of chunks (4 = 16x16 chunks)",
+                " - Physics time is limited per area, so lag in one area does not throttle others",
+                " - On Folia, matching the region section size keeps each area on a single region thread",
+        })
+        public int PARTITION_SHIFT = 4;
 
     }
 
@@ -832,6 +874,25 @@ public static class CLIPBOARD {
                 " - May run into issues where a file lock is not correctly lifted"
         })
         public boolean LOCK_CLIPBOARD_FILE = false;
+        @Comment({
+                "The maximum volume (in blocks) of loaded schematic files to keep shared between clipboards",
+                " - Used when loading folders of schematics or schematics used in #clipboard patterns",
+                " - Cached schematics are reloaded if the file is modified",
+                " - 0 = disabled"
+        })
+        public long SCHEMATIC_CACHE_VOLUME = 16777216;
+        @Comment({
+                "The maximum total file size (in MB) of schematics decoded concurrently when loading a folder of schematics",
+                " - Lower values reduce memory spikes when loading many large schematics at once",
+        })
+        public int BATCH_LOAD_BUDGET_MB = 64;
+        @Comment({
+                "If //copy should reference the world instead of copying every block",
+                " - Copying returns immediately, chunks are only copied before an edit changes them",
+                " - Changes made outside of WorldEdit (e.g. by players) after copying are visible in the clipboard",
+                " - Not used when copying entities or with a mask",
+        })
+        public boolean LAZY_COPY = false;
 
     }
 
@@ -871,6 +932,14 @@ public static class GENERAL {
         })
         public boolean LIMIT_UNLIMITED_SKIPS_CREATURE_SPAWN_EVENTS = true;
 
+        @Comment({
+                "The maximum disk space (in MB) used to keep chunks generated by //regen",
+                " - Regenerating the same chunks again with the same seed and generator reuses the cached chunks",
+                " - Chunks are cached per world, and the least recently used chunks are deleted first",
+                " - 0 = disabled"
+        })
+        public int REGEN_CACHE_SIZE_MB = 0;
+
     }
 
 }
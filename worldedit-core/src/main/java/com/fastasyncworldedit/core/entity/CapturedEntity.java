@@ -0,0 +1,178 @@
+package com.fastasyncworldedit.core.entity;
+
+import com.fastasyncworldedit.core.nbt.FaweCompoundTag;
+import com.fastasyncworldedit.core.queue.IChunkGet;
+import com.sk89q.worldedit.entity.BaseEntity;
+import com.sk89q.worldedit.entity.Entity;
+import com.sk89q.worldedit.extent.Extent;
+import com.sk89q.worldedit.util.Location;
+import com.sk89q.worldedit.util.concurrency.LazyReference;
+import com.sk89q.worldedit.world.entity.EntityType;
+import com.sk89q.worldedit.world.entity.EntityTypes;
+import org.enginehub.linbus.tree.LinCompoundTag;
+import org.enginehub.linbus.tree.LinDoubleTag;
+import org.enginehub.linbus.tree.LinFloatTag;
+import org.enginehub.linbus.tree.LinListTag;
+import org.enginehub.linbus.tree.LinStringTag;
+import org.enginehub.linbus.tree.LinTagType;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An {@link Entity} captured from a chunk by {@link IChunkGet#captureEntities()}. The state is detached from the world, so
+ * reading it does not require access to the thread owning the entity. Removing the entity and its facets go through the live
+ * entity. The live entities of the chunk the entity was captured from are looked up by uuid when first needed, once for all
+ * entities captured together.
+ *
+ * @since TODO
+ */
+public final class CapturedEntity implements Entity {
+
+    private final Extent extent;
+    @Nullable
+    private final LiveEntities liveEntities;
+    private final Location location;
+    private final BaseEntity state;
+    private final UUID uuid;
+    private Entity live;
+
+    private CapturedEntity(
+            Extent extent, @Nullable LiveEntities liveEntities, Location location, BaseEntity state, UUID uuid
+    ) {
+        this.extent = extent;
+        this.liveEntities = liveEntities;
+        this.location = location;
+        this.state = state;
+        this.uuid = uuid;
+    }
+
+    /**
+     * Create entities from the given captured entity tags. Tags without an entity type or position (e.g. players) are
+     * skipped.
+     *
+     * @param extent extent the entities were captured from
+     * @param chunk  chunk the entities were captured from, used to look up the live entities
+     * @param tags   entity tags, as returned by {@link IChunkGet#captureEntities()}
+     * @return captured entities
+     */
+    public static List<Entity> of(Extent extent, @Nullable IChunkGet chunk, Collection<FaweCompoundTag> tags) {
+        List<Entity> entities = new ArrayList<>(tags.size());
+        LiveEntities liveEntities = chunk != null ? new LiveEntities(chunk) : null;
+        for (FaweCompoundTag tag : tags) {
+            CapturedEntity entity = of(extent, liveEntities, tag.linTag());
+            if (entity != null) {
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
+    @Nullable
+    private static CapturedEntity of(Extent extent, @Nullable LiveEntities liveEntities, @Nullable LinCompoundTag tag) {
+        if (tag == null) {
+            return null;
+        }
+        LinStringTag id = tag.findTag("id", LinTagType.stringTag());
+        if (id == null) {
+            id = tag.findTag("Id", LinTagType.stringTag());
+        }
+        LinListTag<LinDoubleTag> pos = tag.findListTag("Pos", LinTagType.doubleTag());
+        if (id == null || pos == null || pos.value().size() != 3) {
+            return null;
+        }
+        EntityType type = EntityTypes.get(id.value());
+        if (type == null || type == EntityTypes.PLAYER) {
+            return null;
+        }
+        float yaw = 0;
+        float pitch = 0;
+        LinListTag<LinFloatTag> rotation = tag.findListTag("Rotation", LinTagType.floatTag());
+        if (rotation != null && rotation.value().size() == 2) {
+            yaw = rotation.get(0).valueAsFloat();
+            pitch = rotation.get(1).valueAsFloat();
+        }
+        Location location = new Location(
+                extent,
+                pos.get(0).valueAsDouble(),
+                pos.get(1).valueAsDouble(),
+                pos.get(2).valueAsDouble(),
+                yaw,
+                pitch
+        );
+        // Id is expected by AbstractChangeSet
+        BaseEntity state = new BaseEntity(type, LazyReference.computed(tag.toBuilder().putString("Id", id.value()).build()));
+        return new CapturedEntity(extent, liveEntities, location, state, state.getUUID());
+    }
+
+    /**
+     * Get the live entity this entity was captured from, or null if it is gone or cannot be looked up.
+     */
+    @Nullable
+    private Entity live() {
+        if (live == null && liveEntities != null && uuid != null) {
+            live = liveEntities.get(uuid);
+        }
+        return live;
+    }
+
+    @Override
+    public BaseEntity getState() {
+        return new BaseEntity(state);
+    }
+
+    @Override
+    public Location getLocation() {
+        return location;
+    }
+
+    @Override
+    public boolean setLocation(Location location) {
+        return false;
+    }
+
+    @Override
+    public Extent getExtent() {
+        return extent;
+    }
+
+    @Override
+    public boolean remove() {
+        Entity entity = live();
+        return entity != null && entity.remove();
+    }
+
+    @Nullable
+    @Override
+    public <T> T getFacet(Class<? extends T> cls) {
+        Entity entity = live();
+        return entity != null ? entity.getFacet(cls) : null;
+    }
+
+    /**
+     * Live entities of a chunk by uuid, shared by the entities captured from it.
+     */
+    private static final class LiveEntities {
+
+        private final IChunkGet chunk;
+        private Map<UUID, Entity> entities;
+
+        private LiveEntities(IChunkGet chunk) {
+            this.chunk = chunk;
+        }
+
+        @Nullable
+        private synchronized Entity get(UUID uuid) {
+            if (entities == null) {
+                entities = chunk.getFullEntitiesByUuid();
+            }
+            return entities.get(uuid);
+        }
+
+    }
+
+}
@@ -174,6 +174,11 @@ public boolean setLocation(Location location) {
             return this.entity.setLocation(location);
         }
 
+        @Override
+        public Entity unwrap() {
+            return this.entity.unwrap();
+        }
+
     }
 
     @Override
@@ -4,6 +4,7 @@
 import com.fastasyncworldedit.core.extent.processor.ProcessorScope;
 import com.fastasyncworldedit.core.internal.exception.FaweException;
 import com.fastasyncworldedit.core.limit.FaweLimit;
+import com.fastasyncworldedit.core.limit.LimitLease;
 import com.fastasyncworldedit.core.queue.Filter;
 import com.fastasyncworldedit.core.queue.IBatchProcessor;
 import com.fastasyncworldedit.core.queue.IChunk;
@@ -35,14 +36,20 @@
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 public class LimitExtent extends AbstractDelegateExtent implements IBatchProcessor {
 
     private final FaweLimit limit;
+    // Changes and checks are drawn from the limit in blocks per thread, as the limit is shared by all threads of an edit.
+    // Not thread locals, so pool threads do not keep the leases of finished edits
+    private final Map<Thread, LimitLease> leases = new ConcurrentHashMap<>();
     private final boolean[] faweExceptionReasonsUsed = new boolean[FaweException.Type.values().length];
     private final Consumer<Component> onErrorMessage;
     private final int chunk_size;
@@ -96,6 +103,34 @@ public LimitExtent(
         this.processing = processing;
     }
 
+    private LimitLease lease() {
+        return leases.computeIfAbsent(Thread.currentThread(), thread -> new LimitLease(limit));
+    }
+
+    /**
+     * Return the changes and checks drawn from the limit but not used yet by the threads of the edit, and drop their leases.
+     * Must not be called while the edit is still running.
+     *
+     * @since TODO
+     */
+    public void releaseLeases() {
+        Iterator<LimitLease> iterator = leases.values().iterator();
+        while (iterator.hasNext()) {
+            iterator.next().release();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Count blocks checked by reading the extent below this one directly, e.g. straight from the chunk data.
+     *
+     * @param checks number of blocks checked
+     * @since TODO
+     */
+    public void addChecks(long checks) {
+        lease().THROW_MAX_CHECKS(checks);
+    }
+
     private void handleException(FaweException e) {
         if (e.ignorable() || !limit.MAX_FAILS()) {
             throw e;
@@ -108,7 +143,7 @@ private void handleException(FaweException e) {
 
     @Override
     public List<? extends Entity> getEntities(Region region) {
-        limit.THROW_MAX_CHECKS(region.getVolume());
+        lease().THROW_MAX_CHECKS(region.getVolume());
         try {
             return extent.getEntities(region);
         } catch (FaweException e) {
@@ -119,7 +154,7 @@ public List<? extends Entity> getEntities(Region region) {
 
     @Override
     public List<? extends Entity> getEntities() {
-        limit.THROW_MAX_CHECKS();
+        lease().THROW_MAX_CHECKS();
         try {
             return extent.getEntities();
         } catch (FaweException e) {
@@ -131,7 +166,7 @@ public List<? extends Entity> getEntities() {
     @Override
     @Nullable
     public Entity createEntity(Location location, BaseEntity entity) {
-        limit.THROW_MAX_CHANGES();
+        lease().THROW_MAX_CHANGES();
         limit.THROW_MAX_ENTITIES();
         try {
             return extent.createEntity(location, entity);
@@ -144,7 +179,7 @@ public Entity createEntity(Location location, BaseEntity entity) {
     @Override
     @Nullable
     public Entity createEntity(Location location, BaseEntity entity, UUID uuid) {
-        limit.THROW_MAX_CHANGES();
+        lease().THROW_MAX_CHANGES();
         limit.THROW_MAX_ENTITIES();
         try {
             return extent.createEntity(location, entity, uuid);
@@ -156,7 +191,7 @@ public Entity createEntity(Location location, BaseEntity entity, UUID uuid) {
 
     @Override
     public void removeEntity(int x, int y, int z, UUID uuid) {
-        limit.THROW_MAX_CHANGES();
+        lease().THROW_MAX_CHANGES();
         limit.THROW_MAX_ENTITIES();
         try {
             extent.removeEntity(x, y, z, uuid);
@@ -167,7 +202,7 @@ public void removeEntity(int x, int y, int z, UUID uuid) {
 
     @Override
     public boolean regenerateChunk(int x, int z, @Nullable BiomeType type, @Nullable Long seed) {
-        limit.THROW_MAX_CHANGES(chunk_size);
+        lease().THROW_MAX_CHANGES(chunk_size);
         try {
             return extent.regenerateChunk(x, z, type, seed);
         } catch (FaweException e) {
@@ -178,7 +213,7 @@ public boolean regenerateChunk(int x, int z, @Nullable BiomeType type, @Nullable
 
     @Override
     public int getHighestTerrainBlock(int x, int z, int minY, int maxY) {
-        limit.THROW_MAX_CHECKS(maxY - minY + 1);
+        lease().THROW_MAX_CHECKS(maxY - minY + 1);
         try {
             return extent.getHighestTerrainBlock(x, z, minY, maxY);
         } catch (FaweException e) {
@@ -189,7 +224,7 @@ public int getHighestTerrainBlock(int x, int z, int minY, int maxY) {
 
     @Override
     public int getHighestTerrainBlock(int x, int z, int minY, int maxY, Mask filter) {
-        limit.THROW_MAX_CHECKS(maxY - minY + 1);
+        lease().THROW_MAX_CHECKS(maxY - minY + 1);
         try {
             return extent.getHighestTerrainBlock(x, z, minY, maxY, filter);
         } catch (FaweException e) {
@@ -200,7 +235,7 @@ public int getHighestTerrainBlock(int x, int z, int minY, int maxY, Mask filter)
 
     @Override
     public int getNearestSurfaceLayer(int x, int z, int y, int minY, int maxY) {
-        limit.THROW_MAX_CHECKS(maxY - minY + 1);
+        lease().THROW_MAX_CHECKS(maxY - minY + 1);
         try {
             return extent.getNearestSurfaceLayer(x, z, y, minY, maxY);
         } catch (FaweException e) {
@@ -211,7 +246,7 @@ public int getNearestSurfaceLayer(int x, int z, int y, int minY, int maxY) {
 
     @Override
     public int getNearestSurfaceTerrainBlock(int x, int z, int y, int minY, int maxY, boolean ignoreAir) {
-        limit.THROW_MAX_CHECKS(maxY - minY + 1);
+        lease().THROW_MAX_CHECKS(maxY - minY + 1);
         try {
             return extent.getNearestSurfaceTerrainBlock(x, z, y, minY, maxY, ignoreAir);
         } catch (FaweException e) {
@@ -222,7 +257,7 @@ public int getNearestSurfaceTerrainBlock(int x, int z, int y, int minY, int maxY
 
     @Override
     public int getNearestSurfaceTerrainBlock(int x, int z, int y, int minY, int maxY) {
-        limit.THROW_MAX_CHECKS(maxY - minY + 1);
+        lease().THROW_MAX_CHECKS(maxY - minY + 1);
         try {
             return extent.getNearestSurfaceTerrainBlock(x, z, y, minY, maxY);
         } catch (FaweException e) {
@@ -233,7 +268,7 @@ public int getNearestSurfaceTerrainBlock(int x, int z, int y, int minY, int maxY
 
     @Override
     public int getNearestSurfaceTerrainBlock(int x, int z, int y, int minY, int maxY, int failedMin, int failedMax) {
-        limit.THROW_MAX_CHECKS(maxY - minY + 1);
+        lease().THROW_MAX_CHECKS(maxY - minY + 1);
         try {
             return extent.getNearestSurfaceTerrainBlock(x, z, y, minY, maxY, failedMin, failedMax);
         } catch (FaweException e) {
@@ -244,7 +279,7 @@ public int getNearestSurfaceTerrainBlock(int x, int z, int y, int minY, int maxY
 
     @Override
     public int getNearestSurfaceTerrainBlock(int x, int z, int y, int minY, int maxY, int failedMin, int failedMax, Mask mask) {
-        limit.THROW_MAX_CHECKS(maxY - minY + 1);
+        lease().THROW_MAX_CHECKS(maxY - minY + 1);
         try {
             return extent.getNearestSurfaceTerrainBlock(x, z, y, minY, maxY, failedMin, failedMax, mask);
         } catch (FaweException e) {
@@ -264,7 +299,7 @@ public int getNearestSurfaceTerrainBlock(
             int failedMax,
             boolean ignoreAir
     ) {
-        limit.THROW_MAX_CHECKS(maxY - minY + 1);
+        lease().THROW_MAX_CHECKS(maxY - minY + 1);
         try {
             return extent.getNearestSurfaceTerrainBlock(x, z, y, minY, maxY, failedMin, failedMax, ignoreAir);
         } catch (FaweException e) {
@@ -275,72 +310,72 @@ public int getNearestSurfaceTerrainBlock(
 
     @Override
     public List<Countable<BlockType>> getBlockDistribution(Region region) {
-        limit.THROW_MAX_CHECKS(region.getVolume());
+        lease().THROW_MAX_CHECKS(region.getVolume());
         return extent.getBlockDistribution(region);
     }
 
     @Override
     public List<Countable<BlockState>> getBlockDistributionWithData(Region region) {
-        limit.THROW_MAX_CHECKS(region.getVolume());
+        lease().THROW_MAX_CHECKS(region.getVolume());
         return extent.getBlockDistributionWithData(region);
     }
 
     @Override
     public int countBlocks(Region region, Set<BaseBlock> searchBlocks) {
-        limit.THROW_MAX_CHECKS(region.getVolume());
+        lease().THROW_MAX_CHECKS(region.getVolume());
         return extent.countBlocks(region, searchBlocks);
     }
 
     @Override
     public int countBlocks(Region region, Mask searchMask) {
-        limit.THROW_MAX_CHECKS(region.getVolume());
+        lease().THROW_MAX_CHECKS(region.getVolume());
         return extent.countBlocks(region, searchMask);
     }
 
     @Override
     public <B extends BlockStateHolder<B>> int setBlocks(Region region, B block) throws MaxChangedBlocksException {
-        limit.THROW_MAX_CHANGES(region.getVolume());
+        lease().THROW_MAX_CHANGES(region.getVolume());
         return extent.setBlocks(region, block);
     }
 
     @Override
     public int setBlocks(Region region, Pattern pattern) throws MaxChangedBlocksException {
-        limit.THROW_MAX_CHANGES(region.getVolume());
+        lease().THROW_MAX_CHANGES(region.getVolume());
         return extent.setBlocks(region, pattern);
     }
 
     @Override
     public <B extends BlockStateHolder<B>> int replaceBlocks(Region region, Set<BaseBlock> filter, B replacement) throws
             MaxChangedBlocksException {
-        limit.THROW_MAX_CHECKS(region.getVolume());
-        limit.THROW_MAX_CHANGES(region.getVolume());
+        lease().THROW_MAX_CHECKS(region.getVolume());
+        lease().THROW_MAX_CHANGES(region.getVolume());
         return extent.replaceBlocks(region, filter, replacement);
     }
 
     @Override
     public int replaceBlocks(Region region, Set<BaseBlock> filter, Pattern pattern) throws MaxChangedBlocksException {
-        limit.THROW_MAX_CHECKS(region.getVolume());
-        limit.THROW_MAX_CHANGES(region.getVolume());
+        lease().THROW_MAX_CHECKS(region.getVolume());
+        lease().THROW_MAX_CHANGES(region.getVolume());
         return extent.replaceBlocks(region, filter, pattern);
     }
 
     @Override
     public int replaceBlocks(Region region, Mask mask, Pattern pattern) throws MaxChangedBlocksException {
-        limit.THROW_MAX_CHECKS(region.getVolume());
-        limit.THROW_MAX_CHANGES(region.getVolume());
+        lease().THROW_MAX_CHECKS(region.getVolume());
+        lease().THROW_MAX_CHANGES(region.getVolume());
         return extent.replaceBlocks(region, mask, pattern);
     }
 
     @Override
     public int setBlocks(Set<BlockVector3> vset, Pattern pattern) {
-        limit.THROW_MAX_CHANGES(vset.size());
+        lease().THROW_MAX_CHANGES(vset.size());
         return extent.setBlocks(vset, pattern);
     }
 
     @Override
     public <T extends Filter> T apply(Region region, T filter, boolean full) {
-        limit.THROW_MAX_CHECKS(region.getVolume());
-        limit.THROW_MAX_CHANGES(region.getVolume());
+        lease().THROW_MAX_CHECKS(region.getVolume());
+        lease().THROW_MAX_CHANGES(region.getVolume());
         return extent.apply(region, filter, full);
     }
 
@@ -360,7 +395,7 @@ public <T extends Filter> T apply(Iterable<BlockVector3> positions, T filter) {
         } else {
             ExtentFilterBlock block = new ExtentFilterBlock(this);
             for (BlockVector3 pos : positions) {
-                limit.THROW_MAX_CHECKS();
+                lease().THROW_MAX_CHECKS();
                 try {
                     filter.applyBlock(block.init(pos));
                 } catch (FaweException e) {
@@ -369,14 +404,14 @@ public <T extends Filter> T apply(Iterable<BlockVector3> positions, T filter) {
             }
             return filter;
         }
-        limit.THROW_MAX_CHECKS(size);
-        limit.THROW_MAX_CHANGES(size);
+        lease().THROW_MAX_CHECKS(size);
+        lease().THROW_MAX_CHANGES(size);
         return extent.apply(positions, filter);
     }
 
     @Override
     public BlockState getBlock(BlockVector3 position) {
-        limit.THROW_MAX_CHECKS();
+        lease().THROW_MAX_CHECKS();
         try {
             return extent.getBlock(position);
         } catch (FaweException e) {
@@ -387,7 +422,7 @@ public BlockState getBlock(BlockVector3 position) {
 
     @Override
     public BlockState getBlock(int x, int y, int z) {
-        limit.THROW_MAX_CHECKS();
+        lease().THROW_MAX_CHECKS();
         try {
             return extent.getBlock(x, y, z);
         } catch (FaweException e) {
@@ -398,7 +433,7 @@ public BlockState getBlock(int x, int y, int z) {
 
     @Override
     public BaseBlock getFullBlock(BlockVector3 position) {
-        limit.THROW_MAX_CHECKS();
+        lease().THROW_MAX_CHECKS();
         try {
             return extent.getFullBlock(position);
         } catch (FaweException e) {
@@ -409,7 +444,7 @@ public BaseBlock getFullBlock(BlockVector3 position) {
 
     @Override
     public BaseBlock getFullBlock(int x, int y, int z) {
-        limit.THROW_MAX_CHECKS();
+        lease().THROW_MAX_CHECKS();
         try {
             return extent.getFullBlock(x, y, z);
         } catch (FaweException e) {
@@ -420,7 +455,7 @@ public BaseBlock getFullBlock(int x, int y, int z) {
 
     @Override
     public BiomeType getBiome(BlockVector3 position) {
-        limit.THROW_MAX_CHECKS();
+        lease().THROW_MAX_CHECKS();
         try {
             return extent.getBiome(position);
         } catch (FaweException e) {
@@ -431,7 +466,7 @@ public BiomeType getBiome(BlockVector3 position) {
 
     @Override
     public BiomeType getBiomeType(int x, int y, int z) {
-        limit.THROW_MAX_CHECKS();
+        lease().THROW_MAX_CHECKS();
         try {
             return extent.getBiomeType(x, y, z);
         } catch (FaweException e) {
@@ -443,7 +478,7 @@ public BiomeType getBiomeType(int x, int y, int z) {
     @Override
     @Deprecated
     public <T extends BlockStateHolder<T>> boolean setBlock(BlockVector3 position, T block) throws WorldEditException {
-        limit.THROW_MAX_CHANGES();
+        lease().THROW_MAX_CHANGES();
         if (block.getNbtData() != null || block.getBlockType().getMaterial().isTile()) {
             limit.THROW_MAX_BLOCKSTATES();
         }
@@ -457,7 +492,7 @@ public <T extends BlockStateHolder<T>> boolean setBlock(BlockVector3 position, T
 
     @Override
     public <T extends BlockStateHolder<T>> boolean setBlock(int x, int y, int z, T block) throws WorldEditException {
-        limit.THROW_MAX_CHANGES();
+        lease().THROW_MAX_CHANGES();
         if (block.getNbtData() != null || block.getBlockType().getMaterial().isTile()) {
             limit.THROW_MAX_BLOCKSTATES();
         }
@@ -471,7 +506,7 @@ public <T extends BlockStateHolder<T>> boolean setBlock(int x, int y, int z, T b
 
     @Override
     public boolean setTile(int x, int y, int z, CompoundTag tile) throws WorldEditException {
-        limit.THROW_MAX_CHANGES();
+        lease().THROW_MAX_CHANGES();
         limit.THROW_MAX_BLOCKSTATES();
         try {
             return extent.setTile(x, y, z, tile);
@@ -483,7 +518,7 @@ public boolean setTile(int x, int y, int z, CompoundTag tile) throws WorldEditEx
 
     @Override
     public boolean setBiome(BlockVector3 position, BiomeType biome) {
-        limit.THROW_MAX_CHANGES();
+        lease().THROW_MAX_CHANGES();
         try {
             return extent.setBiome(position, biome);
         } catch (FaweException e) {
@@ -494,7 +529,7 @@ public boolean setBiome(BlockVector3 position, BiomeType biome) {
 
     @Override
     public boolean setBiome(int x, int y, int z, BiomeType biome) {
-        limit.THROW_MAX_CHANGES();
+        lease().THROW_MAX_CHANGES();
         try {
             return extent.setBiome(x, y, z, biome);
         } catch (FaweException e) {
@@ -514,12 +549,17 @@ public IChunkSet processSet(IChunk chunk, IChunkGet get, IChunkSet set) {
         }
         int tiles = set.tiles().size();
         int ents = set.entities().size() + set.getEntityRemoves().size();
-        limit.THROW_MAX_CHANGES(tiles + ents);
+        lease().THROW_MAX_CHANGES(tiles + ents);
         limit.THROW_MAX_BLOCKSTATES(tiles);
         limit.THROW_MAX_ENTITIES(ents);
         return set;
     }
 
+    @Override
+    public void flush() {
+        releaseLeases();
+    }
+
     @Override
     public Extent construct(final Extent child) {
         if (extent != child) {
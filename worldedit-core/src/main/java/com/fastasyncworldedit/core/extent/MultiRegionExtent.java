@@ -5,29 +5,42 @@
 import com.fastasyncworldedit.core.queue.IChunkGet;
 import com.fastasyncworldedit.core.queue.IChunkSet;
 import com.fastasyncworldedit.core.regions.RegionWrapper;
+import com.fastasyncworldedit.core.util.MathMan;
 import com.sk89q.worldedit.extent.Extent;
+import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.regions.Region;
 import com.sk89q.worldedit.regions.RegionIntersection;
+import com.sk89q.worldedit.world.block.BlockTypesCache;
 
 import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 
 public class MultiRegionExtent extends FaweRegionExtent {
 
+    private static final byte DENIED = 0;
+    private static final byte ALLOWED = 1;
+    private static final byte PARTIAL = 2;
+    private static final ChunkRestriction ALLOWED_CHUNK = new ChunkRestriction(ALLOWED, null, null);
+    private static final ChunkRestriction DENIED_CHUNK = new ChunkRestriction(DENIED, null, null);
+
     @Nullable
     private final RegionIntersection intersection;
     @Nullable
-    private final RegionIntersection disallowedIntersection;
-    @Nullable
     private final Region[] allowed;
     @Nullable
     private final Region[] disallowed;
+    private final int minSection;
+    private final int maxSection;
+    // Chunk key to the restriction of the chunk, compiled when the chunk is first checked
+    private final Map<Long, ChunkRestriction> restrictions = new ConcurrentHashMap<>();
     @Nullable
-    private Region region;
-    private int index;
+    private volatile LastRestriction last;
 
     /**
      * Create a new instance. Has both allowed and disallowed regions. Assumes that disallowed regions are encompassed by
@@ -40,97 +53,193 @@ public class MultiRegionExtent extends FaweRegionExtent {
      */
     public MultiRegionExtent(Extent extent, FaweLimit limit, @Nullable Region[] allowed, @Nullable Region[] disallowed) {
         super(extent, limit);
-        this.index = 0;
         if (allowed != null && !allowed[0].isGlobal()) {
-            this.region = allowed[0];
             this.allowed = allowed;
             this.intersection = new RegionIntersection(Arrays.asList(allowed));
         } else {
-            this.region = null;
             this.allowed = null;
             this.intersection = null;
         }
         if (disallowed != null && disallowed.length > 0) {
             this.disallowed = disallowed;
-            this.disallowedIntersection = new RegionIntersection(Arrays.asList(disallowed));
         } else {
             this.disallowed = null;
-            this.disallowedIntersection = null;
         }
+        this.minSection = extent.getMinY() >> 4;
+        this.maxSection = extent.getMaxY() >> 4;
     }
 
     @Override
     public boolean contains(int x, int y, int z) {
-        if (region != null && region.contains(x, y, z)) {
-            if (disallowed != null) {
-                for (final Region disallow : disallowed) {
-                    if (disallow.contains(x, y, z)) {
-                        return false;
-                    }
+        int layer = y >> 4;
+        if (layer < minSection || layer > maxSection) {
+            return test(x, y, z);
+        }
+        ChunkRestriction restriction = getRestriction(x >> 4, z >> 4);
+        return switch (restriction.state) {
+            case ALLOWED -> true;
+            case DENIED -> false;
+            default -> restriction.contains(layer - minSection, x, y, z);
+        };
+    }
+
+    @Override
+    public boolean contains(int x, int z) {
+        ChunkRestriction restriction = getRestriction(x >> 4, z >> 4);
+        return switch (restriction.state) {
+            case ALLOWED -> true;
+            case DENIED -> false;
+            default -> test(x, z);
+        };
+    }
+
+    /**
+     * Test a block against all regions.
+     */
+    private boolean test(int x, int y, int z) {
+        if (allowed != null) {
+            boolean result = false;
+            for (Region region : allowed) {
+                if (region.contains(x, y, z)) {
+                    result = true;
+                    break;
                 }
             }
-            return true;
-        }
-        boolean result = allowed == null;
-        if (!result) {
-            for (int i = 0; i < allowed.length; i++) {
-                if (i != index) {
-                    Region current = allowed[i];
-                    if (current.contains(x, y, z)) {
-                        region = current;
-                        index = i;
-                        result = true;
-                        break;
-                    }
-                }
+            if (!result) {
+                return false;
             }
         }
-        if (!result || disallowed == null) {
-            return result;
+        if (disallowed != null) {
+            for (Region region : disallowed) {
+                if (region.contains(x, y, z)) {
+                    return false;
+                }
+            }
         }
-        for (final Region disallow : disallowed) {
-            if (disallow.contains(x, y, z)) {
+        return true;
+    }
+
+    /**
+     * Test a column against all regions.
+     */
+    private boolean test(int x, int z) {
+        if (allowed != null) {
+            boolean result = false;
+            for (Region region : allowed) {
+                if (region.contains(x, z)) {
+                    result = true;
+                    break;
+                }
+            }
+            if (!result) {
                 return false;
             }
         }
+        if (disallowed != null) {
+            for (Region region : disallowed) {
+                if (region.contains(x, z)) {
+                    return false;
+                }
+            }
+        }
         return true;
     }
 
-    @Override
-    public boolean contains(int x, int z) {
-        if (region != null && region.contains(x, z)) {
-            if (disallowed != null) {
-                for (final Region disallow : disallowed) {
-                    if (disallow.contains(x, z)) {
-                        return false;
-                    }
+    private ChunkRestriction getRestriction(int chunkX, int chunkZ) {
+        long key = MathMan.pairInt(chunkX, chunkZ);
+        LastRestriction last = this.last;
+        if (last != null && last.key == key) {
+            return last.restriction;
+        }
+        ChunkRestriction restriction = restrictions.computeIfAbsent(key, k -> compile(chunkX, chunkZ));
+        this.last = new LastRestriction(key, restriction);
+        return restriction;
+    }
+
+    /**
+     * Compile the restriction of a chunk: allowed, denied, or per section with a bitmask of the allowed blocks of sections
+     * that are partially allowed.
+     */
+    private ChunkRestriction compile(int chunkX, int chunkZ) {
+        int bx = chunkX << 4;
+        int bz = chunkZ << 4;
+        byte[] sections = new byte[maxSection - minSection + 1];
+        long[][] masks = null;
+        boolean allAllowed = true;
+        boolean allDenied = true;
+        for (int i = 0; i < sections.length; i++) {
+            int by = (i + minSection) << 4;
+            byte state = classify(bx, by, bz);
+            if (state == PARTIAL) {
+                if (masks == null) {
+                    masks = new long[sections.length][];
                 }
-            }
-            return true;
-        }
-        boolean result = allowed == null;
-        if (!result) {
-            for (int i = 0; i < allowed.length; i++) {
-                if (i != index) {
-                    Region current = allowed[i];
-                    if (current.contains(x, z)) {
-                        region = current;
-                        index = i;
-                        result = true;
-                        break;
+                long[] mask = new long[64];
+                for (int y = 0, index = 0; y < 16; y++) {
+                    for (int z = 0; z < 16; z++) {
+                        for (int x = 0; x < 16; x++, index++) {
+                            if (test(bx + x, by + y, bz + z)) {
+                                mask[index >> 6] |= 1L << index;
+                            }
+                        }
                     }
                 }
+                masks[i] = mask;
             }
+            sections[i] = state;
+            allAllowed &= state == ALLOWED;
+            allDenied &= state == DENIED;
         }
-        if (!result || disallowed == null) {
-            return result;
+        if (allAllowed) {
+            return ALLOWED_CHUNK;
         }
-        for (final Region disallow : disallowed) {
-            if (disallow.contains(x, z)) {
-                return false;
+        if (allDenied) {
+            return DENIED_CHUNK;
+        }
+        return new ChunkRestriction(PARTIAL, sections, masks);
+    }
+
+    private byte classify(int bx, int by, int bz) {
+        int tx = bx + 15;
+        int ty = by + 15;
+        int tz = bz + 15;
+        boolean partial = false;
+        if (allowed != null) {
+            boolean intersects = false;
+            boolean contained = false;
+            for (Region region : allowed) {
+                if (!intersects(region, bx, tx, by, ty, bz, tz)) {
+                    continue;
+                }
+                intersects = true;
+                if (region.containsEntireCuboid(bx, tx, by, ty, bz, tz)) {
+                    contained = true;
+                    break;
+                }
+            }
+            if (!intersects) {
+                return DENIED;
             }
+            partial = !contained;
         }
-        return true;
+        if (disallowed != null) {
+            for (Region region : disallowed) {
+                if (!intersects(region, bx, tx, by, ty, bz, tz)) {
+                    continue;
+                }
+                if (region.containsEntireCuboid(bx, tx, by, ty, bz, tz)) {
+                    return DENIED;
+                }
+                partial = true;
+            }
+        }
+        return partial ? PARTIAL : ALLOWED;
+    }
+
+    private static boolean intersects(Region region, int bx, int tx, int by, int ty, int bz, int tz) {
+        BlockVector3 min = region.getMinimumPoint();
+        BlockVector3 max = region.getMaximumPoint();
+        return tx >= min.x() && bx <= max.x() && ty >= min.y() && by <= max.y() && tz >= min.z() && bz <= max.z();
     }
 
     /**
@@ -146,45 +255,88 @@ public Collection<Region> getRegions() {
 
     @Override
     public boolean processGet(int chunkX, int chunkZ) {
-        boolean result = allowed == null;
-        if (!result) {
-            for (Region region : allowed) {
-                if (region.containsChunk(chunkX, chunkZ)) {
-                    result = true;
-                    break;
-                }
-            }
-        }
-        if (!result || disallowed == null) {
-            return result;
-        }
-        for (Region region : disallowed) {
-            if (region.containsChunk(chunkX, chunkZ)) {
-                return false;
-            }
-        }
-        return true;
+        return getRestriction(chunkX, chunkZ) != DENIED_CHUNK;
     }
 
     @Override
     public IChunkSet processSet(IChunk chunk, IChunkGet get, IChunkSet set) {
-        if (intersection != null) {
-            set = intersection.processSet(chunk, get, set);
+        ChunkRestriction restriction = getRestriction(chunk.getX(), chunk.getZ());
+        if (restriction == ALLOWED_CHUNK) {
+            return set;
+        }
+        if (restriction == DENIED_CHUNK) {
+            return null;
         }
-        if (disallowedIntersection != null) {
-            set = disallowedIntersection.processSet(chunk, get, set, true);
+        for (int layer = Math.max(minSection, set.getMinSectionPosition());
+             layer <= Math.min(maxSection, set.getMaxSectionPosition()); layer++) {
+            if (!set.hasSection(layer)) {
+                continue;
+            }
+            int i = layer - minSection;
+            byte state = restriction.sections[i];
+            if (state == ALLOWED) {
+                continue;
+            }
+            if (state == DENIED) {
+                set.setBlocks(layer, null);
+                continue;
+            }
+            char[] arr = set.loadIfPresent(layer);
+            if (arr == null) {
+                continue;
+            }
+            long[] mask = restriction.masks[i];
+            for (int index = 0; index < arr.length; index++) {
+                if ((mask[index >> 6] & (1L << index)) == 0) {
+                    arr[index] = BlockTypesCache.ReservedIDs.__RESERVED__;
+                }
+            }
+            set.setBlocks(layer, arr);
         }
+        BlockVector3 chunkPos = chunk.getChunkBlockCoord().withY(0);
+        trimNBT(set, this::contains, pos -> this.contains(pos.add(chunkPos)));
         return set;
     }
 
     @Override
     public Future<?> postProcessSet(final IChunk chunk, final IChunkGet get, final IChunkSet set) {
+        if (intersection == null) {
+            return CompletableFuture.completedFuture(null);
+        }
         return intersection.postProcessSet(chunk, get, set);
     }
 
     @Override
     public void postProcess(IChunk chunk, IChunkGet get, IChunkSet set) {
-        intersection.postProcess(chunk, get, set);
+        if (intersection != null) {
+            intersection.postProcess(chunk, get, set);
+        }
+    }
+
+    /**
+     * The compiled restriction of a chunk.
+     *
+     * @param state    {@link #ALLOWED}, {@link #DENIED} or {@link #PARTIAL}
+     * @param sections the state of each section if partial
+     * @param masks    the allowed blocks of each partial section, indexed by {@code y << 8 | z << 4 | x}
+     */
+    private record ChunkRestriction(byte state, byte[] sections, long[][] masks) {
+
+        private boolean contains(int section, int x, int y, int z) {
+            return switch (sections[section]) {
+                case ALLOWED -> true;
+                case DENIED -> false;
+                default -> {
+                    int index = (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+                    yield (masks[section][index >> 6] & (1L << index)) != 0;
+                }
+            };
+        }
+
+    }
+
+    private record LastRestriction(long key, ChunkRestriction restriction) {
+
     }
 
 }
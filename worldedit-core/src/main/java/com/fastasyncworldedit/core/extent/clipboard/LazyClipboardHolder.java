@@ -1,11 +1,15 @@
 package com.fastasyncworldedit.core.extent.clipboard;
 
+import com.fastasyncworldedit.core.extent.clipboard.io.SchematicCache;
 import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
 import com.sk89q.worldedit.extent.clipboard.BlockArrayClipboard;
 import com.sk89q.worldedit.extent.clipboard.Clipboard;
 import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormat;
 import com.sk89q.worldedit.extent.clipboard.io.ClipboardReader;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.UUID;
@@ -15,16 +19,50 @@ public class LazyClipboardHolder extends URIClipboardHolder {
     private final ByteSource source;
     private final ClipboardFormat format;
     private final UUID uuid;
+    @Nullable
+    private final SchematicCache.Key cacheKey;
+    private final long sourceSize;
+    // Clipboard acquired from the cache, shared with other holders of the same file
+    @Nullable
+    private Clipboard shared;
     private Clipboard clipboard;
+    private boolean failed;
+    private boolean closed;
 
     /**
      * Create a new instance with the given clipboard.
      */
     public LazyClipboardHolder(URI uri, ByteSource source, ClipboardFormat format, UUID uuid) {
+        this(uri, source, format, uuid, null, -1);
+    }
+
+    /**
+     * Create a new instance loading the given file. Clipboards loaded from files are shared with other holders of the same
+     * (unmodified) file through the {@link SchematicCache}, so the clipboard of such a holder is read-only.
+     *
+     * @param file   schematic file
+     * @param format format of the file
+     * @param uuid   uuid to use for the clipboard, or null for a random uuid
+     * @since TODO
+     */
+    public LazyClipboardHolder(File file, ClipboardFormat format, UUID uuid) {
+        this(file.toURI(), Files.asByteSource(file), format, uuid, SchematicCache.keyOf(file), file.length());
+    }
+
+    private LazyClipboardHolder(
+            URI uri,
+            ByteSource source,
+            ClipboardFormat format,
+            UUID uuid,
+            @Nullable SchematicCache.Key cacheKey,
+            long sourceSize
+    ) {
         super(uri, EmptyClipboard.getInstance());
         this.source = source;
         this.format = format;
         this.uuid = uuid != null ? uuid : UUID.randomUUID();
+        this.cacheKey = cacheKey;
+        this.sourceSize = sourceSize;
     }
 
     @Override
@@ -34,20 +72,91 @@ public boolean contains(Clipboard clipboard) {
 
     @Override
     public synchronized Clipboard getClipboard() {
-        if (clipboard == null) {
+        // A closed holder would never release a clipboard acquired now
+        if (clipboard == null && !failed && !closed) {
             try {
-                try (InputStream in = source.openBufferedStream()) {
-                    final ClipboardReader reader = format.getReader(in);
-                    final Clipboard clipboard;
-                    this.clipboard = reader.read(uuid);
+                if (cacheKey != null) {
+                    this.shared = SchematicCache.getInstance().acquire(cacheKey, this::read);
+                    this.clipboard = shared == null ? null : readOnlyView(shared);
+                } else {
+                    this.clipboard = read();
                 }
             } catch (Throwable e) {
+                // Not decoded again, so a broken file is not read on every use
+                failed = true;
                 e.printStackTrace();
             }
         }
         return clipboard;
     }
 
+    /**
+     * Decode the clipboard ahead of its use. Does nothing once this holder has been closed.
+     *
+     * @since TODO
+     */
+    public void preload() {
+        getClipboard();
+    }
+
+    /**
+     * Other sessions use the same cached clipboard, so only hand out a read-only view of it with its own origin. Transforms
+     * are applied through the holder and do not modify the clipboard.
+     */
+    private static Clipboard readOnlyView(Clipboard shared) {
+        Clipboard view = WorldCopyClipboard.of(shared, shared.getRegion(), true, shared.hasBiomes());
+        view.setOrigin(shared.getOrigin());
+        return view;
+    }
+
+    private Clipboard read() throws Exception {
+        try (InputStream in = source.openBufferedStream()) {
+            final ClipboardReader reader = format.getReader(in);
+            return reader.read(uuid);
+        }
+    }
+
+    /**
+     * If the clipboard has already been decoded, either by this holder or by another holder of the same file.
+     *
+     * @return if loading the clipboard will not require decoding the source
+     * @since TODO
+     */
+    public synchronized boolean isLoaded() {
+        return clipboard != null || (cacheKey != null && SchematicCache.getInstance().isCached(cacheKey));
+    }
+
+    /**
+     * If decoding the clipboard failed. Failed holders are not decoded again, and return a null clipboard.
+     *
+     * @return if decoding failed
+     * @since TODO
+     */
+    public synchronized boolean hasFailed() {
+        return failed;
+    }
+
+    /**
+     * Get the size in bytes of the file backing this holder, if known.
+     *
+     * @return size in bytes, or -1 if unknown
+     * @since TODO
+     */
+    public long getSourceSize() {
+        return sourceSize;
+    }
+
+    /**
+     * Get the key the clipboard of this holder is shared under in the {@link SchematicCache}, if any.
+     *
+     * @return cache key, or null if the clipboard is not shared
+     * @since TODO
+     */
+    @Nullable
+    public SchematicCache.Key getCacheKey() {
+        return cacheKey;
+    }
+
     @Override
     public URI getURI(Clipboard clipboard) {
         return (this.clipboard == clipboard) ? getUri() : null;
@@ -55,10 +164,15 @@ public URI getURI(Clipboard clipboard) {
 
     @Override
     public synchronized void close() {
-        if (clipboard instanceof BlockArrayClipboard) {
+        if (cacheKey != null && shared != null) {
+            SchematicCache.getInstance().release(cacheKey, shared);
+        } else if (clipboard instanceof BlockArrayClipboard) {
             clipboard.close();
         }
+        shared = null;
         clipboard = null;
+        failed = false;
+        closed = true;
     }
 
     @Override
@@ -0,0 +1,272 @@
+package com.fastasyncworldedit.core.extent.clipboard;
+
+import com.fastasyncworldedit.core.extent.processor.ProcessorScope;
+import com.fastasyncworldedit.core.nbt.FaweCompoundTag;
+import com.fastasyncworldedit.core.queue.IBatchProcessor;
+import com.fastasyncworldedit.core.queue.IChunk;
+import com.fastasyncworldedit.core.queue.IChunkGet;
+import com.fastasyncworldedit.core.queue.IChunkSet;
+import com.fastasyncworldedit.core.util.MathMan;
+import com.sk89q.worldedit.EditSession;
+import com.sk89q.worldedit.extent.Extent;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.util.concurrency.LazyReference;
+import com.sk89q.worldedit.world.World;
+import com.sk89q.worldedit.world.biome.BiomeType;
+import com.sk89q.worldedit.world.block.BaseBlock;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockTypesCache;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Clipboard referencing the blocks of a world instead of copying them. A chunk is only copied when an edit is about to
+ * change it, so the clipboard keeps the blocks of the world at the time it was created while copying returns immediately.
+ * <p>
+ * Chunks are copied by the processor returned by {@link #getProcessor(World)}, so only changes made through edit sessions
+ * are noticed. Changes made outside of WorldEdit, e.g. by players, are visible in the clipboard.
+ *
+ * @since TODO
+ */
+public class LazyCopyClipboard extends WorldCopyClipboard {
+
+    // World name to the open clipboards of the world, weak so clipboards that are never closed do not leak
+    private static final Map<String, Set<LazyCopyClipboard>> OPEN = new ConcurrentHashMap<>();
+
+    private final String worldName;
+    private final int minLayer;
+    private final int maxLayer;
+    private final Map<Long, ChunkSnapshot> snapshots = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private LazyCopyClipboard(EditSession editSession, Region region, boolean hasBiomes) {
+        super(editSession, region, false, hasBiomes);
+        this.worldName = editSession.getWorld().getName();
+        this.minLayer = region.getMinimumY() >> 4;
+        this.maxLayer = region.getMaximumY() >> 4;
+    }
+
+    /**
+     * Create a clipboard of a region of the world of an edit session.
+     *
+     * @param editSession the edit session to read unchanged chunks with
+     * @param region      the region to copy
+     * @param hasBiomes   if biomes should be copied
+     * @return the clipboard
+     */
+    public static LazyCopyClipboard of(EditSession editSession, Region region, boolean hasBiomes) {
+        LazyCopyClipboard clipboard = new LazyCopyClipboard(editSession, region, hasBiomes);
+        Set<LazyCopyClipboard> clipboards = OPEN.computeIfAbsent(
+                clipboard.worldName,
+                k -> Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()))
+        );
+        clipboards.add(clipboard);
+        return clipboard;
+    }
+
+    /**
+     * Get the processor copying chunks of a world before they are changed, so open clipboards of the world keep their
+     * blocks. Should be added to the queue of every edit session placing chunks in the world.
+     *
+     * @param world the world being edited
+     * @return the processor
+     */
+    public static IBatchProcessor getProcessor(World world) {
+        return new SnapshotProcessor(world.getName());
+    }
+
+    /**
+     * Get the number of chunks copied from the world since the clipboard was created.
+     *
+     * @return the number of copied chunks
+     */
+    public int getCopiedChunks() {
+        return snapshots.size();
+    }
+
+    @Override
+    public BaseBlock getFullBlock(int x, int y, int z) {
+        ChunkSnapshot snapshot = snapshots.get(MathMan.pairInt(x >> 4, z >> 4));
+        if (snapshot == null) {
+            BaseBlock block = super.getFullBlock(x, y, z);
+            // The chunk may have been copied and changed while reading
+            snapshot = snapshots.get(MathMan.pairInt(x >> 4, z >> 4));
+            if (snapshot == null) {
+                return block;
+            }
+        }
+        return snapshot.getFullBlock(x, y, z);
+    }
+
+    @Override
+    public BlockState getBlock(int x, int y, int z) {
+        ChunkSnapshot snapshot = snapshots.get(MathMan.pairInt(x >> 4, z >> 4));
+        if (snapshot == null) {
+            BlockState block = super.getBlock(x, y, z);
+            snapshot = snapshots.get(MathMan.pairInt(x >> 4, z >> 4));
+            if (snapshot == null) {
+                return block;
+            }
+        }
+        return snapshot.getBlock(x, y, z);
+    }
+
+    @Override
+    public BiomeType getBiomeType(int x, int y, int z) {
+        ChunkSnapshot snapshot = snapshots.get(MathMan.pairInt(x >> 4, z >> 4));
+        if (snapshot == null || snapshot.biomes == null) {
+            BiomeType biome = super.getBiomeType(x, y, z);
+            snapshot = snapshots.get(MathMan.pairInt(x >> 4, z >> 4));
+            if (snapshot == null || snapshot.biomes == null) {
+                return biome;
+            }
+        }
+        return snapshot.getBiomeType(x, y, z);
+    }
+
+    @Override
+    public BiomeType getBiome(BlockVector3 position) {
+        return getBiomeType(position.x(), position.y(), position.z());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Set<LazyCopyClipboard> clipboards = OPEN.get(worldName);
+        if (clipboards != null) {
+            clipboards.remove(this);
+        }
+        snapshots.clear();
+    }
+
+    private void snapshot(int chunkX, int chunkZ, IChunkGet get, IChunkSet set) {
+        if (closed || !region.containsChunk(chunkX, chunkZ) || !changes(set)) {
+            return;
+        }
+        snapshots.computeIfAbsent(MathMan.pairInt(chunkX, chunkZ), k -> new ChunkSnapshot(get));
+    }
+
+    private boolean changes(IChunkSet set) {
+        if (!set.tiles().isEmpty()) {
+            return true;
+        }
+        for (int layer = Math.max(minLayer, set.getMinSectionPosition());
+             layer <= Math.min(maxLayer, set.getMaxSectionPosition()); layer++) {
+            if (set.hasSection(layer) || (hasBiomes() && set.hasBiomes(layer))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copy of the sections of a chunk within the clipboard's height.
+     */
+    private final class ChunkSnapshot {
+
+        private final char[][] blocks;
+        @Nullable
+        private final BiomeType[][] biomes;
+        private final Map<BlockVector3, FaweCompoundTag> tiles = new HashMap<>();
+
+        private ChunkSnapshot(IChunkGet get) {
+            blocks = new char[maxLayer - minLayer + 1][];
+            biomes = hasBiomes() ? new BiomeType[blocks.length][] : null;
+            for (int layer = minLayer; layer <= maxLayer; layer++) {
+                if (layer < get.getMinSectionPosition() || layer > get.getMaxSectionPosition()) {
+                    continue;
+                }
+                char[] section = get.load(layer);
+                // The section of the get may be updated when the set is applied
+                blocks[layer - minLayer] = section == null ? null : section.clone();
+                if (biomes != null) {
+                    BiomeType[] biomeSection = new BiomeType[64];
+                    int yy = layer << 4;
+                    for (int y = 0, index = 0; y < 16; y += 4) {
+                        for (int z = 0; z < 16; z += 4) {
+                            for (int x = 0; x < 16; x += 4, index++) {
+                                biomeSection[index] = get.getBiomeType(x, yy + y, z);
+                            }
+                        }
+                    }
+                    biomes[layer - minLayer] = biomeSection;
+                }
+            }
+            for (Map.Entry<BlockVector3, FaweCompoundTag> entry : get.tiles().entrySet()) {
+                BlockVector3 pos = entry.getKey();
+                tiles.put(BlockVector3.at(pos.x() & 15, pos.y(), pos.z() & 15), entry.getValue());
+            }
+        }
+
+        private BlockState getBlock(int x, int y, int z) {
+            char[] section = blocks[(y >> 4) - minLayer];
+            int ordinal = section == null ? BlockTypesCache.ReservedIDs.AIR : section[(y & 15) << 8 | (z & 15) << 4 | (x & 15)];
+            if (ordinal == BlockTypesCache.ReservedIDs.__RESERVED__) {
+                ordinal = BlockTypesCache.ReservedIDs.AIR;
+            }
+            return BlockTypesCache.states[ordinal];
+        }
+
+        private BaseBlock getFullBlock(int x, int y, int z) {
+            BlockState state = getBlock(x, y, z);
+            if (state.getMaterial().hasContainer() && !tiles.isEmpty()) {
+                FaweCompoundTag tile = tiles.get(BlockVector3.at(x & 15, y, z & 15));
+                if (tile != null) {
+                    return state.toBaseBlock(LazyReference.computed(tile.linTag()));
+                }
+            }
+            return state.toBaseBlock();
+        }
+
+        private BiomeType getBiomeType(int x, int y, int z) {
+            BiomeType[] section = biomes[(y >> 4) - minLayer];
+            return section[(y & 12) << 2 | (z & 12) | (x & 12) >> 2];
+        }
+
+    }
+
+    private static final class SnapshotProcessor implements IBatchProcessor {
+
+        private final String worldName;
+
+        private SnapshotProcessor(String worldName) {
+            this.worldName = worldName;
+        }
+
+        @Override
+        public IChunkSet processSet(IChunk chunk, IChunkGet get, IChunkSet set) {
+            Set<LazyCopyClipboard> clipboards = OPEN.get(worldName);
+            if (clipboards == null || clipboards.isEmpty()) {
+                return set;
+            }
+            LazyCopyClipboard[] copies;
+            synchronized (clipboards) {
+                copies = clipboards.toArray(new LazyCopyClipboard[0]);
+            }
+            for (LazyCopyClipboard clipboard : copies) {
+                clipboard.snapshot(chunk.getX(), chunk.getZ(), get, set);
+            }
+            return set;
+        }
+
+        @Nullable
+        @Override
+        public Extent construct(Extent child) {
+            throw new UnsupportedOperationException("Processing only");
+        }
+
+        @Override
+        public ProcessorScope getScope() {
+            return ProcessorScope.READING_BLOCKS;
+        }
+
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.fastasyncworldedit.core.extent.clipboard;
 
+import com.fastasyncworldedit.core.extent.clipboard.io.SchematicBatchLoader;
 import com.sk89q.worldedit.extent.clipboard.Clipboard;
 import com.sk89q.worldedit.session.ClipboardHolder;
 
@@ -20,6 +21,7 @@ public class MultiClipboardHolder extends URIClipboardHolder implements Iterable
 
     private final List<URIClipboardHolder> holders;
     private Clipboard[] cached;
+    private SchematicBatchLoader.Batch preload;
 
     public MultiClipboardHolder() {
         this(URI.create(""));
@@ -115,8 +117,21 @@ public void add(URI uri, Clipboard clip) {
         add(new URIClipboardHolder(uri, clip));
     }
 
+    /**
+     * Start decoding all lazily loaded clipboards held in parallel in the background. The loading is cancelled if this holder
+     * is closed.
+     *
+     * @since TODO
+     */
+    public synchronized void preload() {
+        if (preload == null || preload.isDone()) {
+            preload = SchematicBatchLoader.load(holders);
+        }
+    }
+
     @Override
     public List<Clipboard> getClipboards() {
+        SchematicBatchLoader.loadAll(holders);
         ArrayList<Clipboard> all = new ArrayList<>();
         for (ClipboardHolder holder : holders) {
             all.addAll(holder.getClipboards());
@@ -179,6 +194,12 @@ public Set<URI> getURIs() {
 
     @Override
     public void close() {
+        synchronized (this) {
+            if (preload != null) {
+                preload.cancel();
+                preload = null;
+            }
+        }
         cached = null;
         for (ClipboardHolder holder : holders) {
             holder.close();
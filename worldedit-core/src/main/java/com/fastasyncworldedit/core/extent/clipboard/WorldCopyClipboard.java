@@ -45,7 +45,7 @@ public WorldCopyClipboard(Supplier<Extent> supplier, Region region, boolean hasE
         this.extent = supplier.get();
     }
 
-    private WorldCopyClipboard(Extent extent, Region region, boolean hasEntities, boolean hasBiomes) {
+    protected WorldCopyClipboard(Extent extent, Region region, boolean hasEntities, boolean hasBiomes) {
         super(region);
         this.hasBiomes = hasBiomes;
         this.hasEntities = hasEntities;
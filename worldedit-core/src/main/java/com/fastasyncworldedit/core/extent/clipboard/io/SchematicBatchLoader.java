@@ -0,0 +1,201 @@
+package com.fastasyncworldedit.core.extent.clipboard.io;
+
+import com.fastasyncworldedit.core.FaweCache;
+import com.fastasyncworldedit.core.configuration.Settings;
+import com.fastasyncworldedit.core.extent.clipboard.LazyClipboardHolder;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormat;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormats;
+import com.sk89q.worldedit.internal.util.LogManagerCompat;
+import com.sk89q.worldedit.session.ClipboardHolder;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Loads batches of schematic files (e.g. a folder used as a multi-clipboard) in parallel. Formats are detected concurrently,
+ * and decoding is limited by {@link Settings.CLIPBOARD#BATCH_LOAD_BUDGET_MB} so many large files are not held in memory
+ * mid-decode at once. Decoded clipboards are shared through the {@link SchematicCache}.
+ *
+ * @since TODO
+ */
+public final class SchematicBatchLoader {
+
+    private static final Logger LOGGER = LogManagerCompat.getLogger();
+
+    private static final ThreadPoolExecutor EXECUTOR = FaweCache.INSTANCE.newBlockingExecutor("FAWE Schematic Loader - %d");
+
+    // Permits are KiB of (compressed) schematic files being decoded
+    private static final int BUDGET_KB = Math.max(1, Settings.settings().CLIPBOARD.BATCH_LOAD_BUDGET_MB) << 10;
+    private static final Semaphore BUDGET = new Semaphore(BUDGET_KB);
+
+    // Decodes not yet completed, by cache key (or holder if not cached), so a file is only submitted once
+    private static final Map<Object, Future<?>> PENDING = new ConcurrentHashMap<>();
+
+    private SchematicBatchLoader() {
+    }
+
+    /**
+     * Create lazy holders for the given files, detecting each file's format in parallel. Files with an unknown format are
+     * skipped.
+     *
+     * @param files schematic files
+     * @return holders for all files with a known format, in the order given
+     */
+    public static LazyClipboardHolder[] createHolders(File[] files) {
+        List<Future<ClipboardFormat>> formats = new ArrayList<>(files.length);
+        for (File file : files) {
+            formats.add(EXECUTOR.submit(() -> ClipboardFormats.findByFile(file)));
+        }
+        List<LazyClipboardHolder> holders = new ArrayList<>(files.length);
+        for (int i = 0; i < files.length; i++) {
+            ClipboardFormat format = null;
+            try {
+                format = formats.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                formats.forEach(f -> f.cancel(true));
+                break;
+            } catch (ExecutionException e) {
+                LOGGER.error("Could not detect format of {}", files[i], e.getCause());
+            }
+            if (format != null) {
+                holders.add(new LazyClipboardHolder(files[i], format, null));
+            }
+        }
+        return holders.toArray(new LazyClipboardHolder[0]);
+    }
+
+    /**
+     * Start decoding all not yet loaded {@link LazyClipboardHolder}s contained in the given holders in the background. Holders
+     * that failed to decode before are skipped, and files already being decoded are not submitted again.
+     *
+     * @param holders holders to load
+     * @return batch that may be awaited or cancelled
+     */
+    public static Batch load(Collection<? extends ClipboardHolder> holders) {
+        List<Future<?>> futures = new ArrayList<>();
+        for (ClipboardHolder parent : holders) {
+            for (ClipboardHolder holder : parent.getHolders()) {
+                if (holder instanceof LazyClipboardHolder lazy && !lazy.isLoaded() && !lazy.hasFailed()) {
+                    futures.add(submit(lazy));
+                }
+            }
+        }
+        return new Batch(futures);
+    }
+
+    /**
+     * Decode all not yet loaded {@link LazyClipboardHolder}s contained in the given holders in parallel, and wait for them to
+     * finish.
+     *
+     * @param holders holders to load
+     */
+    public static void loadAll(Collection<? extends ClipboardHolder> holders) {
+        load(holders).await();
+    }
+
+    private static Future<?> submit(LazyClipboardHolder holder) {
+        Object key = holder.getCacheKey() != null ? holder.getCacheKey() : holder;
+        Decode[] created = new Decode[1];
+        Future<?> future = PENDING.computeIfAbsent(key, k -> created[0] = new Decode(k, holder));
+        // Only executed once mapped, so the decode cannot complete (and unmap itself) before it is pending
+        if (created[0] != null) {
+            EXECUTOR.execute(created[0]);
+        }
+        return future;
+    }
+
+    private static void decode(LazyClipboardHolder holder) {
+        long size = holder.getSourceSize();
+        int permits = size < 0 ? 1 : (int) Math.min(BUDGET_KB, Math.max(1, size >> 10));
+        try {
+            BUDGET.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            holder.preload();
+        } finally {
+            BUDGET.release(permits);
+        }
+    }
+
+    private static final class Decode extends FutureTask<Void> {
+
+        private final Object key;
+
+        private Decode(Object key, LazyClipboardHolder holder) {
+            super(() -> decode(holder), null);
+            this.key = key;
+        }
+
+        @Override
+        protected void done() {
+            PENDING.remove(key, this);
+        }
+
+    }
+
+    /**
+     * A set of schematic decodes running in the background.
+     */
+    public static final class Batch {
+
+        private final List<Future<?>> futures;
+
+        private Batch(List<Future<?>> futures) {
+            this.futures = futures;
+        }
+
+        /**
+         * Wait for all decodes in the batch to complete.
+         */
+        public void await() {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancel();
+                    return;
+                } catch (CancellationException ignored) {
+                } catch (ExecutionException e) {
+                    LOGGER.error("Error loading schematic", e.getCause());
+                }
+            }
+        }
+
+        /**
+         * Cancel all decodes in the batch that have not yet started. Decodes already running are interrupted whilst waiting
+         * for memory budget.
+         */
+        public void cancel() {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        public boolean isDone() {
+            for (Future<?> future : futures) {
+                if (!future.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,222 @@
+package com.fastasyncworldedit.core.extent.clipboard.io;
+
+import com.fastasyncworldedit.core.configuration.Settings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.internal.util.LogManagerCompat;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Weighted cache of decoded schematic files, shared between {@link com.fastasyncworldedit.core.extent.clipboard.LazyClipboardHolder}
+ * instances loading the same file. Entries are reference counted, and a clipboard is only closed once it has been evicted and
+ * no holder still uses it.
+ *
+ * @since TODO
+ */
+public final class SchematicCache {
+
+    private static final Logger LOGGER = LogManagerCompat.getLogger();
+
+    private static final SchematicCache INSTANCE = new SchematicCache(Settings.settings().CLIPBOARD.SCHEMATIC_CACHE_VOLUME);
+
+    @Nullable
+    private final Cache<Key, Entry> cache;
+
+    private SchematicCache(long maxVolume) {
+        if (maxVolume <= 0) {
+            this.cache = null;
+            return;
+        }
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxVolume)
+                .<Key, Entry>weigher((key, entry) -> (int) Math.min(Integer.MAX_VALUE, entry.clipboard.getRegion().getVolume()))
+                .removalListener(this::onRemoval)
+                .build();
+    }
+
+    /**
+     * Get the shared instance
+     *
+     * @return shared schematic cache
+     */
+    public static SchematicCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Create the cache key for the given file. The key includes the file size and last modification time, so a modified file
+     * is never served from the cache.
+     *
+     * @param file schematic file
+     * @return key identifying the current version of the file
+     */
+    public static Key keyOf(File file) {
+        File absolute = file.getAbsoluteFile();
+        return new Key(absolute.getPath(), absolute.length(), absolute.lastModified());
+    }
+
+    /**
+     * Get the clipboard for the given key, decoding it with the given loader if not present. Each successful call must be
+     * matched by a call to {@link #release(Key, Clipboard)} once the clipboard is no longer used by the caller.
+     *
+     * @param key    file key
+     * @param loader decoder to use if the clipboard is not cached
+     * @return decoded clipboard, or null if the loader returned null
+     */
+    @Nullable
+    public Clipboard acquire(Key key, Callable<Clipboard> loader) throws Exception {
+        if (cache == null) {
+            return loader.call();
+        }
+        boolean[] loaded = new boolean[1];
+        Entry entry;
+        try {
+            entry = cache.get(key, () -> {
+                Clipboard clipboard = loader.call();
+                if (clipboard == null) {
+                    return null;
+                }
+                loaded[0] = true;
+                return new Entry(clipboard);
+            });
+        } catch (CacheLoader.InvalidCacheLoadException e) {
+            // Loader returned null
+            return null;
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw e.getCause() instanceof Exception ex ? ex : e;
+        }
+        // A freshly loaded entry is already retained for the loading caller
+        if (loaded[0] || entry.retain()) {
+            return entry.clipboard;
+        }
+        // Evicted and closed between lookup and acquisition, so use an unshared copy
+        return loader.call();
+    }
+
+    /**
+     * Release a clipboard previously obtained from {@link #acquire(Key, Callable)}.
+     *
+     * @param key       file key the clipboard was acquired with
+     * @param clipboard the acquired clipboard
+     */
+    public void release(Key key, Clipboard clipboard) {
+        if (cache == null) {
+            clipboard.close();
+            return;
+        }
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.clipboard == clipboard) {
+            entry.release();
+            return;
+        }
+        // Evicted in the meantime (closed once the last user releases it), or never shared
+        if (!Entry.releaseEvicted(clipboard)) {
+            clipboard.close();
+        }
+    }
+
+    /**
+     * If the clipboard for the given key has been decoded and is still cached.
+     *
+     * @param key file key
+     * @return if cached
+     */
+    public boolean isCached(Key key) {
+        return cache != null && cache.getIfPresent(key) != null;
+    }
+
+    /**
+     * Remove all unused entries from the cache.
+     */
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private void onRemoval(RemovalNotification<Key, Entry> notification) {
+        Entry entry = notification.getValue();
+        if (entry != null) {
+            entry.evict();
+        }
+    }
+
+    /**
+     * Identifies a specific version of a schematic file.
+     *
+     * @param path         absolute file path
+     * @param size         file size in bytes
+     * @param lastModified last modification time
+     */
+    public record Key(String path, long size, long lastModified) {
+
+    }
+
+    private static final class Entry {
+
+        private static final Map<Clipboard, Entry> EVICTED = new ConcurrentHashMap<>();
+
+        private final Clipboard clipboard;
+        private int refs;
+        private boolean evicted;
+
+        private Entry(Clipboard clipboard) {
+            this.clipboard = clipboard;
+            this.refs = 1;
+        }
+
+        private synchronized boolean retain() {
+            if (evicted) {
+                return false;
+            }
+            refs++;
+            return true;
+        }
+
+        private synchronized void release() {
+            if (--refs <= 0 && evicted) {
+                close();
+            }
+        }
+
+        private synchronized void evict() {
+            evicted = true;
+            if (refs <= 0) {
+                close();
+            } else {
+                EVICTED.put(clipboard, this);
+            }
+        }
+
+        private void close() {
+            EVICTED.remove(clipboard);
+            try {
+                clipboard.close();
+            } catch (Throwable t) {
+                LOGGER.error("Error closing cached schematic clipboard", t);
+            }
+        }
+
+        private static boolean releaseEvicted(Clipboard clipboard) {
+            Entry entry = EVICTED.get(clipboard);
+            if (entry == null) {
+                return false;
+            }
+            entry.release();
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.fastasyncworldedit.core.extent.filter;
+
+import com.fastasyncworldedit.core.queue.Filter;
+import com.fastasyncworldedit.core.queue.IChunk;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.regions.CuboidRegion;
+import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.world.biome.BiomeType;
+
+import javax.annotation.Nullable;
+
+/**
+ * Sets the biome of every 4x4x4 biome cell intersecting a region. Instead of setting the biome once per block, each
+ * section of a chunk is filled at once with {@link IChunk#setBiomes(int, BiomeType[])}, and the blocks of the chunk are
+ * not loaded.
+ *
+ * @since TODO
+ */
+public class BiomeFillFilter implements Filter {
+
+    private final BiomeType biome;
+
+    /**
+     * New instance.
+     *
+     * @param biome the biome to set
+     */
+    public BiomeFillFilter(BiomeType biome) {
+        this.biome = biome;
+    }
+
+    @Override
+    public boolean appliesBlocks() {
+        return false;
+    }
+
+    @Override
+    public <U extends IChunk> U applyChunk(U chunk, @Nullable Region region) {
+        int bx = chunk.getX() << 4;
+        int bz = chunk.getZ() << 4;
+        int minLayer = chunk.getMinSectionPosition();
+        int maxLayer = chunk.getMaxSectionPosition();
+        if (region != null) {
+            minLayer = Math.max(minLayer, region.getMinimumY() >> 4);
+            maxLayer = Math.min(maxLayer, region.getMaximumY() >> 4);
+        }
+        BiomeType[] section = new BiomeType[64];
+        for (int layer = minLayer; layer <= maxLayer; layer++) {
+            int by = layer << 4;
+            boolean any = false;
+            for (int y = 0, index = 0; y < 16; y += 4) {
+                for (int z = 0; z < 16; z += 4) {
+                    for (int x = 0; x < 16; x += 4, index++) {
+                        boolean intersects = intersects(region, bx + x, by + y, bz + z);
+                        section[index] = intersects ? biome : null;
+                        any |= intersects;
+                    }
+                }
+            }
+            if (any) {
+                chunk.setBiomes(layer, section);
+            }
+        }
+        return chunk;
+    }
+
+    private static boolean intersects(@Nullable Region region, int x, int y, int z) {
+        if (region == null) {
+            return true;
+        }
+        if (region instanceof CuboidRegion) {
+            BlockVector3 min = region.getMinimumPoint();
+            BlockVector3 max = region.getMaximumPoint();
+            return x + 3 >= min.x() && x <= max.x() && y + 3 >= min.y() && y <= max.y() && z + 3 >= min.z() && z <= max.z();
+        }
+        for (int dy = 0; dy < 4; dy++) {
+            for (int dz = 0; dz < 4; dz++) {
+                for (int dx = 0; dx < 4; dx++) {
+                    if (region.contains(x + dx, y + dy, z + dz)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+}
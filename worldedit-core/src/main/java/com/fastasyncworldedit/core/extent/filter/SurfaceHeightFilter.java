@@ -0,0 +1,149 @@
+package com.fastasyncworldedit.core.extent.filter;
+
+import com.fastasyncworldedit.core.queue.Filter;
+import com.fastasyncworldedit.core.queue.IChunk;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockTypesCache;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds the highest movement blocking block of every column of a cuboid, equivalent to
+ * {@link com.sk89q.worldedit.extent.Extent#getHighestTerrainBlock(int, int, int, int)}. Chunks are read section by
+ * section, from the top down, straight from the chunk data, so chunks are processed in parallel when applied to a
+ * parallel queue. No changes are made, and as blocks are not filtered, the filter is best applied to a region only one block
+ * high.
+ *
+ * @since TODO
+ */
+public class SurfaceHeightFilter implements Filter {
+
+    /**
+     * Height of columns in chunks the filter was not applied to.
+     */
+    public static final int UNREAD = Integer.MIN_VALUE;
+
+    private static final boolean[] MOVEMENT_BLOCKER;
+
+    static {
+        BlockState[] states = BlockTypesCache.states;
+        MOVEMENT_BLOCKER = new boolean[states.length];
+        for (int i = 0; i < states.length; i++) {
+            BlockState state = states[i];
+            MOVEMENT_BLOCKER[i] = state != null && i != BlockTypesCache.ReservedIDs.__RESERVED__
+                    && state.getBlockType().getMaterial().isMovementBlocker();
+        }
+    }
+
+    private final int minX;
+    private final int minZ;
+    private final int maxX;
+    private final int maxZ;
+    private final int minY;
+    private final int maxY;
+    private final int width;
+    private final int[] data;
+    private final LongAdder chunks = new LongAdder();
+
+    /**
+     * New filter finding the surface of the given cuboid.
+     *
+     * @param min  minimum corner of the cuboid
+     * @param max  maximum corner of the cuboid
+     * @param minY minimum y to search, already clamped to the world
+     * @param maxY maximum y to search, already clamped to the world
+     */
+    public SurfaceHeightFilter(BlockVector3 min, BlockVector3 max, int minY, int maxY) {
+        this.minX = min.x();
+        this.minZ = min.z();
+        this.maxX = max.x();
+        this.maxZ = max.z();
+        this.minY = minY;
+        this.maxY = maxY;
+        this.width = maxX - minX + 1;
+        this.data = new int[width * (maxZ - minZ + 1)];
+        Arrays.fill(this.data, UNREAD);
+    }
+
+    @Override
+    public <U extends IChunk> U applyChunk(U chunk, @Nullable Region region) {
+        int bx = chunk.getX() << 4;
+        int bz = chunk.getZ() << 4;
+        int x0 = Math.max(minX, bx) - bx;
+        int x1 = Math.min(maxX, bx + 15) - bx;
+        int z0 = Math.max(minZ, bz) - bz;
+        int z1 = Math.min(maxZ, bz + 15) - bz;
+        if (x0 > x1 || z0 > z1) {
+            return chunk;
+        }
+        // Columns of the chunk, as section indices (z << 4 | x), whose surface has not been found yet
+        int[] pending = new int[(x1 - x0 + 1) * (z1 - z0 + 1)];
+        int remaining = 0;
+        for (int z = z0; z <= z1; z++) {
+            for (int x = x0; x <= x1; x++) {
+                pending[remaining++] = z << 4 | x;
+            }
+        }
+        boolean loaded = false;
+        for (int layer = maxY >> 4; layer >= minY >> 4 && remaining > 0; layer--) {
+            // Section presence is only known once the chunk has been read
+            if (loaded && !chunk.hasNonEmptySection(layer)) {
+                continue;
+            }
+            char[] blocks = chunk.load(layer);
+            loaded = true;
+            int top = Math.min(15, maxY - (layer << 4));
+            int bottom = Math.max(0, minY - (layer << 4));
+            for (int i = 0; i < remaining; ) {
+                int column = pending[i];
+                int found = Integer.MIN_VALUE;
+                for (int y = top; y >= bottom; y--) {
+                    if (MOVEMENT_BLOCKER[blocks[y << 8 | column]]) {
+                        found = (layer << 4) + y;
+                        break;
+                    }
+                }
+                if (found == Integer.MIN_VALUE) {
+                    i++;
+                    continue;
+                }
+                set(bx + (column & 15), bz + (column >> 4), found);
+                pending[i] = pending[--remaining];
+            }
+        }
+        for (int i = 0; i < remaining; i++) {
+            set(bx + (pending[i] & 15), bz + (pending[i] >> 4), minY);
+        }
+        chunks.increment();
+        return chunk;
+    }
+
+    private void set(int x, int z, int y) {
+        data[(z - minZ) * width + (x - minX)] = y;
+    }
+
+    /**
+     * Get the number of chunks processed. Zero for a non-empty cuboid means the filter was applied to an extent that does
+     * not process chunks, so no heights were found.
+     *
+     * @return processed chunk count
+     */
+    public long getChunkCount() {
+        return chunks.sum();
+    }
+
+    /**
+     * Get the found heights, indexed by {@code (z - minZ) * width + (x - minX)}. Columns of chunks that were not processed,
+     * e.g. skipped by the queue, are {@link #UNREAD}.
+     *
+     * @return heights
+     */
+    public int[] getData() {
+        return data;
+    }
+
+}
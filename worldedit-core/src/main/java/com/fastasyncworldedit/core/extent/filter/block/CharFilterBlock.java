@@ -9,6 +9,7 @@
 import com.fastasyncworldedit.core.queue.IChunkSet;
 import com.fastasyncworldedit.core.queue.implementation.Flood;
 import com.fastasyncworldedit.core.queue.implementation.blocks.CharGetBlocks;
+import com.fastasyncworldedit.core.regions.RowSpans;
 import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.extent.Extent;
 import com.sk89q.worldedit.math.BlockVector3;
@@ -54,6 +55,8 @@ public class CharFilterBlock extends ChunkFilterBlock {
     private int zz;
     private int chunkX;
     private int chunkZ;
+    @Nullable
+    private char[] rows;
 
     public CharFilterBlock(Extent extent) {
         super(extent);
@@ -158,16 +161,26 @@ public synchronized void filter(Filter filter, int minX, int minY, int minZ, int
 
     @Override
     public synchronized final void filter(Filter filter, Region region) {
-        for (y = 0, index = 0; y < 16; y++) {
-            int absY = yy + y;
-            for (z = 0; z < 16; z++) {
-                int absZ = zz + z;
-                for (x = 0; x < 16; x++, index++) {
-                    int absX = xx + x;
-                    if (region.contains(absX, absY, absZ)) {
-                        filter.applyBlock(this);
-                    }
-                }
+        char[] rows = this.rows;
+        if (rows == null) {
+            rows = this.rows = new char[256];
+        }
+        if (!region.getSectionSpans(chunkX, layer, chunkZ, rows)) {
+            return;
+        }
+        for (int i = 0; i < 256; i++) {
+            int row = rows[i];
+            if (row == RowSpans.NONE) {
+                continue;
+            }
+            y = i >> 4;
+            z = i & 15;
+            // Visit the set bits of the row, i.e. the contained positions, in ascending x
+            while (row != 0) {
+                x = Integer.numberOfTrailingZeros(row);
+                index = i << 4 | x;
+                filter.applyBlock(this);
+                row &= row - 1;
             }
         }
     }
@@ -0,0 +1,177 @@
+package com.fastasyncworldedit.core.extent.processor;
+
+import com.fastasyncworldedit.core.internal.simd.SimdSupport;
+import com.fastasyncworldedit.core.internal.simd.VectorizedSectionDiff;
+import com.fastasyncworldedit.core.nbt.FaweCompoundTag;
+import com.fastasyncworldedit.core.queue.IBatchProcessor;
+import com.fastasyncworldedit.core.queue.IChunk;
+import com.fastasyncworldedit.core.queue.IChunkGet;
+import com.fastasyncworldedit.core.queue.IChunkSet;
+import com.sk89q.worldedit.extent.Extent;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.world.biome.BiomeType;
+import com.sk89q.worldedit.world.block.BlockTypesCache;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Removes blocks and biomes from a chunk that are set to the value they already have in the world, so history, lighting,
+ * heightmaps and chunk sends only see real changes. Sections without changes left are removed from the set, and chunks
+ * without any change are not written at all.
+ *
+ * @since TODO
+ */
+public class UnchangedBlockRemovingProcessor implements IBatchProcessor {
+
+    private static final UnchangedBlockRemovingProcessor INSTANCE = new UnchangedBlockRemovingProcessor();
+    private static final int[] EMPTY = new int[0];
+
+    public static UnchangedBlockRemovingProcessor getInstance() {
+        return INSTANCE;
+    }
+
+    private UnchangedBlockRemovingProcessor() {
+    }
+
+    @Override
+    @Nullable
+    public IChunkSet processSet(IChunk chunk, IChunkGet get, IChunkSet set) {
+        Map<BlockVector3, FaweCompoundTag> tiles = set.tiles();
+        // Setting a block over a tile of the same block clears the tile, so these blocks are always kept
+        Map<BlockVector3, FaweCompoundTag> existingTiles = null;
+        boolean vector = SimdSupport.useVectorApi();
+        for (int layer = set.getMinSectionPosition(); layer <= set.getMaxSectionPosition(); layer++) {
+            if (!set.hasSection(layer)) {
+                continue;
+            }
+            char[] blocksSet = set.loadIfPresent(layer);
+            char[] blocksGet = blocksSet == null ? null : get.load(layer);
+            if (blocksGet == null) {
+                continue;
+            }
+            if (existingTiles == null) {
+                existingTiles = get.tiles();
+            }
+            int[] existingTileBlocks = setBlocksOfTiles(existingTiles, layer, blocksSet);
+            boolean changed = vector ? VectorizedSectionDiff.removeUnchanged(blocksSet, blocksGet) : removeUnchanged(
+                    blocksSet,
+                    blocksGet
+            );
+            // Tiles are set even if the block is unchanged, as their data may differ
+            changed |= keepTiles(tiles, layer, blocksSet, blocksGet);
+            for (int i = 0; i < existingTileBlocks.length; i += 2) {
+                blocksSet[existingTileBlocks[i]] = (char) existingTileBlocks[i + 1];
+                changed = true;
+            }
+            if (!changed) {
+                set.setBlocks(layer, null);
+            }
+        }
+        BiomeType[][] biomes = set.getBiomes();
+        if (biomes != null) {
+            for (int layer = set.getMinSectionPosition(); layer <= set.getMaxSectionPosition(); layer++) {
+                if (!set.hasBiomes(layer)) {
+                    continue;
+                }
+                BiomeType[] biomeSection = biomes[layer - set.getMinSectionPosition()];
+                boolean changed = false;
+                int yy = layer << 4;
+                for (int y = 0, index = 0; y < 16; y += 4) {
+                    for (int z = 0; z < 16; z += 4) {
+                        for (int x = 0; x < 16; x += 4, index++) {
+                            BiomeType biome = biomeSection[index];
+                            if (biome != null && biome == get.getBiomeType(x, yy + y, z)) {
+                                biomeSection[index] = null;
+                            } else if (biome != null) {
+                                changed = true;
+                            }
+                        }
+                    }
+                }
+                if (!changed) {
+                    biomes[layer - set.getMinSectionPosition()] = null;
+                }
+            }
+        }
+        return set.isEmpty() ? null : set;
+    }
+
+    // Indices and blocks of the section set at the positions of the given tiles, as pairs
+    private static int[] setBlocksOfTiles(Map<BlockVector3, FaweCompoundTag> tiles, int layer, char[] blocksSet) {
+        if (tiles.isEmpty()) {
+            return EMPTY;
+        }
+        int[] blocks = EMPTY;
+        int size = 0;
+        int minY = layer << 4;
+        for (BlockVector3 pos : tiles.keySet()) {
+            if (pos.y() < minY || pos.y() > minY + 15) {
+                continue;
+            }
+            int index = (pos.y() & 15) << 8 | (pos.z() & 15) << 4 | (pos.x() & 15);
+            if (blocksSet[index] != BlockTypesCache.ReservedIDs.__RESERVED__) {
+                if (size == blocks.length) {
+                    blocks = Arrays.copyOf(blocks, Math.max(8, size * 2));
+                }
+                blocks[size++] = index;
+                blocks[size++] = blocksSet[index];
+            }
+        }
+        return size == blocks.length ? blocks : Arrays.copyOf(blocks, size);
+    }
+
+    // Set the blocks of the given tiles again if they were removed as unchanged
+    private static boolean keepTiles(Map<BlockVector3, FaweCompoundTag> tiles, int layer, char[] blocksSet, char[] blocksGet) {
+        if (tiles.isEmpty()) {
+            return false;
+        }
+        boolean kept = false;
+        int minY = layer << 4;
+        for (BlockVector3 pos : tiles.keySet()) {
+            if (pos.y() < minY || pos.y() > minY + 15) {
+                continue;
+            }
+            int index = (pos.y() & 15) << 8 | (pos.z() & 15) << 4 | (pos.x() & 15);
+            if (blocksSet[index] == BlockTypesCache.ReservedIDs.__RESERVED__) {
+                char from = blocksGet[index];
+                blocksSet[index] = from == BlockTypesCache.ReservedIDs.__RESERVED__ ? BlockTypesCache.ReservedIDs.AIR : from;
+                kept = true;
+            }
+        }
+        return kept;
+    }
+
+    private static boolean removeUnchanged(char[] set, char[] get) {
+        boolean changed = false;
+        for (int i = 0; i < set.length; i++) {
+            char to = set[i];
+            if (to == BlockTypesCache.ReservedIDs.__RESERVED__) {
+                continue;
+            }
+            char from = get[i];
+            if (from == BlockTypesCache.ReservedIDs.__RESERVED__) {
+                from = BlockTypesCache.ReservedIDs.AIR;
+            }
+            if (to == from) {
+                set[i] = BlockTypesCache.ReservedIDs.__RESERVED__;
+            } else {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Nullable
+    @Override
+    public Extent construct(Extent child) {
+        throw new UnsupportedOperationException("Processing only");
+    }
+
+    @Override
+    public ProcessorScope getScope() {
+        return ProcessorScope.REMOVING_BLOCKS;
+    }
+
+}
@@ -6,6 +6,7 @@
 import com.fastasyncworldedit.core.queue.IChunk;
 import com.fastasyncworldedit.core.queue.IChunkGet;
 import com.fastasyncworldedit.core.queue.IChunkSet;
+import com.fastasyncworldedit.core.util.collection.CleanableThreadLocal;
 import com.sk89q.worldedit.extent.Extent;
 import com.sk89q.worldedit.world.block.BlockState;
 import com.sk89q.worldedit.world.block.BlockTypesCache;
@@ -20,6 +21,8 @@ public class HeightmapProcessor implements IBatchProcessor {
     private static final int BLOCKS_PER_Y = 256; // 16 x 16
     private static final char[] AIR_LAYER = new char[4096];
     private static final int NEEDED_UPDATES = TYPES.length * BLOCKS_PER_Y;
+    private static final byte ALL_TYPES = (byte) ((1 << TYPES.length) - 1);
+    private static final CleanableThreadLocal<byte[]> UPDATED = new CleanableThreadLocal<>(() -> new byte[BLOCKS_PER_Y]);
 
     static {
         Arrays.fill(AIR_LAYER, (char) BlockTypesCache.ReservedIDs.AIR);
@@ -46,29 +49,89 @@ private static int index(int y, int offset) {
 
     @Override
     public IChunkSet processSet(IChunk chunk, IChunkGet get, IChunkSet set) {
-        // each heightmap gets one 16*16 array
-        int[][] heightmaps = new int[TYPES.length][BLOCKS_PER_Y];
-        byte[] updated = new byte[BLOCKS_PER_Y];
+        int minLayer = minY >> 4;
+        int maxLayer = maxY >> 4;
+        // Only sections with set blocks can change a heightmap
+        char[][] setSections = new char[maxLayer - minLayer + 1][];
+        int setTop = Integer.MIN_VALUE;
+        int setBottom = Integer.MAX_VALUE;
+        for (int layer = maxLayer; layer >= minLayer; layer--) {
+            if (!set.hasNonEmptySection(layer)) {
+                continue;
+            }
+            char[] setSection = set.loadIfPresent(layer);
+            if (setSection == null || Arrays.equals(setSection, FaweCache.INSTANCE.EMPTY_CHAR_4096)) {
+                continue;
+            }
+            setSections[layer - minLayer] = setSection;
+            setTop = Math.max(setTop, layer);
+            setBottom = Math.min(setBottom, layer);
+        }
+        if (setTop == Integer.MIN_VALUE) {
+            return set;
+        }
+        int minSection = get.getMinSectionPosition();
+        byte[] updated = UPDATED.get();
+        Arrays.fill(updated, (byte) 0);
         int updateCount = 0; // count updates, this way we know when we're finished
+
+        // Start from the existing heightmaps: a column whose top lies above all set sections cannot change
+        int[][] heightmaps = existingHeightmaps(get);
+        boolean incremental = heightmaps != null;
+        int scanTop = maxLayer;
+        if (incremental) {
+            int changedTop = (setTop - minSection + 1) << 4;
+            for (int i = 0; i < TYPES.length; i++) {
+                int[] heightmap = heightmaps[i];
+                int bitFlag = 1 << i;
+                for (int j = 0; j < BLOCKS_PER_Y; j++) {
+                    if (heightmap[j] > changedTop) {
+                        updated[j] |= (byte) bitFlag;
+                        updateCount++;
+                    }
+                }
+            }
+            if (updateCount == NEEDED_UPDATES) {
+                return set;
+            }
+            // Nothing above the set sections is relevant for the remaining columns
+            scanTop = setTop;
+        } else {
+            heightmaps = new int[TYPES.length][BLOCKS_PER_Y];
+        }
+        boolean belowChanged = false;
         layerIter:
-        for (int layer = maxY >> 4; layer >= minY >> 4; layer--) {
-            boolean hasSectionSet = set.hasNonEmptySection(layer);
+        for (int layer = scanTop; layer >= minLayer; layer--) {
+            if (incremental && !belowChanged && layer < setBottom) {
+                belowChanged = true;
+                // Nothing below the set sections changed, so a column's previous top still holds if it lies below them
+                int changedBottom = (setBottom - minSection) << 4;
+                for (int i = 0; i < TYPES.length; i++) {
+                    int[] heightmap = heightmaps[i];
+                    int bitFlag = 1 << i;
+                    for (int j = 0; j < BLOCKS_PER_Y; j++) {
+                        if ((updated[j] & bitFlag) == 0 && heightmap[j] <= changedBottom) {
+                            updated[j] |= (byte) bitFlag;
+                            if (++updateCount == NEEDED_UPDATES) {
+                                break layerIter;
+                            }
+                        }
+                    }
+                }
+            }
+            char[] setSection = setSections[layer - minLayer];
+            boolean hasSectionSet = setSection != null;
             boolean hasSectionGet = get.hasNonEmptySection(layer);
             if (!(hasSectionSet || hasSectionGet)) {
                 continue;
             }
-            char[] setSection = hasSectionSet ? set.loadIfPresent(layer) : null;
-            if (setSection == null || Arrays.equals(setSection, FaweCache.INSTANCE.EMPTY_CHAR_4096) ||
-                    Arrays.equals(setSection, AIR_LAYER)) {
-                hasSectionSet = false;
-            }
-            if (!hasSectionSet && !hasSectionGet) {
-                continue;
-            }
             char[] getSection = null;
             for (int y = 15; y >= 0; y--) {
                 // We don't need to actually iterate over x and z as we're both reading and writing an index
                 for (int j = 0; j < BLOCKS_PER_Y; j++) {
+                    if (updated[j] == ALL_TYPES) {
+                        continue;
+                    }
                     char ordinal = BlockTypesCache.ReservedIDs.__RESERVED__;
                     if (hasSectionSet) {
                         ordinal = setSection[index(y, j)];
@@ -111,7 +174,7 @@ public IChunkSet processSet(IChunk chunk, IChunkGet get, IChunkSet set) {
                         // ignore if that position was already set
                         if (type.includes(block)) {
                             // mc requires + 1, heightmaps are normalized internally, thus we need to "zero" them.
-                            heightmaps[i][j] = ((layer - get.getMinSectionPosition()) << 4) + y + 1;
+                            heightmaps[i][j] = ((layer - minSection) << 4) + y + 1;
                             updated[j] |= (byte) bitFlag; // mark as updated
                             if (++updateCount == NEEDED_UPDATES) {
                                 break layerIter; // all heightmaps in all columns updated
@@ -122,12 +185,43 @@ public IChunkSet processSet(IChunk chunk, IChunkGet get, IChunkSet set) {
                 }
             }
         }
+        if (incremental && updateCount != NEEDED_UPDATES) {
+            // No applicable block left in these columns
+            for (int i = 0; i < TYPES.length; i++) {
+                int bitFlag = 1 << i;
+                for (int j = 0; j < BLOCKS_PER_Y; j++) {
+                    if ((updated[j] & bitFlag) == 0) {
+                        heightmaps[i][j] = 0;
+                    }
+                }
+            }
+        }
         for (int i = 0; i < TYPES.length; i++) {
             set.setHeightMap(TYPES[i], heightmaps[i]);
         }
         return set;
     }
 
+    /**
+     * Get copies of the chunk's current heightmaps, or null if any is not available.
+     */
+    @Nullable
+    private static int[][] existingHeightmaps(IChunkGet get) {
+        int[][] heightmaps = new int[TYPES.length][];
+        try {
+            for (int i = 0; i < TYPES.length; i++) {
+                int[] heightmap = get.getHeightMap(TYPES[i]);
+                if (heightmap == null || heightmap.length != BLOCKS_PER_Y) {
+                    return null;
+                }
+                heightmaps[i] = heightmap.clone();
+            }
+        } catch (Exception e) {
+            return null;
+        }
+        return heightmaps;
+    }
+
     @Override
     @Nullable
     public Extent construct(Extent child) {
@@ -93,4 +93,9 @@ public Mask tryOr(Mask mask) {
         return null;
     }
 
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
 }
@@ -35,4 +35,9 @@ public Mask copy() {
         return new AbstractDelegateMask(mask.copy());
     }
 
+    @Override
+    public boolean isStateless() {
+        return mask.isStateless();
+    }
+
 }
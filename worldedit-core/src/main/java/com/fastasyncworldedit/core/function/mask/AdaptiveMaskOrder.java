@@ -0,0 +1,134 @@
+package com.fastasyncworldedit.core.function.mask;
+
+import com.sk89q.worldedit.function.mask.Mask;
+import com.sk89q.worldedit.function.mask.MaskIntersection;
+import com.sk89q.worldedit.function.mask.MaskUnion;
+import com.sk89q.worldedit.math.BlockVector3;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Order in which a {@link MaskIntersection} or {@link MaskUnion} tests its masks, adapted to the masks' cost and pass rate
+ * measured on a sample of the tested positions. An intersection tests the cheapest masks rejecting the most positions
+ * first, a union the cheapest masks accepting the most positions.
+ * <p>
+ * Only masks that are {@link Mask#isStateless() stateless} may be reordered, as sampled positions are tested with every
+ * mask. Masks are copied for every thread of an edit, so each thread adapts its own order.
+ *
+ * @since TODO
+ */
+public final class AdaptiveMaskOrder {
+
+    /**
+     * One of this many tests is profiled. Must be a power of two.
+     */
+    public static final int SAMPLE_INTERVAL = 64;
+    /**
+     * Number of profiled tests after which the masks are reordered.
+     */
+    public static final int SAMPLES = 128;
+
+    private final boolean union;
+    private final long[] nanos;
+    private final int[] passes;
+    private volatile Mask[] masks;
+    private int calls;
+    private int samples;
+
+    /**
+     * New instance, testing masks in the given order until enough tests were profiled.
+     *
+     * @param masks the masks, not modified
+     * @param union if the result is the union of the masks, else the intersection
+     */
+    public AdaptiveMaskOrder(Mask[] masks, boolean union) {
+        this.masks = masks.clone();
+        this.union = union;
+        this.nanos = new long[masks.length];
+        this.passes = new int[masks.length];
+    }
+
+    /**
+     * Get if all masks may be reordered.
+     *
+     * @param masks the masks
+     * @return if all masks are stateless
+     */
+    public static boolean canReorder(Mask[] masks) {
+        if (masks.length < 2) {
+            return false;
+        }
+        for (Mask mask : masks) {
+            if (!mask.isStateless()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the masks in the order they should be tested.
+     *
+     * @return the masks, must not be modified
+     */
+    public Mask[] getMasks() {
+        return masks;
+    }
+
+    /**
+     * Get if the next test should be profiled with {@link #test(BlockVector3)}.
+     *
+     * @return if the test should be profiled
+     */
+    public boolean shouldProfile() {
+        return (++calls & (SAMPLE_INTERVAL - 1)) == 0;
+    }
+
+    /**
+     * Test a position with every mask, measuring the cost and result of each mask.
+     *
+     * @param vector the position
+     * @return the union or intersection of the results of the masks
+     */
+    public boolean test(BlockVector3 vector) {
+        Mask[] masks = this.masks;
+        boolean result = !union;
+        for (int i = 0; i < masks.length; i++) {
+            long start = System.nanoTime();
+            boolean pass = masks[i].test(vector);
+            nanos[i] += System.nanoTime() - start;
+            if (pass) {
+                passes[i]++;
+            }
+            result = union ? result | pass : result & pass;
+        }
+        if (++samples >= SAMPLES) {
+            reorder(masks);
+        }
+        return result;
+    }
+
+    private void reorder(Mask[] masks) {
+        Integer[] indices = new Integer[masks.length];
+        double[] ranks = new double[masks.length];
+        for (int i = 0; i < masks.length; i++) {
+            indices[i] = i;
+            // The chance the mask decides the result, so the following masks need not be tested
+            double decisive = (union ? passes[i] : samples - passes[i]) / (double) samples;
+            // Average cost (in ns) per position decided by the mask, +1 as cheap masks may measure as free
+            ranks[i] = (nanos[i] / (double) samples + 1) / Math.max(decisive, 1.0 / samples);
+        }
+        // Stable, so masks with equal ranks keep their order
+        Arrays.sort(indices, Comparator.comparingDouble(i -> ranks[i]));
+        Mask[] ordered = new Mask[masks.length];
+        for (int i = 0; i < masks.length; i++) {
+            ordered[i] = masks[indices[i]];
+        }
+        Arrays.fill(nanos, 0);
+        Arrays.fill(passes, 0);
+        samples = 0;
+        this.masks = ordered;
+    }
+
+}
@@ -69,4 +69,9 @@ public Mask copy() {
         return new AdjacentAnyMask((CachedMask) mask.copy(), minY, maxY);
     }
 
+    @Override
+    public boolean isStateless() {
+        return mask.isStateless();
+    }
+
 }
@@ -67,4 +67,9 @@ public Mask copy() {
         return new AdjacentMask(mask.copy(), min, max);
     }
 
+    @Override
+    public boolean isStateless() {
+        return mask.isStateless();
+    }
+
 }
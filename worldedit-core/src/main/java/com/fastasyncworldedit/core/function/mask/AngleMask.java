@@ -199,4 +199,9 @@ public Mask copy() {
         return new AngleMask(getExtent(), min, max, overlay, distance);
     }
 
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
 }
@@ -47,4 +47,9 @@ public boolean replacesAir() {
         return mask.replacesAir();
     }
 
+    @Override
+    public boolean isStateless() {
+        return mask.isStateless();
+    }
+
 }
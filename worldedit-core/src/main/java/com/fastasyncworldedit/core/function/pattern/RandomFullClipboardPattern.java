@@ -1,5 +1,6 @@
 package com.fastasyncworldedit.core.function.pattern;
 
+import com.fastasyncworldedit.core.extent.clipboard.io.SchematicBatchLoader;
 import com.fastasyncworldedit.core.math.MutableBlockVector3;
 import com.fastasyncworldedit.core.math.transform.MutatingOperationTransformHolder;
 import com.sk89q.worldedit.WorldEditException;
@@ -40,6 +41,7 @@ public class RandomFullClipboardPattern extends AbstractPattern {
     public RandomFullClipboardPattern(List<ClipboardHolder> clipboards, boolean randomRotate, boolean randomFlip) {
         checkNotNull(clipboards);
         this.clipboards = clipboards;
+        SchematicBatchLoader.loadAll(clipboards);
         MutableBlockVector3 mut = new MutableBlockVector3();
         clipboards.stream().flatMap(c -> c.getClipboards().stream()).map(c -> {
             Region region = c.getRegion();
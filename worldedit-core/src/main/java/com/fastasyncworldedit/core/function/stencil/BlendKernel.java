@@ -0,0 +1,97 @@
+package com.fastasyncworldedit.core.function.stencil;
+
+import com.sk89q.worldedit.world.block.BlockTypes;
+import com.sk89q.worldedit.world.block.BlockTypesCache;
+
+/**
+ * Blends a cell into its 26 neighbours: the cell takes the most common neighbouring block type if it is more common than the
+ * cell's own type by at least a minimum difference. Neighbours outside the height range of the world are ignored.
+ *
+ * @since TODO
+ */
+public class BlendKernel implements StencilKernel {
+
+    private static final char AIR = BlockTypes.AIR.getDefaultState().getOrdinalChar();
+
+    private final int[] offsets;
+    private final int minFreqDiff;
+    private final boolean onlyAir;
+    private final int[] types;
+
+    /**
+     * New kernel.
+     *
+     * @param grid        grid the kernel is applied to
+     * @param minFreqDiff minimum difference between the most common neighbouring type and the cell's own type
+     * @param onlyAir     only blend between air and non-air, replacing non-air with air or air with the most common type
+     */
+    public BlendKernel(StencilGrid grid, int minFreqDiff, boolean onlyAir) {
+        this(grid.neighbourOffsets(), minFreqDiff, onlyAir);
+    }
+
+    private BlendKernel(int[] offsets, int minFreqDiff, boolean onlyAir) {
+        this.offsets = offsets;
+        this.minFreqDiff = minFreqDiff;
+        this.onlyAir = onlyAir;
+        this.types = new int[offsets.length];
+    }
+
+    @Override
+    public char apply(char[] grid, int index) {
+        char current = grid[index];
+        int currentType = Ordinals.TYPE_IDS[current];
+        char highestState = current;
+        int highest = 1;
+        int currentFrequency = 1;
+        int air = 0;
+        int total = offsets.length;
+        int seen = 0;
+        boolean tie = false;
+        for (int offset : offsets) {
+            char next = grid[index + offset];
+            if (next == BlockTypesCache.ReservedIDs.__RESERVED__) {
+                total--;
+                continue;
+            }
+            if (Ordinals.AIR[next]) {
+                air++;
+            }
+            int type = Ordinals.TYPE_IDS[next];
+            int count = 1;
+            for (int i = 0; i < seen; i++) {
+                if (types[i] == type) {
+                    count++;
+                }
+            }
+            types[seen++] = type;
+            if (type == currentType) {
+                currentFrequency++;
+            }
+            if (count - highest >= minFreqDiff) {
+                highest = count;
+                highestState = next;
+                tie = false;
+            } else if (count == highest) {
+                tie = true;
+            }
+        }
+        if (onlyAir) {
+            if (air * 2 - total >= minFreqDiff) {
+                return Ordinals.AIR[current] ? current : AIR;
+            } else if (Ordinals.AIR[current] && total - 2 * air >= minFreqDiff) {
+                return highestState;
+            }
+            return current;
+        }
+        if (highest - currentFrequency >= minFreqDiff && !tie) {
+            return highestState;
+        }
+        return current;
+    }
+
+    @Override
+    public StencilKernel fork() {
+        return new BlendKernel(offsets, minFreqDiff, onlyAir);
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.fastasyncworldedit.core.function.stencil;
+
+/**
+ * Replaces a cell with the most common block type amongst its counted neighbours, if at least a threshold of neighbours are
+ * counted. Neighbours are tallied by block type, and the cell takes the state of the neighbour that reached the highest count.
+ *
+ * @since TODO
+ */
+public class NeighbourModeKernel implements StencilKernel {
+
+    private final int[] offsets;
+    private final boolean[] eligible;
+    private final boolean[] counted;
+    private final int threshold;
+    private final boolean tieReplaces;
+    private final int[] types;
+
+    /**
+     * New kernel.
+     *
+     * @param offsets     index offsets of the neighbours to consider, in order
+     * @param eligible    ordinals of cells that may be replaced
+     * @param counted     ordinals of neighbours that are counted
+     * @param threshold   minimum number of counted neighbours for a cell to be replaced
+     * @param tieReplaces if a block type reaching the current highest count replaces the current mode, instead of having to
+     *                    exceed it
+     */
+    public NeighbourModeKernel(int[] offsets, boolean[] eligible, boolean[] counted, int threshold, boolean tieReplaces) {
+        this.offsets = offsets;
+        this.eligible = eligible;
+        this.counted = counted;
+        this.threshold = threshold;
+        this.tieReplaces = tieReplaces;
+        this.types = new int[offsets.length];
+    }
+
+    /**
+     * Kernel replacing movement blocking cells with the most common non-blocking neighbour, if at least {@code faces} of the
+     * neighbours are non-blocking and one non-blocking type occurs more than once.
+     *
+     * @param offsets index offsets of the neighbours to consider
+     * @param faces   minimum number of non-blocking neighbours
+     * @return erosion kernel
+     */
+    public static NeighbourModeKernel erode(int[] offsets, int faces) {
+        return new NeighbourModeKernel(offsets, Ordinals.MOVEMENT_BLOCKER, Ordinals.not(Ordinals.MOVEMENT_BLOCKER), faces, false);
+    }
+
+    /**
+     * Kernel replacing non-blocking cells with the most common movement blocking neighbour, if at least {@code faces} of the
+     * neighbours are movement blocking.
+     *
+     * @param offsets index offsets of the neighbours to consider
+     * @param faces   minimum number of movement blocking neighbours
+     * @return fill kernel
+     */
+    public static NeighbourModeKernel fill(int[] offsets, int faces) {
+        return new NeighbourModeKernel(offsets, Ordinals.not(Ordinals.MOVEMENT_BLOCKER), Ordinals.MOVEMENT_BLOCKER, faces, true);
+    }
+
+    @Override
+    public char apply(char[] grid, int index) {
+        char value = grid[index];
+        if (!eligible[value]) {
+            return value;
+        }
+        char result = value;
+        int highest = 1;
+        int total = 0;
+        for (int offset : offsets) {
+            char next = grid[index + offset];
+            if (!counted[next]) {
+                continue;
+            }
+            // At most 26 neighbours, so a linear tally beats clearing a table of all block types
+            int type = Ordinals.TYPE_IDS[next];
+            int count = 1;
+            for (int i = 0; i < total; i++) {
+                if (types[i] == type) {
+                    count++;
+                }
+            }
+            types[total++] = type;
+            if (count > highest || (tieReplaces && count == highest)) {
+                highest = count;
+                result = next;
+            }
+        }
+        return total >= threshold ? result : value;
+    }
+
+    @Override
+    public StencilKernel fork() {
+        return new NeighbourModeKernel(offsets, eligible, counted, threshold, tieReplaces);
+    }
+
+    @Override
+    public Prefilter prefilter() {
+        return new Prefilter(offsets, counted, threshold);
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.fastasyncworldedit.core.function.stencil;
+
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockTypesCache;
+
+/**
+ * Block state properties indexed by ordinal, so kernels need no lookups through block states.
+ */
+final class Ordinals {
+
+    static final int[] TYPE_IDS;
+    static final boolean[] MOVEMENT_BLOCKER;
+    static final boolean[] AIR;
+
+    static {
+        BlockState[] states = BlockTypesCache.states;
+        TYPE_IDS = new int[states.length];
+        MOVEMENT_BLOCKER = new boolean[states.length];
+        AIR = new boolean[states.length];
+        for (int i = 0; i < states.length; i++) {
+            BlockState state = states[i];
+            if (state == null || i == BlockTypesCache.ReservedIDs.__RESERVED__) {
+                TYPE_IDS[i] = -1;
+                continue;
+            }
+            TYPE_IDS[i] = state.getInternalBlockTypeId();
+            MOVEMENT_BLOCKER[i] = state.getMaterial().isMovementBlocker();
+            AIR[i] = state.getMaterial().isAir();
+        }
+    }
+
+    private Ordinals() {
+    }
+
+    /**
+     * Get a table of the given ordinal table, negated, that is false for {@link BlockTypesCache.ReservedIDs#__RESERVED__}.
+     */
+    static boolean[] not(boolean[] table) {
+        boolean[] result = new boolean[table.length];
+        for (int i = 0; i < table.length; i++) {
+            result[i] = !table[i] && TYPE_IDS[i] != -1;
+        }
+        return result;
+    }
+
+}
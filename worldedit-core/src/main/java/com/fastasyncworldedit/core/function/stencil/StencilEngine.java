@@ -0,0 +1,121 @@
+package com.fastasyncworldedit.core.function.stencil;
+
+import com.fastasyncworldedit.core.internal.simd.SimdSupport;
+import com.fastasyncworldedit.core.internal.simd.VectorizedStencil;
+import com.fastasyncworldedit.core.util.TaskManager;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Applies {@link StencilKernel}s to {@link StencilGrid}s. Each pass reads the front buffer of the grid and writes the back
+ * buffer, which then becomes the front. Large grids are split into slabs along the y axis, computed in parallel on the
+ * shared fork-join pool. If the kernel has a {@link StencilKernel.Prefilter} and the vector API is enabled, cells that cannot
+ * change are skipped with vector instructions.
+ *
+ * @since TODO
+ */
+public final class StencilEngine {
+
+    // Below this, forking costs more than it gains
+    private static final int MIN_SLAB_CELLS = 1 << 14;
+
+    private StencilEngine() {
+    }
+
+    /**
+     * Apply a kernel to all active cells of a grid.
+     *
+     * @param grid       grid to apply the kernel to
+     * @param kernel     kernel to apply
+     * @param iterations number of passes
+     */
+    public static void run(StencilGrid grid, StencilKernel kernel, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            pass(grid, kernel);
+        }
+    }
+
+    private static void pass(StencilGrid grid, StencilKernel kernel) {
+        char[] src = grid.front();
+        char[] dst = grid.back();
+        // Inactive cells carry over unchanged
+        System.arraycopy(src, 0, dst, 0, src.length);
+        StencilKernel.Prefilter prefilter = SimdSupport.useVectorApi() ? kernel.prefilter() : null;
+        byte[] flags = null;
+        if (prefilter != null) {
+            boolean[] counted = prefilter.counted();
+            flags = new byte[src.length];
+            for (int i = 0; i < src.length; i++) {
+                flags[i] = counted[src[i]] ? (byte) 1 : 0;
+            }
+        }
+        Pass pass = new Pass(grid, src, dst, flags, prefilter);
+        int slabHeight = Math.max(1, MIN_SLAB_CELLS / (grid.getWidth() * grid.getLength()));
+        Slab slab = new Slab(pass, kernel, 1, grid.getHeight() - 1, slabHeight);
+        if (grid.getHeight() - 2 <= slabHeight) {
+            slab.compute();
+        } else {
+            TaskManager.taskManager().getPublicForkJoinPool().invoke(slab);
+        }
+        grid.swap();
+    }
+
+    private record Pass(StencilGrid grid, char[] src, char[] dst, byte[] flags, StencilKernel.Prefilter prefilter) {
+
+        /**
+         * Compute the rows of the layers between minY (inclusive) and maxY (exclusive), excluding the border of the grid.
+         */
+        void compute(StencilKernel kernel, int minY, int maxY) {
+            boolean[] active = grid.active();
+            int width = grid.getWidth();
+            for (int y = minY; y < maxY; y++) {
+                for (int z = 1; z < grid.getLength() - 1; z++) {
+                    int start = grid.index(1, y, z);
+                    int end = start + width - 2;
+                    if (flags != null) {
+                        VectorizedStencil.row(kernel, prefilter, flags, active, src, dst, start, end);
+                        continue;
+                    }
+                    for (int i = start; i < end; i++) {
+                        if (active[i]) {
+                            dst[i] = kernel.apply(src, i);
+                        }
+                    }
+                }
+            }
+        }
+
+    }
+
+    private static final class Slab extends RecursiveAction {
+
+        private final Pass pass;
+        private final StencilKernel kernel;
+        private final int minY;
+        private final int maxY;
+        private final int slabHeight;
+
+        private Slab(Pass pass, StencilKernel kernel, int minY, int maxY, int slabHeight) {
+            this.pass = pass;
+            this.kernel = kernel;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.slabHeight = slabHeight;
+        }
+
+        @Override
+        protected void compute() {
+            if (maxY - minY <= slabHeight) {
+                pass.compute(kernel, minY, maxY);
+                return;
+            }
+            int mid = (minY + maxY) >>> 1;
+            invokeAll(
+                    new Slab(pass, kernel.fork(), minY, mid, slabHeight),
+                    new Slab(pass, kernel.fork(), mid, maxY, slabHeight)
+            );
+        }
+
+    }
+
+}
@@ -0,0 +1,293 @@
+package com.fastasyncworldedit.core.function.stencil;
+
+import com.sk89q.worldedit.WorldEditException;
+import com.sk89q.worldedit.extent.Extent;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.world.block.BaseBlock;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockTypesCache;
+import it.unimi.dsi.fastutil.chars.Char2ObjectOpenHashMap;
+
+/**
+ * A dense cuboid grid of block state ordinals, double buffered so a {@link StencilKernel} can read the previous generation
+ * whilst writing the next one. Cells are indexed x first, then z, then y.
+ * <p>
+ * Only active cells are computed by the {@link StencilEngine} and written back. Cells on the border of the grid are never
+ * active, so kernels may read any of the 26 neighbours of an active cell without bounds checks. Cells outside the height
+ * range of the extent the grid was read from hold {@link BlockTypesCache.ReservedIDs#__RESERVED__}.
+ * <p>
+ * Blocks with tile entities keep their data: a cell changed to the state of such a block is written with the data of a block
+ * of that state read into the grid.
+ *
+ * @since TODO
+ */
+public class StencilGrid {
+
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int width;
+    private final int height;
+    private final int length;
+    private final char[] original;
+    private final boolean[] active;
+    private char[] front;
+    private char[] back;
+    // Full block of the first cell read for each state ordinal of a block with a tile entity
+    private final Char2ObjectOpenHashMap<BaseBlock> tiles = new Char2ObjectOpenHashMap<>();
+
+    /**
+     * New grid covering the given cuboid, with every cell set to {@link BlockTypesCache.ReservedIDs#__RESERVED__} and
+     * inactive.
+     *
+     * @param min minimum corner, inclusive
+     * @param max maximum corner, inclusive
+     */
+    public StencilGrid(BlockVector3 min, BlockVector3 max) {
+        this.minX = min.x();
+        this.minY = min.y();
+        this.minZ = min.z();
+        this.width = max.x() - minX + 1;
+        this.height = max.y() - minY + 1;
+        this.length = max.z() - minZ + 1;
+        int volume = width * height * length;
+        this.original = new char[volume];
+        this.active = new boolean[volume];
+        this.front = new char[volume];
+        this.back = new char[volume];
+    }
+
+    /**
+     * Create a grid holding the blocks of the given cuboid in an extent.
+     *
+     * @param extent extent to read from
+     * @param min    minimum corner, inclusive
+     * @param max    maximum corner, inclusive
+     * @return new grid, with all cells inactive
+     */
+    public static StencilGrid read(Extent extent, BlockVector3 min, BlockVector3 max) {
+        StencilGrid grid = new StencilGrid(min, max);
+        int extentMinY = extent.getMinY();
+        int extentMaxY = extent.getMaxY();
+        char[] data = grid.original;
+        int index = 0;
+        for (int y = 0; y < grid.height; y++) {
+            int by = grid.minY + y;
+            if (by < extentMinY || by > extentMaxY) {
+                index += grid.width * grid.length;
+                continue;
+            }
+            for (int z = 0; z < grid.length; z++) {
+                int bz = grid.minZ + z;
+                for (int x = 0; x < grid.width; x++, index++) {
+                    BlockState state = extent.getBlock(grid.minX + x, by, bz);
+                    char ordinal = state.getOrdinalChar();
+                    data[index] = ordinal;
+                    if (state.getBlockType().getMaterial().isTile() && !grid.tiles.containsKey(ordinal)) {
+                        grid.tiles.put(ordinal, extent.getFullBlock(grid.minX + x, by, bz));
+                    }
+                }
+            }
+        }
+        System.arraycopy(data, 0, grid.front, 0, data.length);
+        return grid;
+    }
+
+    /**
+     * Activate all cells strictly within the given squared distance of a position, excluding the border of the grid and cells
+     * outside the height range of the extent.
+     *
+     * @param center         center of the sphere
+     * @param radiusSquared  squared radius, exclusive
+     */
+    public void activateSphere(BlockVector3 center, int radiusSquared) {
+        for (int y = 1; y < height - 1; y++) {
+            int dy = minY + y - center.y();
+            for (int z = 1; z < length - 1; z++) {
+                int dz = minZ + z - center.z();
+                int dyz = dy * dy + dz * dz;
+                int index = index(1, y, z);
+                for (int x = 1; x < width - 1; x++, index++) {
+                    int dx = minX + x - center.x();
+                    if (dx * dx + dyz < radiusSquared && original[index] != BlockTypesCache.ReservedIDs.__RESERVED__) {
+                        active[index] = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Set whether the cell at the given index is computed and written back.
+     *
+     * @param index  cell index
+     * @param active if the cell is active
+     */
+    public void setActive(int index, boolean active) {
+        if (active && isBorder(index)) {
+            throw new IllegalArgumentException("Border cells cannot be active");
+        }
+        this.active[index] = active;
+    }
+
+    public boolean isActive(int index) {
+        return active[index];
+    }
+
+    /**
+     * Get the current value of a cell.
+     *
+     * @param index cell index
+     * @return block state ordinal
+     */
+    public char get(int index) {
+        return front[index];
+    }
+
+    /**
+     * Set the current value of a cell. This does not change the value the cell is compared against when writing back, so
+     * values of inactive cells may be changed to alter what kernels see without the change being written.
+     *
+     * @param index cell index
+     * @param value block state ordinal
+     */
+    public void set(int index, char value) {
+        front[index] = value;
+    }
+
+    /**
+     * Write all active cells whose value changed back to an extent.
+     *
+     * @param extent extent to write to
+     * @return number of changed cells
+     * @throws WorldEditException if the extent refuses a change, e.g. when the change limit is exceeded
+     */
+    public int write(Extent extent) throws WorldEditException {
+        int changed = 0;
+        int index = 0;
+        for (int y = 0; y < height; y++) {
+            for (int z = 0; z < length; z++) {
+                for (int x = 0; x < width; x++, index++) {
+                    char value = front[index];
+                    if (active[index] && value != original[index]) {
+                        BaseBlock tile = tiles.get(value);
+                        if (tile != null) {
+                            extent.setBlock(minX + x, minY + y, minZ + z, tile);
+                        } else {
+                            extent.setBlock(minX + x, minY + y, minZ + z, BlockTypesCache.states[value]);
+                        }
+                        changed++;
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Get the index of a cell, from coordinates relative to the minimum corner of the grid.
+     *
+     * @param x relative x
+     * @param y relative y
+     * @param z relative z
+     * @return cell index
+     */
+    public int index(int x, int y, int z) {
+        return (y * length + z) * width + x;
+    }
+
+    /**
+     * Get the index difference between a cell and its neighbour at the given offset.
+     *
+     * @param dx x offset, between -1 and 1
+     * @param dy y offset, between -1 and 1
+     * @param dz z offset, between -1 and 1
+     * @return index offset
+     */
+    public int offset(int dx, int dy, int dz) {
+        if (Math.abs(dx) > 1 || Math.abs(dy) > 1 || Math.abs(dz) > 1) {
+            throw new IllegalArgumentException("Offsets are limited to direct neighbours");
+        }
+        return (dy * length + dz) * width + dx;
+    }
+
+    /**
+     * Get the index offsets of the given neighbour offsets.
+     *
+     * @param offsets neighbour offsets, each between -1 and 1 on every axis
+     * @return index offsets, in the order given
+     */
+    public int[] offsets(BlockVector3... offsets) {
+        int[] result = new int[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            result[i] = offset(offsets[i].x(), offsets[i].y(), offsets[i].z());
+        }
+        return result;
+    }
+
+    /**
+     * Get the index offsets of all 26 neighbours, iterating x, then z, then y.
+     *
+     * @return index offsets
+     */
+    public int[] neighbourOffsets() {
+        int[] result = new int[26];
+        int i = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if (dx != 0 || dy != 0 || dz != 0) {
+                        result[i++] = offset(dx, dy, dz);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public BlockVector3 getMinimumPoint() {
+        return BlockVector3.at(minX, minY, minZ);
+    }
+
+    public int getVolume() {
+        return front.length;
+    }
+
+    char[] front() {
+        return front;
+    }
+
+    char[] back() {
+        return back;
+    }
+
+    boolean[] active() {
+        return active;
+    }
+
+    void swap() {
+        char[] tmp = front;
+        front = back;
+        back = tmp;
+    }
+
+    private boolean isBorder(int index) {
+        int x = index % width;
+        int z = (index / width) % length;
+        int y = index / (width * length);
+        return x == 0 || y == 0 || z == 0 || x == width - 1 || y == height - 1 || z == length - 1;
+    }
+
+}
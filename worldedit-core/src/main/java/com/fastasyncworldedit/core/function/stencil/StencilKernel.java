@@ -0,0 +1,53 @@
+package com.fastasyncworldedit.core.function.stencil;
+
+import javax.annotation.Nullable;
+
+/**
+ * Computes the next value of a {@link StencilGrid} cell from the current values of the cell and its neighbours.
+ *
+ * @since TODO
+ */
+public interface StencilKernel {
+
+    /**
+     * Compute the next value of an active cell. Only direct neighbours of the cell may be read.
+     *
+     * @param grid  current values of the grid
+     * @param index index of the cell
+     * @return next block state ordinal of the cell
+     */
+    char apply(char[] grid, int index);
+
+    /**
+     * Get an instance of this kernel that may be used concurrently with this one, e.g. one without shared scratch space.
+     *
+     * @return kernel for use by another thread
+     */
+    default StencilKernel fork() {
+        return this;
+    }
+
+    /**
+     * Get a cheap test the {@link StencilEngine} may use to skip cells this kernel would leave unchanged, e.g. with vector
+     * instructions.
+     *
+     * @return prefilter, or null if every active cell must be computed
+     */
+    @Nullable
+    default Prefilter prefilter() {
+        return null;
+    }
+
+    /**
+     * A cell may only change if at least {@code threshold} of its neighbours at {@code offsets} have an ordinal for which
+     * {@code counted} is true.
+     *
+     * @param offsets   index offsets of the neighbours
+     * @param counted   counted ordinals
+     * @param threshold minimum count for the cell to change
+     */
+    record Prefilter(int[] offsets, boolean[] counted, int threshold) {
+
+    }
+
+}
@@ -141,6 +141,18 @@ public void addBiomeChange(int x, int y, int z, BiomeType from, BiomeType to) {
         }
     }
 
+    @Override
+    public void addBiomeSectionChange(int chunkX, int layer, int chunkZ, BiomeType[] from, BiomeType[] to) {
+        super.addBiomeSectionChange(chunkX, layer, chunkZ, from, to);
+        // Include the whole section rather than finding the changed cells
+        minX = Math.min(minX, chunkX << 4);
+        maxX = Math.max(maxX, (chunkX << 4) + 15);
+        minY = Math.min(minY, layer << 4);
+        maxY = Math.max(maxY, (layer << 4) + 15);
+        minZ = Math.min(minZ, chunkZ << 4);
+        maxZ = Math.max(maxZ, (chunkZ << 4) + 15);
+    }
+
     @Override
     public void writeHeader(OutputStream os, int x, int y, int z) throws IOException {
         minX = x;
@@ -200,6 +200,7 @@ public final synchronized IChunkSet processSet(IChunk chunk, IChunkGet get, IChu
 
         BiomeType[][] biomes = set.getBiomes();
         if (biomes != null) {
+            BiomeType[] from = new BiomeType[64];
             for (int layer = get.getMinSectionPosition(); layer <= get.getMaxSectionPosition(); layer++) {
                 if (!set.hasBiomes(layer)) {
                     continue;
@@ -207,19 +208,22 @@ public final synchronized IChunkSet processSet(IChunk chunk, IChunkGet get, IChu
                 BiomeType[] biomeSection = biomes[layer - set.getMinSectionPosition()];
                 int index = 0;
                 int yy = layer << 4;
+                boolean changed = false;
                 for (int y = 0; y < 16; y += 4) {
                     for (int z = 0; z < 16; z += 4) {
                         for (int x = 0; x < 16; x += 4, index++) {
                             BiomeType newBiome = biomeSection[index];
                             if (newBiome != null) {
                                 BiomeType oldBiome = get.getBiomeType(x, yy + y, z);
-                                if (oldBiome != newBiome) {
-                                    addBiomeChange(bx + x, yy + y, bz + z, oldBiome, newBiome);
-                                }
+                                from[index] = oldBiome;
+                                changed |= oldBiome != newBiome;
                             }
                         }
                     }
                 }
+                if (changed) {
+                    addBiomeSectionChange(chunk.getX(), layer, chunk.getZ(), from, biomeSection);
+                }
             }
         }
         return set;
@@ -299,6 +303,29 @@ public void addEntityCreate(CompoundTag tag) {
 
     public abstract void addBiomeChange(int x, int y, int z, BiomeType from, BiomeType to);
 
+    /**
+     * Add the biome changes of a chunk section. A cell is changed if its biome in {@code to} is not null and differs from
+     * its biome in {@code from}. The arrays are not retained.
+     *
+     * @param chunkX the chunk x coordinate
+     * @param layer  the section layer
+     * @param chunkZ the chunk z coordinate
+     * @param from   the previous biomes of the 64 4x4x4 cells, indexed by {@code y << 4 | z << 2 | x}
+     * @param to     the new biomes of the cells, indexed the same way
+     * @since TODO
+     */
+    public void addBiomeSectionChange(int chunkX, int layer, int chunkZ, BiomeType[] from, BiomeType[] to) {
+        for (int index = 0; index < 64; index++) {
+            BiomeType biome = to[index];
+            if (biome != null && biome != from[index]) {
+                int x = (chunkX << 4) + ((index & 3) << 2);
+                int y = (layer << 4) + ((index >> 4) << 2);
+                int z = (chunkZ << 4) + (index & 12);
+                addBiomeChange(x, y, z, from[index], biome);
+            }
+        }
+    }
+
     public Iterator<Change> getIterator(BlockBag blockBag, int mode, boolean redo) {
         return getIterator(redo);
     }
@@ -51,6 +51,11 @@ public void addBiomeChange(int x, int y, int z, BiomeType from, BiomeType to) {
         parent.addBiomeChange(x, y, z, from, to);
     }
 
+    @Override
+    public void addBiomeSectionChange(int chunkX, int layer, int chunkZ, BiomeType[] from, BiomeType[] to) {
+        parent.addBiomeSectionChange(chunkX, layer, chunkZ, from, to);
+    }
+
     @Override
     public Iterator<Change> getIterator(BlockBag blockBag, int mode, boolean redo) {
         return parent.getIterator(blockBag, mode, redo);
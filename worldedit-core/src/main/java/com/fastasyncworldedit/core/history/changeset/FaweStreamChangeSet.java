@@ -47,6 +47,9 @@ public abstract class FaweStreamChangeSet extends AbstractChangeSet {
     public static final int HEADER_SIZE = 9;
     private static final int VERSION = 2;
     // equivalent to Short#MIN_VALUE three times stored with [(x) & 0xff, ((rx) >> 8) & 0xff]
+    // Marks a run-length encoded biome section. The first byte of a single biome change is the most significant byte of the
+    // cell x coordinate, which is 0x00 or 0xFF inside the world border
+    private static final int BIOME_SECTION_MARKER = 0x01;
     private static final byte[] MAGIC_NEW_RELATIVE = new byte[]{0, (byte) 128, 0, (byte) 128, 0, (byte) 128};
     private int mode;
     private final int compression;
@@ -398,6 +401,39 @@ public void addBiomeChange(int bx, int by, int bz, BiomeType from, BiomeType to)
         }
     }
 
+    @Override
+    public void addBiomeSectionChange(int chunkX, int layer, int chunkZ, BiomeType[] from, BiomeType[] to) {
+        try {
+            FaweOutputStream os = getBiomeOS();
+            os.write(BIOME_SECTION_MARKER);
+            os.writeInt(chunkX);
+            os.writeInt(chunkZ);
+            os.write((byte) (layer + 128));
+            // Runs of cells with the same change, unchanged cells are stored as previous biome id 0
+            for (int start = 0; start < 64; ) {
+                int fromId = getChangedId(from, to, start);
+                int end = start + 1;
+                while (end < 64 && getChangedId(from, to, end) == fromId && (fromId == 0 || to[end] == to[start])) {
+                    end++;
+                }
+                os.writeVarInt(end - start);
+                os.writeVarInt(fromId);
+                if (fromId != 0) {
+                    os.writeVarInt(to[start].getInternalId());
+                    blockSize += end - start;
+                }
+                start = end;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static int getChangedId(BiomeType[] from, BiomeType[] to, int index) {
+        BiomeType biome = to[index];
+        return biome == null || biome == from[index] ? 0 : from[index].getInternalId() + 1;
+    }
+
     @Override
     public void addTileCreate(final FaweCompoundTag tag) {
         blockSize++;
@@ -492,25 +528,86 @@ public void remove() {
         };
     }
 
+    /**
+     * Reads the biome changes written by {@link #addBiomeChange(int, int, int, BiomeType, BiomeType)} and
+     * {@link #addBiomeSectionChange(int, int, int, BiomeType[], BiomeType[])}.
+     */
+    private static final class BiomeChangeReader {
+
+        private final FaweInputStream is;
+        // Block coordinates of the section currently being read
+        private int sectionX;
+        private int sectionY;
+        private int sectionZ;
+        // Next cell of the section, 64 if no section is being read
+        private int index = 64;
+        private int runLength;
+        private int runFrom;
+        private int runTo;
+
+        private BiomeChangeReader(FaweInputStream is) {
+            this.is = is;
+        }
+
+        private boolean read(MutableBiomeChange change) throws IOException {
+            while (index < 64) {
+                if (runLength == 0) {
+                    runLength = is.readVarInt();
+                    // 0 is an unchanged run, otherwise the previous biome id + 1
+                    runFrom = is.readVarInt() - 1;
+                    if (runFrom < 0) {
+                        index += runLength;
+                        runLength = 0;
+                        continue;
+                    }
+                    runTo = is.readVarInt();
+                }
+                int cell = index++;
+                runLength--;
+                change.setBiome(
+                        sectionX + ((cell & 3) << 2),
+                        sectionY + ((cell >> 4) << 2),
+                        sectionZ + (cell & 12),
+                        runFrom,
+                        runTo
+                );
+                return true;
+            }
+            int int1 = is.read();
+            if (int1 == -1) {
+                return false;
+            }
+            if (int1 == BIOME_SECTION_MARKER) {
+                sectionX = is.readInt() << 4;
+                sectionZ = is.readInt() << 4;
+                sectionY = (is.read() - 128) << 4;
+                index = 0;
+                return read(change);
+            }
+            int x = ((int1 << 24) + (is.read() << 16) + (is.read() << 8) + is.read()) << 2;
+            int z = ((is.read() << 24) + (is.read() << 16) + (is.read() << 8) + is.read()) << 2;
+            int y = (is.read() - 128) << 2;
+            int from = is.readVarInt();
+            int to = is.readVarInt();
+            change.setBiome(x, y, z, from, to);
+            return true;
+        }
+
+    }
+
     public Iterator<MutableBiomeChange> getBiomeIterator(final boolean dir) throws IOException {
         final FaweInputStream is = getBiomeIS();
         if (is == null) {
             return Collections.emptyIterator();
         }
         final MutableBiomeChange change = new MutableBiomeChange();
+        final BiomeChangeReader reader = new BiomeChangeReader(is);
         return new Iterator<MutableBiomeChange>() {
             private MutableBiomeChange last = new MutableBiomeChange();
 
             public MutableBiomeChange read() {
                 try {
-                    int int1 = is.read();
-                    if (int1 != -1) {
-                        int x = ((int1 << 24) + (is.read() << 16) + (is.read() << 8) + is.read()) << 2;
-                        int z = ((is.read() << 24) + (is.read() << 16) + (is.read() << 8) + is.read()) << 2;
-                        int y = (is.read() - 128) << 2;
-                        int from = is.readVarInt();
-                        int to = is.readVarInt();
-                        change.setBiome(x, y, z, from, to);
+                    if (reader.read(change)) {
                         return change;
                     }
                 } catch (EOFException ignored) {
@@ -947,6 +1044,7 @@ private ChangePopulator<MutableBiomeChange> biomeChangePopulator(boolean dir) th
         if (is == null) {
             return ChangePopulator.empty();
         }
+        final BiomeChangeReader reader = new BiomeChangeReader(is);
         class Populator implements ChangePopulator<MutableBiomeChange> {
 
             @Override
@@ -957,14 +1055,7 @@ class Populator implements ChangePopulator<MutableBiomeChange> {
             @Override
             public @Nullable MutableBiomeChange populate(@NotNull final MutableBiomeChange change) {
                 try {
-                    int int1 = is.read();
-                    if (int1 != -1) {
-                        int x = ((int1 << 24) + (is.read() << 16) + (is.read() << 8) + is.read()) << 2;
-                        int z = ((is.read() << 24) + (is.read() << 16) + (is.read() << 8) + is.read()) << 2;
-                        int y = (is.read() - 128) << 2;
-                        int from = is.readVarInt();
-                        int to = is.readVarInt();
-                        change.setBiome(x, y, z, from, to);
+                    if (reader.read(change)) {
                         return change;
                     }
                 } catch (EOFException ignored) {
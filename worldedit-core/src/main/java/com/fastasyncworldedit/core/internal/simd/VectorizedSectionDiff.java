@@ -0,0 +1,40 @@
+package com.fastasyncworldedit.core.internal.simd;
+
+import com.sk89q.worldedit.world.block.BlockTypesCache;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.jetbrains.annotations.ApiStatus;
+
+@ApiStatus.Internal
+public final class VectorizedSectionDiff {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+    private VectorizedSectionDiff() {
+    }
+
+    /**
+     * Reset the blocks of a set section that are equal to the blocks of the get section, see
+     * {@link com.fastasyncworldedit.core.extent.processor.UnchangedBlockRemovingProcessor}.
+     *
+     * @param set the set section, 4096 blocks
+     * @param get the get section, 4096 blocks
+     * @return whether blocks are still set
+     */
+    public static boolean removeUnchanged(char[] set, char[] get) {
+        VectorMask<Short> changed = SPECIES.maskAll(false);
+        for (int i = 0; i < set.length; i += SPECIES.length()) {
+            ShortVector s = ShortVector.fromCharArray(SPECIES, set, i);
+            ShortVector g = ShortVector.fromCharArray(SPECIES, get, i);
+            // Reserved in the get section is air
+            g = g.blend((short) BlockTypesCache.ReservedIDs.AIR, g.eq((short) BlockTypesCache.ReservedIDs.__RESERVED__));
+            s = s.blend((short) BlockTypesCache.ReservedIDs.__RESERVED__, s.eq(g));
+            s.intoCharArray(set, i);
+            changed = changed.or(s.compare(VectorOperators.NE, (short) BlockTypesCache.ReservedIDs.__RESERVED__));
+        }
+        return changed.anyTrue();
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.fastasyncworldedit.core.internal.simd;
+
+import com.fastasyncworldedit.core.function.stencil.StencilKernel;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.jetbrains.annotations.ApiStatus;
+
+@ApiStatus.Internal
+public final class VectorizedStencil {
+
+    private VectorizedStencil() {
+    }
+
+    /**
+     * Apply a kernel to the active cells between start (inclusive) and end (exclusive) that pass its prefilter. The counted
+     * neighbours of a whole vector of cells are summed at once, and the kernel is only applied to cells with enough counted
+     * neighbours.
+     */
+    public static void row(
+            StencilKernel kernel,
+            StencilKernel.Prefilter prefilter,
+            byte[] flags,
+            boolean[] active,
+            char[] src,
+            char[] dst,
+            int start,
+            int end
+    ) {
+        final VectorSpecies<Byte> species = ByteVector.SPECIES_PREFERRED;
+        final int[] offsets = prefilter.offsets();
+        final int threshold = prefilter.threshold();
+        final int lanes = species.length();
+        int i = start;
+        if (lanes <= Long.SIZE) {
+            for (; i + lanes <= end; i += lanes) {
+                ByteVector sum = ByteVector.zero(species);
+                for (int offset : offsets) {
+                    sum = sum.add(ByteVector.fromArray(species, flags, i + offset));
+                }
+                long candidates = sum.compare(VectorOperators.GE, (byte) threshold).toLong();
+                while (candidates != 0) {
+                    int index = i + Long.numberOfTrailingZeros(candidates);
+                    candidates &= candidates - 1;
+                    if (active[index]) {
+                        dst[index] = kernel.apply(src, index);
+                    }
+                }
+            }
+        }
+        for (; i < end; i++) {
+            if (!active[i]) {
+                continue;
+            }
+            int count = 0;
+            for (int offset : offsets) {
+                count += flags[i + offset];
+            }
+            if (count >= threshold) {
+                dst[i] = kernel.apply(src, i);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.fastasyncworldedit.core.limit;
+
+import com.fastasyncworldedit.core.FaweCache;
+import com.fastasyncworldedit.core.internal.exception.FaweException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget of changes and checks drawn from a {@link FaweLimit} in blocks, so threads sharing a limit do not update the same
+ * counters for every block. Each thread should use its own lease, and {@link #release()} it once it is done so the unused
+ * budget is returned to the limit.
+ * <p>
+ * Budget is drawn from the limit before it is used, so the limit can never be exceeded. Once the limit is reached, the
+ * whole amount of the failed operation is still taken from the limit, so it overruns by exactly the amount of the
+ * operations that were refused, like when the limit is used directly.
+ *
+ * @since TODO
+ */
+public final class LimitLease {
+
+    /**
+     * Maximum amount drawn from the limit in addition to the amount needed.
+     */
+    public static final int LEASE_SIZE = 4096;
+
+    private final FaweLimit limit;
+    private long changes;
+    private long checks;
+
+    /**
+     * New instance, not holding any budget yet.
+     *
+     * @param limit the limit to draw from
+     */
+    public LimitLease(FaweLimit limit) {
+        this.limit = limit;
+    }
+
+    public void THROW_MAX_CHANGES() {
+        if (changes > 0) {
+            changes--;
+        } else {
+            changes = draw(limit.MAX_CHANGES, 1, FaweCache.MAX_CHANGES);
+        }
+    }
+
+    public void THROW_MAX_CHANGES(long amt) {
+        if (amt <= 0) {
+            return;
+        }
+        if (changes >= amt) {
+            changes -= amt;
+            return;
+        }
+        long needed = amt - changes;
+        changes = 0;
+        changes = draw(limit.MAX_CHANGES, needed, FaweCache.MAX_CHANGES);
+    }
+
+    public void THROW_MAX_CHECKS() {
+        if (checks > 0) {
+            checks--;
+        } else {
+            checks = draw(limit.MAX_CHECKS, 1, FaweCache.MAX_CHECKS);
+        }
+    }
+
+    public void THROW_MAX_CHECKS(long amt) {
+        if (amt <= 0) {
+            return;
+        }
+        if (checks >= amt) {
+            checks -= amt;
+            return;
+        }
+        long needed = amt - checks;
+        checks = 0;
+        checks = draw(limit.MAX_CHECKS, needed, FaweCache.MAX_CHECKS);
+    }
+
+    /**
+     * Return the unused budget to the limit. Must not be called while the lease is used by another thread.
+     */
+    public void release() {
+        if (changes > 0) {
+            limit.MAX_CHANGES.addAndGet(changes);
+            changes = 0;
+        }
+        if (checks > 0) {
+            limit.MAX_CHECKS.addAndGet(checks);
+            checks = 0;
+        }
+    }
+
+    /**
+     * Take the needed amount from a counter, and up to {@link #LEASE_SIZE} more while plenty of budget is left.
+     *
+     * @return the amount drawn in addition to the needed amount
+     */
+    private static long draw(AtomicLong counter, long needed, FaweException exceeded) {
+        while (true) {
+            long available = counter.get();
+            if (available < needed) {
+                counter.addAndGet(-needed);
+                throw exceeded;
+            }
+            // Draw less when the limit is nearly reached, so little budget is left unused in the leases of other threads
+            long extra = Math.min(LEASE_SIZE, (available - needed) >> 6);
+            if (counter.compareAndSet(available, available - needed - extra)) {
+                return extra;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,787 @@
+package com.fastasyncworldedit.core.math;
+
+import com.fastasyncworldedit.core.util.collection.BlockVector3Set;
+import com.sk89q.worldedit.math.BlockVector3;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A {@link BlockVector3Set} adapting its representation to the number and density of the positions it holds. Unlike
+ * {@link LocalBlockVectorSet} it is not limited to an area around the first position, and unlike {@link BlockVectorSet}
+ * its size in memory follows the positions rather than the area they are spread over.
+ * <ul>
+ *     <li>Few positions are stored as a sorted array of packed positions, 8 bytes per position.</li>
+ *     <li>Once larger, positions are stored per 16x16x16 chunk section. Sections with few positions store them as a sorted
+ *     array of their index in the section, 2 bytes per position.</li>
+ *     <li>Dense sections store them as a bitmap of the section, 512 bytes per section.</li>
+ * </ul>
+ * Positions are iterated in chunk order, so all positions of a chunk section are iterated together, and sections of a chunk
+ * are iterated after each other. Bulk operations with another {@code AdaptiveBlockVectorSet} work on whole sections.
+ * <p>
+ * Section coordinates are limited to those of a vanilla world: x and z within -33554432 to 33554431, y within -2048 to 2047.
+ *
+ * @since TODO
+ */
+public class AdaptiveBlockVectorSet extends AbstractCollection<BlockVector3> implements BlockVector3Set {
+
+    /**
+     * Maximum number of positions stored as a sorted array of packed positions.
+     */
+    static final int SPARSE_MAX = 2048;
+    /**
+     * Maximum number of positions of a section stored as an array, above it a section uses a bitmap of the same size.
+     */
+    static final int ARRAY_MAX = 256;
+
+    private static final int XZ_BIAS = 1 << 21;
+    private static final int Y_BIAS = 1 << 7;
+
+    // Packed positions XOR Long.MIN_VALUE, so they sort by section and index as signed longs. Null once sections are used
+    private long[] points;
+    private Long2ObjectOpenHashMap<Section> sections;
+    private int size;
+    // Section last looked up, neighbouring positions are usually added and tested together
+    private long lastKey = -1;
+    private Section lastSection;
+
+    /**
+     * New empty set.
+     */
+    public AdaptiveBlockVectorSet() {
+        this.points = new long[16];
+    }
+
+    private AdaptiveBlockVectorSet(AdaptiveBlockVectorSet other) {
+        this.size = other.size;
+        if (other.points != null) {
+            this.points = other.points.clone();
+        } else {
+            this.sections = new Long2ObjectOpenHashMap<>(other.sections.size());
+            for (Long2ObjectMap.Entry<Section> entry : other.sections.long2ObjectEntrySet()) {
+                this.sections.put(entry.getLongKey(), entry.getValue().copy());
+            }
+        }
+    }
+
+    // Section key: 22 bits x, 22 bits z, 8 bits y, so the keys sort in chunk order. -1 if out of bounds
+    private static long sectionKey(int x, int y, int z) {
+        long sx = (x >> 4) + XZ_BIAS;
+        long sz = (z >> 4) + XZ_BIAS;
+        long sy = (y >> 4) + Y_BIAS;
+        if ((sx >>> 22) != 0 || (sz >>> 22) != 0 || (sy >>> 8) != 0) {
+            return -1;
+        }
+        return sx << 30 | sz << 8 | sy;
+    }
+
+    private Section section(long key) {
+        if (key == lastKey) {
+            return lastSection;
+        }
+        Section section = sections.get(key);
+        if (section != null) {
+            lastKey = key;
+            lastSection = section;
+        }
+        return section;
+    }
+
+    private void removeSection(long key) {
+        sections.remove(key);
+        if (key == lastKey) {
+            lastKey = -1;
+            lastSection = null;
+        }
+    }
+
+    private static int sectionIndex(int x, int y, int z) {
+        return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+    }
+
+    private static long point(long section, int index) {
+        return (section << 12 | index) ^ Long.MIN_VALUE;
+    }
+
+    private static int x(long section, int index) {
+        return (int) ((section >>> 30) - XZ_BIAS) << 4 | index & 15;
+    }
+
+    private static int y(long section, int index) {
+        return (int) ((section & 0xFF) - Y_BIAS) << 4 | index >> 8;
+    }
+
+    private static int z(long section, int index) {
+        return (int) (((section >>> 8) & 0x3FFFFF) - XZ_BIAS) << 4 | (index >> 4) & 15;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(int x, int y, int z) {
+        long section = sectionKey(x, y, z);
+        if (section == -1) {
+            return false;
+        }
+        int index = sectionIndex(x, y, z);
+        if (points != null) {
+            return Arrays.binarySearch(points, 0, size, point(section, index)) >= 0;
+        }
+        Section s = section(section);
+        return s != null && s.contains(index);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o instanceof BlockVector3 v) {
+            return contains(v.x(), v.y(), v.z());
+        }
+        return false;
+    }
+
+    @Override
+    public boolean add(BlockVector3 vector) {
+        return add(vector.x(), vector.y(), vector.z());
+    }
+
+    @Override
+    public boolean add(int x, int y, int z) {
+        long section = sectionKey(x, y, z);
+        if (section == -1) {
+            throw new IndexOutOfBoundsException(
+                    "AdaptiveBlockVectorSet cannot contain vectors outside of the world's bounds. Attempted to set block at " +
+                            x + ", " + y + ", " + z);
+        }
+        return add(section, sectionIndex(x, y, z));
+    }
+
+    private boolean add(long section, int index) {
+        if (points != null) {
+            long point = point(section, index);
+            int i = Arrays.binarySearch(points, 0, size, point);
+            if (i >= 0) {
+                return false;
+            }
+            if (size < SPARSE_MAX) {
+                i = -i - 1;
+                if (size == points.length) {
+                    points = Arrays.copyOf(points, Math.min(SPARSE_MAX, size << 1));
+                }
+                System.arraycopy(points, i, points, i + 1, size - i);
+                points[i] = point;
+                size++;
+                return true;
+            }
+            toSections();
+        }
+        Section s = section(section);
+        if (s == null) {
+            sections.put(section, s = new Section());
+        }
+        if (s.add(index)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remove a position from the set.
+     *
+     * @param x x position
+     * @param y y position
+     * @param z z position
+     * @return true if the position was present
+     */
+    public boolean remove(int x, int y, int z) {
+        long section = sectionKey(x, y, z);
+        if (section == -1) {
+            return false;
+        }
+        return remove(section, sectionIndex(x, y, z));
+    }
+
+    private boolean remove(long section, int index) {
+        if (points != null) {
+            int i = Arrays.binarySearch(points, 0, size, point(section, index));
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(points, i + 1, points, i, size - i - 1);
+            size--;
+            return true;
+        }
+        Section s = section(section);
+        if (s == null || !s.remove(index)) {
+            return false;
+        }
+        if (s.size == 0) {
+            removeSection(section);
+        }
+        size--;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o instanceof BlockVector3 v) {
+            return remove(v.x(), v.y(), v.z());
+        }
+        return false;
+    }
+
+    private void toSections() {
+        sections = new Long2ObjectOpenHashMap<>();
+        Section s = null;
+        long current = -1;
+        for (int i = 0; i < size; i++) {
+            long raw = points[i] ^ Long.MIN_VALUE;
+            long section = raw >>> 12;
+            if (s == null || section != current) {
+                sections.put(section, s = new Section());
+                current = section;
+            }
+            s.add((int) (raw & 0xFFF));
+        }
+        points = null;
+    }
+
+    private long[] sortedSections() {
+        long[] keys = sections.keySet().toLongArray();
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    @Override
+    public boolean addAll(@Nonnull Collection<? extends BlockVector3> c) {
+        if (!(c instanceof AdaptiveBlockVectorSet other)) {
+            boolean result = false;
+            for (BlockVector3 v : c) {
+                result |= add(v);
+            }
+            return result;
+        }
+        if (other == this) {
+            return false;
+        }
+        int previous = size;
+        if (other.points != null) {
+            for (int i = 0; i < other.size; i++) {
+                long raw = other.points[i] ^ Long.MIN_VALUE;
+                add(raw >>> 12, (int) (raw & 0xFFF));
+            }
+            return size != previous;
+        }
+        if (points != null) {
+            toSections();
+        }
+        for (Long2ObjectMap.Entry<Section> entry : other.sections.long2ObjectEntrySet()) {
+            Section s = sections.get(entry.getLongKey());
+            if (s == null) {
+                s = entry.getValue().copy();
+                sections.put(entry.getLongKey(), s);
+                size += s.size;
+            } else {
+                int sectionSize = s.size;
+                s.or(entry.getValue());
+                size += s.size - sectionSize;
+            }
+        }
+        return size != previous;
+    }
+
+    @Override
+    public boolean retainAll(@Nonnull Collection<?> c) {
+        Objects.requireNonNull(c);
+        if (c instanceof AdaptiveBlockVectorSet other && points == null && other.points != null) {
+            // Few positions are kept, so test those instead of every section
+            AdaptiveBlockVectorSet retained = new AdaptiveBlockVectorSet();
+            for (int i = 0; i < other.size; i++) {
+                long raw = other.points[i] ^ Long.MIN_VALUE;
+                Section s = sections.get(raw >>> 12);
+                if (s != null && s.contains((int) (raw & 0xFFF))) {
+                    retained.add(raw >>> 12, (int) (raw & 0xFFF));
+                }
+            }
+            boolean modified = retained.size != size;
+            points = retained.points;
+            sections = null;
+            lastKey = -1;
+            lastSection = null;
+            size = retained.size;
+            return modified;
+        }
+        if (c instanceof AdaptiveBlockVectorSet other && points == null) {
+            int previous = size;
+            ObjectIterator<Long2ObjectMap.Entry<Section>> iterator = sections.long2ObjectEntrySet().fastIterator();
+            while (iterator.hasNext()) {
+                Long2ObjectMap.Entry<Section> entry = iterator.next();
+                Section s = entry.getValue();
+                Section retain = other.sections.get(entry.getLongKey());
+                int sectionSize = s.size;
+                if (retain == null) {
+                    iterator.remove();
+                    size -= sectionSize;
+                    continue;
+                }
+                s.and(retain);
+                size += s.size - sectionSize;
+                if (s.size == 0) {
+                    iterator.remove();
+                }
+            }
+            lastKey = -1;
+            lastSection = null;
+            return size != previous;
+        }
+        boolean modified = false;
+        Iterator<BlockVector3> it = iterator();
+        while (it.hasNext()) {
+            if (!c.contains(it.next())) {
+                it.remove();
+                modified = true;
+            }
+        }
+        return modified;
+    }
+
+    @Override
+    public boolean removeAll(@Nonnull Collection<?> c) {
+        if (c instanceof AdaptiveBlockVectorSet other && points == null && other.points == null) {
+            int previous = size;
+            for (Long2ObjectMap.Entry<Section> entry : other.sections.long2ObjectEntrySet()) {
+                Section s = sections.get(entry.getLongKey());
+                if (s == null) {
+                    continue;
+                }
+                int sectionSize = s.size;
+                s.andNot(entry.getValue());
+                size += s.size - sectionSize;
+                if (s.size == 0) {
+                    removeSection(entry.getLongKey());
+                }
+            }
+            return size != previous;
+        }
+        boolean result = false;
+        for (Object o : c) {
+            result |= remove(o);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean containsAll(@Nonnull Collection<?> c) {
+        for (Object o : c) {
+            if (!contains(o)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        points = new long[16];
+        sections = null;
+        lastKey = -1;
+        lastSection = null;
+        size = 0;
+    }
+
+    @Override
+    public void setOffset(final int x, final int z) {
+        // Do nothing
+    }
+
+    @Override
+    public void setOffset(final int x, final int y, final int z) {
+        // Do nothing
+    }
+
+    @Override
+    public boolean containsRadius(final int x, final int y, final int z, final int radius) {
+        if (radius <= 0) {
+            return contains(x, y, z);
+        }
+        for (int xx = -radius; xx <= radius; xx++) {
+            int rx = x + xx;
+            for (int yy = -radius; yy <= radius; yy++) {
+                int ry = y + yy;
+                for (int zz = -radius; zz <= radius; zz++) {
+                    if (contains(rx, ry, z + zz)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public AdaptiveBlockVectorSet copy() {
+        return new AdaptiveBlockVectorSet(this);
+    }
+
+    /**
+     * Visit each position of the set, in chunk order.
+     *
+     * @param visitor visitor to use, given the index of the position within its chunk section
+     *                ({@code y << 8 | z << 4 | x}) as index
+     */
+    public void forEach(LocalBlockVectorSet.BlockVectorSetVisitor visitor) {
+        if (points != null) {
+            for (int i = 0; i < size; i++) {
+                long raw = points[i] ^ Long.MIN_VALUE;
+                long section = raw >>> 12;
+                int index = (int) (raw & 0xFFF);
+                visitor.run(x(section, index), y(section, index), z(section, index), index);
+            }
+            return;
+        }
+        for (long section : sortedSections()) {
+            Section s = sections.get(section);
+            for (int index = s.next(0); index != -1; index = s.next(index + 1)) {
+                visitor.run(x(section, index), y(section, index), z(section, index), index);
+            }
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<BlockVector3> iterator() {
+        if (points != null) {
+            return new Iterator<>() {
+                final MutableBlockVector3 mutable = new MutableBlockVector3();
+                int next;
+                boolean removable;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
+                }
+
+                @Override
+                public BlockVector3 next() {
+                    if (next >= size) {
+                        throw new NoSuchElementException("End of iterator");
+                    }
+                    removable = true;
+                    long raw = points[next++] ^ Long.MIN_VALUE;
+                    long section = raw >>> 12;
+                    int index = (int) (raw & 0xFFF);
+                    return mutable.setComponents(x(section, index), y(section, index), z(section, index));
+                }
+
+                @Override
+                public void remove() {
+                    if (!removable) {
+                        throw new IllegalStateException();
+                    }
+                    removable = false;
+                    System.arraycopy(points, next, points, next - 1, size - next);
+                    next--;
+                    size--;
+                }
+            };
+        }
+        final long[] keys = sortedSections();
+        return new Iterator<>() {
+            final MutableBlockVector3 mutable = new MutableBlockVector3();
+            int keyIndex = -1;
+            long section;
+            Section current;
+            int next = -1;
+            long returnedKey;
+            Section returnedSection;
+            int returnedIndex;
+
+            {
+                advance();
+            }
+
+            private void advance() {
+                while (next == -1 && ++keyIndex < keys.length) {
+                    section = keys[keyIndex];
+                    current = sections.get(section);
+                    next = current == null ? -1 : current.next(0);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != -1;
+            }
+
+            @Override
+            public BlockVector3 next() {
+                if (next == -1) {
+                    throw new NoSuchElementException("End of iterator");
+                }
+                int index = next;
+                returnedKey = section;
+                returnedSection = current;
+                returnedIndex = index;
+                next = current.next(index + 1);
+                BlockVector3 result = mutable.setComponents(x(section, index), y(section, index), z(section, index));
+                advance();
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                if (returnedSection == null) {
+                    throw new IllegalStateException();
+                }
+                if (returnedSection.remove(returnedIndex)) {
+                    size--;
+                    if (returnedSection.size == 0) {
+                        removeSection(returnedKey);
+                    }
+                }
+                returnedSection = null;
+            }
+        };
+    }
+
+    /**
+     * The positions of a 16x16x16 chunk section, as a sorted array of indices while small, else as a bitmap.
+     */
+    private static final class Section {
+
+        private short[] array = new short[4];
+        private long[] bits;
+        private int size;
+
+        private Section copy() {
+            Section copy = new Section();
+            copy.size = size;
+            copy.array = array == null ? null : array.clone();
+            copy.bits = bits == null ? null : bits.clone();
+            return copy;
+        }
+
+        private boolean contains(int index) {
+            if (bits != null) {
+                return (bits[index >> 6] & (1L << index)) != 0;
+            }
+            return Arrays.binarySearch(array, 0, size, (short) index) >= 0;
+        }
+
+        private boolean add(int index) {
+            if (bits != null) {
+                long word = bits[index >> 6];
+                long bit = 1L << index;
+                if ((word & bit) != 0) {
+                    return false;
+                }
+                bits[index >> 6] = word | bit;
+                size++;
+                return true;
+            }
+            int i = Arrays.binarySearch(array, 0, size, (short) index);
+            if (i >= 0) {
+                return false;
+            }
+            if (size == ARRAY_MAX) {
+                toBitmap();
+                return add(index);
+            }
+            i = -i - 1;
+            if (size == array.length) {
+                array = Arrays.copyOf(array, Math.min(ARRAY_MAX, size << 1));
+            }
+            System.arraycopy(array, i, array, i + 1, size - i);
+            array[i] = (short) index;
+            size++;
+            return true;
+        }
+
+        private boolean remove(int index) {
+            if (bits != null) {
+                long word = bits[index >> 6];
+                long bit = 1L << index;
+                if ((word & bit) == 0) {
+                    return false;
+                }
+                bits[index >> 6] = word & ~bit;
+                size--;
+                if (size <= ARRAY_MAX >> 1) {
+                    toArray();
+                }
+                return true;
+            }
+            int i = Arrays.binarySearch(array, 0, size, (short) index);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(array, i + 1, array, i, size - i - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * @return the smallest contained index from {@code from} (inclusive), or -1
+         */
+        private int next(int from) {
+            if (from >= 4096) {
+                return -1;
+            }
+            if (bits != null) {
+                int w = from >> 6;
+                long word = bits[w] & (-1L << from);
+                while (true) {
+                    if (word != 0) {
+                        return w << 6 | Long.numberOfTrailingZeros(word);
+                    }
+                    if (++w == 64) {
+                        return -1;
+                    }
+                    word = bits[w];
+                }
+            }
+            int i = Arrays.binarySearch(array, 0, size, (short) from);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            return i < size ? array[i] : -1;
+        }
+
+        private long[] bitmap() {
+            if (bits != null) {
+                return bits;
+            }
+            long[] words = new long[64];
+            for (int i = 0; i < size; i++) {
+                int index = array[i];
+                words[index >> 6] |= 1L << index;
+            }
+            return words;
+        }
+
+        private void toBitmap() {
+            bits = bitmap();
+            array = null;
+        }
+
+        private void toArray() {
+            short[] indices = new short[Math.max(4, size)];
+            int i = 0;
+            for (int w = 0; w < 64; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    indices[i++] = (short) (w << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            array = indices;
+            bits = null;
+        }
+
+        private void setBits(long[] words) {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            bits = words;
+            array = null;
+            size = count;
+            if (size <= ARRAY_MAX >> 1) {
+                toArray();
+            }
+        }
+
+        private void or(Section other) {
+            if (bits == null && other.bits == null && size + other.size <= ARRAY_MAX) {
+                short[] merged = new short[Math.max(4, size + other.size)];
+                int i = 0;
+                int j = 0;
+                int k = 0;
+                while (i < size && j < other.size) {
+                    short a = array[i];
+                    short b = other.array[j];
+                    if (a < b) {
+                        merged[k++] = a;
+                        i++;
+                    } else if (a > b) {
+                        merged[k++] = b;
+                        j++;
+                    } else {
+                        merged[k++] = a;
+                        i++;
+                        j++;
+                    }
+                }
+                while (i < size) {
+                    merged[k++] = array[i++];
+                }
+                while (j < other.size) {
+                    merged[k++] = other.array[j++];
+                }
+                array = merged;
+                size = k;
+                return;
+            }
+            long[] words = bitmap();
+            long[] otherWords = other.bitmap();
+            for (int w = 0; w < 64; w++) {
+                words[w] |= otherWords[w];
+            }
+            setBits(words);
+        }
+
+        private void and(Section other) {
+            if (bits == null) {
+                int k = 0;
+                for (int i = 0; i < size; i++) {
+                    if (other.contains(array[i])) {
+                        array[k++] = array[i];
+                    }
+                }
+                size = k;
+                return;
+            }
+            long[] otherWords = other.bitmap();
+            for (int w = 0; w < 64; w++) {
+                bits[w] &= otherWords[w];
+            }
+            setBits(bits);
+        }
+
+        private void andNot(Section other) {
+            if (bits == null) {
+                int k = 0;
+                for (int i = 0; i < size; i++) {
+                    if (!other.contains(array[i])) {
+                        array[k++] = array[i];
+                    }
+                }
+                size = k;
+                return;
+            }
+            long[] otherWords = other.bitmap();
+            for (int w = 0; w < 64; w++) {
+                bits[w] &= ~otherWords[w];
+            }
+            setBits(bits);
+        }
+
+    }
+
+}
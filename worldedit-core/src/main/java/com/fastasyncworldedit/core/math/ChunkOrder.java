@@ -0,0 +1,115 @@
+package com.fastasyncworldedit.core.math;
+
+import com.sk89q.worldedit.math.BlockVector3;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Orders positions chunk by chunk, so bulk writes of many positions touch each chunk once instead of jumping between
+ * chunks and missing the chunk caches of the queue on every change of chunk.
+ * <p>
+ * Chunks are visited in Morton (z-curve) order, so consecutive chunks are mostly neighbours. Positions of a chunk are
+ * visited section by section, row by row, in the order they are stored in the chunk.
+ *
+ * @since TODO
+ */
+public final class ChunkOrder {
+
+    private static final int XZ_BIAS = 1 << 21;
+    private static final int Y_BIAS = 1 << 11;
+
+    private ChunkOrder() {
+    }
+
+    /**
+     * Get the given positions in chunk order. Collections that already iterate in chunk order are returned as is, so are
+     * collections containing positions outside the bounds of a vanilla world (x and z within -33554432 to 33554431, y within
+     * -2048 to 2047).
+     * <p>
+     * Otherwise, the positions are sorted once and the returned iterable must not be used after the collection is modified.
+     * Its iterator returns the same mutable vector for every position, use {@link BlockVector3#toImmutable()} to keep one.
+     *
+     * @param vectors the positions
+     * @return the positions in chunk order
+     */
+    public static Iterable<? extends BlockVector3> of(Collection<? extends BlockVector3> vectors) {
+        if (vectors.size() < 2 || vectors instanceof AdaptiveBlockVectorSet) {
+            return vectors;
+        }
+        long[] keys = new long[vectors.size()];
+        int size = 0;
+        for (BlockVector3 vector : vectors) {
+            long key = key(vector.x(), vector.y(), vector.z());
+            if (key == -1 || size == keys.length) {
+                return vectors;
+            }
+            // Flip the sign, so the unsigned keys sort as signed longs
+            keys[size++] = key ^ Long.MIN_VALUE;
+        }
+        Arrays.sort(keys, 0, size);
+        int length = size;
+        return () -> new Iterator<>() {
+            private final MutableBlockVector3 mutable = new MutableBlockVector3();
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < length;
+            }
+
+            @Override
+            public BlockVector3 next() {
+                if (index >= length) {
+                    throw new NoSuchElementException("End of iterator");
+                }
+                long key = keys[index++] ^ Long.MIN_VALUE;
+                int chunkX = compact(key >>> 20) - XZ_BIAS;
+                int chunkZ = compact(key >>> 21) - XZ_BIAS;
+                return mutable.setComponents(
+                        chunkX << 4 | (int) (key & 15),
+                        (int) (key >>> 8 & 0xFFF) - Y_BIAS,
+                        chunkZ << 4 | (int) (key >>> 4 & 15)
+                );
+            }
+        };
+    }
+
+    /**
+     * Get the key of a position, sorting (as unsigned long) in chunk order: chunk coordinates interleaved, then y, z and x.
+     *
+     * @return the key, or -1 if the position is out of bounds
+     */
+    static long key(int x, int y, int z) {
+        int chunkX = (x >> 4) + XZ_BIAS;
+        int chunkZ = (z >> 4) + XZ_BIAS;
+        int biasedY = y + Y_BIAS;
+        if ((chunkX | chunkZ) >>> 22 != 0 || biasedY >>> 12 != 0) {
+            return -1;
+        }
+        return (spread(chunkX) | spread(chunkZ) << 1) << 20 | (long) biasedY << 8 | (z & 15) << 4 | x & 15;
+    }
+
+    // Spread the bits of a value to the even bits of a long
+    private static long spread(int value) {
+        long bits = value & 0xFFFFFFFFL;
+        bits = (bits | bits << 16) & 0x0000FFFF0000FFFFL;
+        bits = (bits | bits << 8) & 0x00FF00FF00FF00FFL;
+        bits = (bits | bits << 4) & 0x0F0F0F0F0F0F0F0FL;
+        bits = (bits | bits << 2) & 0x3333333333333333L;
+        return (bits | bits << 1) & 0x5555555555555555L;
+    }
+
+    // Inverse of spread, gathering the even bits of a long
+    private static int compact(long bits) {
+        bits &= 0x5555555555555555L;
+        bits = (bits | bits >>> 1) & 0x3333333333333333L;
+        bits = (bits | bits >>> 2) & 0x0F0F0F0F0F0F0F0FL;
+        bits = (bits | bits >>> 4) & 0x00FF00FF00FF00FFL;
+        bits = (bits | bits >>> 8) & 0x0000FFFF0000FFFFL;
+        return (int) (bits | bits >>> 16);
+    }
+
+}
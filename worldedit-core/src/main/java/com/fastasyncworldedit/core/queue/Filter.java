@@ -32,6 +32,18 @@ public interface Filter {
 //        return true;
 //    }
 
+    /**
+     * If {@link #applyBlock(FilterBlock)} should be called for the blocks of a chunk. Filters doing all their work in
+     * {@link #applyChunk(IChunk, Region)} return false, so the blocks of the chunk are neither loaded nor iterated.
+     * {@link #finishChunk(IChunk)} is still called.
+     *
+     * @return if blocks should be filtered
+     * @since TODO
+     */
+    default boolean appliesBlocks() {
+        return true;
+    }
+
     /**
      * Make changes to the block here<br> - e.g., block.setId(...)<br> - Note: Performance is
      * critical here<br>
@@ -3,6 +3,7 @@
 import com.fastasyncworldedit.core.extent.processor.heightmap.HeightMapType;
 import com.fastasyncworldedit.core.nbt.FaweCompoundTag;
 import com.sk89q.jnbt.CompoundTag;
+import com.sk89q.worldedit.entity.BaseEntity;
 import com.sk89q.worldedit.entity.Entity;
 import com.sk89q.worldedit.extent.InputExtent;
 import com.sk89q.worldedit.math.BlockVector3;
@@ -11,6 +12,10 @@
 import com.sk89q.worldedit.world.block.BlockState;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Future;
@@ -77,6 +82,36 @@ default CompoundTag getTile(int x, int y, int z) {
      */
     Set<Entity> getFullEntities();
 
+    /**
+     * Get the entities in the chunk as "full" entities by their uuid, to look up many entities of the chunk at once.
+     *
+     * @return the entities by uuid
+     * @since TODO
+     */
+    default Map<UUID, Entity> getFullEntitiesByUuid() {
+        Map<UUID, Entity> entities = new HashMap<>();
+        for (Entity entity : getFullEntities()) {
+            BaseEntity state = entity.getState();
+            if (state != null && state.getUUID() != null) {
+                entities.put(state.getUUID(), entity);
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * Capture the data of all entities in the chunk in one batch. Implementations backed by a world read all entities in a
+     * single pass on the thread owning the chunk, rather than once per entity. The returned tags are detached from the world,
+     * so converting them (see {@link FaweCompoundTag#linTag()}) may be done from any thread.
+     *
+     * @return the captured entity tags
+     * @see com.fastasyncworldedit.core.entity.CapturedEntity
+     * @since TODO
+     */
+    default Collection<FaweCompoundTag> captureEntities() {
+        return List.copyOf(entities());
+    }
+
     boolean isCreateCopy();
 
     /**
@@ -36,6 +36,26 @@ default boolean setBiome(BlockVector3 position, BiomeType biome) {
 
     void setBlocks(int layer, char[] data);
 
+    /**
+     * Set the biomes of a whole section at once.
+     *
+     * @param layer  the section layer
+     * @param biomes 64 biomes indexed by {@code y << 4 | z << 2 | x} in 4x4x4 cells. Null entries are left unchanged
+     * @since TODO
+     */
+    default void setBiomes(int layer, BiomeType[] biomes) {
+        int index = 0;
+        for (int y = 0; y < 16; y += 4) {
+            for (int z = 0; z < 16; z += 4) {
+                for (int x = 0; x < 16; x += 4, index++) {
+                    if (biomes[index] != null) {
+                        setBiome(x, (layer << 4) + y, z, biomes[index]);
+                    }
+                }
+            }
+        }
+    }
+
     boolean isEmpty();
 
     @Override
@@ -185,7 +185,9 @@ default ChunkFilterBlock apply(
                 holder.setWrapper(chunk);
             }
         }
-        if (newChunk != null) {
+        if (newChunk != null && !filter.appliesBlocks()) {
+            filter.finishChunk(newChunk);
+        } else if (newChunk != null) {
             if (block == null) {
                 if (SimdSupport.useVectorApi() && filter instanceof VectorizedFilter) {
                     block = new VectorizedCharFilterBlock(this);
@@ -0,0 +1,195 @@
+package com.fastasyncworldedit.core.queue.implementation;
+
+import com.fastasyncworldedit.core.configuration.Settings;
+import com.fastasyncworldedit.core.queue.Pool;
+import com.google.common.collect.MapMaker;
+import com.sk89q.worldedit.internal.util.LogManagerCompat;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.ref.Cleaner;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Pool} keeping at most a fixed number of idle objects. Objects offered whilst the pool is full are dropped and left
+ * to the garbage collector.
+ * <p>
+ * If {@link Settings.QUEUE#POOL_LEAK_DETECTION} is enabled, every object obtained from the pool is tracked: releasing an
+ * object twice is refused and logged, and objects that are garbage collected without having been released are logged with the
+ * stack trace of where they were obtained.
+ *
+ * @param <T> pooled type
+ * @since TODO
+ */
+public class BoundedPool<T> implements Pool<T> {
+
+    private static final Logger LOGGER = LogManagerCompat.getLogger();
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final String name;
+    private final Supplier<T> supplier;
+    private final int capacity;
+    private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder leaked = new LongAdder();
+    // Weak identity keys, so tracking does not keep leaked objects reachable
+    private final ConcurrentMap<T, Lease> leases;
+    // Registers the action run once a tracked object is garbage collected
+    private final BiConsumer<Object, Runnable> onCollected;
+
+    /**
+     * New pool, with leak detection as configured by {@link Settings.QUEUE#POOL_LEAK_DETECTION}.
+     *
+     * @param name     name of the pool, used for logging and statistics
+     * @param supplier creates new objects when the pool is empty
+     * @param capacity maximum number of idle objects kept
+     */
+    public BoundedPool(String name, Supplier<T> supplier, int capacity) {
+        this(name, supplier, capacity, Settings.settings().QUEUE.POOL_LEAK_DETECTION);
+    }
+
+    /**
+     * New pool.
+     *
+     * @param name          name of the pool, used for logging and statistics
+     * @param supplier      creates new objects when the pool is empty
+     * @param capacity      maximum number of idle objects kept
+     * @param leakDetection if obtained objects should be tracked to detect leaks and double releases
+     */
+    public BoundedPool(String name, Supplier<T> supplier, int capacity, boolean leakDetection) {
+        this(name, supplier, capacity, leakDetection, CLEANER::register);
+    }
+
+    BoundedPool(
+            String name, Supplier<T> supplier, int capacity, boolean leakDetection, BiConsumer<Object, Runnable> onCollected
+    ) {
+        this.name = name;
+        this.supplier = supplier;
+        this.capacity = Math.max(0, capacity);
+        this.leases = leakDetection ? new MapMaker().weakKeys().makeMap() : null;
+        this.onCollected = onCollected;
+    }
+
+    @Override
+    public T poll() {
+        T result = idle.poll();
+        if (result != null) {
+            idleCount.decrementAndGet();
+            hits.increment();
+        } else {
+            misses.increment();
+            result = supplier.get();
+        }
+        if (leases != null) {
+            leases.computeIfAbsent(result, this::track).acquire();
+        }
+        return result;
+    }
+
+    @Override
+    public boolean offer(T recycle) {
+        if (leases != null) {
+            Lease lease = leases.get(recycle);
+            if (lease == null || !lease.release()) {
+                LOGGER.warn("Pooled {} released twice or not obtained from the pool (generation {})", name,
+                        lease == null ? -1 : lease.generation, new IllegalStateException("Released here")
+                );
+                return false;
+            }
+        }
+        if (idleCount.incrementAndGet() > capacity) {
+            idleCount.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        idle.offer(recycle);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        while (idle.poll() != null) {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Get a snapshot of the usage counters of this pool.
+     *
+     * @return pool statistics
+     */
+    public Statistics getStatistics() {
+        return new Statistics(name, hits.sum(), misses.sum(), dropped.sum(), leaked.sum(), idleCount.get(), capacity);
+    }
+
+    private Lease track(T object) {
+        Lease lease = new Lease();
+        // The cleanup action must not reference the object itself
+        onCollected.accept(object, () -> {
+            if (lease.inUse) {
+                leaked.increment();
+                LOGGER.warn("Pooled {} was garbage collected without being released (generation {})", name,
+                        lease.generation, lease.site
+                );
+            }
+        });
+        return lease;
+    }
+
+    private static final class Lease {
+
+        private volatile boolean inUse;
+        private volatile int generation;
+        private volatile Throwable site;
+
+        private synchronized void acquire() {
+            generation++;
+            inUse = true;
+            site = new Throwable("Obtained here");
+        }
+
+        private synchronized boolean release() {
+            if (!inUse) {
+                return false;
+            }
+            inUse = false;
+            site = null;
+            return true;
+        }
+
+    }
+
+    /**
+     * Usage counters of a pool.
+     *
+     * @param name     name of the pool
+     * @param hits     objects obtained from the pool that were reused
+     * @param misses   objects obtained from the pool that had to be created
+     * @param dropped  objects released whilst the pool was full
+     * @param leaked   objects garbage collected without being released, only counted with leak detection enabled
+     * @param idle     idle objects currently held by the pool
+     * @param capacity maximum number of idle objects held by the pool
+     */
+    public record Statistics(String name, long hits, long misses, long dropped, long leaked, int idle, int capacity) {
+
+        /**
+         * Get the fraction of objects obtained from the pool that were reused.
+         *
+         * @return hit rate between 0 and 1, or 0 if nothing has been obtained from the pool
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+    }
+
+}
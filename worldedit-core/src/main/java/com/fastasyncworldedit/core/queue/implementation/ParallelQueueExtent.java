@@ -15,6 +15,7 @@
 import com.fastasyncworldedit.core.internal.exception.FaweException;
 import com.fastasyncworldedit.core.internal.simd.SimdSupport;
 import com.fastasyncworldedit.core.internal.simd.VectorizedFilter;
+import com.fastasyncworldedit.core.math.ChunkOrder;
 import com.fastasyncworldedit.core.queue.Filter;
 import com.fastasyncworldedit.core.queue.IQueueChunk;
 import com.fastasyncworldedit.core.queue.IQueueExtent;
@@ -217,7 +218,7 @@ public int setBlocks(Set<BlockVector3> vset, Pattern pattern) {
             return this.changes;
         }
         // TODO optimize parallel
-        for (BlockVector3 blockVector3 : vset) {
+        for (BlockVector3 blockVector3 : ChunkOrder.of(vset)) {
             if (pattern.apply(this, blockVector3, blockVector3)) {
                 this.changes++;
             }
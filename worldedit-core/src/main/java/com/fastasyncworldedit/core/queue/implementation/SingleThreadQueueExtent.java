@@ -17,6 +17,7 @@
 import com.fastasyncworldedit.core.queue.implementation.blocks.CharSetBlocks;
 import com.fastasyncworldedit.core.queue.implementation.chunk.ChunkHolder;
 import com.fastasyncworldedit.core.queue.implementation.chunk.NullChunk;
+import com.fastasyncworldedit.core.queue.implementation.preloader.ChunkPreloadScheduler;
 import com.fastasyncworldedit.core.util.MathMan;
 import com.fastasyncworldedit.core.util.MemUtil;
 import com.fastasyncworldedit.core.wrappers.WorldWrapper;
@@ -24,19 +25,21 @@
 import com.sk89q.worldedit.EditSession;
 import com.sk89q.worldedit.extent.Extent;
 import com.sk89q.worldedit.internal.util.LogManagerCompat;
-import com.sk89q.worldedit.math.BlockVector2;
-import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.regions.Region;
 import com.sk89q.worldedit.util.SideEffectSet;
 import com.sk89q.worldedit.world.World;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -49,12 +52,16 @@
 public class SingleThreadQueueExtent extends ExtentBatchProcessorHolder implements IQueueExtent<IQueueChunk> {
 
     private static final Logger LOGGER = LogManagerCompat.getLogger();
+    private static final int NEAR_CHUNKS = 16;
 
     // Chunks currently being queued / worked on
     private final Long2ObjectLinkedOpenHashMap<IQueueChunk<?>> chunks = new Long2ObjectLinkedOpenHashMap<>();
     private final ConcurrentLinkedQueue<Future<?>> submissions = new ConcurrentLinkedQueue<>();
     private final ReentrantLock getChunkLock = new ReentrantLock();
     private final AtomicReference<IQueueChunk> lastChunk = new AtomicReference<>();
+    // Chunks of any 4x4 chunk area, by the low two bits of their coordinates, so filters alternating between neighbouring
+    // chunks find them without the map
+    private final AtomicReferenceArray<IQueueChunk> nearChunks = new AtomicReferenceArray<>(NEAR_CHUNKS);
     private World world = null;
     private int minY = 0;
     private int maxY = 255;
@@ -72,6 +79,10 @@ public class SingleThreadQueueExtent extends ExtentBatchProcessorHolder implemen
     private int exceptionCount = 0;
     private SideEffectSet sideEffectSet = SideEffectSet.defaults();
     private int targetSize = Settings.settings().QUEUE.TARGET_SIZE;
+    private ChunkPreloadScheduler preloader;
+    // Submitted chunk holders (and the generation they were submitted with) to release back to the pool once flushed
+    private final List<ChunkHolder<?>> retired = new ArrayList<>();
+    private final IntArrayList retiredGenerations = new IntArrayList();
 
     public SingleThreadQueueExtent() {
     }
@@ -162,8 +173,12 @@ protected synchronized void reset() {
             return;
         }
         getChunkLock.lock();
-        this.lastChunk.set(null);
+        clearCachedChunks();
         try {
+            // Chunks never submitted (e.g. a cancelled edit) go back to the pool, so they are not reported as leaked
+            for (IQueueChunk<?> chunk : this.chunks.values()) {
+                chunk.recycle();
+            }
             this.chunks.clear();
         } finally {
             getChunkLock.unlock();
@@ -174,8 +189,13 @@ protected synchronized void reset() {
         this.setProcessor(EmptyBatchProcessor.getInstance());
         this.setPostProcessor(EmptyBatchProcessor.getInstance());
         this.world = null;
+        if (this.preloader != null) {
+            this.preloader.cancel();
+            this.preloader = null;
+        }
         this.faweExceptionReasonsUsed = new boolean[FaweException.Type.values().length];
         this.targetSize = Settings.settings().QUEUE.TARGET_SIZE;
+        releaseRetired();
     }
 
     /**
@@ -222,7 +242,7 @@ public boolean isEmpty() {
 
     @Override
     public <V extends Future<V>> V submit(IQueueChunk chunk) {
-        this.lastChunk.compareAndExchange(chunk, null);
+        uncacheChunk(chunk);
         final long index = MathMan.pairInt(chunk.getX(), chunk.getZ());
         getChunkLock.lock();
         chunks.remove(index, chunk);
@@ -236,6 +256,7 @@ public <V extends Future<V>> V submit(IQueueChunk chunk) {
      * Submit without first checking that it has been removed from the chunk map
      */
     private <V extends Future<V>> V submitUnchecked(IQueueChunk chunk) {
+        int generation = retire(chunk);
         if (chunk.isEmpty()) {
             if (chunk instanceof ChunkHolder<?> holder) {
                 long age = holder.initAge();
@@ -248,6 +269,10 @@ private <V extends Future<V>> V submitUnchecked(IQueueChunk chunk) {
                 }
             }
             if (chunk.isEmpty()) {
+                if (generation >= 0) {
+                    // Never called, so no submission to wait for
+                    ((ChunkHolder<?>) chunk).releaseHold(generation);
+                }
                 Future result = Futures.immediateFuture(null);
                 return (V) result;
             }
@@ -267,6 +292,37 @@ private <V extends Future<V>> V submitUnchecked(IQueueChunk chunk) {
         return (V) Fawe.instance().getQueueHandler().submit(chunk);
     }
 
+    /**
+     * Retire a chunk holder handed to its submission, so it can be returned to the pool once this queue is flushed.
+     *
+     * @return generation the holder was retired with, or -1 if it is not pooled
+     */
+    private int retire(IQueueChunk chunk) {
+        if (!(chunk instanceof ChunkHolder<?> holder)) {
+            return -1;
+        }
+        synchronized (retired) {
+            // Bound the number of holders kept reachable until the next flush
+            if (retired.size() >= Settings.settings().QUEUE.POOL_CAPACITY) {
+                return -1;
+            }
+            int generation = holder.retire();
+            retired.add(holder);
+            retiredGenerations.add(generation);
+            return generation;
+        }
+    }
+
+    private void releaseRetired() {
+        synchronized (retired) {
+            for (int i = 0; i < retired.size(); i++) {
+                retired.get(i).releaseHold(retiredGenerations.getInt(i));
+            }
+            retired.clear();
+            retiredGenerations.clear();
+        }
+    }
+
     @Override
     public <V extends Future<V>> V submitTaskUnchecked(Callable<V> callable) {
         V future = (V) Fawe.instance().getQueueHandler().submitToBlocking(callable);
@@ -280,7 +336,7 @@ public synchronized boolean trim(boolean aggressive) {
         cacheSet.trim(aggressive);
         LOGGER.info("trim");
         if (Thread.currentThread() == currentThread) {
-            lastChunk.set(null);
+            clearCachedChunks();
             return chunks.isEmpty();
         }
         if (!submissions.isEmpty()) {
@@ -316,12 +372,38 @@ public IQueueChunk wrap(IQueueChunk chunk) {
         return chunk;
     }
 
+    private static int nearIndex(int chunkX, int chunkZ) {
+        return (chunkX & 3) | (chunkZ & 3) << 2;
+    }
+
+    private void cacheChunk(IQueueChunk chunk) {
+        this.lastChunk.set(chunk);
+        this.nearChunks.set(nearIndex(chunk.getX(), chunk.getZ()), chunk);
+    }
+
+    private void uncacheChunk(IQueueChunk chunk) {
+        this.lastChunk.compareAndExchange(chunk, null);
+        this.nearChunks.compareAndExchange(nearIndex(chunk.getX(), chunk.getZ()), chunk, null);
+    }
+
+    private void clearCachedChunks() {
+        this.lastChunk.set(null);
+        for (int i = 0; i < NEAR_CHUNKS; i++) {
+            this.nearChunks.set(i, null);
+        }
+    }
+
     @Override
     public final IQueueChunk getOrCreateChunk(int x, int z) {
         final IQueueChunk lastChunk = this.lastChunk.get();
         if (lastChunk != null && lastChunk.getX() == x && lastChunk.getZ() == z) {
             return lastChunk;
         }
+        final IQueueChunk nearChunk = this.nearChunks.get(nearIndex(x, z));
+        if (nearChunk != null && nearChunk.getX() == x && nearChunk.getZ() == z) {
+            this.lastChunk.set(nearChunk);
+            return nearChunk;
+        }
         final long pair = MathMan.pairInt(x, z);
         if (!processGet(x, z) || (Settings.settings().REGION_RESTRICTIONS_OPTIONS.RESTRICT_TO_SAFE_RANGE
                 && (x > 1875000 || z > 1875000 || x < -1875000 || z < -1875000))) {
@@ -332,7 +414,7 @@ public final IQueueChunk getOrCreateChunk(int x, int z) {
         try {
             IQueueChunk chunk = chunks.get(pair);
             if (chunk != null) {
-                this.lastChunk.set(chunk);
+                cacheChunk(chunk);
                 return chunk;
             }
             final int size = chunks.size();
@@ -343,7 +425,7 @@ public final IQueueChunk getOrCreateChunk(int x, int z) {
             int targetSize = lowMem ? Settings.settings().QUEUE.PARALLEL_THREADS + 8 : this.targetSize;
             if (enabledQueue && size > targetSize && (lowMem || Fawe.instance().getQueueHandler().isUnderutilized())) {
                 IQueueChunk toSubmit = chunks.removeFirst();
-                this.lastChunk.compareAndExchange(toSubmit, null);
+                uncacheChunk(toSubmit);
                 final Future future = submitUnchecked(toSubmit);
                 if (future != null && !future.isDone()) {
                     pollSubmissions(targetSize, lowMem);
@@ -352,9 +434,12 @@ public final IQueueChunk getOrCreateChunk(int x, int z) {
             }
             chunk = poolOrCreate(x, z);
             chunk = wrap(chunk);
+            if (preloader != null) {
+                preloader.advance(x, z);
+            }
 
             chunks.put(pair, chunk);
-            this.lastChunk.set(chunk);
+            cacheChunk(chunk);
 
             return chunk;
         } finally {
@@ -363,36 +448,44 @@ public final IQueueChunk getOrCreateChunk(int x, int z) {
     }
 
     /**
-     * Load a chunk in the world associated with this {@link SingleThreadQueueExtent} instance
+     * Load a chunk in the world associated with this {@link SingleThreadQueueExtent} instance. The load is scheduled
+     * asynchronously, ordered by region file and distance to the chunks currently being edited.
      *
      * @param cx chunk X coordinate
      * @param cz chunk Z coordinate
      */
     public void addChunkLoad(int cx, int cz) {
-        if (world == null) {
-            return;
+        ChunkPreloadScheduler preloader = getPreloader();
+        if (preloader != null) {
+            preloader.add(cx, cz);
         }
-        world.checkLoadedChunk(BlockVector3.at(cx << 4, 0, cz << 4));
     }
 
     /**
-     * Define a region to be "preloaded" to the number of chunks provided by {@link Settings.QUEUE#PRELOAD_CHUNK_COUNT}
+     * Define a region to be "preloaded". At most {@link Settings.QUEUE#PRELOAD_CHUNK_COUNT} chunks are loaded ahead of the
+     * chunks currently being edited.
      *
      * @param region region of chunks
      */
     public void preload(Region region) {
         if (Settings.settings().QUEUE.PRELOAD_CHUNK_COUNT > 1) {
-            int loadCount = 0;
-            for (BlockVector2 from : region.getChunks()) {
-                if (loadCount >= Settings.settings().QUEUE.PRELOAD_CHUNK_COUNT) {
-                    break;
-                }
-                loadCount++;
-                addChunkLoad(from.x(), from.z());
+            ChunkPreloadScheduler preloader = getPreloader();
+            if (preloader != null) {
+                preloader.addAll(region.getChunks());
             }
         }
     }
 
+    private ChunkPreloadScheduler getPreloader() {
+        if (world == null) {
+            return null;
+        }
+        if (preloader == null) {
+            preloader = new ChunkPreloadScheduler(world);
+        }
+        return preloader;
+    }
+
     @Override
     public ChunkHolder create(boolean isFull) {
         return ChunkHolder.newInstance();
@@ -484,7 +577,7 @@ public synchronized void flush() {
             if (MemUtil.isMemoryLimited()) {
                 while (!chunks.isEmpty()) {
                     IQueueChunk chunk = chunks.removeFirst();
-                    this.lastChunk.compareAndExchange(chunk, null);
+                    uncacheChunk(chunk);
                     final Future future = submitUnchecked(chunk);
                     if (future != null && !future.isDone()) {
                         pollSubmissions(Settings.settings().QUEUE.PARALLEL_THREADS, true);
@@ -494,7 +587,7 @@ public synchronized void flush() {
             } else {
                 while (!chunks.isEmpty()) {
                     IQueueChunk chunk = chunks.removeFirst();
-                    this.lastChunk.compareAndExchange(chunk, null);
+                    uncacheChunk(chunk);
                     final Future future = submitUnchecked(chunk);
                     if (future != null && !future.isDone()) {
                         submissions.add(future);
@@ -504,6 +597,7 @@ public synchronized void flush() {
             getChunkLock.unlock();
         }
         pollSubmissions(0, true);
+        releaseRetired();
     }
 
     @Override
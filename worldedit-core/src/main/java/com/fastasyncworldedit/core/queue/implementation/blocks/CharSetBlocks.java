@@ -87,7 +87,7 @@ public BiomeType getBiomeType(int x, int y, int z) {
         } else if (biomes[(layer = (y >> 4) - minSectionPosition)] == null) {
             return null;
         }
-        return biomes[layer][(y & 15) >> 2 | (z >> 2) << 2 | x >> 2];
+        return biomes[layer][(y & 12) << 2 | (z & 12) | (x & 12) >> 2];
     }
 
     @Override
@@ -129,6 +129,24 @@ public boolean setBiome(int x, int y, int z, BiomeType biome) {
         return true;
     }
 
+    @Override
+    public void setBiomes(int layer, BiomeType[] biomes) {
+        updateSectionIndexRange(layer);
+        int index = layer - minSectionPosition;
+        if (this.biomes == null) {
+            this.biomes = new BiomeType[sectionCount][];
+        }
+        BiomeType[] section = this.biomes[index];
+        if (section == null) {
+            this.biomes[index] = section = new BiomeType[64];
+        }
+        for (int i = 0; i < 64; i++) {
+            if (biomes[i] != null) {
+                section[i] = biomes[i];
+            }
+        }
+    }
+
     @Override
     public <T extends BlockStateHolder<T>> boolean setBlock(int x, int y, int z, T holder) {
         updateSectionIndexRange(y >> 4);
@@ -315,7 +333,7 @@ public int getBitMask() {
 
     @Override
     public boolean isEmpty() {
-        if (biomes != null
+        if (hasBiomes()
                 || light != null
                 || skyLight != null
                 || (entities != null && !entities.isEmpty())
@@ -345,6 +363,21 @@ public IChunkSet reset() {
         return null;
     }
 
+    @Override
+    public boolean hasBiomes() {
+        if (biomes == null) {
+            return false;
+        }
+        for (BiomeType[] section : biomes) {
+            if (section != null) {
+                return true;
+            }
+        }
+        // Every section was removed, e.g. as unchanged
+        biomes = null;
+        return false;
+    }
+
     @Override
     public boolean hasBiomes(int layer) {
         layer -= minSectionPosition;
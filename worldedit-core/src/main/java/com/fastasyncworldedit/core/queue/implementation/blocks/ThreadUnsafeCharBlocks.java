@@ -215,7 +215,7 @@ public BiomeType getBiomeType(int x, int y, int z) {
         } else if (biomes[(layer = (y >> 4) - minSectionPosition)] == null) {
             return null;
         }
-        return biomes[layer][(y & 15) >> 2 | (z >> 2) << 2 | x >> 2];
+        return biomes[layer][(y & 12) << 2 | (z & 12) | (x & 12) >> 2];
     }
 
     @Override
@@ -271,7 +271,7 @@ public void setBlocks(int layer, char[] data) {
 
     @Override
     public boolean isEmpty() {
-        if (biomes != null
+        if (hasBiomes()
                 || light != null
                 || skyLight != null
                 || (entities != null && !entities.isEmpty())
@@ -426,7 +426,17 @@ public BiomeType[][] getBiomes() {
 
     @Override
     public boolean hasBiomes() {
-        return IChunkSet.super.hasBiomes();
+        if (biomes == null) {
+            return false;
+        }
+        for (BiomeType[] section : biomes) {
+            if (section != null) {
+                return true;
+            }
+        }
+        // Every section was removed, e.g. as unchanged
+        biomes = null;
+        return false;
     }
 
     @Override
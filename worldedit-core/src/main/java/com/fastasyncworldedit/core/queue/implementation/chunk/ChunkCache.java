@@ -8,11 +8,16 @@
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
 
 import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class ChunkCache<T extends Trimable> implements IChunkCache<T> {
 
+    private static final int NEAR_CHUNKS = 16;
+
     protected final Long2ObjectLinkedOpenHashMap<WeakReference<T>> getCache;
     private final IChunkCache<T> delegate;
+    // Chunks of any 4x4 chunk area, by the low two bits of their coordinates, read without the lock
+    private final AtomicReferenceArray<ChunkReference<T>> nearChunks = new AtomicReferenceArray<>(NEAR_CHUNKS);
 
     public ChunkCache(IChunkCache<T> delegate) {
         this.getCache = new Long2ObjectLinkedOpenHashMap<>();
@@ -25,17 +30,34 @@ public ChunkCache(IChunkCache<T> delegate) {
      * @return cached IGetBlocks
      */
     @Override
-    public synchronized T get(int x, int z) {
+    public T get(int x, int z) {
         long pair = MathMan.pairInt(x, z);
+        int index = (x & 3) | (z & 3) << 2;
+        final ChunkReference<T> near = nearChunks.get(index);
+        if (near != null && near.pair == pair) {
+            final T blocks = near.get();
+            if (blocks != null) {
+                return blocks;
+            }
+        }
+        return getOrCreate(pair, index, x, z);
+    }
+
+    private synchronized T getOrCreate(long pair, int index, int x, int z) {
         final WeakReference<T> ref = getCache.get(pair);
         if (ref != null) {
             final T blocks = ref.get();
             if (blocks != null) {
+                if (ref instanceof ChunkReference<T> chunkRef) {
+                    nearChunks.set(index, chunkRef);
+                }
                 return blocks;
             }
         }
         final T blocks = newChunk(x, z);
-        getCache.put(pair, new WeakReference<>(blocks));
+        final ChunkReference<T> chunkRef = new ChunkReference<>(blocks, pair);
+        getCache.put(pair, chunkRef);
+        nearChunks.set(index, chunkRef);
         return blocks;
     }
 
@@ -69,4 +91,15 @@ public synchronized boolean trim(boolean aggressive) {
         return result;
     }
 
+    private static final class ChunkReference<T> extends WeakReference<T> {
+
+        private final long pair;
+
+        private ChunkReference(T referent, long pair) {
+            super(referent);
+            this.pair = pair;
+        }
+
+    }
+
 }
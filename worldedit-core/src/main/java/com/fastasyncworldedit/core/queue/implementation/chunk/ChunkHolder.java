@@ -1,5 +1,7 @@
 package com.fastasyncworldedit.core.queue.implementation.chunk;
 
+import com.fastasyncworldedit.core.FaweCache;
+import com.fastasyncworldedit.core.configuration.Settings;
 import com.fastasyncworldedit.core.extent.filter.block.ChunkFilterBlock;
 import com.fastasyncworldedit.core.extent.processor.EmptyBatchProcessor;
 import com.fastasyncworldedit.core.extent.processor.heightmap.HeightMapType;
@@ -10,6 +12,8 @@
 import com.fastasyncworldedit.core.queue.IChunkSet;
 import com.fastasyncworldedit.core.queue.IQueueChunk;
 import com.fastasyncworldedit.core.queue.IQueueExtent;
+import com.fastasyncworldedit.core.queue.Pool;
+import com.fastasyncworldedit.core.queue.implementation.blocks.NullChunkGet;
 import com.fastasyncworldedit.core.util.MemUtil;
 import com.fastasyncworldedit.core.util.task.FaweThreadUtil;
 import com.sk89q.worldedit.entity.Entity;
@@ -29,7 +33,6 @@
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Future;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * An abstract {@link IChunk} class that implements basic get/set blocks.
@@ -39,8 +42,19 @@
 
     private static final Logger LOGGER = LogManagerCompat.getLogger();
 
+    private static final Pool<ChunkHolder> POOL = FaweCache.INSTANCE.registerPool(
+            ChunkHolder.class,
+            ChunkHolder::new,
+            Settings.settings().QUEUE.POOL && Settings.settings().QUEUE.POOL_CHUNK_HOLDERS
+                    ? Settings.settings().QUEUE.POOL_CAPACITY : 0
+    );
+
     public static ChunkHolder newInstance() {
-        return new ChunkHolder();
+        ChunkHolder holder = POOL.poll();
+        synchronized (holder) {
+            holder.released = false;
+        }
+        return holder;
     }
 
     private volatile IChunkGet chunkExisting; // The existing chunk (e.g. a clipboard, or the world, before changes)
@@ -56,6 +70,11 @@ public static ChunkHolder newInstance() {
     private long initTime = -1L;
     private SideEffectSet sideEffectSet;
     private WrapperChunk<?> parentWrapper = null;
+    // Incremented each time this holder is returned to the pool
+    private volatile int generation;
+    // Outstanding releases (submission completed, owning queue flushed) before this holder may be returned to the pool
+    private int holds;
+    private volatile boolean released;
 
     private ChunkHolder() {
         this.delegate = NULL;
@@ -85,12 +104,106 @@ public void invalidateWrapper() {
         }
     }
 
-    private static final AtomicBoolean recycleWarning = new AtomicBoolean(false);
-
+    /**
+     * Return this holder to the pool if it was discarded without being submitted. Holders handed to a submission with
+     * {@link #retire()} are returned by {@link #releaseHold(int)} instead, so this does nothing for them.
+     */
     @Override
-    public void recycle() {
-        if (!recycleWarning.getAndSet(true)) {
-            LOGGER.warn("ChunkHolder should not be recycled.", new Exception());
+    public synchronized void recycle() {
+        if (!released && holds == 0) {
+            release();
+        }
+    }
+
+    /**
+     * Get the generation of this holder. The generation changes each time the holder is returned to the pool, so a reference
+     * kept across a submission may be checked against the generation seen when it was obtained.
+     *
+     * @return current generation
+     * @since TODO
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Check this holder has not been returned to the pool since the given generation was obtained.
+     *
+     * @param generation generation returned by {@link #getGeneration()}
+     * @throws IllegalStateException if the holder has been released since
+     * @since TODO
+     */
+    public void checkGeneration(int generation) {
+        if (generation != this.generation) {
+            throw new IllegalStateException("ChunkHolder used after being released (generation " + generation + ", now "
+                    + this.generation + ")");
+        }
+        checkReleased();
+    }
+
+    /**
+     * Mark this holder as handed to its submission by the owning queue. Once the submission has completed and the queue has
+     * called {@link #releaseHold(int)}, the holder and its chunk set are returned to their pools.
+     *
+     * @return generation to pass to {@link #releaseHold(int)}
+     * @since TODO
+     */
+    public synchronized int retire() {
+        holds = 2;
+        return generation;
+    }
+
+    /**
+     * Release one hold placed by {@link #retire()}. Does nothing if the holder has since been released.
+     *
+     * @param generation generation returned by {@link #retire()}
+     * @since TODO
+     */
+    public synchronized void releaseHold(int generation) {
+        if (generation != this.generation || holds == 0) {
+            return;
+        }
+        if (--holds == 0) {
+            release();
+        }
+    }
+
+    private synchronized void onCallComplete(int generation) {
+        if (generation != this.generation || holds == 0) {
+            return;
+        }
+        // The submission works on a copy, so the chunk set can be reused straight away
+        if (chunkSet != null) {
+            chunkSet.recycle();
+            chunkSet = null;
+            delegate = chunkExisting != null ? GET : NULL;
+        }
+        releaseHold(generation);
+    }
+
+    private void release() {
+        if (chunkSet != null) {
+            chunkSet.recycle();
+            chunkSet = null;
+        }
+        chunkExisting = null;
+        delegate = NULL;
+        extent = null;
+        parentWrapper = null;
+        fastmode = false;
+        bitMask = -1;
+        isInit = false;
+        createCopy = false;
+        initTime = -1L;
+        sideEffectSet = null;
+        released = true;
+        generation++;
+        POOL.offer(this);
+    }
+
+    private void checkReleased() {
+        if (released) {
+            throw new IllegalStateException("ChunkHolder used after being released (generation " + generation + ")");
         }
     }
 
@@ -138,6 +251,11 @@ public void setBlocks(int layer, char[] data) {
         delegate.set(this).setBlocks(layer, data);
     }
 
+    @Override
+    public void setBiomes(int layer, BiomeType[] biomes) {
+        delegate.set(this).setBiomes(layer, biomes);
+    }
+
     @Override
     public char[] load(int layer) {
         return getOrCreateGet().load(layer);
@@ -146,6 +264,7 @@ public char[] load(int layer) {
     @Nullable
     @Override
     public char[] loadIfPresent(final int layer) {
+        checkReleased();
         if (chunkExisting == null) {
             return null;
         }
@@ -159,10 +278,12 @@ public boolean isFastMode() {
 
     @Override
     public void setFastMode(boolean fastmode) {
+        checkReleased();
         this.fastmode = fastmode;
     }
 
     public void setBitMask(int bitMask) {
+        checkReleased();
         this.bitMask = bitMask;
     }
 
@@ -173,11 +294,13 @@ public int getBitMask() {
     @Override
     public boolean hasBiomes(final int layer) {
         // No need to go through delegate. hasBiomes is SET only.
+        checkReleased();
         return chunkSet != null && chunkSet.hasBiomes(layer);
     }
 
     @Override
     public void setSideEffectSet(SideEffectSet sideEffectSet) {
+        checkReleased();
         this.sideEffectSet = sideEffectSet;
     }
 
@@ -192,6 +315,7 @@ public boolean isInit() {
 
     @Override
     public int setCreateCopy(boolean createCopy) {
+        checkReleased();
         this.createCopy = createCopy;
         return -1;
     }
@@ -905,11 +1029,13 @@ public void setHeightmapToGet(ChunkHolder chunk, HeightMapType type, int[] data)
 
     @Override
     public boolean hasSection(int layer) {
+        checkReleased();
         return chunkExisting != null && chunkExisting.hasSection(layer);
     }
 
     @Override
     public boolean hasNonEmptySection(final int layer) {
+        checkReleased();
         return chunkExisting != null && chunkExisting.hasNonEmptySection(layer);
     }
 
@@ -918,7 +1044,11 @@ public synchronized void filterBlocks(Filter filter, ChunkFilterBlock block, @Nu
         final IChunkGet get = getOrCreateGet();
         final IChunkSet set = getOrCreateSet();
         if (parentWrapper == null) {
-            parentWrapper = new WrapperChunk<>(this, () -> this.extent.getOrCreateChunk(getX(), getZ()));
+            // Capture the owner, the holder may be reused by another queue once released
+            final IQueueExtent<?> owner = this.extent;
+            final int x = chunkX;
+            final int z = chunkZ;
+            parentWrapper = new WrapperChunk<>(this, () -> owner.getOrCreateChunk(x, z));
         } else if (parentWrapper.get() != this) {
             throw new IllegalStateException("Parent WrapperChunk is not storing this chunk!?");
         }
@@ -931,6 +1061,7 @@ public synchronized void filterBlocks(Filter filter, ChunkFilterBlock block, @Nu
 
     @Override
     public synchronized boolean trim(boolean aggressive) {
+        checkReleased();
         // always trim GET. It could be cached elsewhere.
         chunkExisting.trim(aggressive);
         if (chunkSet != null) {
@@ -956,6 +1087,7 @@ public synchronized boolean trim(boolean aggressive) {
 
     @Override
     public synchronized boolean trim(boolean aggressive, int layer) {
+        checkReleased();
         chunkExisting.trim(aggressive, layer);
         return this.trim(aggressive);
     }
@@ -967,6 +1099,7 @@ public int getSectionCount() {
 
     @Override
     public boolean isEmpty() {
+        checkReleased();
         return chunkSet == null || chunkSet.isEmpty();
     }
 
@@ -979,6 +1112,7 @@ public boolean tile(final int x, final int y, final int z, final FaweCompoundTag
      * Get or create the existing part of this chunk.
      */
     public final IChunkGet getOrCreateGet() {
+        checkReleased();
         if (chunkExisting == null) {
             chunkExisting = newWrappedGet();
             chunkExisting.trim(MemUtil.isMemoryLimited());
@@ -990,6 +1124,7 @@ public final IChunkGet getOrCreateGet() {
      * Get or create the settable part of this chunk.
      */
     public final IChunkSet getOrCreateSet() {
+        checkReleased();
         if (chunkSet == null) {
             chunkSet = newWrappedSet();
         }
@@ -1024,6 +1159,7 @@ private IChunkGet newWrappedGet() {
 
     @Override
     public synchronized <V extends IChunk> void init(IQueueExtent<V> extent, int chunkX, int chunkZ) {
+        checkReleased();
         this.initTime = System.currentTimeMillis();
         this.extent = extent;
         this.chunkX = chunkX;
@@ -1046,15 +1182,14 @@ public synchronized <V extends IChunk> void init(IQueueExtent<V> extent, int chu
 
     @Override
     public synchronized T call() {
+        checkReleased();
         if (chunkSet != null && !chunkSet.isEmpty()) {
             IChunkSet copy = chunkSet.createCopy();
+            final int generation = this.generation;
 
-            return this.call(
-                    extent, copy, () -> {
-                        // Do nothing
-                    }
-            );
+            return this.call(extent, copy, () -> onCallComplete(generation));
         }
+        releaseHold(generation);
         return null;
     }
 
@@ -1064,6 +1199,7 @@ public synchronized T call() {
 
     @Override
     public <U extends Future<U>> U call(IQueueExtent<?> owner, IChunkSet set, Runnable finalize) {
+        checkReleased();
         if (set != null) {
             if (parentWrapper != null) {
                 if (!parentWrapper.invalidate(this)) {
@@ -1078,6 +1214,11 @@ public <U extends Future<U>> U call(IQueueExtent<?> owner, IChunkSet set, Runnab
                 final int copyKey = get.setCreateCopy(postProcess);
                 // We should always be performing processing/postprocessing with this instance (i.e. not with this.parentWrapper)
                 final IChunkSet iChunkSet = getExtent().processSet(this, get, set);
+                // A processor removed every change, nothing needs to be written, relit or sent
+                if (iChunkSet == null) {
+                    finalize.run();
+                    return null;
+                }
                 Runnable finalizer;
                 if (postProcess) {
                     finalizer = () -> {
@@ -1087,7 +1228,12 @@ public <U extends Future<U>> U call(IQueueExtent<?> owner, IChunkSet set, Runnab
                 } else {
                     finalizer = finalize;
                 }
-                return get.call(extent, set, finalizer);
+                U result = get.call(extent, set, finalizer);
+                // A null get has nothing to write and never runs the finalizer, the holder must still be released
+                if (get instanceof NullChunkGet) {
+                    finalize.run();
+                }
+                return result;
             } finally {
                 get.unlockCall();
                 untrackExtent();
@@ -1165,6 +1311,16 @@ public Set<Entity> getFullEntities() {
         return delegate.get(this).getFullEntities();
     }
 
+    @Override
+    public Collection<FaweCompoundTag> captureEntities() {
+        return delegate.get(this).captureEntities();
+    }
+
+    @Override
+    public Map<UUID, Entity> getFullEntitiesByUuid() {
+        return delegate.get(this).getFullEntitiesByUuid();
+    }
+
     @Override
     public BaseBlock getFullBlock(int x, int y, int z) {
         return delegate.getFullBlock(this, x, y, z);
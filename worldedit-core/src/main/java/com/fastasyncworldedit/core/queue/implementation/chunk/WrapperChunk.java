@@ -49,6 +49,8 @@
 
     private final Supplier<T> supplier;
     private volatile T chunk;
+    // Generation of the wrapped ChunkHolder when it was wrapped, so a holder since returned to the pool is not used
+    private volatile int generation;
 
     /**
      * New instance.
@@ -58,17 +60,28 @@
      */
     public WrapperChunk(T initialValue, Supplier<T> supplier) {
         this.chunk = initialValue;
+        this.generation = generationOf(initialValue);
         this.supplier = supplier;
     }
 
+    private static int generationOf(IChunk chunk) {
+        return chunk instanceof ChunkHolder<?> holder ? holder.getGeneration() : 0;
+    }
+
+    private boolean isCurrent(T chunk) {
+        return !(chunk instanceof ChunkHolder<?> holder) || holder.getGeneration() == generation;
+    }
+
     private T getWrapped() {
         T c = this.chunk;
-        if (c != null) {
+        if (c != null && isCurrent(c)) {
             return c;
         }
         synchronized (this) {
-            if (this.chunk == null) {
-                this.chunk = supplier.get();
+            if (this.chunk == null || !isCurrent(this.chunk)) {
+                T supplied = supplier.get();
+                this.generation = generationOf(supplied);
+                this.chunk = supplied;
             }
             return this.chunk;
         }
@@ -108,7 +121,8 @@ boolean invalidate(ChunkHolder<?> expected) {
      */
     public void setWrapped(T chunk) {
         synchronized (this) {
-            this.chunk = Objects.requireNonNull(chunk);
+            this.generation = generationOf(Objects.requireNonNull(chunk));
+            this.chunk = chunk;
         }
     }
 
@@ -188,6 +202,11 @@ public void setBlocks(final int layer, final char[] data) {
         getWrapped().setBlocks(layer, data);
     }
 
+    @Override
+    public void setBiomes(final int layer, final BiomeType[] biomes) {
+        getWrapped().setBiomes(layer, biomes);
+    }
+
     @Override
     public boolean isEmpty() {
         return getWrapped().isEmpty();
@@ -532,6 +551,16 @@ public Set<Entity> getFullEntities() {
         return getWrapped().getFullEntities();
     }
 
+    @Override
+    public Collection<FaweCompoundTag> captureEntities() {
+        return getWrapped().captureEntities();
+    }
+
+    @Override
+    public Map<UUID, Entity> getFullEntitiesByUuid() {
+        return getWrapped().getFullEntitiesByUuid();
+    }
+
     @Override
     public boolean isCreateCopy() {
         return getWrapped().isCreateCopy();
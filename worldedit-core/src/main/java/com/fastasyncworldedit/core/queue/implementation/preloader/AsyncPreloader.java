@@ -12,7 +12,6 @@
 import com.sk89q.worldedit.WorldEdit;
 import com.sk89q.worldedit.extension.platform.Actor;
 import com.sk89q.worldedit.math.BlockVector2;
-import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.regions.Region;
 import com.sk89q.worldedit.world.World;
 
@@ -27,6 +26,7 @@
 public class AsyncPreloader implements Preloader, Runnable {
 
     private final ConcurrentHashMap<UUID, MutablePair<World, Set<BlockVector2>>> update;
+    private final ConcurrentHashMap<UUID, ChunkPreloadScheduler> loading = new ConcurrentHashMap<>();
     private final AtomicBoolean cancelled = new AtomicBoolean(false);
 
     public AsyncPreloader() {
@@ -40,6 +40,8 @@ public void cancel() {
         synchronized (update) {
             update.clear();
         }
+        loading.values().forEach(ChunkPreloadScheduler::cancel);
+        loading.clear();
     }
 
     @Override
@@ -52,6 +54,10 @@ private MutablePair<World, Set<BlockVector2>> cancelAndGet(@Nonnull Actor actor)
         if (existing != null) {
             existing.setValue(null);
         }
+        ChunkPreloadScheduler scheduler = loading.remove(actor.getUniqueId());
+        if (scheduler != null) {
+            scheduler.cancel();
+        }
         return existing;
     }
 
@@ -103,19 +109,16 @@ public void run() {
             MutablePair<World, Set<BlockVector2>> pair = entry.getValue();
             World world = pair.getKey();
             Set<BlockVector2> chunks = pair.getValue();
-            if (chunks != null) {
-                Iterator<BlockVector2> chunksIter = chunks.iterator();
-                while (chunksIter.hasNext() && pair.getValue() == chunks) { // Ensure the queued load is still valid
-                    BlockVector2 chunk = chunksIter.next();
-                    if (Settings.settings().REGION_RESTRICTIONS_OPTIONS.RESTRICT_TO_SAFE_RANGE) {
-                        int x = chunk.x();
-                        int z = chunk.z();
-                        // if any chunk coord is outside 30 million blocks
-                        if (x > 1875000 || z > 1875000 || x < -1875000 || z < -1875000) {
-                            continue;
-                        }
-                    }
-                    queueLoad(world, chunk);
+            if (chunks != null && world != null) {
+                // Loads are issued asynchronously in region file order, bounded by observed load latency
+                ChunkPreloadScheduler scheduler = new ChunkPreloadScheduler(world);
+                ChunkPreloadScheduler previous = loading.put(entry.getKey(), scheduler);
+                if (previous != null) {
+                    previous.cancel();
+                }
+                scheduler.addAll(chunks);
+                if (pair.getValue() != chunks) { // The queued load was invalidated whilst being scheduled
+                    scheduler.cancel();
                 }
             }
             plrIter.remove();
@@ -126,8 +129,4 @@ public void run() {
         TaskManager.taskManager().laterAsync(this, 20);
     }
 
-    private void queueLoad(World world, BlockVector2 chunk) {
-        world.checkLoadedChunk(BlockVector3.at(chunk.x() << 4, 0, chunk.z() << 4));
-    }
-
 }
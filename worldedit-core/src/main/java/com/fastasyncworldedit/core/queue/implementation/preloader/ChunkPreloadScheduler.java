@@ -0,0 +1,305 @@
+package com.fastasyncworldedit.core.queue.implementation.preloader;
+
+import com.fastasyncworldedit.core.configuration.Settings;
+import com.fastasyncworldedit.core.util.MathMan;
+import com.sk89q.worldedit.internal.util.LogManagerCompat;
+import com.sk89q.worldedit.math.BlockVector2;
+import com.sk89q.worldedit.world.World;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Schedules asynchronous chunk loads ahead of an edit.
+ * <p>
+ * Requested chunks are grouped by region file (32x32 chunks) and issued region by region, closest region to the edit front
+ * first and closest chunk to the edit front first within a region, so loads that hit the same region file are issued together.
+ * Two bounds apply:
+ * <ul>
+ *     <li>the look-ahead: chunks issued but not yet reached by the edit front, at most
+ *     {@link Settings.QUEUE#PRELOAD_CHUNK_COUNT}</li>
+ *     <li>the window: chunk loads in flight at once. The window grows while load latency stays close to the fastest observed
+ *     latency, and shrinks when it rises, so slow storage is not flooded with concurrent requests</li>
+ * </ul>
+ * Chunks requested in bulk are drawn from their iterator as the look-ahead frees up, so at most
+ * {@link Settings.QUEUE#PRELOAD_CHUNK_COUNT} pending chunks are held at once, whatever the size of the request.
+ *
+ * @since TODO
+ */
+public class ChunkPreloadScheduler {
+
+    private static final Logger LOGGER = LogManagerCompat.getLogger();
+
+    private static final int REGION_SHIFT = 5;
+    private static final double LATENCY_SMOOTHING = 0.125;
+    private static final double CONGESTED_LATENCY_FACTOR = 2;
+    private static final double BASELINE_DRIFT = 1.1;
+
+    private final World world;
+    private final int maxLookAhead;
+    private final int minWindow;
+    private final int maxWindow;
+
+    // Pending chunk loads, grouped by region file
+    private final Long2ObjectOpenHashMap<LongArrayList> pending = new Long2ObjectOpenHashMap<>();
+    // Every chunk ever requested, to avoid requesting a chunk twice
+    private final LongOpenHashSet requested = new LongOpenHashSet();
+    // Remaining chunks of the region currently being issued, sorted furthest-first
+    private LongArrayList current;
+    // Chunks requested in bulk and not yet drawn into pending
+    private final ArrayDeque<Iterator<BlockVector2>> sources = new ArrayDeque<>();
+    // Chunks in pending and current
+    private int pendingCount;
+
+    private int frontX;
+    private int frontZ;
+    private boolean hasFront;
+
+    private int window;
+    private int inFlight;
+    private int lookAhead;
+    private int completedSinceAdjust;
+    private double latencyAverage;
+    private double latencyBaseline = Double.POSITIVE_INFINITY;
+
+    private boolean pumping;
+    private boolean cancelled;
+
+    /**
+     * New scheduler loading chunks in the given world, with the look-ahead set by {@link Settings.QUEUE#PRELOAD_CHUNK_COUNT}.
+     *
+     * @param world world to load chunks in
+     */
+    public ChunkPreloadScheduler(World world) {
+        this(world, Settings.settings().QUEUE.PRELOAD_CHUNK_COUNT);
+    }
+
+    /**
+     * New scheduler loading chunks in the given world.
+     *
+     * @param world        world to load chunks in
+     * @param maxLookAhead maximum number of chunks loaded ahead of the edit front
+     */
+    public ChunkPreloadScheduler(World world, int maxLookAhead) {
+        this.world = world;
+        this.maxLookAhead = Math.max(1, maxLookAhead);
+        this.maxWindow = this.maxLookAhead;
+        this.minWindow = Math.min(this.maxWindow, Math.max(1, Settings.settings().QUEUE.PARALLEL_THREADS));
+        this.window = this.minWindow;
+    }
+
+    /**
+     * Request the given chunk to be loaded.
+     *
+     * @param chunkX chunk x coordinate
+     * @param chunkZ chunk z coordinate
+     */
+    public synchronized void add(int chunkX, int chunkZ) {
+        if (enqueue(chunkX, chunkZ)) {
+            pump();
+        }
+    }
+
+    /**
+     * Request the given chunks to be loaded.
+     *
+     * @param chunks chunks to load
+     */
+    public synchronized void addAll(Iterable<BlockVector2> chunks) {
+        if (cancelled) {
+            return;
+        }
+        sources.add(chunks.iterator());
+        pump();
+    }
+
+    /**
+     * Move the edit front to the given chunk. Chunks closest to the front are loaded first, and each advance frees one chunk of
+     * look-ahead.
+     *
+     * @param chunkX chunk x coordinate
+     * @param chunkZ chunk z coordinate
+     */
+    public synchronized void advance(int chunkX, int chunkZ) {
+        if (hasFront && frontX == chunkX && frontZ == chunkZ) {
+            return;
+        }
+        if (!hasFront) {
+            hasFront = true;
+        } else if (lookAhead > 0) {
+            lookAhead--;
+        }
+        frontX = chunkX;
+        frontZ = chunkZ;
+        pump();
+    }
+
+    /**
+     * Stop issuing chunk loads and forget all pending requests. Loads already in flight are not interrupted.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        pending.clear();
+        requested.clear();
+        sources.clear();
+        current = null;
+        pendingCount = 0;
+    }
+
+    /**
+     * Get the number of chunk loads currently allowed in flight at once.
+     *
+     * @return current window size
+     */
+    public synchronized int getWindow() {
+        return window;
+    }
+
+    /**
+     * Get the number of chunk loads that have been requested but not yet issued. Chunks of bulk requests are only counted
+     * once drawn, so this is at most the look-ahead plus the chunks requested one by one.
+     *
+     * @return pending chunk load count
+     */
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    private boolean enqueue(int chunkX, int chunkZ) {
+        if (cancelled) {
+            return false;
+        }
+        if (Settings.settings().REGION_RESTRICTIONS_OPTIONS.RESTRICT_TO_SAFE_RANGE
+                && (chunkX > 1875000 || chunkZ > 1875000 || chunkX < -1875000 || chunkZ < -1875000)) {
+            return false;
+        }
+        long pair = MathMan.pairInt(chunkX, chunkZ);
+        if (!requested.add(pair)) {
+            return false;
+        }
+        if (!hasFront) {
+            // The first requested chunk is where the edit starts
+            hasFront = true;
+            frontX = chunkX;
+            frontZ = chunkZ;
+        }
+        long region = MathMan.pairInt(chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT);
+        pending.computeIfAbsent(region, k -> new LongArrayList()).add(pair);
+        pendingCount++;
+        return true;
+    }
+
+    /**
+     * Draw chunks of bulk requests into pending until the look-ahead's worth of chunks is held.
+     */
+    private void refill() {
+        while (pendingCount < maxLookAhead && !sources.isEmpty()) {
+            Iterator<BlockVector2> source = sources.peek();
+            if (!source.hasNext()) {
+                sources.poll();
+                continue;
+            }
+            BlockVector2 chunk = source.next();
+            enqueue(chunk.x(), chunk.z());
+        }
+    }
+
+    private void pump() {
+        if (pumping) {
+            // Completed inline whilst issuing, the outer loop picks up the freed capacity
+            return;
+        }
+        pumping = true;
+        try {
+            while (!cancelled && inFlight < window && lookAhead < maxLookAhead) {
+                refill();
+                if (current == null || current.isEmpty()) {
+                    current = nextRegion();
+                    if (current == null) {
+                        return;
+                    }
+                }
+                pendingCount--;
+                issue(current.popLong());
+            }
+        } finally {
+            pumping = false;
+        }
+    }
+
+    /**
+     * Remove and return the pending region closest to the edit front, sorted so the chunk closest to the front is last.
+     */
+    private LongArrayList nextRegion() {
+        if (pending.isEmpty()) {
+            return null;
+        }
+        int frontRegionX = frontX >> REGION_SHIFT;
+        int frontRegionZ = frontZ >> REGION_SHIFT;
+        long best = 0;
+        long bestDistance = Long.MAX_VALUE;
+        ObjectIterator<Long2ObjectMap.Entry<LongArrayList>> iter = pending.long2ObjectEntrySet().fastIterator();
+        while (iter.hasNext()) {
+            long region = iter.next().getLongKey();
+            long distance = distanceSquared(MathMan.unpairIntX(region), MathMan.unpairIntY(region), frontRegionX, frontRegionZ);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = region;
+            }
+        }
+        LongArrayList chunks = pending.remove(best);
+        int fx = frontX;
+        int fz = frontZ;
+        chunks.sort((a, b) -> Long.compare(
+                distanceSquared(MathMan.unpairIntX(b), MathMan.unpairIntY(b), fx, fz),
+                distanceSquared(MathMan.unpairIntX(a), MathMan.unpairIntY(a), fx, fz)
+        ));
+        return chunks;
+    }
+
+    private void issue(long pair) {
+        int chunkX = MathMan.unpairIntX(pair);
+        int chunkZ = MathMan.unpairIntY(pair);
+        inFlight++;
+        lookAhead++;
+        long start = System.nanoTime();
+        try {
+            world.loadChunkAsync(chunkX, chunkZ).whenComplete((v, t) -> onLoaded(System.nanoTime() - start));
+        } catch (Throwable t) {
+            LOGGER.debug("Could not preload chunk {}, {}", chunkX, chunkZ, t);
+            inFlight--;
+            lookAhead--;
+        }
+    }
+
+    private synchronized void onLoaded(long nanos) {
+        inFlight--;
+        double latency = nanos / 1e6;
+        latencyAverage = latencyAverage == 0 ? latency : latencyAverage + (latency - latencyAverage) * LATENCY_SMOOTHING;
+        // Adjust at most once per window's worth of completed loads
+        if (++completedSinceAdjust >= window) {
+            completedSinceAdjust = 0;
+            if (latencyAverage > latencyBaseline * CONGESTED_LATENCY_FACTOR) {
+                window = Math.max(minWindow, window - (window >> 2));
+            } else {
+                window = Math.min(maxWindow, window + Math.max(1, window >> 3));
+            }
+            // The baseline drifts upwards so a lasting change in storage speed (e.g. cached to uncached) is adopted
+            latencyBaseline = Math.min(latencyBaseline * BASELINE_DRIFT, latencyAverage);
+        }
+        pump();
+    }
+
+    private static long distanceSquared(int x1, int z1, int x2, int z2) {
+        long dx = x1 - x2;
+        long dz = z1 - z2;
+        return dx * dx + dz * dz;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.fastasyncworldedit.core.regions;
+
+import com.sk89q.worldedit.regions.Region;
+
+/**
+ * Helpers to compute the positions of a 16 block x-row of a chunk contained by a region, as used by
+ * {@link Region#getRowSpans(int, int, int)}. A row is stored as a char where bit {@code x} is set if the block at
+ * {@code bx + x} is contained, so the contained spans of a row are its runs of set bits.
+ *
+ * @since TODO
+ */
+public final class RowSpans {
+
+    /**
+     * A row where every position is contained.
+     */
+    public static final char ALL = 0xFFFF;
+    /**
+     * A row where no position is contained.
+     */
+    public static final char NONE = 0;
+
+    private RowSpans() {
+    }
+
+    /**
+     * Get the row containing the positions from {@code fromX} to {@code toX} (inclusive).
+     *
+     * @param bx    the x coordinate of the first block of the row
+     * @param fromX the first contained x coordinate
+     * @param toX   the last contained x coordinate
+     * @return the row
+     */
+    public static char of(int bx, long fromX, long toX) {
+        long from = Math.max(fromX - bx, 0);
+        long to = Math.min(toX - bx, 15);
+        if (from > to) {
+            return NONE;
+        }
+        return (char) ((ALL << from) & (ALL >>> (15 - to)));
+    }
+
+    /**
+     * Get the row by testing every position of it.
+     *
+     * @param region the region
+     * @param bx     the x coordinate of the first block of the row
+     * @param y      the y coordinate of the row
+     * @param z      the z coordinate of the row
+     * @return the row
+     */
+    public static char scan(Region region, int bx, int y, int z) {
+        char row = NONE;
+        for (int x = 0; x < 16; x++) {
+            if (region.contains(bx + x, y, z)) {
+                row |= (char) (1 << x);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Get the row of a region whose rows are contiguous (e.g. a convex region), from an estimate of the contained x
+     * coordinates that is accurate to less than a block. Only the positions around the ends of the estimate are tested.
+     *
+     * @param region the region
+     * @param bx     the x coordinate of the first block of the row
+     * @param y      the y coordinate of the row
+     * @param z      the z coordinate of the row
+     * @param minX   the estimated minimum contained x coordinate, may be fractional
+     * @param maxX   the estimated maximum contained x coordinate, may be fractional
+     * @return the row
+     */
+    public static char convex(Region region, int bx, int y, int z, double minX, double maxX) {
+        if (Double.isNaN(minX) || Double.isNaN(maxX)) {
+            return NONE;
+        }
+        // Positions outside the estimate extended by a block are not contained
+        long from = (long) Math.max(bx, Math.floor(minX) - 1);
+        long to = (long) Math.min(bx + 15, Math.ceil(maxX) + 1);
+        while (from <= to && !region.contains((int) from, y, z)) {
+            from++;
+        }
+        while (to > from && !region.contains((int) to, y, z)) {
+            to--;
+        }
+        return of(bx, from, to);
+    }
+
+}
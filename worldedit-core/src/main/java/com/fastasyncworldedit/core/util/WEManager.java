@@ -14,19 +14,24 @@
 import com.sk89q.worldedit.internal.util.LogManagerCompat;
 import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.regions.Region;
-import com.sk89q.worldedit.util.Location;
 import com.sk89q.worldedit.util.formatting.text.TextComponent;
 import org.apache.logging.log4j.Logger;
 
+import javax.annotation.Nullable;
 import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class WEManager {
 
     private static final Logger LOGGER = LogManagerCompat.getLogger();
+    // How long an expired mask may still be used while it is refreshed asynchronously
+    private static final long STALE_GRACE_MILLIS = 2000;
     private static WEManager INSTANCE;
     /**
      * @deprecated Use {@link #weManager()} instead.
@@ -34,6 +39,7 @@ public class WEManager {
     @Deprecated(forRemoval = true, since = "2.0.0")
     public static WEManager IMP = weManager();
     private final ArrayDeque<FaweMaskManager> managers = new ArrayDeque<>();
+    private final Map<MaskKey, CachedMask> maskCache = new ConcurrentHashMap<>();
 
     /**
      * Get an instance of the WEManager.
@@ -90,6 +96,13 @@ public Region[] getMask(Player player) {
 
     /**
      * Get a player's mask.
+     * <p>
+     * Whitelists are cached per player, world and mask type for {@link Settings.REGION_RESTRICTIONS_OPTIONS#MASK_CACHE_SECONDS},
+     * as long as all of its masks are still {@link FaweMask#isValid(Player, FaweMaskManager.MaskType, boolean) valid}.
+     * Shortly after expiring, a mask is still returned while it is refreshed asynchronously, so an edit does not wait for the
+     * mask managers; later it is refreshed before being returned. A cached whitelist is only used while the player stands in
+     * one of its regions, or, if it is empty, in the chunk it was computed in. Blacklists are not cached, as new regions
+     * must be protected at once.
      *
      * @param player      Player to get mask of
      * @param type        Mask type; whether to check if the player is an owner of a member of the regions
@@ -100,82 +113,160 @@ public Region[] getMask(Player player, FaweMaskManager.MaskType type, final bool
         if (!Settings.settings().REGION_RESTRICTIONS || player.hasPermission("fawe.bypass.regions")) {
             return new Region[]{RegionWrapper.GLOBAL()};
         }
-        Location loc = player.getLocation();
-        String world = player.getWorld().getName();
-        if (!world.equals(player.getMeta("lastMaskWorld"))) {
-            player.deleteMeta("lastMaskWorld");
-            player.deleteMeta("lastMask");
+        if (!isWhitelist) {
+            return compute(player, type, false).regions;
         }
-        player.setMeta("lastMaskWorld", world);
-        Set<FaweMask> masks = player.getMeta("lastMask");
-        Set<Region> regions = new HashSet<>();
+        MaskKey key = new MaskKey(player.getUniqueId(), player.getWorld().getName(), type);
+        BlockVector3 pos = player.getLocation().toBlockPoint();
+        CachedMask cached = maskCache.get(key);
+        long age = cached == null ? 0 : cached.age();
+        if (cached != null && age <= cacheMillis() + STALE_GRACE_MILLIS && cached.covers(pos) && cached.isValid(player, type)) {
+            if (age > cacheMillis() && cached.refreshing.compareAndSet(false, true)) {
+                TaskManager.taskManager().async(() -> {
+                    try {
+                        refresh(player, key, cached);
+                    } finally {
+                        cached.refreshing.set(false);
+                    }
+                });
+            }
+            return cached.regions.clone();
+        }
+        return refresh(player, key, cached).regions.clone();
+    }
 
-        if (masks == null || !isWhitelist) {
-            masks = new HashSet<>();
+    private CachedMask refresh(Player player, MaskKey key, @Nullable CachedMask previous) {
+        CachedMask cached = compute(player, key.type(), true);
+        // Do not overwrite an entry that was invalidated or replaced during the refresh
+        if (previous == null) {
+            maskCache.put(key, cached);
         } else {
-            synchronized (masks) {
-                boolean removed = false;
-                boolean inMask = false;
-                if (!masks.isEmpty()) {
-                    Iterator<FaweMask> iterator = masks.iterator();
-                    while (iterator.hasNext()) {
-                        FaweMask mask = iterator.next();
-                        if (mask.isValid(player, type, false)) {
-                            Region region = mask.getRegion();
-                            inMask |= region.contains(loc.toBlockPoint());
-                            regions.add(region);
-                        } else {
-                            if (Settings.settings().ENABLED_COMPONENTS.DEBUG) {
-                                player.printDebug(Caption.of("fawe.error.region-mask-invalid", mask.getClass().getSimpleName()));
-                            }
-                            removed = true;
-                            iterator.remove();
+            maskCache.replace(key, previous, cached);
+        }
+        return cached;
+    }
+
+    private CachedMask compute(Player player, FaweMaskManager.MaskType type, boolean isWhitelist) {
+        Set<FaweMask> masks = new HashSet<>();
+        Set<Region> regions = new HashSet<>();
+        for (FaweMaskManager manager : managers) {
+            if (player.hasPermission("fawe." + manager.getKey())) {
+                try {
+                    if (manager.isExclusive() && !masks.isEmpty()) {
+                        continue;
+                    }
+                    final FaweMask mask = manager.getMask(
+                            player,
+                            type,
+                            isWhitelist,
+                            masks.isEmpty()
+                    );
+                    if (mask != null) {
+                        regions.add(mask.getRegion());
+                        masks.add(mask);
+                        if (manager.isExclusive()) {
+                            break;
                         }
                     }
+                } catch (Throwable e) {
+                    e.printStackTrace();
                 }
-                if (!removed && inMask) {
-                    return regions.toArray(new Region[0]);
-                }
+            } else {
+                player.printError(TextComponent.of("Missing permission " + "fawe." + manager.getKey()));
             }
         }
-        synchronized (masks) {
-            for (FaweMaskManager manager : managers) {
-                if (player.hasPermission("fawe." + manager.getKey())) {
-                    try {
-                        if (manager.isExclusive() && !masks.isEmpty()) {
-                            continue;
-                        }
-                        final FaweMask mask = manager.getMask(
-                                player,
-                                FaweMaskManager.MaskType.getDefaultMaskType(),
-                                isWhitelist,
-                                masks.isEmpty()
-                        );
-                        if (mask != null) {
-                            regions.add(mask.getRegion());
-                            masks.add(mask);
-                            if (manager.isExclusive()) {
-                                break;
-                            }
-                        }
-                    } catch (Throwable e) {
-                        e.printStackTrace();
+        BlockVector3 pos = player.getLocation().toBlockPoint();
+        return new CachedMask(regions.toArray(new Region[0]), masks, pos.x() >> 4, pos.z() >> 4);
+    }
+
+    private static long cacheMillis() {
+        return Settings.settings().REGION_RESTRICTIONS_OPTIONS.MASK_CACHE_SECONDS * 1000L;
+    }
+
+    /**
+     * Forget the cached masks of all players, e.g. because regions of a mask manager were created, changed or deleted.
+     *
+     * @since TODO
+     */
+    public void invalidateMasks() {
+        maskCache.clear();
+    }
+
+    /**
+     * Forget the cached masks of all players in a world.
+     *
+     * @param worldName name of the world
+     * @since TODO
+     */
+    public void invalidateMasks(String worldName) {
+        maskCache.keySet().removeIf(key -> key.world().equals(worldName));
+    }
+
+    /**
+     * Forget the cached masks of a player, e.g. because the player's membership of a region changed or the player left.
+     *
+     * @param uuid uuid of the player
+     * @since TODO
+     */
+    public void invalidateMasks(UUID uuid) {
+        maskCache.keySet().removeIf(key -> key.uuid().equals(uuid));
+    }
+
+    private record MaskKey(UUID uuid, String world, FaweMaskManager.MaskType type) {
+
+    }
+
+    private static final class CachedMask {
+
+        private final Region[] regions;
+        private final Set<FaweMask> masks;
+        private final int chunkX;
+        private final int chunkZ;
+        private final long created = System.currentTimeMillis();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private CachedMask(Region[] regions, Set<FaweMask> masks, int chunkX, int chunkZ) {
+            this.regions = regions;
+            this.masks = masks;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+
+        private long age() {
+            return System.currentTimeMillis() - created;
+        }
+
+        /**
+         * If all masks are still valid, e.g. the player is still allowed to edit the regions.
+         */
+        private boolean isValid(Player player, FaweMaskManager.MaskType type) {
+            for (FaweMask mask : masks) {
+                if (!mask.isValid(player, type, false)) {
+                    if (Settings.settings().ENABLED_COMPONENTS.DEBUG) {
+                        player.printDebug(Caption.of("fawe.error.region-mask-invalid", mask.getClass().getSimpleName()));
                     }
-                } else {
-                    player.printError(TextComponent.of("Missing permission " + "fawe." + manager.getKey()));
+                    return false;
                 }
             }
-            if (isWhitelist) {
-                if (!masks.isEmpty()) {
-                    player.setMeta("lastMask", masks);
-                } else {
-                    player.deleteMeta("lastMask");
+            return true;
+        }
+
+        /**
+         * If the whitelist can be used at the given position, as it depends on the position of the player.
+         */
+        private boolean covers(BlockVector3 pos) {
+            if (regions.length == 0) {
+                return pos.x() >> 4 == chunkX && pos.z() >> 4 == chunkZ;
+            }
+            for (Region region : regions) {
+                if (region.contains(pos)) {
+                    return true;
                 }
             }
+            return false;
         }
-        return regions.toArray(new Region[0]);
-    }
 
+    }
 
     public boolean intersects(Region region1, Region region2) {
         BlockVector3 rg1P1 = region1.getMinimumPoint();
@@ -1,6 +1,6 @@
 package com.fastasyncworldedit.core.util.collection;
 
-import com.fastasyncworldedit.core.math.BlockVectorSet;
+import com.fastasyncworldedit.core.math.AdaptiveBlockVectorSet;
 import com.fastasyncworldedit.core.math.LocalBlockVectorSet;
 import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.regions.Region;
@@ -11,7 +11,7 @@ public interface BlockVector3Set extends Set<BlockVector3> {
 
     /**
      * Get the appropriate {@link BlockVector3Set} implementation for the given region. Either {@link LocalBlockVectorSet} or
-     * {@link BlockVectorSet}. Sets the offset if using {@link LocalBlockVectorSet}.
+     * {@link AdaptiveBlockVectorSet}. Sets the offset if using {@link LocalBlockVectorSet}.
      *
      * @param region Region to get for
      * @return Appropriate {@link BlockVector3Set} implementation
@@ -37,14 +37,15 @@ static BlockVector3Set getAppropriateVectorSet(Region region) {
 
     /**
      * Get the appropriate {@link BlockVector3Set} implementation for the given dimensions. Either {@link LocalBlockVectorSet} or
-     * {@link BlockVectorSet}. The offset should be manually set.
+     * {@link AdaptiveBlockVectorSet}. The offset should be manually set.
      *
      * @param size Dimensions to get for
      * @return Appropriate {@link BlockVector3Set} implementation
      */
     static BlockVector3Set getAppropriateVectorSet(BlockVector3 size) {
         if (size.x() > 2048 || size.z() > 2048 || size.y() > 512) {
-            return new BlockVectorSet();
+            // Memory follows the number of positions, not the area they are spread over
+            return new AdaptiveBlockVectorSet();
         } else {
             return new LocalBlockVectorSet();
         }
@@ -0,0 +1,560 @@
+package com.fastasyncworldedit.core.world;
+
+import com.fastasyncworldedit.core.Fawe;
+import com.fastasyncworldedit.core.configuration.Settings;
+import com.fastasyncworldedit.core.internal.io.FaweInputStream;
+import com.fastasyncworldedit.core.internal.io.FaweOutputStream;
+import com.fastasyncworldedit.core.nbt.FaweCompoundTag;
+import com.fastasyncworldedit.core.queue.IChunk;
+import com.fastasyncworldedit.core.util.MainUtil;
+import com.fastasyncworldedit.core.util.TaskManager;
+import com.google.common.hash.Hashing;
+import com.sk89q.worldedit.WorldEdit;
+import com.sk89q.worldedit.extension.input.InputParseException;
+import com.sk89q.worldedit.extension.platform.Capability;
+import com.sk89q.worldedit.internal.util.LogManagerCompat;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.world.biome.BiomeType;
+import com.sk89q.worldedit.world.biome.BiomeTypes;
+import com.sk89q.worldedit.world.block.BaseBlock;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockTypes;
+import com.sk89q.worldedit.world.block.BlockTypesCache;
+import org.apache.logging.log4j.Logger;
+import org.enginehub.linbus.stream.LinBinaryIO;
+import org.enginehub.linbus.tree.LinCompoundTag;
+import org.enginehub.linbus.tree.LinRootEntry;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded disk cache of chunks generated by regeneration. Chunks are stored compressed, one file per chunk, in a
+ * directory per {@link Key}, so regenerating chunks that were already generated with the same world, seed, generator and
+ * generator settings does not have to generate them again. When the cache exceeds its maximum size, the least recently used
+ * chunks are deleted.
+ * <p>
+ * Chunks are compressed and written asynchronously, so storing a chunk only copies its contents.
+ *
+ * @since TODO
+ */
+public final class RegenChunkCache {
+
+    private static final Logger LOGGER = LogManagerCompat.getLogger();
+
+    private static final int FORMAT_VERSION = 1;
+    // Evict down to this fraction of the maximum size, so eviction does not run again on the next store
+    private static final double EVICTION_TARGET = 0.9;
+    // Chunks copied but not written yet, further chunks are not cached until these are written
+    private static final int MAX_PENDING_STORES = 64;
+    private static final BaseBlock AIR = BlockTypes.AIR.getDefaultState().toBaseBlock();
+
+    private static volatile RegenChunkCache instance;
+
+    private final Path root;
+    private final long maxSize;
+    private final AtomicLong size;
+    private final Semaphore pendingStores = new Semaphore(MAX_PENDING_STORES);
+
+    private RegenChunkCache(Path root, long maxSize) {
+        this.root = root;
+        this.maxSize = maxSize;
+        this.size = new AtomicLong(scanSize(root));
+    }
+
+    /**
+     * Get the shared cache, if enabled in the config.
+     *
+     * @return the cache, or null if disabled
+     */
+    @Nullable
+    public static RegenChunkCache getInstance() {
+        int sizeMb = Settings.settings().GENERAL.REGEN_CACHE_SIZE_MB;
+        if (sizeMb <= 0) {
+            return null;
+        }
+        RegenChunkCache cache = instance;
+        if (cache == null) {
+            synchronized (RegenChunkCache.class) {
+                cache = instance;
+                if (cache == null) {
+                    Path root = MainUtil.getFile(Fawe.platform().getDirectory(), Settings.settings().PATHS.REGEN_CACHE).toPath();
+                    instance = cache = new RegenChunkCache(root, sizeMb * 1024L * 1024L);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * If a chunk is cached. A cached chunk may still fail to {@link #load(Key, int, int)} if the file is damaged or
+     * evicted in the meantime.
+     *
+     * @param key    key of the generated world
+     * @param chunkX chunk x coordinate
+     * @param chunkZ chunk z coordinate
+     * @return if the chunk is cached
+     */
+    public boolean contains(Key key, int chunkX, int chunkZ) {
+        return Files.isRegularFile(file(key, chunkX, chunkZ));
+    }
+
+    /**
+     * Load a cached chunk.
+     *
+     * @param key    key of the generated world
+     * @param chunkX chunk x coordinate
+     * @param chunkZ chunk z coordinate
+     * @return the cached chunk, or null if not cached or unreadable
+     */
+    @Nullable
+    public CachedChunk load(Key key, int chunkX, int chunkZ) {
+        Path file = file(key, chunkX, chunkZ);
+        try {
+            return decode(key, readFile(file));
+        } catch (NoSuchFileException ignored) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Discarding unreadable cached regen chunk {}", file, e);
+            delete(file);
+            return null;
+        }
+    }
+
+    /**
+     * Read a cached chunk without keeping it decoded, to {@link #decode(Key, byte[])} it once needed. The chunk is checked
+     * to be readable, so decoding it does not fail.
+     *
+     * @param key    key of the generated world
+     * @param chunkX chunk x coordinate
+     * @param chunkZ chunk z coordinate
+     * @return the compressed chunk, or null if not cached or unreadable
+     */
+    @Nullable
+    public byte[] read(Key key, int chunkX, int chunkZ) {
+        Path file = file(key, chunkX, chunkZ);
+        try {
+            byte[] bytes = readFile(file);
+            decode(key, bytes);
+            return bytes;
+        } catch (NoSuchFileException ignored) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Discarding unreadable cached regen chunk {}", file, e);
+            delete(file);
+            return null;
+        }
+    }
+
+    /**
+     * Decode a chunk returned by {@link #read(Key, int, int)}.
+     *
+     * @param key  key of the generated world
+     * @param data the compressed chunk
+     * @return the cached chunk
+     * @throws IOException if the chunk is unreadable
+     */
+    public CachedChunk decode(Key key, byte[] data) throws IOException {
+        try (FaweInputStream in = MainUtil.getCompressedIS(new ByteArrayInputStream(data))) {
+            return read(in, key);
+        }
+    }
+
+    private static byte[] readFile(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        // Mark as recently used for eviction
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        return bytes;
+    }
+
+    /**
+     * Store a generated chunk. All sections of the chunk are copied, so it should be fully generated. The copy is
+     * compressed and written asynchronously, or dropped if too many chunks are still waiting to be written.
+     *
+     * @param key   key of the generated world
+     * @param chunk generated chunk
+     */
+    public void store(Key key, IChunk chunk) {
+        if (!pendingStores.tryAcquire()) {
+            return;
+        }
+        // The chunk may be pooled and reused for another chunk once returned, only the copy is handed to the async task
+        int chunkX = chunk.getX();
+        int chunkZ = chunk.getZ();
+        ChunkSnapshot snapshot;
+        try {
+            snapshot = ChunkSnapshot.of(chunk, key);
+        } catch (RuntimeException e) {
+            pendingStores.release();
+            LOGGER.warn("Could not cache regenerated chunk {}, {}", chunkX, chunkZ, e);
+            return;
+        }
+        TaskManager.taskManager().async(() -> {
+            try {
+                write(key, chunkX, chunkZ, snapshot);
+            } finally {
+                pendingStores.release();
+            }
+        });
+    }
+
+    private void write(Key key, int chunkX, int chunkZ, ChunkSnapshot snapshot) {
+        Path file = file(key, chunkX, chunkZ);
+        try {
+            byte[] bytes = write(snapshot);
+            Files.createDirectories(file.getParent());
+            // Readers never see a partially written file
+            Path temp = Files.createTempFile(file.getParent(), "chunk", ".tmp");
+            try {
+                Files.write(temp, bytes);
+                long previous = Files.isRegularFile(file) ? Files.size(file) : 0;
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                if (size.addAndGet(bytes.length - previous) > maxSize) {
+                    evict();
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not cache regenerated chunk {}", file, e);
+        }
+    }
+
+    /**
+     * Get the total size of the cached chunks.
+     *
+     * @return size in bytes
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    private Path file(Key key, int chunkX, int chunkZ) {
+        return root.resolve(key.directoryName()).resolve(chunkX + "." + chunkZ + ".chunk");
+    }
+
+    private static byte[] write(ChunkSnapshot chunk) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 14);
+        try (FaweOutputStream out = MainUtil.getCompressedOS(bytes, 1)) {
+            int minSection = chunk.minSection();
+            int maxSection = minSection + chunk.blocks().length - 1;
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(minSection);
+            out.writeInt(maxSection);
+            // Ordinals are only stable for a single server run, so sections are stored as a palette of state strings
+            char[] paletteIndex = new char[BlockTypesCache.states.length];
+            for (int layer = minSection; layer <= maxSection; layer++) {
+                char[] blocks = chunk.blocks()[layer - minSection];
+                List<Character> palette = new ArrayList<>();
+                Arrays.fill(paletteIndex, Character.MAX_VALUE);
+                for (char ordinal : blocks) {
+                    if (paletteIndex[ordinal] == Character.MAX_VALUE) {
+                        paletteIndex[ordinal] = (char) palette.size();
+                        palette.add(ordinal);
+                    }
+                }
+                out.writeShort(palette.size());
+                for (char ordinal : palette) {
+                    BlockState state = BlockTypesCache.states[ordinal];
+                    out.writeUTF(state == null || ordinal == BlockTypesCache.ReservedIDs.__RESERVED__ ? "" : state.getAsString());
+                }
+                if (palette.size() > 1) {
+                    for (char ordinal : blocks) {
+                        out.writeShort(paletteIndex[ordinal]);
+                    }
+                }
+                // Biomes are stored per 4x4x4 cell
+                for (BiomeType biome : chunk.biomes()[layer - minSection]) {
+                    out.writeUTF(biome == null ? "" : biome.id());
+                }
+            }
+            Map<BlockVector3, FaweCompoundTag> tiles = chunk.tiles();
+            out.writeInt(tiles.size());
+            for (Map.Entry<BlockVector3, FaweCompoundTag> entry : tiles.entrySet()) {
+                BlockVector3 pos = entry.getKey();
+                out.writeByte((pos.z() & 15) << 4 | (pos.x() & 15));
+                out.writeInt(pos.y());
+                LinBinaryIO.write(out, new LinRootEntry("", entry.getValue().linTag()));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static CachedChunk read(FaweInputStream in, Key key) throws IOException {
+        if (in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unknown format version");
+        }
+        int minSection = in.readInt();
+        int maxSection = in.readInt();
+        if (minSection != key.minY() >> 4 || maxSection != key.maxY() >> 4) {
+            throw new IOException("Height range does not match");
+        }
+        int sections = maxSection - minSection + 1;
+        char[][] blocks = new char[sections][];
+        BiomeType[][] biomes = new BiomeType[sections][];
+        for (int i = 0; i < sections; i++) {
+            char[] palette = new char[in.readUnsignedShort()];
+            for (int j = 0; j < palette.length; j++) {
+                palette[j] = parseState(in.readUTF());
+            }
+            char[] section = new char[4096];
+            if (palette.length == 1) {
+                Arrays.fill(section, palette[0]);
+            } else {
+                for (int j = 0; j < section.length; j++) {
+                    section[j] = palette[in.readUnsignedShort()];
+                }
+            }
+            blocks[i] = section;
+            BiomeType[] sectionBiomes = new BiomeType[64];
+            for (int j = 0; j < sectionBiomes.length; j++) {
+                String id = in.readUTF();
+                sectionBiomes[j] = id.isEmpty() ? null : BiomeTypes.get(id);
+            }
+            biomes[i] = sectionBiomes;
+        }
+        int tileCount = in.readInt();
+        Map<Integer, LinCompoundTag> tiles = tileCount == 0 ? Map.of() : new HashMap<>(tileCount);
+        for (int i = 0; i < tileCount; i++) {
+            int xz = in.readUnsignedByte();
+            int y = in.readInt();
+            LinCompoundTag tag = LinRootEntry.readFrom(LinBinaryIO.read(in)).value();
+            tiles.put(CachedChunk.tileIndex(xz & 15, y, xz >> 4), tag);
+        }
+        return new CachedChunk(minSection, blocks, biomes, tiles);
+    }
+
+    private static char parseState(String state) throws IOException {
+        if (state.isEmpty()) {
+            return BlockTypesCache.ReservedIDs.__RESERVED__;
+        }
+        try {
+            return BlockState.get(state).getOrdinalChar();
+        } catch (InputParseException e) {
+            throw new IOException("Unknown block state " + state, e);
+        }
+    }
+
+    private synchronized void evict() {
+        if (size.get() <= maxSize) {
+            return;
+        }
+        record Entry(Path path, long size, long lastUsed) {
+
+        }
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            files.forEach(path -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    if (attributes.isRegularFile()) {
+                        entries.add(new Entry(path, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                    }
+                } catch (IOException ignored) {
+                    // Removed concurrently
+                }
+            });
+        } catch (IOException e) {
+            LOGGER.warn("Could not list cached regen chunks", e);
+            return;
+        }
+        entries.sort(Comparator.comparingLong(Entry::lastUsed));
+        long total = entries.stream().mapToLong(Entry::size).sum();
+        long target = (long) (maxSize * EVICTION_TARGET);
+        for (Entry entry : entries) {
+            if (total <= target) {
+                break;
+            }
+            if (delete(entry.path())) {
+                total -= entry.size();
+            }
+        }
+        size.set(total);
+    }
+
+    private static boolean delete(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long scanSize(Path root) {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        } catch (IOException e) {
+            LOGGER.warn("Could not determine size of regen cache", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Copy of a generated chunk, to be written asynchronously.
+     *
+     * @param minSection the lowest section of the chunk
+     * @param blocks     block ordinals of each section
+     * @param biomes     biomes of each section, per 4x4x4 cell, in the order they are stored in
+     * @param tiles      tile entities of the chunk
+     */
+    private record ChunkSnapshot(
+            int minSection, char[][] blocks, BiomeType[][] biomes, Map<BlockVector3, FaweCompoundTag> tiles
+    ) {
+
+        private static ChunkSnapshot of(IChunk chunk, Key key) {
+            int minSection = key.minY() >> 4;
+            int sections = (key.maxY() >> 4) - minSection + 1;
+            char[][] blocks = new char[sections][];
+            BiomeType[][] biomes = new BiomeType[sections][];
+            for (int i = 0; i < sections; i++) {
+                int layer = minSection + i;
+                blocks[i] = chunk.load(layer).clone();
+                BiomeType[] sectionBiomes = new BiomeType[64];
+                int index = 0;
+                for (int y = 0; y < 16; y += 4) {
+                    for (int z = 0; z < 16; z += 4) {
+                        for (int x = 0; x < 16; x += 4) {
+                            sectionBiomes[index++] = chunk.getBiomeType(x, (layer << 4) + y, z);
+                        }
+                    }
+                }
+                biomes[i] = sectionBiomes;
+            }
+            return new ChunkSnapshot(minSection, blocks, biomes, new HashMap<>(chunk.tiles()));
+        }
+
+    }
+
+    /**
+     * Identifies the generated world cached chunks belong to. Chunks are only reused when all components match.
+     *
+     * @param world             name of the world being regenerated
+     * @param seed              seed used for generation
+     * @param generator         identifier of the chunk generator
+     * @param generatorSettings settings of the chunk generator, e.g. the noise settings or the layers of a flat world
+     * @param biome             biome generation is forced to, or null
+     * @param minY              minimum y of the world
+     * @param maxY              maximum y of the world
+     * @param dataVersion       data version of the platform, as generation changes between versions
+     */
+    public record Key(
+            String world, long seed, String generator, String generatorSettings, @Nullable String biome, int minY, int maxY,
+            int dataVersion
+    ) {
+
+        /**
+         * Create a key for the current platform version.
+         *
+         * @param world             name of the world being regenerated
+         * @param seed              seed used for generation
+         * @param generator         identifier of the chunk generator
+         * @param generatorSettings settings of the chunk generator, e.g. the noise settings or the layers of a flat world
+         * @param biome             biome generation is forced to, or null
+         * @param minY              minimum y of the world
+         * @param maxY              maximum y of the world
+         * @return new key
+         */
+        public static Key of(
+                String world, long seed, String generator, String generatorSettings, @Nullable BiomeType biome, int minY,
+                int maxY
+        ) {
+            int dataVersion = WorldEdit.getInstance().getPlatformManager()
+                    .queryCapability(Capability.WORLD_EDITING).getDataVersion();
+            return new Key(world, seed, generator, generatorSettings, biome == null ? null : biome.id(), minY, maxY,
+                    dataVersion);
+        }
+
+        private String directoryName() {
+            String id = String.join("\0", world, Long.toString(seed), generator, generatorSettings, String.valueOf(biome),
+                    Integer.toString(minY), Integer.toString(maxY), Integer.toString(dataVersion));
+            return Hashing.sha256().hashString(id, StandardCharsets.UTF_8).toString();
+        }
+
+    }
+
+    /**
+     * A chunk loaded from the cache. Coordinates are relative to the chunk, except for y.
+     */
+    public static final class CachedChunk {
+
+        private final int minSection;
+        private final char[][] blocks;
+        private final BiomeType[][] biomes;
+        private final Map<Integer, LinCompoundTag> tiles;
+
+        private CachedChunk(int minSection, char[][] blocks, BiomeType[][] biomes, Map<Integer, LinCompoundTag> tiles) {
+            this.minSection = minSection;
+            this.blocks = blocks;
+            this.biomes = biomes;
+            this.tiles = tiles;
+        }
+
+        private static int tileIndex(int x, int y, int z) {
+            return y << 8 | z << 4 | x;
+        }
+
+        /**
+         * Get the block at the given position, including its tile entity.
+         *
+         * @param x x coordinate relative to the chunk
+         * @param y y coordinate
+         * @param z z coordinate relative to the chunk
+         * @return the block, or air outside the height range
+         */
+        public BaseBlock getFullBlock(int x, int y, int z) {
+            int section = (y >> 4) - minSection;
+            if (section < 0 || section >= blocks.length) {
+                return AIR;
+            }
+            BlockState state = BlockTypesCache.states[blocks[section][(y & 15) << 8 | z << 4 | x]];
+            LinCompoundTag tile = tiles.isEmpty() ? null : tiles.get(tileIndex(x, y, z));
+            return tile == null ? state.toBaseBlock() : state.toBaseBlock(tile);
+        }
+
+        /**
+         * Get the biome at the given position.
+         *
+         * @param x x coordinate relative to the chunk
+         * @param y y coordinate
+         * @param z z coordinate relative to the chunk
+         * @return the biome, or null outside the height range
+         */
+        @Nullable
+        public BiomeType getBiomeType(int x, int y, int z) {
+            int section = (y >> 4) - minSection;
+            if (section < 0 || section >= biomes.length) {
+                return null;
+            }
+            return biomes[section][(y & 12) << 2 | (z & 12) | (x >> 2)];
+        }
+
+    }
+
+}
@@ -0,0 +1,558 @@
+package com.fastasyncworldedit.core.world.snapshot;
+
+import com.fastasyncworldedit.core.anvil.RegionFile;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Random access to the entries of a zip or an uncompressed tar archive. The entry offsets are indexed once when the archive
+ * is opened, so an entry is read without scanning or decompressing the entries before it.
+ * <p>
+ * Region files stored in the archive are shared across chunks: entries which are stored without compression are
+ * memory-mapped in place, so reading a chunk only touches its sectors, while compressed entries are inflated once and kept
+ * in a cache bounded by size. The chunk offsets of region files are cached separately, so missing chunks are detected
+ * without inflating the whole region file.
+ *
+ * @since TODO
+ */
+public final class ArchiveIndex implements Closeable {
+
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int TAR_BLOCK = 512;
+    private static final long MAX_CACHED_BYTES = 256L << 20;
+
+    private final Path archive;
+    private final FileChannel channel;
+    private final Map<String, Entry> entries;
+    private final Map<String, int[]> regionHeaders = new ConcurrentHashMap<>();
+    private final Cache<String, RegionFile> regionFiles = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_CACHED_BYTES)
+            .<String, RegionFile>weigher((name, region) -> region.isMapped() ? 1 : region.getSize())
+            .build();
+
+    private ArchiveIndex(Path archive, FileChannel channel, Map<String, Entry> entries) {
+        this.archive = archive;
+        this.channel = channel;
+        this.entries = entries;
+    }
+
+    /**
+     * If the given file can be indexed: a {@code .zip} or {@code .tar} file on the default file system.
+     *
+     * @param archive path of the archive
+     * @return if supported
+     */
+    public static boolean isSupported(Path archive) {
+        if (archive.getFileSystem() != FileSystems.getDefault()) {
+            return false;
+        }
+        String name = archive.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".zip") || name.endsWith(".tar");
+    }
+
+    /**
+     * Open and index an archive.
+     *
+     * @param archive path of the archive, see {@link #isSupported(Path)}
+     * @return the index
+     * @throws IOException if the archive could not be read or is invalid
+     */
+    public static ArchiveIndex open(Path archive) throws IOException {
+        FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ);
+        try {
+            Map<String, Entry> entries = archive.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".tar")
+                    ? indexTar(channel)
+                    : indexZip(channel);
+            return new ArchiveIndex(archive, channel, entries);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the path of the archive.
+     *
+     * @return the archive
+     */
+    public Path getArchive() {
+        return archive;
+    }
+
+    /**
+     * Get the names of all file entries, using {@code /} as separator.
+     *
+     * @return the entry names
+     */
+    public Collection<String> getEntryNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * If the archive contains a file with the given name.
+     *
+     * @param name entry name
+     * @return if present
+     */
+    public boolean hasEntry(String name) {
+        return getEntry(name) != null;
+    }
+
+    /**
+     * Get the entry name of a path inside of a zip file system opened for this archive.
+     *
+     * @param path path inside of the archive
+     * @return the entry name
+     */
+    public static String getEntryName(Path path) {
+        String name = path.toAbsolutePath().normalize().toString().replace('\\', '/');
+        return name.startsWith("/") ? name.substring(1) : name;
+    }
+
+    /**
+     * Open an entry for reading.
+     *
+     * @param name entry name
+     * @return the uncompressed content of the entry
+     * @throws IOException if the entry is missing or could not be read
+     */
+    public InputStream getInputStream(String name) throws IOException {
+        Entry entry = getEntry(name);
+        if (entry == null) {
+            throw new IOException("Missing " + name + " in " + archive.getFileName());
+        }
+        return openEntry(entry);
+    }
+
+    /**
+     * Get a region file stored in the archive. Instances are shared until the archive is closed or they are evicted.
+     *
+     * @param name entry name of the region file
+     * @param path path the region file reports, used to resolve chunks stored in separate files
+     * @return the region file, or null if the archive does not contain it
+     * @throws IOException if the region file could not be read
+     */
+    @Nullable
+    public RegionFile getRegionFile(String name, Path path) throws IOException {
+        Entry entry = getEntry(name);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return regionFiles.get(entry.name, () -> RegionFile.of(path, readEntry(entry)));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Failed to read " + name + " in " + archive.getFileName(), e.getCause());
+        }
+    }
+
+    /**
+     * If a region file stored in the archive contains the given chunk. Only the chunk offsets of the region file are read.
+     *
+     * @param name   entry name of the region file
+     * @param chunkX chunk x coordinate, either absolute or relative to the region
+     * @param chunkZ chunk z coordinate, either absolute or relative to the region
+     * @return if the chunk is present
+     * @throws IOException if the region file could not be read
+     */
+    public boolean hasChunk(String name, int chunkX, int chunkZ) throws IOException {
+        Entry entry = getEntry(name);
+        if (entry == null) {
+            return false;
+        }
+        RegionFile loaded = regionFiles.getIfPresent(entry.name);
+        if (loaded != null) {
+            return loaded.hasChunk(chunkX, chunkZ);
+        }
+        int[] offsets = regionHeaders.get(entry.name);
+        if (offsets == null) {
+            offsets = readRegionHeader(entry);
+            regionHeaders.put(entry.name, offsets);
+        }
+        return offsets[(chunkX & 31) + ((chunkZ & 31) << 5)] != 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        regionFiles.invalidateAll();
+        regionHeaders.clear();
+        channel.close();
+    }
+
+    @Nullable
+    private Entry getEntry(String name) {
+        return entries.get(name.replace('\\', '/'));
+    }
+
+    private int[] readRegionHeader(Entry entry) throws IOException {
+        int[] offsets = new int[1024];
+        ByteBuffer header = ByteBuffer.allocate(RegionFile.SECTOR_BYTES);
+        if (entry.method == METHOD_STORED) {
+            readFully(getDataOffset(entry), header, Math.min(entry.size, RegionFile.SECTOR_BYTES));
+        } else {
+            try (InputStream in = openEntry(entry)) {
+                header.position(in.readNBytes(header.array(), 0, header.capacity()));
+            }
+        }
+        if (header.position() == header.capacity()) {
+            header.flip();
+            header.asIntBuffer().get(offsets);
+        }
+        return offsets;
+    }
+
+    private ByteBuffer readEntry(Entry entry) throws IOException {
+        if (entry.size > Integer.MAX_VALUE - 8) {
+            throw new IOException(entry.name + " is too large");
+        }
+        if (entry.method == METHOD_STORED) {
+            long offset = getDataOffset(entry);
+            try {
+                return channel.map(FileChannel.MapMode.READ_ONLY, offset, entry.size);
+            } catch (UnsupportedOperationException e) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) entry.size);
+                readFully(offset, buffer, entry.size);
+                return buffer.flip();
+            }
+        }
+        try (InputStream in = openEntry(entry)) {
+            byte[] data = in.readNBytes((int) entry.size);
+            if (data.length != entry.size) {
+                throw new EOFException("Unexpected end of " + entry.name);
+            }
+            return ByteBuffer.wrap(data);
+        }
+    }
+
+    private InputStream openEntry(Entry entry) throws IOException {
+        InputStream raw = new ChannelInputStream(channel, getDataOffset(entry), entry.compressedSize);
+        return switch (entry.method) {
+            case METHOD_STORED -> raw;
+            case METHOD_DEFLATED -> {
+                Inflater inflater = new Inflater(true);
+                yield new InflaterInputStream(raw, inflater, 8192) {
+                    @Override
+                    public void close() throws IOException {
+                        super.close();
+                        inflater.end();
+                    }
+                };
+            }
+            default -> throw new IOException(entry.name + " uses unsupported compression method " + entry.method);
+        };
+    }
+
+    /**
+     * The data of zip entries starts after their local header, whose length is only known once it is read.
+     */
+    private long getDataOffset(Entry entry) throws IOException {
+        long offset = entry.dataOffset;
+        if (offset < 0) {
+            ByteBuffer header = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(entry.headerOffset, header, 30);
+            if (header.getInt(0) != 0x04034b50) {
+                throw new IOException("Invalid local header of " + entry.name);
+            }
+            offset = entry.headerOffset + 30 + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+            entry.dataOffset = offset;
+        }
+        return offset;
+    }
+
+    private void readFully(long position, ByteBuffer buffer, long length) throws IOException {
+        buffer.limit((int) (buffer.position() + length));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of " + archive.getFileName());
+            }
+        }
+    }
+
+    private static Map<String, Entry> indexZip(FileChannel channel) throws IOException {
+        long size = channel.size();
+        // The end of central directory record is followed by a comment of up to 65535 bytes
+        int tailLength = (int) Math.min(size, 22 + 0xFFFF);
+        ByteBuffer tail = ByteBuffer.allocate(tailLength).order(ByteOrder.LITTLE_ENDIAN);
+        read(channel, size - tailLength, tail);
+        int end = -1;
+        for (int i = tailLength - 22; i >= 0; i--) {
+            if (tail.getInt(i) == 0x06054b50) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) {
+            throw new IOException("Not a zip file");
+        }
+        long count = tail.getShort(end + 10) & 0xFFFF;
+        long directorySize = tail.getInt(end + 12) & 0xFFFFFFFFL;
+        long directoryOffset = tail.getInt(end + 16) & 0xFFFFFFFFL;
+        if ((count == 0xFFFF || directorySize == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL) && end >= 20
+                && tail.getInt(end - 20) == 0x07064b50) {
+            ByteBuffer zip64 = ByteBuffer.allocate(56).order(ByteOrder.LITTLE_ENDIAN);
+            read(channel, tail.getLong(end - 12), zip64);
+            if (zip64.getInt(0) != 0x06064b50) {
+                throw new IOException("Invalid zip64 end of central directory");
+            }
+            count = zip64.getLong(32);
+            directorySize = zip64.getLong(40);
+            directoryOffset = zip64.getLong(48);
+        }
+        if (directoryOffset + directorySize > size || directorySize > Integer.MAX_VALUE) {
+            throw new IOException("Invalid central directory");
+        }
+        ByteBuffer directory = ByteBuffer.allocate((int) directorySize).order(ByteOrder.LITTLE_ENDIAN);
+        read(channel, directoryOffset, directory);
+        Map<String, Entry> entries = new HashMap<>((int) Math.min(count, 1 << 16) * 2);
+        int pos = 0;
+        for (long i = 0; i < count; i++) {
+            if (pos + 46 > directorySize || directory.getInt(pos) != 0x02014b50) {
+                throw new IOException("Invalid central directory entry");
+            }
+            int flags = directory.getShort(pos + 8) & 0xFFFF;
+            int method = directory.getShort(pos + 10) & 0xFFFF;
+            long compressedSize = directory.getInt(pos + 20) & 0xFFFFFFFFL;
+            long uncompressedSize = directory.getInt(pos + 24) & 0xFFFFFFFFL;
+            int nameLength = directory.getShort(pos + 28) & 0xFFFF;
+            int extraLength = directory.getShort(pos + 30) & 0xFFFF;
+            int commentLength = directory.getShort(pos + 32) & 0xFFFF;
+            long headerOffset = directory.getInt(pos + 42) & 0xFFFFFFFFL;
+            byte[] nameBytes = new byte[nameLength];
+            directory.get(pos + 46, nameBytes);
+            String name = new String(nameBytes, (flags & 0x800) != 0 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+            // Sizes and offset of large entries are stored in the zip64 extra field, in this order
+            int extra = pos + 46 + nameLength;
+            int extraEnd = extra + extraLength;
+            while (extra + 4 <= extraEnd) {
+                int id = directory.getShort(extra) & 0xFFFF;
+                int length = directory.getShort(extra + 2) & 0xFFFF;
+                if (id == 0x0001) {
+                    int field = extra + 4;
+                    if (uncompressedSize == 0xFFFFFFFFL) {
+                        uncompressedSize = directory.getLong(field);
+                        field += 8;
+                    }
+                    if (compressedSize == 0xFFFFFFFFL) {
+                        compressedSize = directory.getLong(field);
+                        field += 8;
+                    }
+                    if (headerOffset == 0xFFFFFFFFL) {
+                        headerOffset = directory.getLong(field);
+                    }
+                }
+                extra += 4 + length;
+            }
+            pos = extraEnd + commentLength;
+            // Skip directories and encrypted entries
+            if (!name.endsWith("/") && (flags & 1) == 0) {
+                Entry entry = new Entry(name.replace('\\', '/'), method, compressedSize, uncompressedSize, headerOffset);
+                entries.put(entry.name, entry);
+            }
+        }
+        return entries;
+    }
+
+    private static Map<String, Entry> indexTar(FileChannel channel) throws IOException {
+        long size = channel.size();
+        Map<String, Entry> entries = new HashMap<>();
+        ByteBuffer header = ByteBuffer.allocate(TAR_BLOCK);
+        String longName = null;
+        long pos = 0;
+        while (pos + TAR_BLOCK <= size) {
+            header.clear();
+            read(channel, pos, header);
+            byte[] block = header.array();
+            if (isZero(block)) {
+                break;
+            }
+            long entrySize = parseTarNumber(block, 124, 12);
+            byte type = block[156];
+            long data = pos + TAR_BLOCK;
+            if (entrySize < 0 || data + entrySize > size) {
+                throw new IOException("Invalid tar entry at " + pos);
+            }
+            if (type == 'L' || type == 'x') {
+                // GNU long name, or pax header possibly containing the path of the next entry
+                ByteBuffer content = ByteBuffer.allocate((int) Math.min(entrySize, 1 << 20));
+                read(channel, data, content);
+                String text = new String(content.array(), StandardCharsets.UTF_8);
+                longName = type == 'L' ? trimNul(text) : parsePaxPath(text, longName);
+            } else {
+                String name = longName;
+                longName = null;
+                if (name == null) {
+                    name = parseTarString(block, 0, 100);
+                    if (new String(block, 257, 5, StandardCharsets.US_ASCII).equals("ustar")) {
+                        String prefix = parseTarString(block, 345, 155);
+                        if (!prefix.isEmpty()) {
+                            name = prefix + "/" + name;
+                        }
+                    }
+                }
+                if (type == '0' || type == 0) {
+                    name = name.replace('\\', '/');
+                    if (name.startsWith("./")) {
+                        name = name.substring(2);
+                    }
+                    entries.put(name, new Entry(name, METHOD_STORED, entrySize, entrySize, pos, data));
+                }
+            }
+            pos = data + (entrySize + TAR_BLOCK - 1) / TAR_BLOCK * TAR_BLOCK;
+        }
+        return entries;
+    }
+
+    private static void read(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private static boolean isZero(byte[] block) {
+        for (byte b : block) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String trimNul(String text) {
+        int end = text.indexOf('\0');
+        return end < 0 ? text : text.substring(0, end);
+    }
+
+    private static String parseTarString(byte[] block, int offset, int length) {
+        return trimNul(new String(block, offset, length, StandardCharsets.UTF_8));
+    }
+
+    @Nullable
+    private static String parsePaxPath(String text, @Nullable String fallback) {
+        // Records are "<length> <key>=<value>\n"
+        for (String record : text.split("\n")) {
+            int space = record.indexOf(' ');
+            if (space > 0 && record.startsWith("path=", space + 1)) {
+                return record.substring(space + 6);
+            }
+        }
+        return fallback;
+    }
+
+    private static long parseTarNumber(byte[] block, int offset, int length) {
+        if ((block[offset] & 0x80) != 0) {
+            // GNU base-256 encoding for large sizes
+            long value = block[offset] & 0x7F;
+            for (int i = 1; i < length; i++) {
+                value = value << 8 | (block[offset + i] & 0xFF);
+            }
+            return value;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = block[offset + i];
+            if (b >= '0' && b <= '7') {
+                value = value << 3 | (b - '0');
+            } else if (b != ' ' || value != 0) {
+                break;
+            }
+        }
+        return value;
+    }
+
+    private static final class Entry {
+
+        private final String name;
+        private final int method;
+        private final long compressedSize;
+        private final long size;
+        private final long headerOffset;
+        private volatile long dataOffset;
+
+        private Entry(String name, int method, long compressedSize, long size, long headerOffset) {
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.headerOffset = headerOffset;
+            this.dataOffset = -1;
+        }
+
+        // Tar entries start directly at their data
+        private Entry(String name, int method, long compressedSize, long size, long headerOffset, long dataOffset) {
+            this(name, method, compressedSize, size, headerOffset);
+            this.dataOffset = dataOffset;
+        }
+
+    }
+
+    /**
+     * Reads a range of the archive with positional reads, so entries may be read concurrently.
+     */
+    private static final class ChannelInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private long position;
+        private long remaining;
+
+        private ChannelInputStream(FileChannel channel, long position, long length) {
+            this.channel = channel;
+            this.position = position;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)), position);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            position += read;
+            remaining -= read;
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+
+    }
+
+}
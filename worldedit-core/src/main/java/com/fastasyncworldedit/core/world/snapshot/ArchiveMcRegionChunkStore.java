@@ -0,0 +1,126 @@
+package com.fastasyncworldedit.core.world.snapshot;
+
+import com.fastasyncworldedit.core.anvil.RegionFile;
+import com.sk89q.jnbt.CompoundTag;
+import com.sk89q.worldedit.math.BlockVector2;
+import com.sk89q.worldedit.world.DataException;
+import com.sk89q.worldedit.world.World;
+import com.sk89q.worldedit.world.storage.ChunkStoreHelper;
+import com.sk89q.worldedit.world.storage.McRegionChunkStore;
+import com.sk89q.worldedit.world.storage.MissingChunkException;
+import com.sk89q.worldedit.world.storage.MissingWorldException;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chunk store reading region files from a zip or uncompressed tar archive through an {@link ArchiveIndex}, so a chunk is
+ * read without extracting or scanning the whole region file, and region files are shared between the chunks of a restore.
+ *
+ * @since TODO
+ */
+public class ArchiveMcRegionChunkStore extends McRegionChunkStore {
+
+    private static final String REGION_FOLDER = "region";
+
+    private final ArchiveIndex index;
+    // World name and folder type to the folder containing the region files
+    private final Map<String, Optional<String>> folders = new ConcurrentHashMap<>();
+
+    /**
+     * Create an instance.
+     *
+     * @param file the archive, see {@link ArchiveIndex#isSupported(Path)}
+     * @throws IOException if the archive could not be indexed
+     */
+    public ArchiveMcRegionChunkStore(File file) throws IOException {
+        this.index = ArchiveIndex.open(file.toPath());
+    }
+
+    @Override
+    public CompoundTag getChunkTag(BlockVector2 position, World world) throws DataException, IOException {
+        return readChunkTag(position, world.getName(), null);
+    }
+
+    @Override
+    public CompoundTag getEntitiesTag(BlockVector2 position, World world) {
+        try {
+            return readChunkTag(position, world.getName(), "entities");
+        } catch (DataException | IOException e) {
+            return null;
+        }
+    }
+
+    private CompoundTag readChunkTag(BlockVector2 position, String worldName, @Nullable String folderOverride) throws
+            DataException, IOException {
+        String name = getFolder(worldName, folderOverride) + "/" + getFilename(position);
+        if (!index.hasEntry(name)) {
+            // Old McRegion files are read as a stream
+            return ChunkStoreHelper.readCompoundTag(() -> getReader(position, worldName, folderOverride)
+                    .getChunkInputStream(position));
+        }
+        // Only the chunk offsets are read to find missing chunks
+        if (!index.hasChunk(name, position.x(), position.z())) {
+            throw new MissingChunkException();
+        }
+        RegionFile region = index.getRegionFile(name, Path.of(name));
+        return ChunkStoreHelper.readCompoundTag(() -> region.getChunkInputStream(position.x(), position.z()));
+    }
+
+    @Override
+    protected InputStream getInputStream(String name, String worldName, @Nullable String folderOverride) throws IOException,
+            DataException {
+        String path = getFolder(worldName, folderOverride) + "/" + name;
+        if (!index.hasEntry(path)) {
+            path = path.replace(".mca", ".mcr");
+            if (!index.hasEntry(path)) {
+                throw new MissingChunkException();
+            }
+        }
+        return index.getInputStream(path);
+    }
+
+    /**
+     * Find the folder of the region files of a world: the shortest path below a folder named like the world, so the region
+     * folder of the world is preferred over those of its dimensions.
+     */
+    private String getFolder(String worldName, @Nullable String folderOverride) throws MissingWorldException {
+        String type = folderOverride == null ? REGION_FOLDER : folderOverride;
+        Optional<String> folder = folders.computeIfAbsent(worldName + "/" + type, key -> {
+            String result = null;
+            for (String name : index.getEntryNames()) {
+                if (!name.startsWith(worldName + "/") || !(name.endsWith(".mca") || name.endsWith(".mcr"))) {
+                    continue;
+                }
+                String parent = name.substring(0, name.lastIndexOf('/'));
+                if (parent.endsWith("/" + type) && (result == null || parent.length() < result.length())) {
+                    result = parent;
+                }
+            }
+            return Optional.ofNullable(result);
+        });
+        return folder.orElseThrow(() -> new MissingWorldException("Target world is not present in archive.", worldName));
+    }
+
+    @Override
+    public boolean isValid() {
+        for (String name : index.getEntryNames()) {
+            if (name.endsWith(".mca") || name.endsWith(".mcr")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        index.close();
+    }
+
+}
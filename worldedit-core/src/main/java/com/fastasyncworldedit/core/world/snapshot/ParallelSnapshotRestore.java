@@ -0,0 +1,378 @@
+package com.fastasyncworldedit.core.world.snapshot;
+
+import com.fastasyncworldedit.core.anvil.ChunkSectionDecoder;
+import com.fastasyncworldedit.core.anvil.RegionFile;
+import com.fastasyncworldedit.core.math.MutableBlockVector3;
+import com.fastasyncworldedit.core.nbt.FaweCompoundTag;
+import com.fastasyncworldedit.core.queue.Filter;
+import com.fastasyncworldedit.core.queue.IChunk;
+import com.fastasyncworldedit.core.queue.implementation.ParallelQueueExtent;
+import com.fastasyncworldedit.core.util.ExtentTraverser;
+import com.fastasyncworldedit.core.util.MathMan;
+import com.sk89q.jnbt.CompoundTag;
+import com.sk89q.worldedit.EditSession;
+import com.sk89q.worldedit.WorldEdit;
+import com.sk89q.worldedit.entity.BaseEntity;
+import com.sk89q.worldedit.extension.platform.Capability;
+import com.sk89q.worldedit.extension.platform.Platform;
+import com.sk89q.worldedit.function.mask.Mask;
+import com.sk89q.worldedit.math.BlockVector2;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.regions.CuboidRegion;
+import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.world.DataException;
+import com.sk89q.worldedit.world.biome.BiomeType;
+import com.sk89q.worldedit.world.block.BlockTypes;
+import com.sk89q.worldedit.world.block.BlockTypesCache;
+import com.sk89q.worldedit.world.chunk.Chunk;
+import com.sk89q.worldedit.world.snapshot.experimental.Snapshot;
+import com.sk89q.worldedit.world.snapshot.experimental.fs.FolderSnapshot;
+import com.sk89q.worldedit.world.storage.ChunkStoreHelper;
+import com.sk89q.worldedit.world.storage.MissingChunkException;
+import org.enginehub.linbus.tree.LinCompoundTag;
+import org.enginehub.linbus.tree.LinIntTag;
+import org.enginehub.linbus.tree.LinListTag;
+import org.enginehub.linbus.tree.LinTagType;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Restores a region from a {@link FolderSnapshot} through a {@link ParallelQueueExtent}. Each region file is memory-mapped
+ * once and shared between its chunks, chunks are read and inflated in parallel, and sections in the Minecraft 1.18+ format
+ * are decoded straight into the chunks of the queue, replacing whole sections where the region covers them. Chunks in older
+ * formats, or that require data fixing, are read through {@link ChunkStoreHelper} instead.
+ *
+ * @since TODO
+ */
+public class ParallelSnapshotRestore implements Filter {
+
+    private static final char AIR = BlockTypes.AIR.getDefaultState().getOrdinalChar();
+
+    private final FolderSnapshot snapshot;
+    private final boolean restoreBiomes;
+    private final boolean restoreEntities;
+    private final int currentDataVersion;
+    private final boolean canFixData;
+    private final State state;
+    @Nullable
+    private final Mask mask;
+    private final MutableBlockVector3 mutable = new MutableBlockVector3();
+    private final EditSession editSession;
+
+    /**
+     * New restore operation.
+     *
+     * @param snapshot        snapshot to restore from
+     * @param editSession     edit session to restore to
+     * @param restoreBiomes   if biomes should be restored
+     * @param restoreEntities if entities should be restored. Only entities stored in chunks (before Minecraft 1.17) are
+     *                        restored, and they are collected for the caller to create, see {@link #getEntities()}
+     */
+    public ParallelSnapshotRestore(
+            FolderSnapshot snapshot,
+            EditSession editSession,
+            boolean restoreBiomes,
+            boolean restoreEntities
+    ) {
+        this(snapshot, editSession, restoreBiomes, restoreEntities, new State(), editSession.getMask());
+    }
+
+    private ParallelSnapshotRestore(
+            FolderSnapshot snapshot,
+            EditSession editSession,
+            boolean restoreBiomes,
+            boolean restoreEntities,
+            State state,
+            @Nullable Mask mask
+    ) {
+        this.snapshot = snapshot;
+        this.editSession = editSession;
+        this.restoreBiomes = restoreBiomes;
+        this.restoreEntities = restoreEntities;
+        this.state = state;
+        this.mask = mask;
+        Platform platform = WorldEdit.getInstance().getPlatformManager().queryCapability(Capability.WORLD_EDITING);
+        this.currentDataVersion = platform.getDataVersion();
+        this.canFixData = platform.getDataFixer() != null;
+    }
+
+    /**
+     * If a snapshot can be restored to an edit session in parallel: the snapshot must store chunks in region files, and
+     * the edit session must be backed by a {@link ParallelQueueExtent}.
+     *
+     * @param snapshot    snapshot to restore from
+     * @param editSession edit session to restore to
+     * @return if supported
+     */
+    public static boolean canRestore(Snapshot snapshot, EditSession editSession) {
+        if (!(snapshot instanceof FolderSnapshot folder)) {
+            return false;
+        }
+        try {
+            if (folder.getRegionFile(BlockVector2.ZERO).isEmpty()) {
+                return false;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return new ExtentTraverser<>(editSession).find(ParallelQueueExtent.class) != null;
+    }
+
+    /**
+     * Restore the given region.
+     *
+     * @param region region to restore
+     */
+    public void restore(Region region) {
+        try {
+            editSession.apply(region, this, false);
+        } finally {
+            state.regionFiles.clear();
+        }
+    }
+
+    @Override
+    public <U extends IChunk> U applyChunk(U chunk, @Nullable Region region) {
+        BlockVector2 pos = BlockVector2.at(chunk.getX(), chunk.getZ());
+        state.chunks.increment();
+        try {
+            Optional<RegionFile> regionFile = getRegionFile(pos);
+            if (regionFile.isEmpty()) {
+                // Missing, or an old McRegion file
+                restoreBlocks(chunk, region, snapshot.getChunk(pos.toBlockVector3()));
+                return chunk;
+            }
+            LinCompoundTag tag = regionFile.get().readChunk(pos.x(), pos.z());
+            if (tag == null) {
+                throw new MissingChunkException();
+            }
+            int dataVersion = ChunkSectionDecoder.getDataVersion(tag);
+            if (ChunkSectionDecoder.isSupported(dataVersion) && (dataVersion >= currentDataVersion || !canFixData)) {
+                restoreSections(chunk, region, tag);
+            } else {
+                restoreBlocks(chunk, region, ChunkStoreHelper.getChunk(new CompoundTag(tag)));
+            }
+        } catch (MissingChunkException e) {
+            state.missingChunks.add(pos);
+        } catch (IOException | DataException e) {
+            state.errorChunks.add(pos);
+            state.lastErrorMessage = e.getMessage();
+        }
+        return chunk;
+    }
+
+    private Optional<RegionFile> getRegionFile(BlockVector2 pos) throws IOException {
+        long key = MathMan.pairInt(pos.x() >> 5, pos.z() >> 5);
+        try {
+            return state.regionFiles.computeIfAbsent(key, k -> {
+                try {
+                    return snapshot.openRegionFile(pos);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void restoreSections(IChunk chunk, Region region, LinCompoundTag tag) throws DataException {
+        BlockVector3 min = region.getMinimumPoint();
+        BlockVector3 max = region.getMaximumPoint();
+        int bx = chunk.getX() << 4;
+        int bz = chunk.getZ() << 4;
+        int minY = Math.max(min.y(), chunk.getMinY());
+        int maxY = Math.min(max.y(), chunk.getMaxY());
+        if (minY > maxY) {
+            return;
+        }
+        boolean cuboid = region instanceof CuboidRegion;
+        boolean fullColumns = cuboid && mask == null
+                && min.x() <= bx && max.x() >= bx + 15 && min.z() <= bz && max.z() >= bz + 15;
+        int minSection = minY >> 4;
+        LinCompoundTag[] sections = ChunkSectionDecoder.getSections(tag, minSection, maxY >> 4);
+        for (int layer = minSection; layer <= maxY >> 4; layer++) {
+            LinCompoundTag section = sections[layer - minSection];
+            char[] blocks = section == null ? null : ChunkSectionDecoder.decodeBlocks(section);
+            if (blocks == null) {
+                blocks = new char[4096];
+                Arrays.fill(blocks, AIR);
+            }
+            int y0 = Math.max(minY, layer << 4);
+            int y1 = Math.min(maxY, (layer << 4) + 15);
+            if (fullColumns && y0 == layer << 4 && y1 == (layer << 4) + 15) {
+                chunk.setBlocks(layer, blocks);
+            } else {
+                for (int y = y0; y <= y1; y++) {
+                    for (int z = 0; z < 16; z++) {
+                        for (int x = 0; x < 16; x++) {
+                            if (contains(region, cuboid, bx + x, y, bz + z)) {
+                                chunk.setBlock(x, y, z, BlockTypesCache.states[blocks[(y & 15) << 8 | z << 4 | x]]);
+                            }
+                        }
+                    }
+                }
+            }
+            if (!restoreBiomes || section == null) {
+                continue;
+            }
+            BiomeType[] biomes = ChunkSectionDecoder.decodeBiomes(section);
+            if (biomes == null) {
+                continue;
+            }
+            for (int i = 0; i < biomes.length; i++) {
+                int x = (i & 3) << 2;
+                int y = (layer << 4) + ((i >> 4) << 2);
+                int z = ((i >> 2) & 3) << 2;
+                if (biomes[i] != null && y >= y0 && y <= y1 && contains(region, cuboid, bx + x, y, bz + z)) {
+                    chunk.setBiome(x, y, z, biomes[i]);
+                }
+            }
+        }
+        LinListTag<LinCompoundTag> tiles = tag.findListTag("block_entities", LinTagType.compoundTag());
+        if (tiles == null) {
+            return;
+        }
+        for (LinCompoundTag tile : tiles.value()) {
+            LinIntTag x = tile.findTag("x", LinTagType.intTag());
+            LinIntTag y = tile.findTag("y", LinTagType.intTag());
+            LinIntTag z = tile.findTag("z", LinTagType.intTag());
+            if (x == null || y == null || z == null) {
+                continue;
+            }
+            int ty = y.valueAsInt();
+            if (ty >= minY && ty <= maxY && contains(region, cuboid, x.valueAsInt(), ty, z.valueAsInt())) {
+                chunk.tile(x.valueAsInt() & 15, ty, z.valueAsInt() & 15, FaweCompoundTag.of(tile));
+            }
+        }
+    }
+
+    private void restoreBlocks(IChunk chunk, Region region, Chunk snapshotChunk) {
+        BlockVector3 min = region.getMinimumPoint();
+        BlockVector3 max = region.getMaximumPoint();
+        int bx = chunk.getX() << 4;
+        int bz = chunk.getZ() << 4;
+        boolean cuboid = region instanceof CuboidRegion;
+        int minY = Math.max(min.y(), chunk.getMinY());
+        int maxY = Math.min(max.y(), chunk.getMaxY());
+        for (int y = minY; y <= maxY; y++) {
+            for (int z = Math.max(min.z(), bz); z <= Math.min(max.z(), bz + 15); z++) {
+                for (int x = Math.max(min.x(), bx); x <= Math.min(max.x(), bx + 15); x++) {
+                    if (!contains(region, cuboid, x, y, z)) {
+                        continue;
+                    }
+                    BlockVector3 pos = BlockVector3.at(x, y, z);
+                    try {
+                        chunk.setBlock(x & 15, y, z & 15, snapshotChunk.getBlock(pos));
+                        if (restoreBiomes && (x & 3) == 0 && (y & 3) == 0 && (z & 3) == 0) {
+                            chunk.setBiome(x & 15, y, z & 15, snapshotChunk.getBiome(pos));
+                        }
+                    } catch (DataException ignored) {
+                        // Same as SnapshotRestore: skip blocks that cannot be read
+                    }
+                }
+            }
+        }
+        if (restoreEntities) {
+            try {
+                state.entities.addAll(snapshotChunk.getEntities());
+            } catch (DataException ignored) {
+            }
+        }
+    }
+
+    private boolean contains(Region region, boolean cuboid, int x, int y, int z) {
+        if (cuboid) {
+            BlockVector3 min = region.getMinimumPoint();
+            BlockVector3 max = region.getMaximumPoint();
+            if (x < min.x() || x > max.x() || y < min.y() || y > max.y() || z < min.z() || z > max.z()) {
+                return false;
+            }
+        } else if (!region.contains(x, y, z)) {
+            return false;
+        }
+        return mask == null || mask.test(mutable.setComponents(x, y, z));
+    }
+
+    @Override
+    public Filter fork() {
+        return new ParallelSnapshotRestore(
+                snapshot,
+                editSession,
+                restoreBiomes,
+                restoreEntities,
+                state,
+                mask == null ? null : mask.copy()
+        );
+    }
+
+    /**
+     * Get the number of chunks processed.
+     *
+     * @return chunk count
+     */
+    public int getChunkCount() {
+        return state.chunks.intValue();
+    }
+
+    /**
+     * Get the chunks not present in the snapshot.
+     *
+     * @return missing chunks
+     */
+    public List<BlockVector2> getMissingChunks() {
+        return new ArrayList<>(state.missingChunks);
+    }
+
+    /**
+     * Get the chunks that could not be read.
+     *
+     * @return chunks with errors
+     */
+    public List<BlockVector2> getErrorChunks() {
+        return new ArrayList<>(state.errorChunks);
+    }
+
+    /**
+     * Get the message of the last error reading a chunk.
+     *
+     * @return the message, or null
+     */
+    @Nullable
+    public String getLastErrorMessage() {
+        return state.lastErrorMessage;
+    }
+
+    /**
+     * Get the entities read from chunks of the snapshot, to be created by the caller.
+     *
+     * @return entities
+     */
+    public List<BaseEntity> getEntities() {
+        return new ArrayList<>(state.entities);
+    }
+
+    // Shared between forks of the filter
+    private static final class State {
+
+        private final Map<Long, Optional<RegionFile>> regionFiles = new ConcurrentHashMap<>();
+        private final Queue<BlockVector2> missingChunks = new ConcurrentLinkedQueue<>();
+        private final Queue<BlockVector2> errorChunks = new ConcurrentLinkedQueue<>();
+        private final Queue<BaseEntity> entities = new ConcurrentLinkedQueue<>();
+        private final LongAdder chunks = new LongAdder();
+        private volatile String lastErrorMessage;
+
+    }
+
+}
@@ -48,6 +48,7 @@
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class WorldWrapper extends AbstractWorld {
 
@@ -127,6 +128,11 @@ public void checkLoadedChunk(BlockVector3 pt) {
         parent.checkLoadedChunk(pt);
     }
 
+    @Override
+    public CompletableFuture<Void> loadChunkAsync(int chunkX, int chunkZ) {
+        return parent.loadChunkAsync(chunkX, chunkZ);
+    }
+
     @Override
     public void fixAfterFastMode(Iterable<BlockVector2> chunks) {
         parent.fixAfterFastMode(chunks);
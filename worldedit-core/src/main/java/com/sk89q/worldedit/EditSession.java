@@ -24,6 +24,7 @@
 import com.fastasyncworldedit.core.configuration.Caption;
 import com.fastasyncworldedit.core.configuration.Settings;
 import com.fastasyncworldedit.core.extent.FaweRegionExtent;
+import com.fastasyncworldedit.core.extent.LimitExtent;
 import com.fastasyncworldedit.core.extent.PassthroughExtent;
 import com.fastasyncworldedit.core.extent.ProcessedWEExtent;
 import com.fastasyncworldedit.core.extent.ResettableExtent;
@@ -262,6 +263,8 @@ public String getDisplayName() {
     private final boolean wnaMode;
     @Nullable
     private final Region[] allowedRegions;
+    @Nullable
+    private final Region[] disallowedRegions;
 
     EditSession(EditSessionBuilder builder) {
         super(builder.compile().getExtent());
@@ -288,6 +291,7 @@ public String getDisplayName() {
         }
 
         this.allowedRegions = builder.getAllowedRegions() != null ? builder.getAllowedRegions().clone() : null;
+        this.disallowedRegions = builder.getDisallowedRegions() != null ? builder.getDisallowedRegions().clone() : null;
     }
 
     /**
@@ -557,6 +561,17 @@ public Region[] getAllowedRegions() {
         return allowedRegions;
     }
 
+    /**
+     * Get the regions this edit session may not edit, e.g. blacklisted regions of region protection plugins.
+     *
+     * @return the disallowed regions, or null if none
+     * @since TODO
+     */
+    @Nullable
+    public Region[] getDisallowedRegions() {
+        return disallowedRegions;
+    }
+
     public void addTransform(ResettableExtent transform) {
         checkNotNull(transform);
         transform.setExtent(getExtent());
@@ -1334,6 +1349,10 @@ public void flushSession() {
      */
     public void flushQueue() {
         Operations.completeBlindly(commit());
+        LimitExtent limitExtent = new ExtentTraverser<>(getExtent()).findAndGet(LimitExtent.class);
+        if (limitExtent != null) {
+            limitExtent.releaseLeases();
+        }
         // Check fails
         FaweLimit used = getLimitUsed();
         if (used.MAX_FAILS.get() > 0) {
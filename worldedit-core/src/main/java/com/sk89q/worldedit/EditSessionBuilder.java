@@ -32,7 +32,9 @@
 import com.fastasyncworldedit.core.extent.SingleRegionExtent;
 import com.fastasyncworldedit.core.extent.SlowExtent;
 import com.fastasyncworldedit.core.extent.StripNBTExtent;
+import com.fastasyncworldedit.core.extent.clipboard.LazyCopyClipboard;
 import com.fastasyncworldedit.core.extent.processor.EntityInBlockRemovingProcessor;
+import com.fastasyncworldedit.core.extent.processor.UnchangedBlockRemovingProcessor;
 import com.fastasyncworldedit.core.extent.processor.heightmap.HeightmapProcessor;
 import com.fastasyncworldedit.core.extent.processor.lighting.NullRelighter;
 import com.fastasyncworldedit.core.extent.processor.lighting.RelightMode;
@@ -610,6 +612,13 @@ public EditSessionBuilder compile() {
                     queue.addProcessor(new EntityInBlockRemovingProcessor());
                 }
 
+                if (Settings.settings().QUEUE.SKIP_UNCHANGED_BLOCKS) {
+                    queue.addProcessor(UnchangedBlockRemovingProcessor.getInstance());
+                }
+                if (Settings.settings().CLIPBOARD.LAZY_COPY) {
+                    queue.addProcessor(LazyCopyClipboard.getProcessor(world));
+                }
+
                 IBatchProcessor platformProcessor = WorldEdit
                         .getInstance()
                         .getPlatformManager()
@@ -720,6 +729,16 @@ public Region[] getAllowedRegions() {
         return allowedRegions;
     }
 
+    /**
+     * get the disallowed regions associated with the edit's restrictions
+     *
+     * @since TODO
+     */
+    @Nullable
+    public Region[] getDisallowedRegions() {
+        return disallowedRegions;
+    }
+
     /**
      * Force WNA to be used instead of FAWE's queue system. Will use more memory, be slower, and more likely to cause issues.
      */
@@ -20,6 +20,9 @@
 package com.sk89q.worldedit.command;
 
 import com.fastasyncworldedit.core.configuration.Caption;
+import com.fastasyncworldedit.core.extent.filter.BiomeFillFilter;
+import com.fastasyncworldedit.core.queue.implementation.ParallelQueueExtent;
+import com.fastasyncworldedit.core.util.ExtentTraverser;
 import com.sk89q.worldedit.EditSession;
 import com.sk89q.worldedit.LocalSession;
 import com.sk89q.worldedit.WorldEdit;
@@ -180,7 +183,7 @@ public void biomeInfo(
     )
     @Logging(REGION)
     @Preload(Preload.PreloadCheck.PRELOAD)
-    @SynchronousSettingExpected // TODO improve using filter/chunk-based-placement
+    @SynchronousSettingExpected
     @Confirm(Confirm.Processor.NULLABLE_REGION)
     @CommandPermissions("worldedit.biome.set")
     public void setBiome(
@@ -204,6 +207,16 @@ public void setBiome(
             region = session.getSelection(world);
         }
 
+        //FAWE start - fill whole sections on the queue
+        if (mask == null && new ExtentTraverser<>(editSession).find(ParallelQueueExtent.class) != null) {
+            editSession.apply(region, new BiomeFillFilter(target), false);
+            actor.print(Caption.of(
+                    "worldedit.setbiome.changed",
+                    TextComponent.of(region.getVolume() / (editSession.getMaxY() - editSession.getMinY()))
+            ));
+            return;
+        }
+        //FAWE end
         RegionFunction replace = new BiomeReplace(editSession, target);
         if (mask != null) {
             replace = new RegionMaskingFilter(mask, replace);
@@ -26,6 +26,7 @@
 import com.fastasyncworldedit.core.configuration.Settings;
 import com.fastasyncworldedit.core.event.extent.PasteEvent;
 import com.fastasyncworldedit.core.extent.clipboard.DiskOptimizedClipboard;
+import com.fastasyncworldedit.core.extent.clipboard.LazyCopyClipboard;
 import com.fastasyncworldedit.core.extent.clipboard.MultiClipboardHolder;
 import com.fastasyncworldedit.core.extent.clipboard.ReadOnlyClipboard;
 import com.fastasyncworldedit.core.extent.clipboard.URIClipboardHolder;
@@ -162,6 +163,15 @@ public void copy(
         }
         session.setClipboard(null);
 
+        if (Settings.settings().CLIPBOARD.LAZY_COPY && mask == null && !copyEntities && canCopyLazily(editSession, region)) {
+            Clipboard lazyClipboard = LazyCopyClipboard.of(editSession, region, copyBiomes);
+            lazyClipboard.setOrigin(centerClipboard ? region.getCenter().toBlockPoint().withY(region.getMinimumY()) :
+                    session.getPlacementPosition(actor));
+            session.setClipboard(new ClipboardHolder(lazyClipboard));
+            actor.print(Caption.of("fawe.worldedit.copy.command.copy", region.getVolume()));
+            return;
+        }
+
         Clipboard clipboard = new BlockArrayClipboard(region, actor.getUniqueId());
         clipboard.setOrigin(centerClipboard ? region.getCenter().toBlockPoint().withY(region.getMinimumY()) :
                 session.getPlacementPosition(actor));
@@ -174,6 +184,41 @@ public void copy(
     }
 
     //FAWE start
+    /**
+     * Whether the whole region can be read without a source mask, so a lazy clipboard contains the same blocks as a copy.
+     */
+    private static boolean canCopyLazily(EditSession editSession, Region region) {
+        if (editSession.getSourceMask() != null) {
+            return false;
+        }
+        BlockVector3 min = region.getMinimumPoint();
+        BlockVector3 max = region.getMaximumPoint();
+        Region[] disallowedRegions = editSession.getDisallowedRegions();
+        if (disallowedRegions != null) {
+            for (Region disallowed : disallowedRegions) {
+                BlockVector3 disallowedMin = disallowed.getMinimumPoint();
+                BlockVector3 disallowedMax = disallowed.getMaximumPoint();
+                if (disallowed.isGlobal() || (disallowedMin.x() <= max.x() && disallowedMax.x() >= min.x()
+                        && disallowedMin.y() <= max.y() && disallowedMax.y() >= min.y()
+                        && disallowedMin.z() <= max.z() && disallowedMax.z() >= min.z())) {
+                    return false;
+                }
+            }
+        }
+        Region[] regions = editSession.getAllowedRegions();
+        // Unrestricted, e.g. bypassing region restrictions
+        if (regions == null) {
+            return true;
+        }
+        for (Region allowed : regions) {
+            if (allowed.isGlobal() || (allowed instanceof CuboidRegion && allowed.containsEntireCuboid(min.x(), max.x(), min.y(),
+                    max.y(), min.z(), max.z()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Command(
             name = "/lazycopy",
             desc = "Lazily copy the selection to the clipboard"
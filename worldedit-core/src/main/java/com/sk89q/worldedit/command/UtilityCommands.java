@@ -30,10 +30,8 @@
 import com.fastasyncworldedit.core.util.image.ImageUtil;
 import com.fastasyncworldedit.core.util.task.DelegateConsumer;
 import com.sk89q.worldedit.EditSession;
-import com.sk89q.worldedit.IncompleteRegionException;
 import com.sk89q.worldedit.LocalConfiguration;
 import com.sk89q.worldedit.LocalSession;
-import com.sk89q.worldedit.MaxChangedBlocksException;
 import com.sk89q.worldedit.WorldEdit;
 import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.command.argument.HeightConverter;
@@ -54,9 +52,7 @@
 import com.sk89q.worldedit.function.mask.BlockTypeMask;
 import com.sk89q.worldedit.function.mask.ExistingBlockMask;
 import com.sk89q.worldedit.function.mask.Mask;
-import com.sk89q.worldedit.function.operation.Operations;
 import com.sk89q.worldedit.function.pattern.Pattern;
-import com.sk89q.worldedit.function.visitor.EntityVisitor;
 import com.sk89q.worldedit.internal.annotation.Direction;
 import com.sk89q.worldedit.internal.annotation.VertHeight;
 import com.sk89q.worldedit.internal.expression.EvaluationException;
@@ -758,10 +754,7 @@ public int remove(
         return removed;
     }
 
-    private int killMatchingEntities(Integer radius, Actor actor, Supplier<EntityFunction> func) throws IncompleteRegionException,
-            MaxChangedBlocksException {
-        List<EntityVisitor> visitors = new ArrayList<>();
-
+    private int killMatchingEntities(Integer radius, Actor actor, Supplier<EntityFunction> func) throws WorldEditException {
         LocalSession session = we.getSessionManager().get(actor);
         BlockVector3 center = session.getPlacementPosition(actor);
         EditSession editSession = session.createEditSession(actor);
@@ -772,13 +765,9 @@ private int killMatchingEntities(Integer radius, Actor actor, Supplier<EntityFun
         } else {
             entities = editSession.getEntities();
         }
-        visitors.add(new EntityVisitor(entities.iterator(), func.get()));
-
-        int killed = 0;
-        for (EntityVisitor visitor : visitors) {
-            Operations.completeLegacy(visitor);
-            killed += visitor.getAffected();
-        }
+        //FAWE start - let the world apply the function to the entities of a region together
+        int killed = editSession.getWorld().applyEntities(entities, func.get());
+        //FAWE end
 
         session.remember(editSession);
         editSession.close();
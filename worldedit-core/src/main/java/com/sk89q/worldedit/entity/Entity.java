@@ -53,6 +53,17 @@ default EntityType getType() {
         BaseEntity state = getState();
         return state != null ? state.getType() : null;
     }
+
+    /**
+     * Get the entity wrapped by this entity, e.g. by an extent tracking changes to it. Operations should still be applied to
+     * this entity, so the wrapper sees them.
+     *
+     * @return the innermost wrapped entity, or this entity if it does not wrap another
+     * @since TODO
+     */
+    default Entity unwrap() {
+        return this;
+    }
     //FAWE end
 
     /**
@@ -198,6 +198,13 @@ public <T> T getFacet(Class<? extends T> cls) {
             return entity.getFacet(cls);
         }
 
+        //FAWE start
+        @Override
+        public Entity unwrap() {
+            return entity.unwrap();
+        }
+        //FAWE end
+
     }
 
 }
@@ -33,6 +33,7 @@
 import com.fastasyncworldedit.core.function.pattern.MaskedPattern;
 import com.fastasyncworldedit.core.history.changeset.AbstractChangeSet;
 import com.fastasyncworldedit.core.internal.exception.FaweException;
+import com.fastasyncworldedit.core.math.ChunkOrder;
 import com.fastasyncworldedit.core.math.MutableBlockVector3;
 import com.fastasyncworldedit.core.queue.Filter;
 import com.fastasyncworldedit.core.queue.IBatchProcessor;
@@ -77,6 +78,7 @@
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -1149,7 +1151,7 @@ default int setBlocks(final Set<BlockVector3> vset, final Pattern pattern) {
             return setBlocks((Region) vset, pattern);
         }
         int count = 0;
-        for (BlockVector3 pos : vset) {
+        for (BlockVector3 pos : ChunkOrder.of(vset)) {
             if (pattern.apply(this, pos, pos)) {
                 count++;
             }
@@ -1205,7 +1207,10 @@ default <T extends Filter> T apply(Region region, T filter, boolean full) {
 
     default <T extends Filter> T apply(Iterable<BlockVector3> positions, T filter) {
         ExtentFilterBlock block = new ExtentFilterBlock(this);
-        for (BlockVector3 pos : positions) {
+        Iterable<? extends BlockVector3> ordered = positions instanceof Collection<BlockVector3> collection
+                ? ChunkOrder.of(collection)
+                : positions;
+        for (BlockVector3 pos : ordered) {
             filter.applyBlock(block.init(pos));
         }
         return filter;
@@ -24,12 +24,12 @@
 import com.fastasyncworldedit.core.extent.clipboard.LazyClipboardHolder;
 import com.fastasyncworldedit.core.extent.clipboard.MultiClipboardHolder;
 import com.fastasyncworldedit.core.extent.clipboard.URIClipboardHolder;
+import com.fastasyncworldedit.core.extent.clipboard.io.SchematicBatchLoader;
 import com.fastasyncworldedit.core.internal.io.FastByteArrayOutputStream;
 import com.fastasyncworldedit.core.util.MainUtil;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.io.ByteSource;
-import com.google.common.io.Files;
 import com.sk89q.jnbt.NBTConstants;
 import com.sk89q.jnbt.NBTInputStream;
 import com.sk89q.worldedit.LocalConfiguration;
@@ -421,9 +421,8 @@ public static MultiClipboardHolder loadAllFromInput(
             return null;
         }
         if (!f.isDirectory()) {
-            ByteSource source = Files.asByteSource(f);
             URI uri = f.toURI();
-            return new MultiClipboardHolder(uri, new LazyClipboardHolder(f.toURI(), source, format, null));
+            return new MultiClipboardHolder(uri, new LazyClipboardHolder(f, format, null));
         }
         URIClipboardHolder[] clipboards = loadAllFromDirectory(f);
         if (clipboards.length < 1) {
@@ -432,7 +431,9 @@ public static MultiClipboardHolder loadAllFromInput(
             }
             return null;
         }
-        return new MultiClipboardHolder(f.toURI(), clipboards);
+        MultiClipboardHolder multi = new MultiClipboardHolder(f.toURI(), clipboards);
+        multi.preload();
+        return multi;
     }
 
     public static URIClipboardHolder[] loadAllFromDirectory(File dir) {
@@ -442,14 +443,10 @@ public static URIClipboardHolder[] loadAllFromDirectory(File dir) {
             String extension = input.substring(input.lastIndexOf('.') + 1);
             return (extensions.contains(extension.toLowerCase(Locale.ENGLISH)));
         });
-        LazyClipboardHolder[] clipboards = new LazyClipboardHolder[files.length];
-        for (int i = 0; i < files.length; i++) {
-            File file = files[i];
-            ByteSource source = Files.asByteSource(file);
-            ClipboardFormat format = findByFile(file);
-            clipboards[i] = new LazyClipboardHolder(file.toURI(), source, format, null);
+        if (files == null) {
+            return new URIClipboardHolder[0];
         }
-        return clipboards;
+        return SchematicBatchLoader.createHolders(files);
     }
 
     public static MultiClipboardHolder loadAllFromUrl(URL url) throws IOException {
@@ -133,6 +133,11 @@ public boolean test(Extent extent, BlockVector3 position) {
         BiomeType biome = getExtent().getBiome(position);
         return biomes[biome.getInternalId()];
     }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
     //FAWE end
 
 }
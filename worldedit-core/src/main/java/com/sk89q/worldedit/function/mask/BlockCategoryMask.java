@@ -82,5 +82,10 @@ public Mask copy() {
     public boolean replacesAir() {
         return category.contains(BlockTypes.AIR);
     }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
     //FAWE end
 }
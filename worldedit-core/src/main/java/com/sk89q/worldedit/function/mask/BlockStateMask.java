@@ -91,5 +91,10 @@ public Mask copy() {
         states.forEach(statesClone::put);
         return new BlockStateMask(getExtent(), statesClone, strict);
     }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
     //FAWE end
 }
@@ -163,4 +163,11 @@ public BlockTypeMask copy() {
         return new BlockTypeMask(getExtent(), types.clone(), hasAir);
     }
 
+    //FAWE start
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+    //FAWE end
+
 }
@@ -63,6 +63,11 @@ public Mask copy() {
         // The mask is not mutable. There is no need to clone it.
         return this;
     }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
     //FAWE end
 
 }
@@ -125,6 +125,18 @@ default boolean replacesAir() {
         return false;
     }
 
+    /**
+     * Returns true if testing this mask has no side effects and its result for a position does not depend on the
+     * positions tested before. Such masks may be tested in any order, e.g. by a {@link MaskIntersection} testing the
+     * masks rejecting the most positions first.
+     *
+     * @return if the mask may be tested in any order
+     * @since TODO
+     */
+    default boolean isStateless() {
+        return false;
+    }
+
     /**
      * Returns a copy of the mask. Usually for multi-threaded operation
      *
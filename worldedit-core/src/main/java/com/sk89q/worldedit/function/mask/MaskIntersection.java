@@ -19,6 +19,7 @@
 
 package com.sk89q.worldedit.function.mask;
 
+import com.fastasyncworldedit.core.function.mask.AdaptiveMaskOrder;
 import com.sk89q.worldedit.internal.util.LogManagerCompat;
 import com.sk89q.worldedit.math.BlockVector3;
 import org.apache.logging.log4j.Logger;
@@ -53,6 +54,9 @@ public class MaskIntersection extends AbstractMask {
     //FAWE start
     protected Mask[] masksArray;
     protected boolean defaultReturn;
+    // Order adapted to the cost and pass rate of the masks, null if the masks may not be reordered
+    @Nullable
+    protected transient AdaptiveMaskOrder order;
     //FAWE end
 
     /**
@@ -111,6 +115,9 @@ private void formArray() {
             masksArray = masks.toArray(new Mask[0]);
         }
         this.defaultReturn = masksArray.length != 0;
+        this.order = AdaptiveMaskOrder.canReorder(masksArray)
+                ? new AdaptiveMaskOrder(masksArray, this instanceof MaskUnion)
+                : null;
     }
 
     public Function<Entry<Mask, Mask>, Mask> pairingFunction() {
@@ -267,7 +274,15 @@ public final Mask[] getMasksArray() {
 
     @Override
     public boolean test(BlockVector3 vector) {
-        for (Mask mask : masksArray) {
+        Mask[] masks = masksArray;
+        AdaptiveMaskOrder order = this.order;
+        if (order != null) {
+            if (order.shouldProfile()) {
+                return order.test(vector);
+            }
+            masks = order.getMasks();
+        }
+        for (Mask mask : masks) {
             if (!mask.test(vector)) {
                 return false;
             }
@@ -308,6 +323,16 @@ public boolean replacesAir() {
         }
         return false;
     }
+
+    @Override
+    public boolean isStateless() {
+        for (Mask mask : masksArray) {
+            if (!mask.isStateless()) {
+                return false;
+            }
+        }
+        return true;
+    }
     //FAWE end
 
 }
@@ -1,5 +1,6 @@
 package com.sk89q.worldedit.function.mask;
 
+import com.fastasyncworldedit.core.function.mask.AdaptiveMaskOrder;
 import com.sk89q.worldedit.math.BlockVector3;
 
 import javax.annotation.Nullable;
@@ -66,6 +67,13 @@ public Function<Entry<Mask, Mask>, Mask> pairingFunction() {
     @Override
     public boolean test(BlockVector3 vector) {
         Mask[] masks = getMasksArray();
+        AdaptiveMaskOrder order = this.order;
+        if (order != null) {
+            if (order.shouldProfile()) {
+                return order.test(vector);
+            }
+            masks = order.getMasks();
+        }
 
         for (Mask mask : masks) {
             if (mask.test(vector)) {
@@ -233,6 +233,11 @@ public Mask2D toMask2D() {
         public Mask copy() {
             return Masks.negate(mask.copy());
         }
+
+        @Override
+        public boolean isStateless() {
+            return mask.isStateless();
+        }
         //FAWE end
 
     }
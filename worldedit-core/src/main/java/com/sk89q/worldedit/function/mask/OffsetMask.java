@@ -144,6 +144,11 @@ public Mask2D toMask2D() {
     public Mask copy() {
         return new OffsetMask(mask.copy(), offset.toImmutable(), minY, maxY);
     }
+
+    @Override
+    public boolean isStateless() {
+        return mask.isStateless();
+    }
     //FAWE end
 
 }
@@ -85,6 +85,11 @@ public Mask optimize() {
         }
         return this;
     }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
     //FAWE end
 
 }
@@ -66,6 +66,11 @@ public static boolean isSolid(BlockState blockState) {
     public Mask copy() {
         return new SolidBlockMask(getExtent());
     }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
     //FAWE end
 
 }
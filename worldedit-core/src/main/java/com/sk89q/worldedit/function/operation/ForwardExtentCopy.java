@@ -21,6 +21,7 @@
 
 import com.fastasyncworldedit.core.configuration.Caption;
 import com.fastasyncworldedit.core.configuration.Settings;
+import com.fastasyncworldedit.core.entity.CapturedEntity;
 import com.fastasyncworldedit.core.extent.BlockTranslateExtent;
 import com.fastasyncworldedit.core.extent.OncePerChunkExtent;
 import com.fastasyncworldedit.core.extent.PositionTransformExtent;
@@ -505,16 +506,19 @@ public static Collection<Entity> getEntities(Extent source, Region region) {
             return entities;
         }
         LinkedBlockingQueue<Entity> entities = new LinkedBlockingQueue<>();
+        final Extent captureExtent = extent;
         Consumer<IChunkGet> task = (get) -> {
+            // Capture all entities of the chunk in one batch, then convert them off the thread owning the chunk
+            List<Entity> captured = CapturedEntity.of(captureExtent, get, get.captureEntities());
             if (region == null || region instanceof CuboidRegion cuboid && cuboid.chunkContainedBy(
                     get.getX(),
                     get.getZ(),
                     get.getMinY(),
                     get.getMaxY()
             )) {
-                entities.addAll(get.getFullEntities());
+                entities.addAll(captured);
             } else {
-                get.getFullEntities().forEach(e -> {
+                captured.forEach(e -> {
                     if (region.contains(e.getLocation().toBlockPoint())) {
                         entities.add(e);
                     }
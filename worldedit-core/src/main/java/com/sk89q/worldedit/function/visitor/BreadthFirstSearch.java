@@ -21,6 +21,7 @@
 
 import com.fastasyncworldedit.core.configuration.Caption;
 import com.fastasyncworldedit.core.configuration.Settings;
+import com.fastasyncworldedit.core.math.AdaptiveBlockVectorSet;
 import com.fastasyncworldedit.core.math.BlockVectorSet;
 import com.fastasyncworldedit.core.math.MutableBlockVector3;
 import com.fastasyncworldedit.core.queue.implementation.ParallelQueueExtent;
@@ -93,7 +94,8 @@ public abstract class BreadthFirstSearch implements Operation {
     private final RegionFunction function;
     //FAWE start - allow chunk preloading and BVS > Queue<BV3>, Set<BV3>, List<BV3>
     private final SingleThreadQueueExtent singleQueue;
-    private BlockVectorSet queue = new BlockVectorSet();
+    // Iterates in chunk order, so each depth is visited chunk by chunk
+    private AdaptiveBlockVectorSet queue = new AdaptiveBlockVectorSet();
     private BlockVectorSet visited = new BlockVectorSet();
     private BlockVector3[] directions;
     //FAWE end
@@ -292,7 +294,7 @@ public Operation resume(RunContext run) throws WorldEditException {
         //FAWE start - directions, visited and preloading
         MutableBlockVector3 mutable = new MutableBlockVector3();
         BlockVector3[] dirs = directions;
-        BlockVectorSet tempQueue = new BlockVectorSet();
+        AdaptiveBlockVectorSet tempQueue = new AdaptiveBlockVectorSet();
         BlockVectorSet chunkLoadSet = new BlockVectorSet();
         for (currentDepth = 0; !queue.isEmpty() && currentDepth <= maxDepth; currentDepth++) {
             int loadCount = 0;
@@ -347,7 +349,7 @@ public Operation resume(RunContext run) throws WorldEditException {
             if (currentDepth == maxDepth) {
                 break;
             }
-            BlockVectorSet tmp = queue;
+            AdaptiveBlockVectorSet tmp = queue;
             queue = tempQueue;
             tmp.clear();
             tempQueue = tmp;
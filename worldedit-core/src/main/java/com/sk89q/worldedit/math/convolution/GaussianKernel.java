@@ -24,6 +24,10 @@
  */
 public class GaussianKernel extends Kernel {
 
+    //FAWE start
+    private final float[] separableData;
+    //FAWE end
+
     /**
      * Constructor of the kernel.
      *
@@ -32,6 +36,9 @@ public class GaussianKernel extends Kernel {
      */
     public GaussianKernel(int radius, double sigma) {
         super(radius * 2 + 1, radius * 2 + 1, createKernel(radius, sigma));
+        //FAWE start
+        this.separableData = createSeparableKernel(radius, sigma);
+        //FAWE end
     }
 
     private static float[] createKernel(int radius, double sigma) {
@@ -49,4 +56,31 @@ private static float[] createKernel(int radius, double sigma) {
         return data;
     }
 
+    //FAWE start - the kernel is the product of a 1D kernel with itself, so it may be applied as two 1D passes
+
+    /**
+     * Get the 1D kernel of which this kernel is the outer product with itself. Applying it along one axis and then the other
+     * is equivalent to applying this kernel, with far fewer operations.
+     *
+     * @return 1D kernel data, of length radius * 2 + 1
+     * @since TODO
+     */
+    public float[] getSeparableKernelData() {
+        return separableData.clone();
+    }
+
+    private static float[] createSeparableKernel(int radius, double sigma) {
+        int diameter = radius * 2 + 1;
+        float[] data = new float[diameter];
+
+        double sigma22 = 2 * sigma * sigma;
+        double constant = Math.sqrt(Math.PI * sigma22);
+        for (int x = -radius; x <= radius; ++x) {
+            data[x + radius] = (float) (Math.exp(-(x * x) / sigma22) / constant);
+        }
+
+        return data;
+    }
+    //FAWE end
+
 }
@@ -19,12 +19,17 @@
 
 package com.sk89q.worldedit.math.convolution;
 
+import com.fastasyncworldedit.core.extent.LimitExtent;
+import com.fastasyncworldedit.core.extent.filter.SurfaceHeightFilter;
 import com.fastasyncworldedit.core.registry.state.PropertyGroup;
+import com.fastasyncworldedit.core.util.ExtentTraverser;
 import com.sk89q.worldedit.EditSession;
 import com.sk89q.worldedit.MaxChangedBlocksException;
+import com.sk89q.worldedit.extent.Extent;
 import com.sk89q.worldedit.function.mask.Mask;
 import com.sk89q.worldedit.math.BlockVector2;
 import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.regions.CuboidRegion;
 import com.sk89q.worldedit.regions.Region;
 import com.sk89q.worldedit.regions.Regions;
 import com.sk89q.worldedit.world.block.BlockState;
@@ -111,6 +116,8 @@ public HeightMap(EditSession session, Region region, @Nullable Mask mask, boolea
                 layer = session.getNearestSurfaceLayer(x, z, (layer + 7) >> 3, session.getMinY(), maxY);
                 data[(z - bz) * width + (x - bx)] = layer;
             }
+        } else if (mask == null && readSurface(minY, maxY)) {
+            // Heights were read from the chunks in parallel
         } else {
             // Store current heightmap data
             int index = 0;
@@ -127,6 +134,47 @@ public HeightMap(EditSession session, Region region, @Nullable Mask mask, boolea
         //FAWE end
     }
 
+    //FAWE start - read the surface of all chunks in parallel, straight from the chunk data
+
+    /**
+     * Read the highest terrain block of every column from the chunks of the region, equivalent to
+     * {@link EditSession#getHighestTerrainBlock(int, int, int, int)}.
+     *
+     * @return false if the height range is empty, in which case nothing was read
+     */
+    private boolean readSurface(int minY, int maxY) {
+        int surfaceMinY = Math.max(minSessionY, minY);
+        int surfaceMaxY = Math.min(maxSessionY, maxY);
+        if (surfaceMinY > surfaceMaxY) {
+            return false;
+        }
+        // The chunks are read below the limit, so count the checks the per column search would have made
+        LimitExtent limit = new ExtentTraverser<>(session.getExtent()).findAndGet(LimitExtent.class);
+        if (limit != null) {
+            limit.addChecks((long) width * height * (surfaceMaxY - surfaceMinY + 1));
+        }
+        BlockVector3 min = region.getMinimumPoint();
+        BlockVector3 max = region.getMaximumPoint();
+        SurfaceHeightFilter filter = new SurfaceHeightFilter(min, max, surfaceMinY, surfaceMaxY);
+        // Nothing is changed, so bypass history. The filter reads whole columns itself, so a single layer covering every
+        // column of the bounding box is enough
+        Extent extent = session.getBypassAll();
+        extent.apply(new CuboidRegion(min.withY(surfaceMinY), max.withY(surfaceMinY)), filter, false);
+        int[] heights = filter.getData();
+        int index = 0;
+        for (int z = 0; z < height; z++) {
+            for (int x = 0; x < width; x++, index++) {
+                // Chunks the filter was not applied to, e.g. skipped by the queue or not a chunk based extent at all
+                if (heights[index] == SurfaceHeightFilter.UNREAD) {
+                    heights[index] = extent.getHighestTerrainBlock(x + min.x(), z + min.z(), minY, maxY);
+                }
+            }
+        }
+        System.arraycopy(heights, 0, data, 0, data.length);
+        return true;
+    }
+    //FAWE end
+
     //FAWE start - allow HeightMap creation with data
     public HeightMap(EditSession session, Region region, int[] data, boolean layers) {
         this.session = session;
@@ -99,6 +99,17 @@ public int[] filter(int[] inData, int width, int height, float offset) {
             inDataFloat[i] = inData[i];
         }
 
+        //FAWE start - apply separable kernels as two 1D passes
+        if (kernel instanceof GaussianKernel gaussian) {
+            float[] filtered = filterSeparable(inDataFloat, width, height, offset, gaussian.getSeparableKernelData());
+            int[] outData = new int[inData.length];
+            for (int i = 0; i < filtered.length; i++) {
+                outData[i] = (int) Math.floor(filtered[i]);
+            }
+            return outData;
+        }
+        //FAWE end
+
         int index = 0;
         float[] matrix = kernel.getKernelData(null);
         int[] outData = new int[inData.length];
@@ -122,6 +133,12 @@ public int[] filter(int[] inData, int width, int height, float offset) {
     public float[] filter(float[] inData, int width, int height, float offset) {
         checkNotNull(inData);
 
+        //FAWE start - apply separable kernels as two 1D passes
+        if (kernel instanceof GaussianKernel gaussian) {
+            return filterSeparable(inData, width, height, offset, gaussian.getSeparableKernelData());
+        }
+        //FAWE end
+
         int index = 0;
         float[] matrix = kernel.getKernelData(null);
         float[] outData = new float[inData.length];
@@ -134,6 +151,57 @@ public float[] filter(float[] inData, int width, int height, float offset) {
         return outData;
     }
 
+    //FAWE start
+
+    /**
+     * Filter with a kernel that is the outer product of a 1D kernel with itself, by applying the 1D kernel along x and then
+     * along y. Coordinates outside the data are clamped as in {@link #calculateHeight}, independently per axis, so the result
+     * equals that of the 2D kernel.
+     *
+     * @param inData the data
+     * @param width  the width
+     * @param height the height
+     * @param offset the offset added to the height
+     * @param kernel the 1D kernel, centered
+     * @return the modified height map
+     */
+    private static float[] filterSeparable(float[] inData, int width, int height, float offset, float[] kernel) {
+        int radius = kernel.length >> 1;
+        float[] rows = new float[inData.length];
+        for (int y = 0; y < height; ++y) {
+            int rowOffset = y * width;
+            for (int x = 0; x < width; ++x) {
+                float z = 0;
+                for (int k = 0; k < kernel.length; ++k) {
+                    int offsetX = x + k - radius;
+                    // Clamp coordinates inside data
+                    if (offsetX < 0 || offsetX >= width) {
+                        offsetX = x;
+                    }
+                    z += kernel[k] * inData[rowOffset + offsetX];
+                }
+                rows[rowOffset + x] = z;
+            }
+        }
+        float[] outData = new float[inData.length];
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                float z = 0;
+                for (int k = 0; k < kernel.length; ++k) {
+                    int offsetY = y + k - radius;
+                    // Clamp coordinates inside data
+                    if (offsetY < 0 || offsetY >= height) {
+                        offsetY = y;
+                    }
+                    z += kernel[k] * rows[offsetY * width + x];
+                }
+                outData[y * width + x] = z + offset;
+            }
+        }
+        return outData;
+    }
+    //FAWE end
+
     /**
      * Calculate the height based on the existing data and the kernel data.
      *
@@ -19,6 +19,7 @@
 
 package com.sk89q.worldedit.regions;
 
+import com.fastasyncworldedit.core.regions.RowSpans;
 import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.math.Vector3;
 import com.sk89q.worldedit.regions.polyhedron.Edge;
@@ -334,5 +335,34 @@ public AbstractRegion clone() {
     public boolean containsEntireCuboid(int bx, int tx, int by, int ty, int bz, int tz) {
         return false;
     }
+
+    @Override
+    public char getRowSpans(int bx, int y, int z) {
+        if (!isDefined()) {
+            return RowSpans.NONE;
+        }
+        BlockVector3 min = getMinimumPoint();
+        BlockVector3 max = getMaximumPoint();
+        if (y < min.y() || y > max.y() || z < min.z() || z > max.z()) {
+            return RowSpans.NONE;
+        }
+        // Intersect the row with the half-space below each triangle
+        double minX = min.x();
+        double maxX = max.x();
+        for (Triangle triangle : triangles) {
+            Vector3 normal = triangle.getNormal();
+            double limit = triangle.getMaxDotProduct() - normal.y() * y - normal.z() * z;
+            if (Math.abs(normal.x()) < 1e-9) {
+                if (limit < -1e-6) {
+                    return RowSpans.NONE;
+                }
+            } else if (normal.x() > 0) {
+                maxX = Math.min(maxX, limit / normal.x());
+            } else {
+                minX = Math.max(minX, limit / normal.x());
+            }
+        }
+        return RowSpans.convex(this, bx, y, z, minX, maxX);
+    }
     //FAWE end
 }
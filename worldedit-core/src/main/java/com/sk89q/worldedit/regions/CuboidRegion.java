@@ -27,6 +27,7 @@
 import com.fastasyncworldedit.core.queue.IChunk;
 import com.fastasyncworldedit.core.queue.IChunkGet;
 import com.fastasyncworldedit.core.queue.IChunkSet;
+import com.fastasyncworldedit.core.regions.RowSpans;
 import com.sk89q.worldedit.math.BlockVector2;
 import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.world.World;
@@ -969,6 +970,14 @@ public IChunkSet processSet(IChunk chunk, IChunkGet get, IChunkSet set, boolean
         }
         return set;
     }
+
+    @Override
+    public char getRowSpans(int bx, int y, int z) {
+        if (y < minY || y > maxY || z < minZ || z > maxZ) {
+            return RowSpans.NONE;
+        }
+        return RowSpans.of(bx, minX, maxX);
+    }
     //FAWE end
 
 }
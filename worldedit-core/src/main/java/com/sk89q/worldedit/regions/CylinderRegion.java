@@ -25,6 +25,7 @@
 import com.fastasyncworldedit.core.queue.IChunk;
 import com.fastasyncworldedit.core.queue.IChunkGet;
 import com.fastasyncworldedit.core.queue.IChunkSet;
+import com.fastasyncworldedit.core.regions.RowSpans;
 import com.sk89q.worldedit.extent.Extent;
 import com.sk89q.worldedit.math.BlockVector2;
 import com.sk89q.worldedit.math.BlockVector3;
@@ -424,5 +425,15 @@ public void filter(
         }
         super.filter(chunk, filter, block, get, set, full);
     }
+
+    @Override
+    public char getRowSpans(int bx, int y, int z) {
+        if (y < minY || y > maxY) {
+            return RowSpans.NONE;
+        }
+        double dz = Math.abs(z - center.z()) * radiusInverse.z();
+        double radiusX = Math.sqrt(Math.max(1 - dz * dz, 0)) / radiusInverse.x();
+        return RowSpans.convex(this, bx, y, z, center.x() - radiusX, center.x() + radiusX);
+    }
     //FAWE end
 }
@@ -26,6 +26,7 @@
 import com.fastasyncworldedit.core.queue.IChunk;
 import com.fastasyncworldedit.core.queue.IChunkGet;
 import com.fastasyncworldedit.core.queue.IChunkSet;
+import com.fastasyncworldedit.core.regions.RowSpans;
 import com.fastasyncworldedit.core.util.MathMan;
 import com.sk89q.worldedit.math.BlockVector2;
 import com.sk89q.worldedit.math.BlockVector3;
@@ -447,5 +448,23 @@ public void filter(
             super.filter(chunk, filter, block, get, set, full);
         }
     }
+
+    @Override
+    public char getRowSpans(int bx, int y, int z) {
+        int cy = y - center.y();
+        int cz = z - center.z();
+        double radiusX;
+        if (sphere) {
+            int remaining = radiusLengthSqr - cy * cy - cz * cz;
+            if (remaining < 0) {
+                return RowSpans.NONE;
+            }
+            radiusX = Math.sqrt(remaining);
+        } else {
+            double remaining = 1 - cy * cy * inverseRadiusSqr.y() - cz * cz * inverseRadiusSqr.z();
+            radiusX = Math.sqrt(Math.max(remaining, 0) * radiusSqr.x());
+        }
+        return RowSpans.convex(this, bx, y, z, center.x() - radiusX, center.x() + radiusX);
+    }
     //FAWE end
 }
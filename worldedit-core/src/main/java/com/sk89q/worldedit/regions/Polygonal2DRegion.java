@@ -20,6 +20,7 @@
 package com.sk89q.worldedit.regions;
 
 import com.fastasyncworldedit.core.configuration.Caption;
+import com.fastasyncworldedit.core.regions.RowSpans;
 import com.sk89q.worldedit.math.BlockVector2;
 import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.regions.iterator.FlatRegion3DIterator;
@@ -29,6 +30,7 @@
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -530,5 +532,36 @@ public boolean containsEntireCuboid(int bx, int tx, int by, int ty, int bz, int
         }
         return true;
     }
+
+    @Override
+    public boolean getSectionSpans(int chunkX, int layer, int chunkZ, char[] rows) {
+        // The rows of a section only differ in height, so each row is only computed once
+        int bx = chunkX << 4;
+        int by = layer << 4;
+        int bz = chunkZ << 4;
+        int minY = Math.max(0, this.minY - by);
+        int maxY = Math.min(15, this.maxY - by);
+        Arrays.fill(rows, 0, 256, RowSpans.NONE);
+        if (minY > maxY || points.size() < 3) {
+            return false;
+        }
+        boolean any = false;
+        for (int z = 0; z < 16; z++) {
+            char row = RowSpans.NONE;
+            for (int x = 0; x < 16; x++) {
+                if (contains(bx + x, bz + z)) {
+                    row |= (char) (1 << x);
+                }
+            }
+            if (row == RowSpans.NONE) {
+                continue;
+            }
+            any = true;
+            for (int y = minY; y <= maxY; y++) {
+                rows[y << 4 | z] = row;
+            }
+        }
+        return any;
+    }
     //FAWE end
 }
@@ -29,6 +29,7 @@
 import com.fastasyncworldedit.core.queue.IChunk;
 import com.fastasyncworldedit.core.queue.IChunkGet;
 import com.fastasyncworldedit.core.queue.IChunkSet;
+import com.fastasyncworldedit.core.regions.RowSpans;
 import com.sk89q.worldedit.WorldEdit;
 import com.sk89q.worldedit.extension.platform.Capability;
 import com.sk89q.worldedit.extent.Extent;
@@ -370,6 +371,53 @@ default void filter(
         block.filter(filter, yStart, yEnd);
     }
 
+    /**
+     * Get the positions of a 16 block x-row of a chunk contained by this region. Bit {@code x} of the row is set if the
+     * position {@code bx + x, y, z} is contained, so the contained x-spans of the row are its runs of set bits. Regions
+     * should compute the spans directly instead of testing each position where possible, see {@link RowSpans}.
+     *
+     * @param bx the x coordinate of the first block of the row
+     * @param y  the y coordinate of the row
+     * @param z  the z coordinate of the row
+     * @return the contained positions of the row
+     * @since TODO
+     */
+    default char getRowSpans(int bx, int y, int z) {
+        return RowSpans.scan(this, bx, y, z);
+    }
+
+    /**
+     * Get the positions of a chunk section contained by this region, as the x-spans of each row of the section.
+     *
+     * @param chunkX the x coordinate of the chunk
+     * @param layer  the layer of the section
+     * @param chunkZ the z coordinate of the chunk
+     * @param rows   the array to store the rows in, see {@link #getRowSpans(int, int, int)}. The row of local y and z is
+     *               stored at index {@code y << 4 | z}
+     * @return if any position of the section is contained
+     * @since TODO
+     */
+    default boolean getSectionSpans(int chunkX, int layer, int chunkZ, char[] rows) {
+        int bx = chunkX << 4;
+        int by = layer << 4;
+        int bz = chunkZ << 4;
+        BlockVector3 min = getMinimumPoint();
+        BlockVector3 max = getMaximumPoint();
+        int minY = Math.max(0, min.y() - by);
+        int maxY = Math.min(15, max.y() - by);
+        int minZ = Math.max(0, min.z() - bz);
+        int maxZ = Math.min(15, max.z() - bz);
+        boolean any = false;
+        for (int y = 0, index = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++, index++) {
+                char row = y < minY || y > maxY || z < minZ || z > maxZ ? RowSpans.NONE : getRowSpans(bx, by + y, bz + z);
+                rows[index] = row;
+                any |= row != RowSpans.NONE;
+            }
+        }
+        return any;
+    }
+
     default boolean containsEntireCuboid(int bx, int tx, int by, int ty, int bz, int tz) {
         return contains(bx, by, bz)
                 && contains(bx, by, tz)
@@ -406,6 +454,7 @@ default IChunkSet processSet(IChunk chunk, IChunkGet get, IChunkSet set) {
         if (tx >= min.x() && bx <= max.x() && tz >= min.z() && bz <= max.z()) {
             // contains some
             boolean processExtra = false;
+            char[] rows = null;
             final int minLayer = Math.max(getMinimumY(), chunk.getMinY()) >> 4;
             final int maxLayer = Math.min(getMaximumY(), chunk.getMaxY()) >> 4;
             for (int layer = minLayer; layer <= maxLayer; layer++) {
@@ -420,12 +469,18 @@ default IChunkSet processSet(IChunk chunk, IChunkGet get, IChunkSet set) {
                     if (arr == null) {
                         continue;
                     }
-                    for (int y = 0, index = 0; y < 16; y++) {
-                        for (int z = 0; z < 16; z++) {
-                            for (int x = 0; x < 16; x++, index++) {
-                                if (arr[index] != BlockTypesCache.ReservedIDs.__RESERVED__ && !contains(bx + x, by + y, bz + z)) {
-                                    arr[index] = BlockTypesCache.ReservedIDs.__RESERVED__;
-                                }
+                    if (rows == null) {
+                        rows = new char[256];
+                    }
+                    getSectionSpans(chunk.getX(), layer, chunk.getZ(), rows);
+                    for (int row = 0; row < 256; row++) {
+                        char spans = rows[row];
+                        if (spans == RowSpans.ALL) {
+                            continue;
+                        }
+                        for (int x = 0, index = row << 4; x < 16; x++, index++) {
+                            if ((spans & (1 << x)) == 0) {
+                                arr[index] = BlockTypesCache.ReservedIDs.__RESERVED__;
                             }
                         }
                     }
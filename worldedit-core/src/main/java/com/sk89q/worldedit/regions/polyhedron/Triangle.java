@@ -93,6 +93,30 @@ public boolean above(Vector3 pt) {
         return normal.dot(pt) > maxDotProduct;
     }
 
+    //FAWE start
+
+    /**
+     * Get the normal of the plane the triangle is in.
+     *
+     * @return the normal
+     * @since TODO
+     */
+    public Vector3 getNormal() {
+        return normal;
+    }
+
+    /**
+     * Get the largest dot product of the normal and a vertex of the triangle, points with a larger dot product are
+     * above the triangle.
+     *
+     * @return the largest dot product
+     * @since TODO
+     */
+    public double getMaxDotProduct() {
+        return maxDotProduct;
+    }
+    //FAWE end
+
     /**
      * Set the triangle's tag.
      *
@@ -27,9 +27,11 @@
 import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.blocks.BaseItem;
 import com.sk89q.worldedit.blocks.BaseItemStack;
+import com.sk89q.worldedit.entity.Entity;
 import com.sk89q.worldedit.entity.Player;
 import com.sk89q.worldedit.extension.platform.Platform;
 import com.sk89q.worldedit.extent.Extent;
+import com.sk89q.worldedit.function.EntityFunction;
 import com.sk89q.worldedit.function.mask.Mask;
 import com.sk89q.worldedit.internal.util.DeprecationUtil;
 import com.sk89q.worldedit.internal.util.NonAbstractForCompatibility;
@@ -57,6 +59,7 @@
 import java.util.Collections;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents a world (dimension).
@@ -364,6 +367,43 @@ default boolean generateFeature(ConfiguredFeatureType type, EditSession editSess
      */
     void checkLoadedChunk(BlockVector3 position);
 
+    //FAWE start
+
+    /**
+     * Load the chunk at the given chunk coordinates if it isn't loaded, without blocking where the platform supports it.
+     *
+     * @param chunkX chunk x coordinate
+     * @param chunkZ chunk z coordinate
+     * @return a future completed once the chunk is loaded (or the platform cannot tell when it will be)
+     * @since TODO
+     */
+    default CompletableFuture<Void> loadChunkAsync(int chunkX, int chunkZ) {
+        checkLoadedChunk(BlockVector3.at(chunkX << 4, 0, chunkZ << 4));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Apply a function to entities of this world, e.g. to remove them. Platforms may apply the function to the entities of
+     * a chunk or region together, so touching the entities does not require a hop to the server thread per entity. The
+     * function may therefore be applied to several entities at once, from different threads.
+     *
+     * @param entities the entities
+     * @param function the function
+     * @return the number of entities the function returned true for
+     * @throws WorldEditException thrown on an error of the function
+     * @since TODO
+     */
+    default int applyEntities(Collection<? extends Entity> entities, EntityFunction function) throws WorldEditException {
+        int affected = 0;
+        for (Entity entity : entities) {
+            if (function.apply(entity)) {
+                affected++;
+            }
+        }
+        return affected;
+    }
+    //FAWE end
+
     /**
      * Fix the given chunks after fast mode was used.
      *
@@ -21,6 +21,8 @@
 
 package com.sk89q.worldedit.world.snapshot;
 
+import com.fastasyncworldedit.core.world.snapshot.ArchiveIndex;
+import com.fastasyncworldedit.core.world.snapshot.ArchiveMcRegionChunkStore;
 import com.sk89q.worldedit.internal.util.LogManagerCompat;
 import com.sk89q.worldedit.world.DataException;
 import com.sk89q.worldedit.world.storage.ChunkStore;
@@ -85,6 +87,15 @@ public ChunkStore getChunkStore() throws IOException, DataException {
      */
     private ChunkStore internalGetChunkStore() throws IOException, DataException {
         String lowerCaseFileName = file.getName().toLowerCase(Locale.ROOT);
+        //FAWE start - random access to region files of archives
+        if (ArchiveIndex.isSupported(file.toPath())) {
+            ChunkStore chunkStore = new ArchiveMcRegionChunkStore(file);
+            if (chunkStore.isValid()) {
+                return chunkStore;
+            }
+            chunkStore.close();
+        }
+        //FAWE end
         if (lowerCaseFileName.endsWith(".zip")) {
             try {
                 ChunkStore chunkStore = new TrueZipMcRegionChunkStore(file);
@@ -19,6 +19,7 @@
 
 package com.sk89q.worldedit.world.snapshot.experimental;
 
+import com.fastasyncworldedit.core.world.snapshot.ParallelSnapshotRestore;
 import com.sk89q.worldedit.EditSession;
 import com.sk89q.worldedit.MaxChangedBlocksException;
 import com.sk89q.worldedit.entity.BaseEntity;
@@ -29,6 +30,7 @@
 import com.sk89q.worldedit.util.Location;
 import com.sk89q.worldedit.world.DataException;
 import com.sk89q.worldedit.world.chunk.Chunk;
+import com.sk89q.worldedit.world.snapshot.experimental.fs.FolderSnapshot;
 import com.sk89q.worldedit.world.storage.ChunkStore;
 import com.sk89q.worldedit.world.storage.MissingChunkException;
 import org.enginehub.linbus.tree.LinCompoundTag;
@@ -55,6 +57,11 @@ public class SnapshotRestore {
     private final boolean restoreBiomes;
     private final boolean restoreEntities;
     //FAWE end
+    //FAWE start - parallel restore, needed chunks are only found when restoring sequentially
+    private final Region region;
+    private boolean neededChunksFound;
+    private int parallelChunks = -1;
+    //FAWE end
     private ArrayList<BlockVector2> missingChunks;
     private ArrayList<BlockVector2> errorChunks;
     private String lastErrorMessage;
@@ -91,12 +98,19 @@ public SnapshotRestore(
         this.editSession = editSession;
         this.restoreBiomes = restoreBiomes;
         this.restoreEntities = restoreEntities;
+        this.region = region;
+    }
 
-        if (region instanceof CuboidRegion) {
-            findNeededCuboidChunks(region);
-        } else {
-            findNeededChunks(region);
+    private Map<BlockVector2, ArrayList<BlockVector3>> getNeededChunks() {
+        if (!neededChunksFound) {
+            neededChunksFound = true;
+            if (region instanceof CuboidRegion) {
+                findNeededCuboidChunks(region);
+            } else {
+                findNeededChunks(region);
+            }
         }
+        return neededChunks;
     }
     //FAWE end
 
@@ -155,7 +169,12 @@ private void checkAndAddBlock(BlockVector3 pos) {
      * @return a number of chunks
      */
     public int getChunksAffected() {
-        return neededChunks.size();
+        //FAWE start - parallel restore
+        if (parallelChunks >= 0) {
+            return parallelChunks;
+        }
+        return getNeededChunks().size();
+        //FAWE end
     }
 
     /**
@@ -165,11 +184,33 @@ public int getChunksAffected() {
      */
     public void restore() throws MaxChangedBlocksException {
 
+        //FAWE start - parallel restore
+        if (ParallelSnapshotRestore.canRestore(snapshot, editSession)) {
+            ParallelSnapshotRestore restore = new ParallelSnapshotRestore(
+                    (FolderSnapshot) snapshot,
+                    editSession,
+                    restoreBiomes,
+                    restoreEntities
+            );
+            restore.restore(region);
+            parallelChunks = restore.getChunkCount();
+            missingChunks = new ArrayList<>(restore.getMissingChunks());
+            errorChunks = new ArrayList<>(restore.getErrorChunks());
+            lastErrorMessage = restore.getLastErrorMessage();
+            for (BaseEntity entity : restore.getEntities()) {
+                restoreEntity(entity);
+            }
+            return;
+        }
+        //FAWE end
+
         missingChunks = new ArrayList<>();
         errorChunks = new ArrayList<>();
 
         // Now let's start restoring!
-        for (Map.Entry<BlockVector2, ArrayList<BlockVector3>> entry : neededChunks.entrySet()) {
+        //FAWE start - needed chunks are found lazily
+        for (Map.Entry<BlockVector2, ArrayList<BlockVector3>> entry : getNeededChunks().entrySet()) {
+        //FAWE end
             BlockVector2 chunkPos = entry.getKey();
             Chunk chunk;
 
@@ -195,16 +236,7 @@ public void restore() throws MaxChangedBlocksException {
                 if (restoreEntities) {
                     try {
                         for (BaseEntity entity : chunk.getEntities()) {
-                            LinCompoundTag tag = entity.getNbtReference().getValue();
-                            LinListTag<LinDoubleTag> pos = tag.getListTag("Pos", LinTagType.doubleTag());
-                            LinListTag<LinFloatTag> rotation = tag.getListTag("Rotation", LinTagType.floatTag());
-                            double x = pos.get(0).value();
-                            double y = pos.get(1).value();
-                            double z = pos.get(2).value();
-                            float yRot = rotation.get(0).value();
-                            float xRot = rotation.get(1).value();
-                            Location location = new Location(editSession.getWorld(), x, y, z, yRot, xRot);
-                            editSession.createEntity(location, entity);
+                            restoreEntity(entity);
                         }
                     } catch (DataException e) {
                         // this is a workaround: just ignore for now
@@ -220,6 +252,21 @@ public void restore() throws MaxChangedBlocksException {
         }
     }
 
+    //FAWE start - biome and entity restore
+    private void restoreEntity(BaseEntity entity) {
+        LinCompoundTag tag = entity.getNbtReference().getValue();
+        LinListTag<LinDoubleTag> pos = tag.getListTag("Pos", LinTagType.doubleTag());
+        LinListTag<LinFloatTag> rotation = tag.getListTag("Rotation", LinTagType.floatTag());
+        double x = pos.get(0).value();
+        double y = pos.get(1).value();
+        double z = pos.get(2).value();
+        float yRot = rotation.get(0).value();
+        float xRot = rotation.get(1).value();
+        Location location = new Location(editSession.getWorld(), x, y, z, yRot, xRot);
+        editSession.createEntity(location, entity);
+    }
+    //FAWE end
+
     /**
      * Get a list of the missing chunks. restore() must have been called
      * already.
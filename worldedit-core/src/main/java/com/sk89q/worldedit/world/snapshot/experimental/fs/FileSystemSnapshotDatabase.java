@@ -19,6 +19,7 @@
 
 package com.sk89q.worldedit.world.snapshot.experimental.fs;
 
+import com.fastasyncworldedit.core.world.snapshot.ArchiveIndex;
 import com.google.common.collect.ImmutableList;
 import com.google.common.net.UrlEscapers;
 import com.sk89q.worldedit.util.function.IOFunction;
@@ -117,9 +118,18 @@ private SnapshotInfo createSnapshotInfo(Path idPath, Path ioPath) {
     }
 
     private Snapshot createSnapshot(Path idPath, Path ioPath, @Nullable Closer closeCallback) {
+        //FAWE start - random access to region files of archives
+        return createSnapshot(idPath, ioPath, closeCallback, null);
+    }
+
+    private Snapshot createSnapshot(
+            Path idPath, Path ioPath, @Nullable Closer closeCallback,
+            @Nullable ArchiveIndex archive
+    ) {
         return new FolderSnapshot(
-                createSnapshotInfo(idPath, ioPath), ioPath, closeCallback
+                createSnapshotInfo(idPath, ioPath), ioPath, closeCallback, archive
         );
+        //FAWE end
     }
 
     public Path getRoot() {
@@ -162,6 +172,9 @@ private Optional<Snapshot> tryRegularFileSnapshot(Path idPath) throws IOExceptio
         Path root = this.root;
         Path relative = idPath;
         Iterator<Path> iterator = null;
+        //FAWE start - random access to region files of archives
+        ArchiveIndex archive = null;
+        //FAWE end
         try {
             while (true) {
                 if (iterator == null) {
@@ -182,12 +195,22 @@ private Optional<Snapshot> tryRegularFileSnapshot(Path idPath) throws IOExceptio
                     ArchiveDir archiveDir = newRootOpt.get();
                     root = archiveDir.getPath();
                     closer.register(archiveDir);
+                    //FAWE start - random access to region files of archives
+                    // Only archives on the default file system can be indexed, nested archives are read through their
+                    // file system
+                    archive = openIndex(next);
+                    if (archive != null) {
+                        closer.register(archive);
+                    }
+                    //FAWE end
                     // Switch path to path inside the archive
                     relative = root.resolve(relativeNext.relativize(relative).toString());
                     iterator = null;
                     // Check if it exists, if so open snapshot
                     if (Files.exists(relative)) {
-                        return Optional.of(createSnapshot(idPath, relative, closer));
+                        //FAWE start - random access to region files of archives
+                        return Optional.of(createSnapshot(idPath, relative, closer, archive));
+                        //FAWE end
                     }
                     // Otherwise, we may have more archives to open.
                     // Keep searching!
@@ -198,6 +221,21 @@ private Optional<Snapshot> tryRegularFileSnapshot(Path idPath) throws IOExceptio
         }
     }
 
+    //FAWE start - random access to region files of archives
+    @Nullable
+    private static ArchiveIndex openIndex(Path archive) {
+        if (!ArchiveIndex.isSupported(archive)) {
+            return null;
+        }
+        try {
+            return ArchiveIndex.open(archive);
+        } catch (IOException e) {
+            // Still readable through its file system
+            return null;
+        }
+    }
+    //FAWE end
+
     @Override
     public Stream<Snapshot> getSnapshots(String worldName) throws IOException {
         /*
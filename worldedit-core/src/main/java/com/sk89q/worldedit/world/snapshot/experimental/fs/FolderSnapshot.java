@@ -19,6 +19,8 @@
 
 package com.sk89q.worldedit.world.snapshot.experimental.fs;
 
+import com.fastasyncworldedit.core.anvil.RegionFile;
+import com.fastasyncworldedit.core.world.snapshot.ArchiveIndex;
 import com.sk89q.jnbt.CompoundTag;
 import com.sk89q.worldedit.math.BlockVector2;
 import com.sk89q.worldedit.math.BlockVector3;
@@ -97,13 +99,35 @@ private static Object getRegionFolder(Path folder) throws IOException {
     private final AtomicReference<Object> regionFolder = new AtomicReference<>();
     @Nullable
     private final Closer closeCallback;
+    //FAWE start - random access to region files of archives
+    @Nullable
+    private final ArchiveIndex archive;
+    //FAWE end
 
     public FolderSnapshot(SnapshotInfo info, Path folder, @Nullable Closer closeCallback) {
+        //FAWE start - random access to region files of archives
+        this(info, folder, closeCallback, null);
+    }
+
+    /**
+     * Create a snapshot of a world folder inside of an archive.
+     *
+     * @param info          snapshot info
+     * @param folder        world folder, inside of a zip file system of the archive
+     * @param closeCallback closer called when the snapshot is closed, which should close the archive
+     * @param archive       index of the archive, used to read region files without extracting them
+     * @since TODO
+     */
+    public FolderSnapshot(SnapshotInfo info, Path folder, @Nullable Closer closeCallback, @Nullable ArchiveIndex archive) {
+        //FAWE end
         this.info = info;
         // This is required to force TrueVfs to properly resolve parents.
         // Kinda odd, but whatever works.
         this.folder = folder.toAbsolutePath();
         this.closeCallback = closeCallback;
+        //FAWE start - random access to region files of archives
+        this.archive = archive;
+        //FAWE end
     }
 
     public Path getFolder() {
@@ -129,6 +153,44 @@ private Optional<Path> getRegionFolder() throws IOException {
         return regFolder == NOT_FOUND_TOKEN ? Optional.empty() : Optional.of((Path) regFolder);
     }
 
+    //FAWE start - parallel restore
+    /**
+     * Get the path of the Anvil region file that would contain the given chunk, if this snapshot stores chunks in region
+     * files. The file may not exist.
+     *
+     * @param chunk the chunk position
+     * @return the region file path, or empty if chunks are not stored in region files
+     * @throws IOException if the region folder could not be located
+     * @since TODO
+     */
+    public Optional<Path> getRegionFile(BlockVector2 chunk) throws IOException {
+        return getRegionFolder().map(folder -> folder.resolve(McRegionChunkStore.getFilename(chunk)));
+    }
+
+    /**
+     * Open the Anvil region file that contains the given chunk. Region files inside of an indexed archive are shared between
+     * calls, other region files are opened anew.
+     *
+     * @param chunk the chunk position
+     * @return the region file, or empty if it does not exist or chunks are not stored in region files
+     * @throws IOException if the region file could not be read
+     * @since TODO
+     */
+    public Optional<RegionFile> openRegionFile(BlockVector2 chunk) throws IOException {
+        Optional<Path> path = getRegionFile(chunk);
+        if (path.isEmpty()) {
+            return Optional.empty();
+        }
+        if (archive != null) {
+            return Optional.ofNullable(archive.getRegionFile(ArchiveIndex.getEntryName(path.get()), path.get()));
+        }
+        if (!Files.exists(path.get())) {
+            return Optional.empty();
+        }
+        return Optional.of(RegionFile.open(path.get()));
+    }
+    //FAWE end
+
     @Override
     public CompoundTag getChunkTag(BlockVector3 position) throws DataException, IOException {
         BlockVector2 pos = position.toBlockVector2();
@@ -143,6 +205,19 @@ public CompoundTag getChunkTag(BlockVector3 position) throws DataException, IOEx
             );
         }
         Path regionFile = regFolder.get().resolve(McRegionChunkStore.getFilename(pos));
+        //FAWE start - random access to region files of archives
+        if (archive != null) {
+            String entry = ArchiveIndex.getEntryName(regionFile);
+            if (archive.hasEntry(entry)) {
+                // Only the chunk offsets are read to find missing chunks
+                if (!archive.hasChunk(entry, pos.x(), pos.z())) {
+                    throw new MissingChunkException();
+                }
+                RegionFile region = archive.getRegionFile(entry, regionFile);
+                return ChunkStoreHelper.readCompoundTag(() -> region.getChunkInputStream(pos.x(), pos.z()));
+            }
+        }
+        //FAWE end
         if (!Files.exists(regionFile)) {
             // Try mcr as well
             regionFile = regionFile.resolveSibling(
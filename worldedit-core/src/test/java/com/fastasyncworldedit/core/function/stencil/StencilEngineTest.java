@@ -0,0 +1,116 @@
+package com.fastasyncworldedit.core.function.stencil;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StencilEngineTest {
+
+    private static final int[][] FACES = {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}};
+
+    // Highest value of a cell and its face neighbours
+    private static StencilKernel maxKernel(StencilGrid grid) {
+        int[] offsets = new int[FACES.length];
+        for (int i = 0; i < FACES.length; i++) {
+            offsets[i] = grid.offset(FACES[i][0], FACES[i][1], FACES[i][2]);
+        }
+        return (values, index) -> {
+            char max = values[index];
+            for (int offset : offsets) {
+                max = (char) Math.max(max, values[index + offset]);
+            }
+            return max;
+        };
+    }
+
+    @Test
+    void passesMatchReference() {
+        int width = 11;
+        int height = 9;
+        int length = 7;
+        Random random = new Random(1);
+        BlockVector3 min = BlockVector3.at(-5, 60, 3);
+        StencilGrid grid = new StencilGrid(min, min.add(width - 1, height - 1, length - 1));
+        char[][][] expected = new char[width][height][length];
+        boolean[][][] active = new boolean[width][height][length];
+        for (int y = 0; y < height; y++) {
+            for (int z = 0; z < length; z++) {
+                for (int x = 0; x < width; x++) {
+                    char value = (char) random.nextInt(1000);
+                    expected[x][y][z] = value;
+                    grid.set(grid.index(x, y, z), value);
+                    boolean border = x == 0 || y == 0 || z == 0 || x == width - 1 || y == height - 1 || z == length - 1;
+                    if (!border && random.nextInt(3) != 0) {
+                        active[x][y][z] = true;
+                        grid.setActive(grid.index(x, y, z), true);
+                    }
+                }
+            }
+        }
+
+        int iterations = 3;
+        StencilEngine.run(grid, maxKernel(grid), iterations);
+
+        for (int i = 0; i < iterations; i++) {
+            char[][][] next = new char[width][height][length];
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    for (int z = 0; z < length; z++) {
+                        char value = expected[x][y][z];
+                        if (active[x][y][z]) {
+                            for (int[] face : FACES) {
+                                value = (char) Math.max(value, expected[x + face[0]][y + face[1]][z + face[2]]);
+                            }
+                        }
+                        next[x][y][z] = value;
+                    }
+                }
+            }
+            expected = next;
+        }
+        for (int y = 0; y < height; y++) {
+            for (int z = 0; z < length; z++) {
+                for (int x = 0; x < width; x++) {
+                    assertEquals(expected[x][y][z], grid.get(grid.index(x, y, z)), "Cell " + x + ", " + y + ", " + z);
+                }
+            }
+        }
+    }
+
+    @Test
+    void borderCellsCannotBeActive() {
+        StencilGrid grid = new StencilGrid(BlockVector3.ZERO, BlockVector3.at(3, 3, 3));
+        assertThrows(IllegalArgumentException.class, () -> grid.setActive(grid.index(0, 1, 1), true));
+        assertThrows(IllegalArgumentException.class, () -> grid.setActive(grid.index(1, 3, 1), true));
+        assertThrows(IllegalArgumentException.class, () -> grid.setActive(grid.index(1, 1, 3), true));
+        grid.setActive(grid.index(1, 2, 1), true);
+        assertTrue(grid.isActive(grid.index(1, 2, 1)));
+    }
+
+    @Test
+    void offsetsMatchIndices() {
+        StencilGrid grid = new StencilGrid(BlockVector3.ZERO, BlockVector3.at(4, 5, 6));
+        int center = grid.index(2, 2, 2);
+        Set<Integer> neighbours = new HashSet<>();
+        for (int offset : grid.neighbourOffsets()) {
+            neighbours.add(center + offset);
+        }
+        assertEquals(26, neighbours.size());
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    assertEquals(grid.index(2 + dx, 2 + dy, 2 + dz), center + grid.offset(dx, dy, dz));
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> grid.offset(2, 0, 0));
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.fastasyncworldedit.core.history.changeset;
+
+import com.fastasyncworldedit.core.history.change.MutableBiomeChange;
+import com.fastasyncworldedit.core.internal.io.FaweInputStream;
+import com.fastasyncworldedit.core.internal.io.FaweOutputStream;
+import com.sk89q.jnbt.NBTInputStream;
+import com.sk89q.jnbt.NBTOutputStream;
+import com.sk89q.worldedit.extent.NullExtent;
+import com.sk89q.worldedit.history.UndoContext;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.world.NullWorld;
+import com.sk89q.worldedit.world.biome.BiomeType;
+import com.sk89q.worldedit.world.biome.BiomeTypes;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FaweStreamChangeSetTest {
+
+    private static final BiomeType PLAINS = biome("fawe_test:plains");
+    private static final BiomeType DESERT = biome("fawe_test:desert");
+    private static final BiomeType FOREST = biome("fawe_test:forest");
+
+    private static BiomeType biome(String id) {
+        BiomeType biome = BiomeTypes.get(id);
+        return biome != null ? biome : BiomeTypes.register(new BiomeType(id));
+    }
+
+    @Test
+    void biomeSectionChangesRoundTrip() throws IOException {
+        BiomeType[] from = new BiomeType[64];
+        BiomeType[] to = new BiomeType[64];
+        for (int i = 0; i < 64; i++) {
+            from[i] = i < 32 ? PLAINS : DESERT;
+            // Unset cells, unchanged cells and runs of different changes
+            to[i] = i % 7 == 0 ? null : i < 20 ? DESERT : i < 40 ? FOREST : DESERT;
+        }
+        List<String> expected = new ArrayList<>();
+        BiomeChangeSet changeSet = new BiomeChangeSet();
+
+        changeSet.addBiomeChange(-4, 64, 8, PLAINS, FOREST);
+        expected.add(change(-4, 64, 8, PLAINS, FOREST));
+        changeSet.addBiomeSectionChange(-3, -2, 5, from, to);
+        for (int i = 0; i < 64; i++) {
+            if (to[i] != null && to[i] != from[i]) {
+                int x = (-3 << 4) + ((i & 3) << 2);
+                int y = (-2 << 4) + ((i >> 4) << 2);
+                int z = (5 << 4) + (i & 12);
+                expected.add(change(x, y, z, from[i], to[i]));
+            }
+        }
+        changeSet.addBiomeChange(12, -64, -20, DESERT, PLAINS);
+        expected.add(change(12, -64, -20, DESERT, PLAINS));
+
+        assertEquals(expected, changeSet.read());
+    }
+
+    @Test
+    void unchangedBiomeSectionIsEmpty() throws IOException {
+        BiomeType[] biomes = new BiomeType[64];
+        for (int i = 0; i < 64; i++) {
+            biomes[i] = i % 2 == 0 ? PLAINS : DESERT;
+        }
+        BiomeChangeSet changeSet = new BiomeChangeSet();
+        changeSet.addBiomeSectionChange(0, 0, 0, biomes, biomes.clone());
+        changeSet.addBiomeChange(0, 0, 0, PLAINS, DESERT);
+
+        assertEquals(List.of(change(0, 0, 0, PLAINS, DESERT)), changeSet.read());
+    }
+
+    private static String change(int x, int y, int z, BiomeType from, BiomeType to) {
+        return x + "," + y + "," + z + ": " + from.id() + " -> " + to.id();
+    }
+
+    /**
+     * Stores the biome history uncompressed in memory.
+     */
+    private static final class BiomeChangeSet extends FaweStreamChangeSet {
+
+        private final ByteArrayOutputStream biomes = new ByteArrayOutputStream();
+        private final FaweOutputStream biomeOS = new FaweOutputStream(biomes);
+
+        private BiomeChangeSet() {
+            super(new NullWorld() {
+                @Override
+                public int getMinY() {
+                    return -64;
+                }
+            }, 0, false, false);
+        }
+
+        private List<String> read() throws IOException {
+            biomeOS.flush();
+            List<String> changes = new ArrayList<>();
+            BlockVector3[] position = new BlockVector3[1];
+            BiomeType[] biome = new BiomeType[1];
+            UndoContext context = new UndoContext();
+            context.setExtent(new NullExtent() {
+                @Override
+                public boolean setBiome(BlockVector3 pos, BiomeType type) {
+                    position[0] = pos.toImmutable();
+                    biome[0] = type;
+                    return true;
+                }
+            });
+            Iterator<MutableBiomeChange> iterator = getBiomeIterator(true);
+            while (iterator.hasNext()) {
+                MutableBiomeChange change = iterator.next();
+                change.undo(context);
+                BiomeType from = biome[0];
+                change.redo(context);
+                BlockVector3 pos = position[0];
+                changes.add(change(pos.x(), pos.y(), pos.z(), from, biome[0]));
+            }
+            return changes;
+        }
+
+        @Override
+        public FaweOutputStream getBiomeOS() {
+            return biomeOS;
+        }
+
+        @Override
+        public FaweInputStream getBiomeIS() {
+            return new FaweInputStream(new ByteArrayInputStream(biomes.toByteArray()));
+        }
+
+        @Override
+        public int getCompressedSize() {
+            return biomes.size();
+        }
+
+        @Override
+        public long getSizeInMemory() {
+            return biomes.size();
+        }
+
+        @Override
+        public FaweOutputStream getBlockOS(int x, int y, int z) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NBTOutputStream getEntityCreateOS() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NBTOutputStream getEntityRemoveOS() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NBTOutputStream getTileCreateOS() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NBTOutputStream getTileRemoveOS() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FaweInputStream getBlockIS() {
+            return null;
+        }
+
+        @Override
+        public NBTInputStream getEntityCreateIS() {
+            return null;
+        }
+
+        @Override
+        public NBTInputStream getEntityRemoveIS() {
+            return null;
+        }
+
+        @Override
+        public NBTInputStream getTileCreateIS() {
+            return null;
+        }
+
+        @Override
+        public NBTInputStream getTileRemoveIS() {
+            return null;
+        }
+
+        @Override
+        public boolean isRecordingChanges() {
+            return true;
+        }
+
+        @Override
+        public void setRecordChanges(boolean recordChanges) {
+        }
+
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.fastasyncworldedit.core.math;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveBlockVectorSetTest {
+
+    private static BlockVector3 random(Random random, int spread) {
+        return BlockVector3.at(
+                random.nextInt(spread) - spread / 2,
+                random.nextInt(Math.min(spread, 600)) - 300,
+                random.nextInt(spread) - spread / 2
+        );
+    }
+
+    private static AdaptiveBlockVectorSet fill(Random random, int count, int spread, Set<BlockVector3> expected) {
+        AdaptiveBlockVectorSet set = new AdaptiveBlockVectorSet();
+        for (int i = 0; i < count; i++) {
+            BlockVector3 vector = random(random, spread);
+            assertEquals(expected.add(vector), set.add(vector));
+        }
+        return set;
+    }
+
+    private static void assertContent(Set<BlockVector3> expected, AdaptiveBlockVectorSet set) {
+        assertEquals(expected.size(), set.size());
+        Set<BlockVector3> iterated = new HashSet<>();
+        for (BlockVector3 vector : set) {
+            assertTrue(iterated.add(vector.toImmutable()), "Duplicate " + vector);
+        }
+        assertEquals(expected, iterated);
+        for (BlockVector3 vector : expected) {
+            assertTrue(set.contains(vector));
+        }
+    }
+
+    // Spreads keeping the set sparse, in dense sections, and in many sparse sections
+    @ParameterizedTest
+    @ValueSource(ints = {20, 40, 200, 5000})
+    void matchesHashSet(int spread) {
+        Random random = new Random(spread);
+        for (int count : new int[]{100, 1000, 10000}) {
+            Set<BlockVector3> expected = new HashSet<>();
+            AdaptiveBlockVectorSet set = fill(random, count, spread, expected);
+            assertContent(expected, set);
+
+            for (int i = 0; i < count / 2; i++) {
+                BlockVector3 vector = random(random, spread);
+                assertEquals(expected.remove(vector), set.remove(vector));
+            }
+            assertContent(expected, set);
+
+            Iterator<BlockVector3> iterator = set.iterator();
+            while (iterator.hasNext()) {
+                BlockVector3 vector = iterator.next().toImmutable();
+                if (random.nextInt(3) == 0) {
+                    iterator.remove();
+                    expected.remove(vector);
+                }
+            }
+            assertContent(expected, set);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {20, 200, 5000})
+    void bulkOperationsMatchHashSet(int spread) {
+        Random random = new Random(spread);
+        for (int count : new int[]{100, 10000}) {
+            Set<BlockVector3> expected = new HashSet<>();
+            AdaptiveBlockVectorSet set = fill(random, 5000, spread, expected);
+            Set<BlockVector3> otherExpected = new HashSet<>();
+            AdaptiveBlockVectorSet other = fill(random, count, spread, otherExpected);
+
+            AdaptiveBlockVectorSet copy = set.copy();
+            Set<BlockVector3> copyExpected = new HashSet<>(expected);
+            assertEquals(copyExpected.addAll(otherExpected), copy.addAll(other));
+            assertContent(copyExpected, copy);
+
+            copy = set.copy();
+            copyExpected = new HashSet<>(expected);
+            assertEquals(copyExpected.retainAll(otherExpected), copy.retainAll(other));
+            assertContent(copyExpected, copy);
+
+            copy = set.copy();
+            copyExpected = new HashSet<>(expected);
+            assertEquals(copyExpected.removeAll(otherExpected), copy.removeAll(other));
+            assertContent(copyExpected, copy);
+
+            // Generic collections
+            assertEquals(expected.addAll(otherExpected), set.addAll(new ArrayList<>(otherExpected)));
+            assertContent(expected, set);
+            assertEquals(expected.retainAll(copyExpected), set.retainAll(new HashSet<>(copyExpected)));
+            assertContent(expected, set);
+        }
+    }
+
+    @Test
+    void bounds() {
+        AdaptiveBlockVectorSet set = new AdaptiveBlockVectorSet();
+        assertTrue(set.add(-33554432, -2048, 33554431));
+        assertTrue(set.contains(-33554432, -2048, 33554431));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.add(0, 2048, 0));
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.fastasyncworldedit.core.math;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkOrderTest {
+
+    private static Set<BlockVector3> randomPositions(int count, int spread) {
+        Random random = new Random(spread);
+        Set<BlockVector3> positions = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            positions.add(BlockVector3.at(
+                    random.nextInt(spread) - spread / 2,
+                    random.nextInt(384) - 64,
+                    random.nextInt(spread) - spread / 2
+            ));
+        }
+        return positions;
+    }
+
+    @Test
+    void visitsEveryPositionOnceChunkByChunk() {
+        Set<BlockVector3> positions = randomPositions(100000, 2000);
+        Set<BlockVector3> ordered = new HashSet<>();
+        Set<Long> chunks = new HashSet<>();
+        long last = Long.MIN_VALUE;
+        for (BlockVector3 position : ChunkOrder.of(positions)) {
+            assertTrue(ordered.add(position.toImmutable()));
+            long chunk = (long) (position.x() >> 4) << 32 | (position.z() >> 4) & 0xFFFFFFFFL;
+            if (chunk != last) {
+                assertTrue(chunks.add(chunk), "Chunk visited twice");
+                last = chunk;
+            }
+        }
+        assertEquals(positions, ordered);
+    }
+
+    @Test
+    void keepsOrderOfPositionsOutOfBounds() {
+        Collection<BlockVector3> positions = List.of(BlockVector3.at(0, 0, 0), BlockVector3.at(0, 4096, 0));
+        assertSame(positions, ChunkOrder.of(positions));
+    }
+
+}
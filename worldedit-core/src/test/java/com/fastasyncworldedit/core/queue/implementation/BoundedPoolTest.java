@@ -0,0 +1,95 @@
+package com.fastasyncworldedit.core.queue.implementation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPoolTest {
+
+    @Test
+    void reusesReleasedObjects() {
+        BoundedPool<Object> pool = new BoundedPool<>("test", Object::new, 4, false);
+        Object first = pool.poll();
+        assertTrue(pool.offer(first));
+        assertSame(first, pool.poll());
+        assertNotSame(first, pool.poll());
+
+        BoundedPool.Statistics statistics = pool.getStatistics();
+        assertEquals(1, statistics.hits());
+        assertEquals(2, statistics.misses());
+        assertEquals(0, statistics.idle());
+        assertEquals(1 / 3d, statistics.hitRate(), 1e-9);
+    }
+
+    @Test
+    void dropsObjectsOverCapacity() {
+        BoundedPool<Object> pool = new BoundedPool<>("test", Object::new, 2, false);
+        List<Object> objects = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            objects.add(pool.poll());
+        }
+        int kept = 0;
+        for (Object object : objects) {
+            if (pool.offer(object)) {
+                kept++;
+            }
+        }
+        assertEquals(2, kept);
+        assertEquals(2, pool.getStatistics().idle());
+        assertEquals(3, pool.getStatistics().dropped());
+
+        pool.clear();
+        assertEquals(0, pool.getStatistics().idle());
+    }
+
+    @Test
+    void refusesDoubleRelease() {
+        BoundedPool<Object> pool = new BoundedPool<>("test", Object::new, 4, true);
+        Object object = pool.poll();
+        assertTrue(pool.offer(object));
+        assertFalse(pool.offer(object));
+        assertFalse(pool.offer(new Object()));
+        assertEquals(1, pool.getStatistics().idle());
+    }
+
+    @Test
+    void detectsLeaks() {
+        // Collection of the tracked objects is simulated by running their cleanup actions
+        Map<Object, Runnable> collected = new IdentityHashMap<>();
+        BoundedPool<Object> pool = new BoundedPool<>("test", Object::new, 4, true, collected::put);
+        // Released objects are not leaks
+        Object released = pool.poll();
+        pool.offer(released);
+        List<Object> leakedObjects = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            leakedObjects.add(pool.poll());
+        }
+        // The released object was reused, and is only tracked once
+        assertSame(released, leakedObjects.get(0));
+        assertEquals(3, collected.size());
+        collected.values().forEach(Runnable::run);
+        assertEquals(3, pool.getStatistics().leaked());
+    }
+
+    @Test
+    void releasedObjectsAreNotLeaks() {
+        Map<Object, Runnable> collected = new IdentityHashMap<>();
+        BoundedPool<Object> pool = new BoundedPool<>("test", Object::new, 0, true, collected::put);
+        for (int i = 0; i < 3; i++) {
+            // Dropped as the pool is full, but released
+            pool.offer(pool.poll());
+        }
+        collected.values().forEach(Runnable::run);
+        assertEquals(0, pool.getStatistics().leaked());
+    }
+
+}
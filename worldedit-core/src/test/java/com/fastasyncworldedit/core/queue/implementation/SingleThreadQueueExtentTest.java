@@ -0,0 +1,89 @@
+package com.fastasyncworldedit.core.queue.implementation;
+
+import com.fastasyncworldedit.core.queue.IQueueChunk;
+import com.fastasyncworldedit.core.queue.implementation.chunk.ChunkHolder;
+import com.sk89q.worldedit.extent.Extent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+class SingleThreadQueueExtentTest {
+
+    private static SingleThreadQueueExtent queue() {
+        SingleThreadQueueExtent queue = new SingleThreadQueueExtent();
+        queue.init(mock(Extent.class), null, null);
+        queue.setTargetSize(Integer.MAX_VALUE);
+        return queue;
+    }
+
+    // Fill the slots of the 4x4 chunk window, and make the given chunk the last used one
+    private static IQueueChunk fillWindow(SingleThreadQueueExtent queue, int x, int z) {
+        for (int cx = 0; cx < 4; cx++) {
+            for (int cz = 0; cz < 4; cz++) {
+                queue.getOrCreateChunk(cx, cz);
+            }
+        }
+        return queue.getOrCreateChunk(x, z);
+    }
+
+    private static void assertNotReturned(SingleThreadQueueExtent queue, IQueueChunk removed, int generation) {
+        IQueueChunk chunk = queue.getOrCreateChunk(removed.getX(), removed.getZ());
+        // A pooled holder may be handed out again for the same chunk, but only after being reinitialized
+        assertFalse(
+                chunk == removed && ((ChunkHolder) chunk).getGeneration() == generation,
+                "Removed chunk " + removed.getX() + ", " + removed.getZ() + " returned from the window"
+        );
+    }
+
+    @Test
+    void submittedChunkIsNotReturned() {
+        SingleThreadQueueExtent queue = queue();
+        // The last used chunk, and a chunk only in its slot
+        for (IQueueChunk chunk : new IQueueChunk[]{fillWindow(queue, 1, 2), queue.getOrCreateChunk(3, 0)}) {
+            fillWindow(queue, 1, 2);
+            int generation = ((ChunkHolder) chunk).getGeneration();
+            queue.submit(chunk);
+            assertNotReturned(queue, chunk, generation);
+        }
+        queue.flush();
+    }
+
+    @Test
+    void flushedChunksAreNotReturned() {
+        SingleThreadQueueExtent queue = queue();
+        IQueueChunk[] chunks = new IQueueChunk[16];
+        int[] generations = new int[16];
+        fillWindow(queue, 2, 2);
+        for (int i = 0; i < 16; i++) {
+            chunks[i] = queue.getOrCreateChunk(i & 3, i >> 2);
+            generations[i] = ((ChunkHolder) chunks[i]).getGeneration();
+        }
+        queue.flush();
+        for (int i = 0; i < 16; i++) {
+            assertNotReturned(queue, chunks[i], generations[i]);
+        }
+        queue.flush();
+    }
+
+    @Test
+    void resetChunksAreNotReturned() {
+        SingleThreadQueueExtent queue = queue();
+        IQueueChunk[] chunks = new IQueueChunk[16];
+        int[] generations = new int[16];
+        fillWindow(queue, 0, 3);
+        for (int i = 0; i < 16; i++) {
+            chunks[i] = queue.getOrCreateChunk(i & 3, i >> 2);
+            generations[i] = ((ChunkHolder) chunks[i]).getGeneration();
+        }
+        queue.reset();
+        queue.init(mock(Extent.class), null, null);
+        queue.setTargetSize(Integer.MAX_VALUE);
+        for (int i = 0; i < 16; i++) {
+            assertNotReturned(queue, chunks[i], generations[i]);
+        }
+        queue.flush();
+    }
+
+}
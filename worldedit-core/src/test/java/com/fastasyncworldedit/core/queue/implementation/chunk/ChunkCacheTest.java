@@ -0,0 +1,45 @@
+package com.fastasyncworldedit.core.queue.implementation.chunk;
+
+import com.fastasyncworldedit.core.queue.IChunkCache;
+import com.fastasyncworldedit.core.queue.Trimable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ChunkCacheTest {
+
+    private record Chunk(int x, int z) implements Trimable {
+
+        @Override
+        public boolean trim(boolean aggressive) {
+            return false;
+        }
+
+    }
+
+    // Cache keeping its chunks reachable, as the queue using it does
+    private static ChunkCache<Chunk> cache(List<Chunk> created) {
+        IChunkCache<Chunk> delegate = (x, z) -> {
+            Chunk chunk = new Chunk(x, z);
+            created.add(chunk);
+            return chunk;
+        };
+        return new ChunkCache<>(delegate);
+    }
+
+    @Test
+    void windowReturnsChunkOfCoordinates() {
+        ChunkCache<Chunk> cache = cache(new ArrayList<>());
+        // Chunks sharing a slot
+        Chunk first = cache.get(1, 1);
+        Chunk second = cache.get(5, -3);
+        assertSame(second, cache.get(5, -3));
+        assertSame(first, cache.get(1, 1));
+        assertEquals(new Chunk(-3, 5), cache.get(-3, 5));
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.fastasyncworldedit.core.queue.implementation.chunk;
+
+import com.fastasyncworldedit.core.queue.IQueueExtent;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+class ChunkHolderTest {
+
+    private static ChunkHolder holder(IQueueExtent extent, int x, int z) {
+        ChunkHolder holder = ChunkHolder.newInstance();
+        holder.init(extent, x, z);
+        return holder;
+    }
+
+    @Test
+    void releasedHolderRefusesAccess() {
+        ChunkHolder holder = holder(mock(IQueueExtent.class), 1, 2);
+        int generation = holder.getGeneration();
+        assertDoesNotThrow(() -> holder.checkGeneration(generation));
+
+        holder.recycle();
+        assertThrows(IllegalStateException.class, () -> holder.checkGeneration(generation));
+        assertThrows(IllegalStateException.class, holder::getOrCreateGet);
+        assertThrows(IllegalStateException.class, holder::getOrCreateSet);
+        assertThrows(IllegalStateException.class, () -> holder.hasSection(0));
+        assertThrows(IllegalStateException.class, () -> holder.loadIfPresent(0));
+        assertThrows(IllegalStateException.class, () -> holder.getBlock(0, 0, 0));
+        assertThrows(IllegalStateException.class, () -> holder.setFastMode(true));
+        assertThrows(IllegalStateException.class, holder::call);
+    }
+
+    @Test
+    void reusedHolderHasNewGeneration() {
+        ChunkHolder holder = holder(mock(IQueueExtent.class), 1, 2);
+        int generation = holder.getGeneration();
+        holder.recycle();
+
+        ChunkHolder reused = holder(mock(IQueueExtent.class), 3, 4);
+        assertDoesNotThrow(() -> reused.checkGeneration(reused.getGeneration()));
+        if (reused == holder) {
+            assertNotEquals(generation, reused.getGeneration());
+            assertThrows(IllegalStateException.class, () -> reused.checkGeneration(generation));
+        }
+        reused.recycle();
+    }
+
+    @Test
+    void retiredHolderIsReleasedAfterBothHolds() {
+        ChunkHolder holder = holder(mock(IQueueExtent.class), 1, 2);
+        int generation = holder.retire();
+
+        // Retired holders belong to their queue until released
+        holder.recycle();
+        assertDoesNotThrow(() -> holder.hasSection(0));
+
+        holder.releaseHold(generation);
+        assertDoesNotThrow(() -> holder.hasSection(0));
+        holder.releaseHold(generation);
+        assertThrows(IllegalStateException.class, () -> holder.hasSection(0));
+
+        // Stale releases are ignored
+        int released = holder.getGeneration();
+        holder.releaseHold(generation);
+        assertEquals(released, holder.getGeneration());
+    }
+
+    @Test
+    void wrapperDoesNotUseReleasedHolder() {
+        IQueueExtent extent = mock(IQueueExtent.class);
+        ChunkHolder holder = holder(extent, 1, 2);
+        AtomicInteger supplied = new AtomicInteger();
+        ChunkHolder replacement = holder(extent, 1, 2);
+        WrapperChunk<ChunkHolder> wrapper = new WrapperChunk<>(holder, () -> {
+            supplied.incrementAndGet();
+            return replacement;
+        });
+        assertEquals(1, wrapper.getX());
+        assertEquals(0, supplied.get());
+
+        holder.recycle();
+        assertEquals(1, wrapper.getX());
+        assertEquals(1, supplied.get());
+        assertSame(replacement, wrapper.get());
+        replacement.recycle();
+    }
+
+}
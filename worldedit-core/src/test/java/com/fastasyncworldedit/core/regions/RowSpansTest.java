@@ -0,0 +1,113 @@
+package com.fastasyncworldedit.core.regions;
+
+import com.sk89q.worldedit.math.BlockVector2;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.math.Vector2;
+import com.sk89q.worldedit.math.Vector3;
+import com.sk89q.worldedit.regions.ConvexPolyhedralRegion;
+import com.sk89q.worldedit.regions.CuboidRegion;
+import com.sk89q.worldedit.regions.CylinderRegion;
+import com.sk89q.worldedit.regions.EllipsoidRegion;
+import com.sk89q.worldedit.regions.Polygonal2DRegion;
+import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.world.World;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RowSpansTest {
+
+    private static ConvexPolyhedralRegion convex(BlockVector3... vertices) {
+        ConvexPolyhedralRegion region = new ConvexPolyhedralRegion((World) null);
+        for (BlockVector3 vertex : vertices) {
+            region.addVertex(vertex);
+        }
+        return region;
+    }
+
+    /**
+     * Regions of every built-in shape, centered on and off section boundaries, with odd and even sizes, and straddling
+     * the boundaries of sections on every axis.
+     */
+    private static Stream<Arguments> regions() {
+        return Stream.of(
+                Arguments.of("cuboid", new CuboidRegion(BlockVector3.at(3, 5, 7), BlockVector3.at(12, 14, 9))),
+                Arguments.of("cuboid straddling", new CuboidRegion(BlockVector3.at(-21, -3, 13), BlockVector3.at(40, 33, 50))),
+                Arguments.of("sphere odd", new EllipsoidRegion(BlockVector3.at(37, 70, -21), Vector3.at(5, 5, 5))),
+                Arguments.of("sphere even", new EllipsoidRegion(BlockVector3.at(16, 64, -16), Vector3.at(12, 12, 12))),
+                Arguments.of("sphere fractional", new EllipsoidRegion(BlockVector3.at(-9, 7, 30), Vector3.at(6.5, 6.5, 6.5))),
+                Arguments.of("ellipsoid", new EllipsoidRegion(BlockVector3.at(-40, 15, 3), Vector3.at(7, 19, 4))),
+                Arguments.of("ellipsoid even", new EllipsoidRegion(BlockVector3.at(0, 0, 0), Vector3.at(20, 6, 14))),
+                Arguments.of("cylinder odd", new CylinderRegion(BlockVector3.at(23, 10, -5), Vector2.at(9, 9), -5, 20)),
+                Arguments.of("cylinder even", new CylinderRegion(BlockVector3.at(-16, 60, 32), Vector2.at(16, 16), 60, 80)),
+                Arguments.of("cylinder elliptic", new CylinderRegion(BlockVector3.at(5, 0, 11), Vector2.at(4, 21), 3, 3)),
+                Arguments.of("polygon", new Polygonal2DRegion(null, List.of(
+                        BlockVector2.at(-13, -4),
+                        BlockVector2.at(20, -9),
+                        BlockVector2.at(33, 17),
+                        BlockVector2.at(4, 35)
+                ), -7, 18)),
+                Arguments.of("polygon concave", new Polygonal2DRegion(null, List.of(
+                        BlockVector2.at(0, 0),
+                        BlockVector2.at(30, 0),
+                        BlockVector2.at(30, 30),
+                        BlockVector2.at(15, 8),
+                        BlockVector2.at(0, 30)
+                ), 16, 47)),
+                Arguments.of("convex", convex(
+                        BlockVector3.at(-10, 2, -10),
+                        BlockVector3.at(25, 5, -3),
+                        BlockVector3.at(4, 40, 6),
+                        BlockVector3.at(7, -12, 28),
+                        BlockVector3.at(-6, 20, 19)
+                )),
+                Arguments.of("convex flat", convex(
+                        BlockVector3.at(16, 31, 16),
+                        BlockVector3.at(47, 32, 16),
+                        BlockVector3.at(16, 32, 47),
+                        BlockVector3.at(40, 33, 40)
+                ))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("regions")
+    void sectionSpansMatchContains(String name, Region region) {
+        BlockVector3 min = region.getMinimumPoint();
+        BlockVector3 max = region.getMaximumPoint();
+        char[] rows = new char[256];
+        // One section more on every side, so sections just outside the bounds are checked too
+        for (int chunkX = (min.x() >> 4) - 1; chunkX <= (max.x() >> 4) + 1; chunkX++) {
+            for (int chunkZ = (min.z() >> 4) - 1; chunkZ <= (max.z() >> 4) + 1; chunkZ++) {
+                for (int layer = (min.y() >> 4) - 1; layer <= (max.y() >> 4) + 1; layer++) {
+                    boolean any = region.getSectionSpans(chunkX, layer, chunkZ, rows);
+                    boolean expectedAny = false;
+                    for (int y = 0; y < 16; y++) {
+                        for (int z = 0; z < 16; z++) {
+                            char expected = RowSpans.NONE;
+                            for (int x = 0; x < 16; x++) {
+                                if (region.contains((chunkX << 4) + x, (layer << 4) + y, (chunkZ << 4) + z)) {
+                                    expected |= (char) (1 << x);
+                                }
+                            }
+                            expectedAny |= expected != RowSpans.NONE;
+                            int row = y << 4 | z;
+                            assertEquals(
+                                    Integer.toBinaryString(expected),
+                                    Integer.toBinaryString(rows[row]),
+                                    "Row " + row + " of section " + chunkX + ", " + layer + ", " + chunkZ
+                            );
+                        }
+                    }
+                    assertEquals(expectedAny, any, "Section " + chunkX + ", " + layer + ", " + chunkZ);
+                }
+            }
+        }
+    }
+
+}
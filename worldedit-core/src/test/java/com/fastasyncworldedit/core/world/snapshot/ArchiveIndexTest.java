@@ -0,0 +1,85 @@
+package com.fastasyncworldedit.core.world.snapshot;
+
+import com.fastasyncworldedit.core.anvil.RegionFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveIndexTest {
+
+    private static final byte[] CHUNK = {1, 2, 3, 4, 5};
+
+    /**
+     * A region file containing only chunk 3,5, stored without compression.
+     */
+    private static byte[] createRegion() {
+        ByteBuffer region = ByteBuffer.allocate(3 * RegionFile.SECTOR_BYTES);
+        region.putInt((3 + (5 << 5)) << 2, 2 << 8 | 1);
+        region.putInt(2 * RegionFile.SECTOR_BYTES, CHUNK.length + 1);
+        region.put(2 * RegionFile.SECTOR_BYTES + 4, (byte) 3);
+        region.put(2 * RegionFile.SECTOR_BYTES + RegionFile.CHUNK_HEADER_SIZE, CHUNK);
+        return region.array();
+    }
+
+    @Test
+    void readsStoredAndDeflatedZipEntries(@TempDir Path dir) throws Exception {
+        byte[] region = createRegion();
+        Path zip = dir.resolve("snapshot.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("world/"));
+            out.putNextEntry(new ZipEntry("world/region/r.0.0.mca"));
+            out.write(region);
+            out.closeEntry();
+            ZipEntry stored = new ZipEntry("world/region/r.1.0.mca");
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(region.length);
+            CRC32 crc = new CRC32();
+            crc.update(region);
+            stored.setCrc(crc.getValue());
+            out.putNextEntry(stored);
+            out.write(region);
+            out.closeEntry();
+        }
+        try (ArchiveIndex index = ArchiveIndex.open(zip)) {
+            assertEquals(2, index.getEntryNames().size());
+            assertNull(index.getRegionFile("world/region/r.2.0.mca", dir));
+            for (String name : index.getEntryNames()) {
+                assertTrue(index.hasChunk(name, 3, 5));
+                assertFalse(index.hasChunk(name, 0, 0));
+                RegionFile file = index.getRegionFile(name, dir.resolve(name));
+                assertSame(file, index.getRegionFile(name, dir.resolve(name)));
+                try (InputStream in = file.getChunkInputStream(3, 5)) {
+                    assertArrayEquals(CHUNK, in.readAllBytes());
+                }
+                try (InputStream in = index.getInputStream(name)) {
+                    assertArrayEquals(region, in.readAllBytes());
+                }
+            }
+            assertTrue(index.getRegionFile("world/region/r.1.0.mca", dir).isMapped());
+        }
+    }
+
+    @Test
+    void rejectsInvalidZip(@TempDir Path dir) throws IOException {
+        Path zip = dir.resolve("invalid.zip");
+        Files.write(zip, new byte[100]);
+        assertThrows(IOException.class, () -> ArchiveIndex.open(zip).close());
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.sk89q.worldedit.function.mask;
+
+import com.fastasyncworldedit.core.function.mask.AdaptiveMaskOrder;
+import com.fastasyncworldedit.core.function.mask.RandomMask;
+import com.sk89q.worldedit.math.BlockVector3;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class AdaptiveMaskOrderTest {
+
+    private static final int TESTS = AdaptiveMaskOrder.SAMPLE_INTERVAL * AdaptiveMaskOrder.SAMPLES;
+
+    @Test
+    void intersectionTestsRejectingMaskFirst() {
+        Mask permissive = new SyntheticMask(64, 95);
+        Mask selective = new SyntheticMask(1, 5);
+        MaskIntersection intersection = new MaskIntersection(permissive, selective);
+        for (int i = 0; i < TESTS; i++) {
+            intersection.test(BlockVector3.at(i, i >> 8, i >> 4));
+        }
+        assertSame(selective, intersection.order.getMasks()[0]);
+        // The set order is kept for optimizations
+        assertArrayEquals(new Mask[]{permissive, selective}, intersection.getMasksArray());
+    }
+
+    @Test
+    void unionTestsAcceptingMaskFirst() {
+        Mask rare = new SyntheticMask(64, 5);
+        Mask common = new SyntheticMask(1, 95);
+        MaskUnion union = new MaskUnion(rare, common);
+        for (int i = 0; i < TESTS; i++) {
+            union.test(BlockVector3.at(i, i >> 8, i >> 4));
+        }
+        assertSame(common, union.order.getMasks()[0]);
+    }
+
+    @Test
+    void resultsDoNotChange() {
+        Mask a = new SyntheticMask(8, 60);
+        Mask b = new SyntheticMask(1, 30);
+        Mask c = new SyntheticMask(32, 80);
+        MaskIntersection intersection = new MaskIntersection(a, b, c);
+        MaskUnion union = new MaskUnion(a, b, c);
+        for (int i = 0; i < TESTS * 2; i++) {
+            BlockVector3 pos = BlockVector3.at(i, i >> 8, i >> 4);
+            assertEquals(a.test(pos) && b.test(pos) && c.test(pos), intersection.test(pos));
+            assertEquals(a.test(pos) || b.test(pos) || c.test(pos), union.test(pos));
+        }
+    }
+
+    @Test
+    void statefulMasksAreNotReordered() {
+        MaskIntersection intersection = new MaskIntersection(new SyntheticMask(1, 50), new RandomMask(0.5));
+        assertNull(intersection.order);
+    }
+
+    /**
+     * Deterministic mask accepting a percentage of positions after hashing them a number of times.
+     */
+    private static final class SyntheticMask extends AbstractMask {
+
+        private final int cost;
+        private final int percentage;
+
+        private SyntheticMask(int cost, int percentage) {
+            this.cost = cost;
+            this.percentage = percentage;
+        }
+
+        @Override
+        public boolean test(BlockVector3 vector) {
+            int hash = vector.hashCode();
+            for (int i = 0; i < cost; i++) {
+                hash = hash * 0x9E3779B1 + i;
+                hash ^= hash >>> 15;
+            }
+            return Math.floorMod(hash, 100) < percentage;
+        }
+
+        @Override
+        public boolean isStateless() {
+            return true;
+        }
+
+        @Override
+        public Mask copy() {
+            return this;
+        }
+
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.sk89q.worldedit.math.convolution;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+@DisplayName("A height map filter")
+public class HeightMapFilterTest {
+
+    @Test
+    @DisplayName("applies a gaussian kernel as two 1D passes with the result of the 2D kernel")
+    void separableGaussianMatchesFullKernel() {
+        int width = 37;
+        int height = 23;
+        float[] data = new float[width * height];
+        Random random = new Random(42);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextInt(128);
+        }
+        GaussianKernel gaussian = new GaussianKernel(5, 1.0);
+        // A plain kernel with the same data is always applied in 2D
+        Kernel full = new Kernel(gaussian.getWidth(), gaussian.getHeight(), gaussian.getKernelData(null));
+
+        float[] expected = new HeightMapFilter(full).filter(data, width, height, 0.5F);
+        float[] actual = new HeightMapFilter(gaussian).filter(data, width, height, 0.5F);
+
+        assertArrayEquals(expected, actual, 1e-3F);
+    }
+
+}